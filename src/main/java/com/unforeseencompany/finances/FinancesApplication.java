@@ -1,11 +1,18 @@
 package com.unforeseencompany.finances;
 
+import com.unforeseencompany.finances.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories
+@EnableScheduling
+@ConfigurationPropertiesScan
+@ImportRuntimeHints(NativeHints.class)
 public class FinancesApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,29 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the monthly interest and fee accrual run.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.accrual")
+public class AccrualProperties {
+
+    /**
+     * Number of accounts accrued by each transaction.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Number of chunks accrued concurrently. Each one holds a database connection while it runs.
+     */
+    private int parallelism = 4;
+
+    /**
+     * Days the annual rates are spread over; each day accrues its closing balance times the rate over this.
+     */
+    private int daysInYear = 365;
+}
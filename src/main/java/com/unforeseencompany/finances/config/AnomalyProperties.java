@@ -0,0 +1,58 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the duplicate and outlier detection on new cash flows.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.anomaly")
+public class AnomalyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Whether a probable duplicate is refused rather than only flagged.
+     */
+    private boolean rejectDuplicates = false;
+
+    /**
+     * How many days apart two cash flows may be dated and still be duplicates.
+     */
+    private int duplicateWindowDays = 2;
+
+    /**
+     * Cash flows remembered per account for the duplicate check; between one and two times this many of the
+     * latest ones are checked against.
+     */
+    private int recentCapacity = 512;
+
+    /**
+     * Rate of new cash flows wrongly flagged as duplicates. The filters are sized so that checking every date of
+     * the window against both generations stays within it: about 15 bits per cash flow at 1% and 2 days.
+     */
+    private double falsePositiveRate = 0.01;
+
+    /**
+     * How many standard deviations from the account's mean, on a logarithmic scale, make an amount an outlier.
+     */
+    private double outlierThreshold = 3.0;
+
+    /**
+     * Cash flows of a type an account needs before its amounts of that type are judged.
+     */
+    private int minSamples = 20;
+
+    /**
+     * Latest cash flows of an account read to build its sketch the first time it gets a cash flow.
+     */
+    private int seedSize = 500;
+
+    /**
+     * Accounts with a sketch in memory; past this, sketches are dropped and rebuilt when needed.
+     */
+    private int maxAccounts = 100_000;
+}
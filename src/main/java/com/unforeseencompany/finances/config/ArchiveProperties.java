@@ -0,0 +1,19 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the archival of old transactions.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.archive")
+public class ArchiveProperties {
+
+    /**
+     * Number of most recent years, including the current one, that are never archived.
+     */
+    private int retainedYears = 2;
+}
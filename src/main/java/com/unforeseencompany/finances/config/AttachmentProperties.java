@@ -0,0 +1,42 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the receipt and invoice attachments.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.attachments")
+public class AttachmentProperties {
+
+    /**
+     * Directory the files are stored in, one subdirectory per tenant.
+     */
+    private Path directory = Path.of("data", "attachments");
+
+    /**
+     * Largest file accepted; an upload is stopped as soon as it goes past it.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(25);
+
+    /**
+     * Content types accepted, either exact or ending with /* for a whole family. Families are best avoided:
+     * image/* takes SVG, which is downloaded rather than shown, as it can carry script.
+     */
+    private List<String> allowedContentTypes = List.of("image/jpeg", "image/png", "image/gif", "image/webp",
+            "application/pdf");
+
+    /**
+     * How long a stored file with no attachment left is kept before it is deleted, which covers the uploads
+     * whose metadata is not committed yet.
+     */
+    private Duration orphanGracePeriod = Duration.ofHours(1);
+}
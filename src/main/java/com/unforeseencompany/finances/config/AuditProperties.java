@@ -0,0 +1,53 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the audit trail of accounts and transactions.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.audit")
+public class AuditProperties {
+
+    /**
+     * Whether changes are recorded.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of entries waiting to be written. When it is full, a committing request waits up to
+     * offer-timeout for room, and the entries are dropped after that.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * How long a committing request waits for room in a full queue.
+     */
+    private Duration offerTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Maximum number of entries written per statement and transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of times a batch that failed is written again as a whole. After that its entries are written one by
+     * one, and those that still fail for a reason other than the database being unreachable are dead-lettered.
+     */
+    private int maxRetries = 5;
+
+    /**
+     * Delay between two writes of the queued entries.
+     */
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    /**
+     * Maximum number of entries a history page returns.
+     */
+    private int maxPageSize = 500;
+}
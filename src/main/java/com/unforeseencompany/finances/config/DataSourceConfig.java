@@ -0,0 +1,79 @@
+package com.unforeseencompany.finances.config;
+
+import com.unforeseencompany.finances.datasource.RecentWriteTracker;
+import com.unforeseencompany.finances.datasource.ReplicaRoutingDataSource;
+import com.unforeseencompany.finances.datasource.SlowQueryListener;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import net.ttddyy.observation.tracing.DataSourceObservationListener;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the primary data source from the spring.datasource properties and, in front of it,
+ * the data source that routes read-only transactions to the replicas.
+ * <p>
+ * Every statement is observed on its way to the routing data source: it gets a tracing span with the rows it
+ * read or changed, and is written to the slow query log if it ran for too long.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, DataSourceProperties dataSourceProperties,
+                                                             ReplicaProperties replicaProperties, RecentWriteTracker recentWriteTracker) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = replicaProperties.getReplicas().get(i);
+
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.add(new ReplicaRoutingDataSource.Replica(dataSource.getPoolName(), dataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaProperties, recentWriteTracker);
+    }
+
+    /**
+     * The data source used by JPA. Connections are only fetched on the first statement, once the
+     * transaction's read-only flag is known to the routing data source; the statements are observed below
+     * the lazy proxy for the same reason.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, ObservationRegistry observationRegistry,
+                                 TracingProperties tracingProperties) {
+        DataSourceObservationListener observationListener = new DataSourceObservationListener(observationRegistry);
+        DataSource observedDataSource = ProxyDataSourceBuilder.create(replicaRoutingDataSource)
+                .name("finances")
+                .listener(observationListener)
+                .methodListener(observationListener)
+                // result sets are proxied so their spans count the rows read
+                .proxyResultSet()
+                .listener(new SlowQueryListener(tracingProperties))
+                .build();
+        return new LazyConnectionDataSourceProxy(observedDataSource);
+    }
+}
@@ -0,0 +1,19 @@
+package com.unforeseencompany.finances.config;
+
+import com.unforeseencompany.finances.migration.V2_1__UpgradePreMigrationSchema;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the Java migrations, which live outside db/migration and would not be found by scanning it,
+ * nor by any scanning in the native image.
+ */
+@Configuration
+public class FlywayConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer javaMigrations() {
+        return configuration -> configuration.javaMigrations(new V2_1__UpgradePreMigrationSchema());
+    }
+}
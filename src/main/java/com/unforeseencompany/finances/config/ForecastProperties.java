@@ -0,0 +1,34 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the balance forecast.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.forecast")
+public class ForecastProperties {
+
+    /**
+     * How many months of cash flows are searched for recurring series.
+     */
+    private int lookbackMonths = 24;
+
+    /**
+     * Minimum number of past cash flows for a series to be treated as recurring.
+     */
+    private int minOccurrences = 3;
+
+    /**
+     * Maximum number of months a forecast may project.
+     */
+    private int maxMonths = 60;
+
+    /**
+     * Number of threads of the fork-join pool that forecasts the accounts.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+}
@@ -0,0 +1,65 @@
+package com.unforeseencompany.finances.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.unforeseencompany.finances.tracing.ObservedJsonHttpMessageConverter;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Serialization settings for large responses.
+ * <p>
+ * Blackbird replaces Jackson's reflective property access with generated lambdas; Spring Boot registers it
+ * with every mapper it builds. Clients may also ask for Smile or CBOR through the Accept header; those
+ * converters are rebuilt from Boot's mapper builder, so they share its modules and settings, and stay
+ * after the JSON one so that clients accepting anything still get JSON. The JSON converter is replaced by one
+ * that observes each response it writes, for tracing.
+ * <p>
+ * A native image cannot define classes at run time, so Blackbird is left out there and Jackson keeps its
+ * reflective access, backed by the hints in {@link NativeHints}.
+ */
+@Configuration
+public class JacksonConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    public JacksonConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                         ObjectProvider<ObservationRegistry> observationRegistry) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Bean
+    public static Module blackbirdModule() {
+        // checked when the bean is created, since conditions are evaluated once at build time in a native image
+        return NativeDetector.inNativeImage() ? new SimpleModule("blackbird-disabled") : new BlackbirdModule();
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+        converters.replaceAll(converter -> converter.getClass() == MappingJackson2HttpMessageConverter.class
+                ? new ObservedJsonHttpMessageConverter(((MappingJackson2HttpMessageConverter) converter).getObjectMapper(), registry)
+                : converter);
+        converters.removeIf(converter -> converter instanceof MappingJackson2SmileHttpMessageConverter
+                || converter instanceof MappingJackson2CborHttpMessageConverter);
+        converters.add(new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.getObject().build().copyWith(new SmileFactory())));
+        converters.add(new MappingJackson2CborHttpMessageConverter(objectMapperBuilder.getObject().build().copyWith(new CBORFactory())));
+    }
+}
@@ -0,0 +1,41 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the server-sent events feed of ledger changes.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.events")
+public class LedgerEventProperties {
+
+    /**
+     * Number of recent events kept in memory to resume a stream by Last-Event-ID.
+     */
+    private int replaySize = 1024;
+
+    /**
+     * Maximum number of events waiting to be sent to a single subscriber before it is disconnected.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * Longest a single write to a subscriber may take before the subscriber is disconnected.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Lifetime of a stream before the client has to reconnect.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Interval between keep-alive comments sent to idle streams.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+}
@@ -0,0 +1,55 @@
+package com.unforeseencompany.finances.config;
+
+import com.unforeseencompany.finances.dto.AccountDTO;
+import com.unforeseencompany.finances.dto.accrual.AccrualRunReportDTO;
+import com.unforeseencompany.finances.dto.audit.AuditHistoryDTO;
+import com.unforeseencompany.finances.dto.forecast.AccountForecastDTO;
+import com.unforeseencompany.finances.dto.group.GroupPeriodNetDTO;
+import com.unforeseencompany.finances.dto.reconciliation.ReconciliationReportDTO;
+import com.unforeseencompany.finances.dto.timeseries.TimeSeriesDTO;
+import com.unforeseencompany.finances.dto.transaction.CashFlowDTO;
+import com.unforeseencompany.finances.dto.transaction.TransactionRowDTO;
+import com.unforeseencompany.finances.dto.transaction.TransferDTO;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.accrual.AccrualPosting;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import com.unforeseencompany.finances.model.archive.ArchivedYear;
+import com.unforeseencompany.finances.model.attachment.Attachment;
+import com.unforeseencompany.finances.model.group.AccountGroup;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Hints for the GraalVM native image, on top of those Spring's AOT processing derives from the beans,
+ * entities and controller signatures.
+ * <p>
+ * Covers what it cannot see: the listings returned as {@code List<?>}, the ledger event payloads written
+ * to the event stream and the outbox, the Ehcache provider and configuration, which are named in
+ * properties, and the script the schema upgrade reads.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final Class<?>[] SERIALIZED_TYPES = {
+            Account.class, CashFlow.class, Transfer.class, ArchivedYear.class, TransactionRowDTO.class,
+            AccountDTO.class, CashFlowDTO.class, TransferDTO.class, AccountForecastDTO.class,
+            ReconciliationReportDTO.class, TimeSeriesDTO.class, AuditHistoryDTO.class, AccountGroup.class,
+            GroupPeriodNetDTO.class, Attachment.class, AccrualRule.class, AccrualPosting.class,
+            AccrualRunReportDTO.class, LedgerEventTypeEnum.class
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), SERIALIZED_TYPES);
+
+        hints.reflection().registerType(TypeReference.of("org.ehcache.jsr107.EhcacheCachingProvider"),
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerPattern("ehcache.xml");
+        hints.resources().registerPattern("db/upgrade/*.sql");
+    }
+}
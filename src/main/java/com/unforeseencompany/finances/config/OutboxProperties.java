@@ -0,0 +1,51 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the transactional outbox and of the poller that publishes it.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether the poller publishes outbox events. Events are always written to the outbox table.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Sink the events are published to: "log" or "file".
+     */
+    private String sink = "log";
+
+    /**
+     * Maximum number of events published per batch.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of batches published per poll.
+     */
+    private int maxBatchesPerPoll = 20;
+
+    /**
+     * How long a gap in the event IDs is treated as a transaction still in flight before it is skipped.
+     */
+    private Duration gapTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Whether events are deleted from the outbox once the checkpoint has moved past them.
+     */
+    private boolean deletePublished = true;
+
+    /**
+     * File the events are appended to when the file sink is used, one JSON document per line.
+     */
+    private String filePath = "outbox-events.jsonl";
+}
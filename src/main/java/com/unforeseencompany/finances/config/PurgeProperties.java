@@ -0,0 +1,36 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the job that removes soft-deleted accounts and transactions for good.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.purge")
+public class PurgeProperties {
+
+    /**
+     * How long deleted rows are kept before they are purged.
+     */
+    private Duration retention = Duration.ofDays(1);
+
+    /**
+     * Maximum number of rows removed per statement and transaction.
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Pause between two batches, so the purge leaves room to the requests and to the replicas.
+     */
+    private Duration pause = Duration.ofMillis(200);
+
+    /**
+     * Longest a run may take; the rest is left to the next run, so the purge stays off-peak.
+     */
+    private Duration maxDuration = Duration.ofHours(2);
+}
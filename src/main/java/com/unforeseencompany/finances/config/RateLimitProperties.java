@@ -0,0 +1,83 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the per-client rate limits. Each client has one token bucket per class of request.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether requests are rate limited at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the API client, honoured only on requests from one of the trusted proxies, which are
+     * expected to set it from the client's credentials. Any other request is limited by its IP address.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * IP addresses of the proxies allowed to name the client in the client header. Behind a proxy that
+     * forwards the client's address instead, set server.forward-headers-strategy so requests are limited by it.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * Maximum number of clients with a bucket of their own per class of request; clients beyond it share one.
+     */
+    private int maxClients = 100_000;
+
+    /**
+     * Buckets untouched for this long are dropped; they would have refilled completely anyway.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * Budget of the GET and HEAD requests.
+     */
+    private Budget read = new Budget(200, Duration.ofMillis(10));
+
+    /**
+     * Budget of the requests that create, update or delete a single resource.
+     */
+    private Budget write = new Budget(50, Duration.ofMillis(50));
+
+    /**
+     * Budget of the requests that delete, archive or repair many resources at once.
+     */
+    private Budget bulk = new Budget(3, Duration.ofMinutes(1));
+
+    @Getter
+    @Setter
+    public static class Budget {
+
+        /**
+         * Maximum number of requests a client may send in a burst.
+         */
+        private int capacity;
+
+        /**
+         * Time to regain one request once the burst is spent.
+         */
+        private Duration refillPeriod;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the balance reconciliation job.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.reconciliation")
+public class ReconciliationProperties {
+
+    /**
+     * Number of accounts verified by each aggregate query.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Number of chunks verified concurrently. Each one holds a database connection while it runs.
+     */
+    private int parallelism = 4;
+}
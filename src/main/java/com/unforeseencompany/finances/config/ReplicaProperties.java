@@ -0,0 +1,60 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the read replicas that serve read-only transactions.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.datasource")
+public class ReplicaProperties {
+
+    /**
+     * Read replicas of the primary database. Without replicas every transaction runs on the primary.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * Replication lag above which a replica stops serving reads until it catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * How often the replication lag of each replica is checked.
+     */
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /**
+     * Whether a tenant's reads go to the primary for max-lag after one of its writes, so it always sees its own changes.
+     */
+    private boolean readYourWrites = true;
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        /**
+         * Defaults to the primary's username.
+         */
+        private String username;
+
+        /**
+         * Defaults to the primary's password.
+         */
+        private String password;
+
+        /**
+         * Maximum number of pooled connections to the replica.
+         */
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,23 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of how requests are assigned to tenants.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.tenant")
+public class TenantProperties {
+
+    /**
+     * IP addresses of the proxies allowed to name the tenant in the X-Tenant-Id header, which they are expected to
+     * set from the client's credentials. Requests from any other address are rejected, as are requests naming no tenant.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+}
@@ -0,0 +1,24 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the balance time series.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.timeseries")
+public class TimeSeriesProperties {
+
+    /**
+     * Maximum number of account series kept in memory across all tenants.
+     */
+    private int cacheSize = 10_000;
+
+    /**
+     * Maximum number of days a series request may span.
+     */
+    private int maxDays = 36_525;
+}
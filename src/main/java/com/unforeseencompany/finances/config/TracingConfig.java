@@ -0,0 +1,23 @@
+package com.unforeseencompany.finances.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span exporters besides the OTLP one Spring Boot sets up from the management.otlp.tracing properties.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Writes every finished span to the log, for when no collector runs.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "finances.tracing", name = "log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
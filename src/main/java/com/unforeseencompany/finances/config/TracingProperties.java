@@ -0,0 +1,41 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings of the tracing spans and of the slow query log.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.tracing")
+public class TracingProperties {
+
+    /**
+     * Statements that run for longer are written to the slow query log, with their bind parameters.
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(500);
+
+    /**
+     * File the slow query log is written to, besides the console.
+     */
+    private String slowQueryLogFile = "logs/slow-queries.log";
+
+    /**
+     * Most parameter sets logged for a slow batch; the rest are only counted.
+     */
+    private int maxLoggedParameterSets = 10;
+
+    /**
+     * Longest bind parameter value logged; longer ones are cut.
+     */
+    private int maxParameterLength = 200;
+
+    /**
+     * Whether the finished spans are also written to the log, for when no collector runs.
+     */
+    private boolean logSpans = false;
+}
@@ -3,12 +3,15 @@ package com.unforeseencompany.finances.controller;
 import com.unforeseencompany.finances.dto.AccountDTO;
 import com.unforeseencompany.finances.model.Account;
 import com.unforeseencompany.finances.service.AccountService;
+import com.unforeseencompany.finances.service.LedgerVersionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,15 +28,24 @@ public class AccountController {
 
     private final AccountService accountService;
 
+    private final LedgerVersionService ledgerVersionService;
+
     /**
      * Retrieves all registered accounts.
      *
-     * @return The HTTP response containing the list of registered accounts, or an error status if an internal error occurs.
+     * @param webRequest The current request, used to evaluate the If-None-Match header.
+     * @return The HTTP response containing the list of registered accounts, status 304 Not Modified if the client's copy is current,
+     * or an error status if an internal error occurs.
      */
     @GetMapping
-    public ResponseEntity<List<Account>> getAllAccounts() {
+    public ResponseEntity<List<Account>> getAllAccounts(WebRequest webRequest) {
         try {
-            return ResponseEntity.ok(accountService.getAllAccounts());
+            String eTag = ledgerVersionService.ledgerETag();
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
+            return ResponseEntity.ok().eTag(eTag).body(accountService.getAllAccounts());
         } catch (Exception e) {
             log.error("Error obtaining the list of accounts: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -43,14 +55,22 @@ public class AccountController {
     /**
      * Retrieves an account based on the provided ID.
      *
-     * @param id The ID of the account to retrieve.
-     * @return The HTTP response containing the retrieved account, or an error status if the account is not found or an internal error occurs.
+     * @param id         The ID of the account to retrieve.
+     * @param webRequest The current request, used to evaluate the If-None-Match header.
+     * @return The HTTP response containing the retrieved account, status 304 Not Modified if the client's copy is current,
+     * or an error status if the account is not found or an internal error occurs.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Account> findAccountById(@PathVariable Integer id) {
+    public ResponseEntity<Account> findAccountById(@PathVariable Integer id, WebRequest webRequest) {
         try {
+            String eTag = ledgerVersionService.accountETag(id);
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
             Optional<Account> accountOptional = accountService.findAccountById(id);
-            return accountOptional.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+            return accountOptional.map(account -> ResponseEntity.ok().eTag(eTag).body(account))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
         } catch (Exception e) {
             log.error("Error obtaining account: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
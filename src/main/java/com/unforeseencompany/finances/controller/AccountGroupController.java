@@ -0,0 +1,223 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.group.AccountGroupDTO;
+import com.unforeseencompany.finances.dto.group.GroupPeriodNetDTO;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.group.AccountGroup;
+import com.unforeseencompany.finances.service.AccountGroupService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controller to organize accounts in a tree of groups with rolled-up totals.
+ */
+@RestController
+@RequestMapping("/groups")
+@RequiredArgsConstructor
+public class AccountGroupController {
+
+    Logger log = LoggerFactory.getLogger(AccountGroupController.class);
+
+    private final AccountGroupService accountGroupService;
+
+    /**
+     * Endpoint to list every group with its rolled-up balance.
+     *
+     * @return The HTTP response containing the groups.
+     */
+    @GetMapping()
+    public ResponseEntity<List<AccountGroup>> getAllGroups() {
+        try {
+            return ResponseEntity.ok(accountGroupService.getAllGroups());
+        } catch (Exception e) {
+            log.error("Error retrieving groups: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to retrieve a group with the sum of the balances of every account in it or below it.
+     *
+     * @param id The ID of the group.
+     * @return The HTTP response containing the group, or status 404 Not Found if it does not exist.
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<AccountGroup> findGroupById(@PathVariable Integer id) {
+        try {
+            Optional<AccountGroup> groupOptional = accountGroupService.findGroupById(id);
+            return groupOptional.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            log.error("Error obtaining group: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to retrieve a group's net change per month.
+     *
+     * @param id   The ID of the group.
+     * @param from The first month, twelve months before the last one by default.
+     * @param to   The last month, the current one by default.
+     * @return The HTTP response containing the net change of every month with transactions, or status 400 Bad Request
+     * if the group does not exist or the range is invalid.
+     */
+    @GetMapping("/{id}/periods")
+    public ResponseEntity<List<GroupPeriodNetDTO>> getPeriodNets(@PathVariable Integer id,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.withDayOfMonth(1).minusMonths(11);
+            return ResponseEntity.ok(accountGroupService.getPeriodNets(id, start, end));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid group period request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error retrieving the group periods: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to create a group.
+     *
+     * @param accountGroupDTO The name of the group and the group it belongs to, if any.
+     * @return The HTTP response containing the created group, or status 400 Bad Request if the parent does not exist.
+     */
+    @PostMapping()
+    public ResponseEntity<AccountGroup> createGroup(@Valid @RequestBody AccountGroupDTO accountGroupDTO) {
+        try {
+            return ResponseEntity.ok(accountGroupService.saveGroup(accountGroupDTO));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating group: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error creating group: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to rename a group or move it, with everything below it, under another group.
+     *
+     * @param id              The ID of the group.
+     * @param accountGroupDTO The new name and parent of the group.
+     * @return The HTTP response containing the updated group, status 404 Not Found if it does not exist,
+     * status 400 Bad Request if the parent does not exist or is below the group, or status 409 Conflict if
+     * the group or the parent was moved or deleted meanwhile.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<AccountGroup> updateGroup(@PathVariable Integer id, @Valid @RequestBody AccountGroupDTO accountGroupDTO) {
+        try {
+            AccountGroup updatedGroup = accountGroupService.updateGroup(id, accountGroupDTO);
+            if (updatedGroup != null) {
+                return ResponseEntity.ok(updatedGroup);
+            } else {
+                log.error("Group not found with id: " + id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Error updating group: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.error("Error updating group: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error updating group: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to delete an empty group.
+     *
+     * @param id The ID of the group.
+     * @return The HTTP response with status 204 No Content if the group was deleted, status 404 Not Found if it does
+     * not exist, or status 409 Conflict if groups or accounts are still in it.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGroupById(@PathVariable Integer id) {
+        try {
+            if (accountGroupService.deleteGroupById(id)) {
+                return ResponseEntity.noContent().build();
+            } else {
+                log.error("Group not found with id: " + id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalStateException e) {
+            log.error("Error deleting group: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error deleting group: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to put an account in a group, taking it out of the group it was in.
+     *
+     * @param id        The ID of the group.
+     * @param accountId The ID of the account.
+     * @return The HTTP response containing the account, status 404 Not Found if the account does not exist,
+     * or status 400 Bad Request if the group does not exist.
+     */
+    @PutMapping("/{id}/accounts/{accountId}")
+    public ResponseEntity<Account> addAccount(@PathVariable Integer id, @PathVariable Integer accountId) {
+        return assignAccount(accountId, id);
+    }
+
+    /**
+     * Endpoint to take an account out of its group.
+     *
+     * @param accountId The ID of the account.
+     * @return The HTTP response containing the account, or status 404 Not Found if the account does not exist.
+     */
+    @DeleteMapping("/accounts/{accountId}")
+    public ResponseEntity<Account> removeAccount(@PathVariable Integer accountId) {
+        return assignAccount(accountId, null);
+    }
+
+    /**
+     * Endpoint to recompute the totals of every group from the accounts and their transactions.
+     *
+     * @return The HTTP response with status 204 No Content once the totals are rebuilt.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Void> rebuildTotals() {
+        try {
+            accountGroupService.rebuildTotals();
+            return ResponseEntity.noContent().build();
+        } catch (Exception e) {
+            log.error("Error rebuilding group totals: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private ResponseEntity<Account> assignAccount(Integer accountId, Integer groupId) {
+        try {
+            Account account = accountGroupService.assignAccount(accountId, groupId);
+            if (account != null) {
+                return ResponseEntity.ok(account);
+            } else {
+                log.error("Account not found with id: " + accountId);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Error assigning account to group: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error assigning account to group: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
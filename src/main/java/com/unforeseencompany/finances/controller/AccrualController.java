@@ -0,0 +1,192 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.accrual.AccrualRuleDTO;
+import com.unforeseencompany.finances.dto.accrual.AccrualRunReportDTO;
+import com.unforeseencompany.finances.model.accrual.AccrualPosting;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import com.unforeseencompany.finances.service.AccrualService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Controller to manage the interest and fee rules of the accounts and to accrue them.
+ */
+@RestController
+@RequestMapping("/accruals")
+@RequiredArgsConstructor
+public class AccrualController {
+
+    Logger log = LoggerFactory.getLogger(AccrualController.class);
+
+    private final AccrualService accrualService;
+
+    /**
+     * Endpoint to list the accrual rules, optionally only those of one account.
+     *
+     * @param accountId The ID of the account, or none for every rule.
+     * @return The HTTP response containing the rules.
+     */
+    @GetMapping("/rules")
+    public ResponseEntity<List<AccrualRule>> getRules(@RequestParam(required = false) Integer accountId) {
+        try {
+            return ResponseEntity.ok(accountId != null
+                    ? accrualService.listRulesByAccountId(accountId)
+                    : accrualService.getAllRules());
+        } catch (Exception e) {
+            log.error("Error retrieving accrual rules: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to retrieve an accrual rule.
+     *
+     * @param id The ID of the rule.
+     * @return The HTTP response containing the rule, or status 404 Not Found if it does not exist.
+     */
+    @GetMapping("/rules/{id}")
+    public ResponseEntity<AccrualRule> findRuleById(@PathVariable Integer id) {
+        try {
+            Optional<AccrualRule> ruleOptional = accrualService.findRuleById(id);
+            return ruleOptional.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            log.error("Error obtaining accrual rule: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to list what a rule accrued, newest month first.
+     *
+     * @param id The ID of the rule.
+     * @return The HTTP response containing the rule's postings.
+     */
+    @GetMapping("/rules/{id}/postings")
+    public ResponseEntity<List<AccrualPosting>> listPostingsByRuleId(@PathVariable Integer id) {
+        try {
+            return ResponseEntity.ok(accrualService.listPostingsByRuleId(id));
+        } catch (Exception e) {
+            log.error("Error retrieving accrual postings: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to create an accrual rule.
+     *
+     * @param accrualRuleDTO The account, the kind of accrual and its rate or fee.
+     * @return The HTTP response containing the created rule, or status 400 Bad Request if the account does not
+     * exist or the rule is incomplete.
+     */
+    @PostMapping("/rules")
+    public ResponseEntity<AccrualRule> createRule(@Valid @RequestBody AccrualRuleDTO accrualRuleDTO) {
+        try {
+            return ResponseEntity.ok(accrualService.saveRule(accrualRuleDTO));
+        } catch (IllegalArgumentException e) {
+            log.error("Error creating accrual rule: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error creating accrual rule: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to change an accrual rule. The months already accrued are left as they were posted.
+     *
+     * @param id             The ID of the rule.
+     * @param accrualRuleDTO The new account, kind of accrual and rate or fee.
+     * @return The HTTP response containing the updated rule, status 404 Not Found if it does not exist, or
+     * status 400 Bad Request if the account does not exist or the rule is incomplete.
+     */
+    @PutMapping("/rules/{id}")
+    public ResponseEntity<AccrualRule> updateRule(@PathVariable Integer id, @Valid @RequestBody AccrualRuleDTO accrualRuleDTO) {
+        try {
+            AccrualRule updatedRule = accrualService.updateRule(id, accrualRuleDTO);
+            if (updatedRule != null) {
+                return ResponseEntity.ok(updatedRule);
+            } else {
+                log.error("Accrual rule not found with id: " + id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Error updating accrual rule: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error updating accrual rule: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to delete an accrual rule. What it already posted is kept.
+     *
+     * @param id The ID of the rule.
+     * @return The HTTP response with status 204 No Content if the rule was deleted, or status 404 Not Found if it
+     * does not exist.
+     */
+    @DeleteMapping("/rules/{id}")
+    public ResponseEntity<Void> deleteRuleById(@PathVariable Integer id) {
+        try {
+            if (accrualService.deleteRuleById(id)) {
+                return ResponseEntity.noContent().build();
+            } else {
+                log.error("Accrual rule not found with id: " + id);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (Exception e) {
+            log.error("Error deleting accrual rule: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to list everything accrued for a month.
+     *
+     * @param period The month, as 2024-01.
+     * @return The HTTP response containing the month's postings.
+     */
+    @GetMapping("/postings")
+    public ResponseEntity<List<AccrualPosting>> listPostings(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        try {
+            return ResponseEntity.ok(accrualService.listPostings(period));
+        } catch (Exception e) {
+            log.error("Error retrieving accrual postings: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to accrue a month for every rule not accrued for it yet. Running it again for the same month
+     * only accrues the rules a previous run did not get to.
+     *
+     * @param period The month, as 2024-01; the previous month by default.
+     * @return The HTTP response containing the run report, status 400 Bad Request if the month has not ended or
+     * is archived, or status 409 Conflict if an accrual is already running.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<AccrualRunReportDTO> accrue(@RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth period) {
+        try {
+            return ResponseEntity.ok(accrualService.accrue(period != null ? period : YearMonth.now().minusMonths(1)));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid accrual request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.error("Error accruing: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error accruing: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.model.archive.ArchivedYear;
+import com.unforeseencompany.finances.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller to archive the transactions of closed years.
+ */
+@RestController
+@RequestMapping("/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    Logger log = LoggerFactory.getLogger(ArchiveController.class);
+
+    private final ArchiveService archiveService;
+
+    /**
+     * Endpoint to list the archived years.
+     *
+     * @return The HTTP response containing the archived years and the number of transactions archived in each.
+     */
+    @GetMapping()
+    public ResponseEntity<List<ArchivedYear>> getArchivedYears() {
+        try {
+            return ResponseEntity.ok(archiveService.getArchivedYears());
+        } catch (Exception e) {
+            log.error("Error retrieving archived years: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to archive the transactions of every year up to and including the given one.
+     *
+     * @param throughYear The last year to archive. It must be older than the retained years.
+     * @return The HTTP response containing the years archived, status 400 Bad Request if the year is still retained,
+     * or status 409 Conflict if an archival is already running.
+     */
+    @PostMapping()
+    public ResponseEntity<List<ArchivedYear>> archiveThroughYear(@RequestParam Integer throughYear) {
+        try {
+            return ResponseEntity.ok(archiveService.archiveThroughYear(throughYear));
+        } catch (IllegalArgumentException e) {
+            log.error("Error archiving transactions: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.error("Error archiving transactions: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error archiving transactions: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.enums.AttachmentOwnerTypeEnum;
+import com.unforeseencompany.finances.model.attachment.Attachment;
+import com.unforeseencompany.finances.service.AttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/attachments")
+@RequiredArgsConstructor
+public class AttachmentController {
+
+    Logger log = LoggerFactory.getLogger(AttachmentController.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * Content types shown in the browser; anything else, such as SVG or HTML, which can run script on the API's
+     * origin, is only ever downloaded, whatever the accepted types are configured to be.
+     */
+    private static final Set<String> INLINE_CONTENT_TYPES = Set.of("image/jpeg", "image/png", "image/gif",
+            "image/webp", "application/pdf");
+
+    private final AttachmentService attachmentService;
+
+    /**
+     * Endpoint to attach a file to a cash flow or a transfer. The file is the raw request body, typed by the
+     * Content-Type header, and is streamed to disk as it arrives.
+     *
+     * @param ownerType The kind of transaction the file is attached to.
+     * @param ownerId   The ID of the transaction.
+     * @param fileName  The name the file is downloaded under.
+     * @return The HTTP response containing the saved attachment, 413 if the file is too large, or 400 if the
+     * transaction does not exist or the content type is not accepted.
+     */
+    @PostMapping("/{ownerType}/{ownerId}")
+    public ResponseEntity<Attachment> saveAttachment(@PathVariable AttachmentOwnerTypeEnum ownerType,
+                                                     @PathVariable Integer ownerId,
+                                                     @RequestParam(required = false) String fileName,
+                                                     HttpServletRequest request) {
+        try {
+            Attachment attachment = attachmentService.saveAttachment(ownerType, ownerId, fileName,
+                    request.getContentType(), request.getContentLengthLong(), request.getInputStream());
+            return ResponseEntity.created(URI.create("/attachments/" + attachment.getId())).body(attachment);
+        } catch (MaxUploadSizeExceededException e) {
+            log.error("Attachment too large: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid attachment: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error saving attachment: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to list the files attached to a cash flow or a transfer.
+     *
+     * @param ownerType The kind of transaction.
+     * @param ownerId   The ID of the transaction.
+     * @return The HTTP response containing the attachments, oldest first.
+     */
+    @GetMapping("/{ownerType}/{ownerId}")
+    public ResponseEntity<List<Attachment>> listAttachments(@PathVariable AttachmentOwnerTypeEnum ownerType,
+                                                            @PathVariable Integer ownerId) {
+        try {
+            return ResponseEntity.ok(attachmentService.listAttachments(ownerType, ownerId));
+        } catch (Exception e) {
+            log.error("Error listing attachments: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to download an attached file, whole or as a single byte range.
+     * <p>
+     * The ETag is the SHA-256 of the content, which never changes, so clients can revalidate and resume
+     * downloads with If-None-Match and If-Range. The bytes go from the file to the socket without passing
+     * through the heap: with Tomcat's sendfile when the connector supports it, otherwise with
+     * {@link FileChannel#transferTo}. Only raster images and PDFs are sent inline, and never sniffed.
+     *
+     * @param id The ID of the attachment.
+     */
+    @GetMapping("/{id}")
+    public void downloadAttachment(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            Optional<Attachment> attachmentOptional = attachmentService.findAttachment(id);
+            if (attachmentOptional.isEmpty()) {
+                log.error("Attachment not found with id: " + id);
+                response.setStatus(HttpStatus.NOT_FOUND.value());
+                return;
+            }
+            Attachment attachment = attachmentOptional.get();
+
+            String etag = "\"" + attachment.getSha256() + "\"";
+            if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+                return;
+            }
+
+            long size = attachment.getSize();
+            long start = 0;
+            long end = size;
+            String range = request.getHeader(HttpHeaders.RANGE);
+            String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+            // a range list or a stale If-Range gets the whole file, as the RFC allows
+            if (range != null && range.indexOf(',') < 0 && (ifRange == null || ifRange.equals(etag))) {
+                long[] bounds = parseRange(range, size);
+                if (bounds == null) {
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+            }
+
+            response.setContentType(attachment.getContentType());
+            response.setContentLengthLong(end - start);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            ContentDisposition.Builder disposition = isInline(attachment.getContentType())
+                    ? ContentDisposition.inline() : ContentDisposition.attachment();
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, disposition
+                    .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+
+            Path file = attachmentService.contentPath(attachment);
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && end > start) {
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end);
+                return;
+            }
+            transfer(file, start, end, response);
+        } catch (Exception e) {
+            log.error("Error downloading attachment: " + e.getMessage());
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
+        }
+    }
+
+    /**
+     * Endpoint to delete an attachment.
+     *
+     * @param id The ID of the attachment to delete.
+     * @return The HTTP response indicating the success or failure of the deletion.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long id) {
+        try {
+            attachmentService.deleteAttachment(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            log.error("Attachment not found with id: " + id);
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("Error deleting attachment: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    private boolean isInline(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return INLINE_CONTENT_TYPES.contains((mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase(Locale.ROOT));
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void transfer(Path file, long start, long end, HttpServletResponse response) throws IOException {
+        try (FileChannel input = FileChannel.open(file)) {
+            WritableByteChannel output = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += input.transferTo(position, end - position, output);
+            }
+        }
+    }
+
+    /**
+     * Parses a single byte range: first-last, first- or -suffix length.
+     *
+     * @return The first and the last-exclusive position of the range, or null if it is not satisfiable.
+     */
+    private long[] parseRange(String range, long size) {
+        if (!range.startsWith("bytes=")) {
+            return null;
+        }
+        String spec = range.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || size == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, size - suffix), size};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size : Math.min(Long.parseLong(last) + 1, size);
+            if (start >= size || end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.audit.AuditHistoryDTO;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.service.AuditService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to read the history of changes to accounts and transactions.
+ * Changes are written in the background and show up here shortly after the request that made them.
+ */
+@RestController
+@RequestMapping("/audit")
+@RequiredArgsConstructor
+public class AuditController {
+
+    Logger log = LoggerFactory.getLogger(AuditController.class);
+
+    private final AuditService auditService;
+
+    /**
+     * Endpoint to list every change, newest first.
+     *
+     * @param before The "nextBefore" of the previous page, to list the changes older than it.
+     * @param limit  The maximum number of changes returned.
+     * @return The HTTP response containing the page of changes, or status 400 Bad Request if the limit is invalid.
+     */
+    @GetMapping()
+    public ResponseEntity<AuditHistoryDTO> getHistory(@RequestParam(required = false) Long before,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(auditService.getHistory(null, null, before, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid audit history request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error retrieving the audit history: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to list the changes to one account, cash flow or transfer, newest first.
+     *
+     * @param entityType ACCOUNT, CASH_FLOW or TRANSFER.
+     * @param id         The ID of the record.
+     * @param before     The "nextBefore" of the previous page, to list the changes older than it.
+     * @param limit      The maximum number of changes returned.
+     * @return The HTTP response containing the page of changes, or status 400 Bad Request if the limit is invalid.
+     */
+    @GetMapping("/{entityType}/{id}")
+    public ResponseEntity<AuditHistoryDTO> getEntityHistory(@PathVariable AuditEntityTypeEnum entityType,
+                                                            @PathVariable Integer id,
+                                                            @RequestParam(required = false) Long before,
+                                                            @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(auditService.getHistory(entityType, id, before, limit));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid audit history request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error retrieving the audit history of " + entityType + " " + id + ": " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
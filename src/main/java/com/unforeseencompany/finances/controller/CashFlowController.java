@@ -7,9 +7,12 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -62,14 +65,20 @@ public class CashFlowController {
 
     /**
      * Endpoint to list all cash flow transactions based on the account name.
+     * Archived transactions are only included when the date range reaches them.
      *
      * @param accountName The name of the account to filter transactions.
+     * @param from        Optional first transaction date of the listing (inclusive).
+     * @param to          Optional last transaction date of the listing (inclusive).
      * @return The HTTP response containing the list of cash flow transactions for the specified account name.
      */
     @GetMapping("/accountName/{accountName}")
-    public ResponseEntity<List<CashFlow>> listCashFlowTransactionsByAccountName(@PathVariable String accountName) {
+    public ResponseEntity<List<CashFlow>> listCashFlowTransactionsByAccountName(
+            @PathVariable String accountName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            return ResponseEntity.ok(cashFlowService.listCashFlowTransactionsByAccountName(accountName));
+            return ResponseEntity.ok(cashFlowService.listCashFlowTransactionsByAccountName(accountName, from, to));
         } catch (IllegalArgumentException e) {
             log.error("Account not found with name: " + accountName);
             return ResponseEntity.badRequest().build();
@@ -83,7 +92,8 @@ public class CashFlowController {
      * Endpoint to save cash flow transactions (income or expense).
      *
      * @param cashFlowDTO DTO containing the details of the cash flow transaction.
-     * @return The HTTP response containing the created transaction, or an error status if the parameters are incorrect.
+     * @return The HTTP response containing the created transaction, with the anomalies found in it if any, an error
+     * status if the parameters are incorrect, or a conflict if it is a probable duplicate and duplicates are rejected.
      */
     @PostMapping()
     public ResponseEntity<CashFlow> saveCashFlowTransaction(@Valid @RequestBody CashFlowDTO cashFlowDTO) {
@@ -92,6 +102,9 @@ public class CashFlowController {
         } catch (IllegalArgumentException e) {
             log.error("Error generating cash flow transaction: " + e.getMessage());
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            log.error("Error generating cash flow transaction: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             log.error("Error generating cash flow transaction: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -131,7 +144,7 @@ public class CashFlowController {
      *
      * @param id The ID of the cash flow transaction to be deleted.
      * @return The HTTP response indicating the operation result. Returns status 204 No Content if the transaction is found and deleted,
-     * or status 404 Not Found if the transaction is not found.
+     * status 404 Not Found if the transaction is not found, or status 400 Bad Request if it is dated in an archived year.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCashFlowById(@PathVariable Integer id) {
@@ -142,6 +155,9 @@ public class CashFlowController {
                 log.error("Cash Flow transaction not found with id: " + id);
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            log.error("Error deleting Cash Flow transaction: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error deleting Cash Flow transaction: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -0,0 +1,67 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.forecast.AccountForecastDTO;
+import com.unforeseencompany.finances.service.ForecastService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller to project account balances into the coming months.
+ */
+@RestController
+@RequestMapping("/forecast")
+@RequiredArgsConstructor
+public class ForecastController {
+
+    Logger log = LoggerFactory.getLogger(ForecastController.class);
+
+    private final ForecastService forecastService;
+
+    /**
+     * Endpoint to forecast the balance of every account.
+     *
+     * @param months Number of month ends to project, starting with the current month.
+     * @return The HTTP response containing the forecast of each account, or status 400 Bad Request if the number of months is out of range.
+     */
+    @GetMapping()
+    public ResponseEntity<List<AccountForecastDTO>> forecastAllAccounts(@RequestParam(defaultValue = "12") int months) {
+        try {
+            return ResponseEntity.ok(forecastService.forecastAllAccounts(months));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid forecast request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error forecasting balances: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to forecast the balance of a single account.
+     *
+     * @param id     The ID of the account.
+     * @param months Number of month ends to project, starting with the current month.
+     * @return The HTTP response containing the forecast, or status 400 Bad Request if the account does not exist or the number of months is out of range.
+     */
+    @GetMapping("/account/{id}")
+    public ResponseEntity<AccountForecastDTO> forecastAccount(@PathVariable Integer id, @RequestParam(defaultValue = "12") int months) {
+        try {
+            return ResponseEntity.ok(forecastService.forecastAccount(id, months));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid forecast request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error forecasting balances: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
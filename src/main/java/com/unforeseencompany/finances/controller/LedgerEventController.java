@@ -0,0 +1,40 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.service.LedgerEventStreamService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controller to stream changes of accounts and transactions as server-sent events.
+ */
+@RestController
+@RequestMapping("/events")
+@RequiredArgsConstructor
+public class LedgerEventController {
+
+    private final LedgerEventStreamService ledgerEventStreamService;
+
+    /**
+     * Endpoint to subscribe to balance and transaction changes as they are committed.
+     *
+     * @param lastEventId The ID of the last event received, sent by clients when reconnecting to resume the stream.
+     * @param accountIds  Optional list of account IDs to restrict the stream to.
+     * @return The event stream. A "reset" event is sent first if the missed events are no longer available,
+     * such as after a restart or when reconnecting to another instance.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLedgerEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) List<Integer> accountIds) {
+        return ledgerEventStreamService.subscribe(lastEventId, accountIds != null ? Set.copyOf(accountIds) : Set.of());
+    }
+}
@@ -0,0 +1,45 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.reconciliation.ReconciliationReportDTO;
+import com.unforeseencompany.finances.service.ReconciliationService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller to verify and repair account balances.
+ */
+@RestController
+@RequestMapping("/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+
+    Logger log = LoggerFactory.getLogger(ReconciliationController.class);
+
+    private final ReconciliationService reconciliationService;
+
+    /**
+     * Endpoint to recompute every account's balance from its initial balance, cash flows and transfers.
+     *
+     * @param repair Whether the balances that differ from the recomputed ones are corrected.
+     * @return The HTTP response containing the reconciliation report, or status 409 Conflict if a reconciliation is already running.
+     */
+    @PostMapping()
+    public ResponseEntity<ReconciliationReportDTO> reconcile(@RequestParam(defaultValue = "false") boolean repair) {
+        try {
+            return ResponseEntity.ok(reconciliationService.reconcile(repair));
+        } catch (IllegalStateException e) {
+            log.error("Error reconciling balances: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            log.error("Error reconciling balances: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.unforeseencompany.finances.controller;
+
+import com.unforeseencompany.finances.dto.timeseries.TimeSeriesDTO;
+import com.unforeseencompany.finances.enums.TimeSeriesResolutionEnum;
+import com.unforeseencompany.finances.service.TimeSeriesService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Controller to chart the balance of the accounts and the net worth over time.
+ */
+@RestController
+@RequestMapping("/timeseries")
+@RequiredArgsConstructor
+public class TimeSeriesController {
+
+    Logger log = LoggerFactory.getLogger(TimeSeriesController.class);
+
+    private final TimeSeriesService timeSeriesService;
+
+    /**
+     * Endpoint to retrieve the closing balance of an account over a date range.
+     *
+     * @param id         The ID of the account.
+     * @param from       The first day, one year before the last one by default.
+     * @param to         The last day, today by default.
+     * @param resolution DAY, WEEK or MONTH for the closing balance of each period, or LTTB to keep the shape of the series in fewer points.
+     * @param points     The number of points returned with the LTTB resolution.
+     * @return The HTTP response containing the series, or status 400 Bad Request if the account does not exist or the parameters are invalid.
+     */
+    @GetMapping("/account/{id}")
+    public ResponseEntity<TimeSeriesDTO> getAccountSeries(@PathVariable Integer id,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                          @RequestParam(defaultValue = "DAY") TimeSeriesResolutionEnum resolution,
+                                                          @RequestParam(defaultValue = "500") int points) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusYears(1);
+            return ResponseEntity.ok(timeSeriesService.getAccountSeries(id, start, end, resolution, points));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid time series request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error building the balance series: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to retrieve the net worth, the sum of every account's balance, over a date range.
+     *
+     * @param from       The first day, one year before the last one by default.
+     * @param to         The last day, today by default.
+     * @param resolution DAY, WEEK or MONTH for the closing balance of each period, or LTTB to keep the shape of the series in fewer points.
+     * @param points     The number of points returned with the LTTB resolution.
+     * @return The HTTP response containing the series, or status 400 Bad Request if the parameters are invalid.
+     */
+    @GetMapping("/net-worth")
+    public ResponseEntity<TimeSeriesDTO> getNetWorthSeries(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                           @RequestParam(defaultValue = "DAY") TimeSeriesResolutionEnum resolution,
+                                                           @RequestParam(defaultValue = "500") int points) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : end.minusYears(1);
+            return ResponseEntity.ok(timeSeriesService.getNetWorthSeries(start, end, resolution, points));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid time series request: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error building the net worth series: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
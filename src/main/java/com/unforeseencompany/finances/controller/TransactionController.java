@@ -1,17 +1,32 @@
 package com.unforeseencompany.finances.controller;
 
+import com.unforeseencompany.finances.dto.transaction.TransactionRowDTO;
+import com.unforeseencompany.finances.enums.ResponseViewEnum;
 import com.unforeseencompany.finances.model.transaction.Transaction;
+import com.unforeseencompany.finances.service.LedgerVersionService;
 import com.unforeseencompany.finances.service.TransactionService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Controller to manage operations related to transactions.
@@ -25,15 +40,38 @@ public class TransactionController {
 
     private final TransactionService transactionService;
 
+    private final LedgerVersionService ledgerVersionService;
+
     /**
-     * Endpoint to retrieve all transactions.
+     * Endpoint to retrieve all transactions. Archived transactions are only included when the date range reaches them.
+     * Besides JSON, the response can be negotiated as Smile or CBOR through the Accept header.
      *
-     * @return The HTTP response containing the list of all transactions, or an error status if an error occurs.
+     * @param from       Optional first transaction date of the listing (inclusive).
+     * @param to         Optional last transaction date of the listing (inclusive).
+     * @param view       FULL for the transactions with their accounts nested, LEAN for flat rows referencing the accounts by ID.
+     * @param accept     The Accept header, part of the ETag since each negotiated format is a different representation.
+     * @param webRequest The current request, used to evaluate the If-None-Match header.
+     * @return The HTTP response containing the list of all transactions, status 304 Not Modified if the client's copy is current,
+     * or an error status if an error occurs.
      */
     @GetMapping()
-    public ResponseEntity<List<Transaction>> getAllTransactions() {
+    public ResponseEntity<List<?>> getAllTransactions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "FULL") ResponseViewEnum view,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest) {
         try {
-            return ResponseEntity.ok(transactionService.getAllTransactions());
+            // the range and the formats accepted select different representations of the same ledger version
+            String eTag = ledgerVersionService.ledgerETag(view.name().toLowerCase() + "_" + Objects.toString(from, "")
+                    + "_" + Objects.toString(to, "") + "_" + URLEncoder.encode(normalizedAccept(accept), StandardCharsets.UTF_8));
+            if (webRequest.checkNotModified(eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+
+            List<Transaction> transactions = transactionService.getAllTransactions(from, to);
+            List<?> body = view == ResponseViewEnum.LEAN ? transactions.stream().map(TransactionRowDTO::of).toList() : transactions;
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(body);
         } catch (Exception e) {
             log.error("Error getting transactions: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -55,4 +93,18 @@ public class TransactionController {
             return ResponseEntity.internalServerError().build();
         }
     }
+
+    /**
+     * @return The media types of an Accept header in their canonical form, or the header itself if it cannot be parsed.
+     */
+    private static String normalizedAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.ALL_VALUE;
+        }
+        try {
+            return MediaType.toString(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return accept;
+        }
+    }
 }
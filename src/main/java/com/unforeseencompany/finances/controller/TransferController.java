@@ -1,5 +1,6 @@
 package com.unforeseencompany.finances.controller;
 
+import com.unforeseencompany.finances.dto.transaction.TransferBatchDTO;
 import com.unforeseencompany.finances.dto.transaction.TransferDTO;
 import com.unforeseencompany.finances.model.transaction.Transfer;
 import com.unforeseencompany.finances.service.TransferService;
@@ -7,9 +8,11 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -62,14 +65,20 @@ public class TransferController {
 
     /**
      * Endpoint to list all transfer transactions based on the account name.
+     * Archived transactions are only included when the date range reaches them.
      *
      * @param accountName The name of the account to filter transactions.
+     * @param from        Optional first transaction date of the listing (inclusive).
+     * @param to          Optional last transaction date of the listing (inclusive).
      * @return The HTTP response containing the list of transfer transactions for the specified account name.
      */
     @GetMapping("/accountname/{accountName}")
-    public ResponseEntity<List<Transfer>> listTransferTransactionsByAccountName(@PathVariable String accountName) {
+    public ResponseEntity<List<Transfer>> listTransferTransactionsByAccountName(
+            @PathVariable String accountName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
         try {
-            return ResponseEntity.ok(transferService.listTransferTransactionsByAccountName(accountName));
+            return ResponseEntity.ok(transferService.listTransferTransactionsByAccountName(accountName, from, to));
         } catch (IllegalArgumentException e) {
             log.error("Account not found with name: " + accountName);
             return ResponseEntity.badRequest().build();
@@ -98,6 +107,71 @@ public class TransferController {
         }
     }
 
+    /**
+     * Endpoint to transfer from one account to many at once.
+     *
+     * @param transferBatchDTO DTO containing the source account, the date and the target and amount of every leg.
+     * @return The HTTP response containing the transfers created, one per leg, or an error status if the parameters are incorrect.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<Transfer>> saveTransferBatch(@Valid @RequestBody TransferBatchDTO transferBatchDTO) {
+        try {
+            return ResponseEntity.ok(transferService.saveTransferBatch(transferBatchDTO));
+        } catch (IllegalArgumentException e) {
+            log.error("Error generating transfer batch: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error generating transfer batch: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to list the transfers of a batch.
+     *
+     * @param batchId The ID of the batch, that of its first transfer.
+     * @return The HTTP response containing the transfers of the batch, or status 404 Not Found if it has none.
+     */
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<List<Transfer>> findTransferBatch(@PathVariable Integer batchId) {
+        try {
+            List<Transfer> transfers = transferService.findTransferBatch(batchId);
+            if (transfers.isEmpty()) {
+                log.error("Transfer batch not found with id: " + batchId);
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(transfers);
+        } catch (Exception e) {
+            log.error("Error obtaining transfer batch: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Endpoint to delete every transfer of a batch.
+     *
+     * @param batchId The ID of the batch, that of its first transfer.
+     * @return The HTTP response with status 204 No Content if the batch was deleted, status 404 Not Found if it has no transfers,
+     * or status 400 Bad Request if it is dated in an archived year.
+     */
+    @DeleteMapping("/batch/{batchId}")
+    public ResponseEntity<Void> deleteTransferBatch(@PathVariable Integer batchId) {
+        try {
+            if (transferService.deleteTransferBatch(batchId)) {
+                return ResponseEntity.noContent().build();
+            } else {
+                log.error("Transfer batch not found with id: " + batchId);
+                return ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException e) {
+            log.error("Error deleting transfer batch: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error deleting transfer batch: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Endpoint to update a transfer transaction by its ID.
      *
@@ -129,7 +203,7 @@ public class TransferController {
      *
      * @param id The ID of the transfer transaction to be deleted.
      * @return The HTTP response indicating the operation result. Returns status 204 No Content if the transaction is found and deleted,
-     * or status 404 Not Found if the transaction is not found.
+     * status 404 Not Found if the transaction is not found, or status 400 Bad Request if it is dated in an archived year.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTransferById(@PathVariable Integer id) {
@@ -140,6 +214,9 @@ public class TransferController {
                 log.error("Transaction not found with id: " + id);
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            log.error("Error deleting transfer transaction: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error deleting transfer transaction: " + e.getMessage());
             return ResponseEntity.internalServerError().build();
@@ -0,0 +1,44 @@
+package com.unforeseencompany.finances.datasource;
+
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers when each tenant last changed its ledger, so its reads can stay on the primary
+ * until the replicas have had time to apply the change.
+ */
+@Component
+public class RecentWriteTracker {
+
+    private final Map<String, Long> lastWriteNanos = new ConcurrentHashMap<>();
+
+    /**
+     * Records the write just before its transaction commits, so no read can reach a replica between
+     * the commit and the moment the write is known. A rolled back write only costs a few primary reads.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onLedgerChange(LedgerChangeEvent event) {
+        lastWriteNanos.put(event.getTenantId(), System.nanoTime());
+    }
+
+    /**
+     * @return Whether the tenant changed its ledger within the given window.
+     */
+    public boolean wroteWithin(String tenantId, Duration window) {
+        Long lastWrite = lastWriteNanos.get(tenantId);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWrite <= window.toNanos()) {
+            return true;
+        }
+        lastWriteNanos.remove(tenantId, lastWrite);
+        return false;
+    }
+}
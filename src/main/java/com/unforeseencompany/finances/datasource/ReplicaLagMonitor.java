@@ -0,0 +1,73 @@
+package com.unforeseencompany.finances.datasource;
+
+import com.unforeseencompany.finances.config.ReplicaProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Periodically measures the replication lag of every replica and takes the ones that fall
+ * behind max-lag, or stop replicating, out of the read rotation until they catch up.
+ */
+@Component
+public class ReplicaLagMonitor {
+
+    Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    private final ReplicaProperties replicaProperties;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource, ReplicaProperties replicaProperties,
+                             MeterRegistry meterRegistry) {
+        this.replicaRoutingDataSource = replicaRoutingDataSource;
+        this.replicaProperties = replicaProperties;
+
+        for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+            Gauge.builder("finances.datasource.replica.lag", replica, ReplicaRoutingDataSource.Replica::getLagSeconds)
+                    .description("Replication lag in seconds, -1 if unknown")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.getName())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${finances.datasource.lag-check-interval:PT1S}")
+    public void checkReplicas() {
+        for (ReplicaRoutingDataSource.Replica replica : replicaRoutingDataSource.getReplicas()) {
+            Long lagSeconds = measureLag(replica);
+            boolean available = lagSeconds != null && lagSeconds * 1000 <= replicaProperties.getMaxLag().toMillis();
+
+            if (available != replica.isAvailable()) {
+                log.warn("Replica " + replica.getName() + (available ? " is back in" : " is out of")
+                        + " the read rotation, lag: " + (lagSeconds != null ? lagSeconds + " s" : "unknown"));
+            }
+            replica.setLagSeconds(lagSeconds != null ? lagSeconds : -1);
+            replica.setAvailable(available);
+        }
+    }
+
+    /**
+     * @return The lag reported by the replica, or null if it is unreachable or not replicating.
+     */
+    private Long measureLag(ReplicaRoutingDataSource.Replica replica) {
+        try {
+            List<Map<String, Object>> status = new JdbcTemplate(replica.getDataSource()).queryForList("SHOW REPLICA STATUS");
+            if (status.isEmpty()) {
+                return null;
+            }
+            Object lag = status.get(0).get("Seconds_Behind_Source");
+            return lag instanceof Number number ? number.longValue() : null;
+        } catch (Exception e) {
+            log.debug("Error checking replica " + replica.getName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
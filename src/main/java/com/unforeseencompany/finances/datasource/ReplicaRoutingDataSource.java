@@ -0,0 +1,100 @@
+package com.unforeseencompany.finances.datasource;
+
+import com.unforeseencompany.finances.config.ReplicaProperties;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions to a read replica and everything else to the primary.
+ * <p>
+ * A replica is only used while its replication lag is within max-lag, and with read-your-writes a
+ * tenant's reads stay on the primary for max-lag after its last write. When no replica qualifies the
+ * read runs on the primary. The routing decision reads the transaction's read-only flag, so this data
+ * source must be wrapped in a LazyConnectionDataSourceProxy that defers fetching the connection until
+ * the transaction has started.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    @Getter
+    private final List<Replica> replicas;
+
+    private final ReplicaProperties replicaProperties;
+
+    private final RecentWriteTracker recentWriteTracker;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas,
+                                    ReplicaProperties replicaProperties, RecentWriteTracker recentWriteTracker) {
+        this.replicas = replicas;
+        this.replicaProperties = replicaProperties;
+        this.recentWriteTracker = recentWriteTracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (replicaProperties.isReadYourWrites()
+                && recentWriteTracker.wroteWithin(TenantContext.getTenantId(), replicaProperties.getMaxLag())) {
+            return PRIMARY;
+        }
+
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.isAvailable()) {
+                return replica.getName();
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void close() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+    }
+
+    @Getter
+    public static class Replica {
+
+        private final String name;
+
+        private final HikariDataSource dataSource;
+
+        /**
+         * Whether the last lag check found the replica within max-lag. Replicas start unavailable until checked.
+         */
+        @Setter
+        private volatile boolean available;
+
+        /**
+         * Replication lag measured by the last check, or -1 if unknown.
+         */
+        @Setter
+        private volatile long lagSeconds = -1;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
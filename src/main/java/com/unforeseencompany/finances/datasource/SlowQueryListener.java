@@ -0,0 +1,102 @@
+package com.unforeseencompany.finances.datasource;
+
+import com.unforeseencompany.finances.config.TracingProperties;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes the statements that ran for longer than finances.tracing.slow-query-threshold to the finances.slow-query
+ * logger, with their bind parameters and the rows they changed. The entries carry the trace ID in the log pattern,
+ * so a slow statement leads to the request that ran it.
+ */
+public class SlowQueryListener implements QueryExecutionListener {
+
+    Logger log = LoggerFactory.getLogger("finances.slow-query");
+
+    private final TracingProperties tracingProperties;
+
+    public SlowQueryListener(TracingProperties tracingProperties) {
+        this.tracingProperties = tracingProperties;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < tracingProperties.getSlowQueryThreshold().toMillis() || !log.isWarnEnabled()) {
+            return;
+        }
+
+        StringBuilder entry = new StringBuilder("Slow ").append(execInfo.isBatch() ? "batch of " + execInfo.getBatchSize() : "statement")
+                .append(" took ").append(execInfo.getElapsedTime()).append(" ms");
+        Long rows = affectedRows(execInfo.getResult());
+        if (rows != null) {
+            entry.append(", ").append(rows).append(" rows changed");
+        }
+        if (!execInfo.isSuccess() && execInfo.getThrowable() != null) {
+            entry.append(", failed: ").append(execInfo.getThrowable().getMessage());
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            entry.append("\n  ").append(queryInfo.getQuery());
+            appendParameters(entry, queryInfo.getParametersList());
+        }
+        log.warn(entry.toString());
+    }
+
+    private void appendParameters(StringBuilder entry, List<List<ParameterSetOperation>> parameterSets) {
+        int logged = Math.min(parameterSets.size(), tracingProperties.getMaxLoggedParameterSets());
+        for (int i = 0; i < logged; i++) {
+            List<ParameterSetOperation> operations = new ArrayList<>(parameterSets.get(i));
+            // recorded in the order they were set, listed in the order of the placeholders
+            operations.sort(Comparator.comparingInt(operation -> operation.getArgs()[0] instanceof Integer index ? index : Integer.MAX_VALUE));
+
+            entry.append("\n    (");
+            for (int j = 0; j < operations.size(); j++) {
+                if (j > 0) {
+                    entry.append(", ");
+                }
+                entry.append(parameterValue(operations.get(j)));
+            }
+            entry.append(')');
+        }
+        if (parameterSets.size() > logged) {
+            entry.append("\n    ... ").append(parameterSets.size() - logged).append(" more");
+        }
+    }
+
+    private String parameterValue(ParameterSetOperation operation) {
+        if ("setNull".equals(operation.getMethod().getName())) {
+            return "null";
+        }
+        String value = String.valueOf(operation.getArgs()[1]);
+        int maxLength = tracingProperties.getMaxParameterLength();
+        return value.length() > maxLength ? value.substring(0, maxLength) + "..." : value;
+    }
+
+    /**
+     * @return The rows changed by an update or a batch, or null for a query.
+     */
+    private Long affectedRows(Object result) {
+        if (result instanceof Number count) {
+            return count.longValue();
+        }
+        if (result instanceof int[] counts) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            return total;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.unforeseencompany.finances.dto.accrual;
+
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AccrualRuleDTO {
+
+    @NotNull
+    private Integer accountId;
+
+    @NotNull
+    private AccrualTypeEnum accrualType;
+
+    /**
+     * The yearly rate as a fraction, 0.045 for 4.5%. Required for interest.
+     */
+    @DecimalMin("0")
+    private BigDecimal annualRate;
+
+    /**
+     * The flat amount charged every month, for fees only.
+     */
+    @DecimalMin("0")
+    private BigDecimal monthlyFee;
+
+    /**
+     * The first day accrued, today if not given.
+     */
+    private LocalDate effectiveFrom;
+
+    private String description;
+}
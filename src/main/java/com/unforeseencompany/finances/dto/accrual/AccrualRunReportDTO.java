@@ -0,0 +1,32 @@
+package com.unforeseencompany.finances.dto.accrual;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AccrualRunReportDTO {
+
+    private YearMonth period;
+
+    private LocalDateTime startedAt;
+
+    private long durationMillis;
+
+    /**
+     * The rules accrued by this run; those already accrued for the month are skipped.
+     */
+    private int rulesPosted;
+
+    private int cashFlowsCreated;
+
+    private BigDecimal totalInterest;
+
+    private BigDecimal totalFees;
+}
@@ -0,0 +1,21 @@
+package com.unforeseencompany.finances.dto.audit;
+
+import com.unforeseencompany.finances.model.audit.AuditEntry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AuditHistoryDTO {
+
+    private List<AuditEntry> entries;
+
+    /**
+     * The value of "before" for the next, older page, or null if this is the last one.
+     */
+    private Long nextBefore;
+}
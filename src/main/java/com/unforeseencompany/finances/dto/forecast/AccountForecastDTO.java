@@ -0,0 +1,24 @@
+package com.unforeseencompany.finances.dto.forecast;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AccountForecastDTO {
+
+    private Integer accountId;
+
+    private String accountName;
+
+    private BigDecimal currentBalance;
+
+    private List<ForecastPointDTO> points;
+
+    private List<RecurringPatternDTO> recurring;
+}
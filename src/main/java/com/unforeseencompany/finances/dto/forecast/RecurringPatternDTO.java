@@ -0,0 +1,27 @@
+package com.unforeseencompany.finances.dto.forecast;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.unforeseencompany.finances.enums.RecurrencePeriodEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class RecurringPatternDTO {
+
+    private String description;
+
+    private RecurrencePeriodEnum period;
+
+    private BigDecimal amount;
+
+    private int occurrences;
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate lastDate;
+}
@@ -0,0 +1,22 @@
+package com.unforeseencompany.finances.dto.group;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class AccountGroupDTO {
+
+    @NotBlank
+    @NotNull
+    private String name;
+
+    /**
+     * The group this one belongs to, or null for a top-level group.
+     */
+    private Integer parentId;
+}
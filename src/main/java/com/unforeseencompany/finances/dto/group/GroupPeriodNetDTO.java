@@ -0,0 +1,23 @@
+package com.unforeseencompany.finances.dto.group;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class GroupPeriodNetDTO {
+
+    /**
+     * The first day of the month.
+     */
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate period;
+
+    private BigDecimal netChange;
+}
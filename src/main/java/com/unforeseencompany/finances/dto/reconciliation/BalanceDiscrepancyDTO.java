@@ -0,0 +1,25 @@
+package com.unforeseencompany.finances.dto.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class BalanceDiscrepancyDTO {
+
+    private Integer accountId;
+
+    private String accountName;
+
+    private BigDecimal recordedBalance;
+
+    private BigDecimal expectedBalance;
+
+    private BigDecimal difference;
+
+    private boolean repaired;
+}
@@ -0,0 +1,24 @@
+package com.unforeseencompany.finances.dto.reconciliation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+
+    private LocalDateTime startedAt;
+
+    private long durationMillis;
+
+    private int accountsChecked;
+
+    private int accountsRepaired;
+
+    private List<BalanceDiscrepancyDTO> discrepancies;
+}
@@ -0,0 +1,30 @@
+package com.unforeseencompany.finances.dto.timeseries;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.unforeseencompany.finances.enums.TimeSeriesResolutionEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TimeSeriesDTO {
+
+    private Integer accountId;
+
+    private String name;
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate from;
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate to;
+
+    private TimeSeriesResolutionEnum resolution;
+
+    private List<TimeSeriesPointDTO> points;
+}
@@ -0,0 +1,20 @@
+package com.unforeseencompany.finances.dto.timeseries;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TimeSeriesPointDTO {
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    private LocalDate date;
+
+    private BigDecimal balance;
+}
@@ -1,6 +1,7 @@
 package com.unforeseencompany.finances.dto.transaction;
 
 import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -8,6 +9,7 @@ import lombok.Setter;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @Getter
 @Setter
@@ -26,4 +28,10 @@ public class CashFlowDTO {
 
     @NotNull
     private Integer accountId;
+
+    /**
+     * How the amount is split across categories, adding up to the amount. Without splits the cash flow is not split.
+     */
+    @Valid
+    private List<CashFlowSplitDTO> splits;
 }
@@ -0,0 +1,23 @@
+package com.unforeseencompany.finances.dto.transaction;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class CashFlowSplitDTO {
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    private String category;
+
+    private String description;
+}
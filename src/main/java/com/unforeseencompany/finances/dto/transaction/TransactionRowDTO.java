@@ -0,0 +1,54 @@
+package com.unforeseencompany.finances.dto.transaction;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transaction;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Flat representation of a cash flow or a transfer for large listings: accounts are referenced by ID
+ * instead of being nested, dates are ISO-8601, and absent fields are left out.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionRowDTO {
+
+    private Integer id;
+
+    private TransactionTypeEnum transactionType;
+
+    private BigDecimal amount;
+
+    private String description;
+
+    private LocalDate transactionDate;
+
+    private Integer accountId;
+
+    private Integer sourceAccountId;
+
+    private Integer targetAccountId;
+
+    public static TransactionRowDTO of(Transaction transaction) {
+        Integer accountId = null;
+        Integer sourceAccountId = null;
+        Integer targetAccountId = null;
+        if (transaction instanceof CashFlow cashFlow) {
+            accountId = cashFlow.getAccount().getId();
+        } else if (transaction instanceof Transfer transfer) {
+            sourceAccountId = transfer.getSourceAccount().getId();
+            targetAccountId = transfer.getTargetAccount().getId();
+        }
+        return new TransactionRowDTO(transaction.getId(), transaction.getTransactionType(), transaction.getAmount(),
+                transaction.getDescription(), transaction.getTransactionDate(), accountId, sourceAccountId, targetAccountId);
+    }
+}
@@ -0,0 +1,29 @@
+package com.unforeseencompany.finances.dto.transaction;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TransferBatchDTO {
+
+    private String description;
+
+    @NotNull
+    private LocalDate transactionDate;
+
+    @NotNull
+    private Integer sourceAccountId;
+
+    @Valid
+    @NotEmpty
+    private List<TransferLegDTO> legs;
+}
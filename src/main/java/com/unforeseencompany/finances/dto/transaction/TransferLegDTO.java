@@ -0,0 +1,27 @@
+package com.unforeseencompany.finances.dto.transaction;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Getter
+@Setter
+@AllArgsConstructor
+public class TransferLegDTO {
+
+    @NotNull
+    private Integer targetAccountId;
+
+    @NotNull
+    @Positive
+    private BigDecimal amount;
+
+    /**
+     * The description of this leg, the batch's description if absent.
+     */
+    private String description;
+}
@@ -0,0 +1,15 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * What an accrual rule posts each month. Stored by ordinal, so new values go at the end.
+ */
+public enum AccrualTypeEnum {
+    /**
+     * Income of the annual rate over the positive daily balances, as on a savings account.
+     */
+    INTEREST,
+    /**
+     * Expense of the monthly fee plus the annual rate over the negative daily balances, as on a credit card.
+     */
+    FEE
+}
@@ -0,0 +1,16 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Why a new cash flow looks suspicious.
+ */
+public enum AnomalyTypeEnum {
+    /**
+     * A recent cash flow of the account has the same type and amount, a date a few days apart at most and a
+     * description with the same words.
+     */
+    PROBABLE_DUPLICATE,
+    /**
+     * The amount is far from the account's usual amounts of the same type.
+     */
+    OUTLIER
+}
@@ -0,0 +1,9 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Kind of record an attachment belongs to. Stored by ordinal, so new values go at the end.
+ */
+public enum AttachmentOwnerTypeEnum {
+    CASH_FLOW,
+    TRANSFER
+}
@@ -0,0 +1,10 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Change recorded by an audit entry. Stored by ordinal, so new values go at the end.
+ */
+public enum AuditActionEnum {
+    CREATED,
+    UPDATED,
+    DELETED
+}
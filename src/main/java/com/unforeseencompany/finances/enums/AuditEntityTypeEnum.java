@@ -0,0 +1,14 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Kind of record an audit entry describes. Stored by ordinal, so new values go at the end.
+ */
+public enum AuditEntityTypeEnum {
+    ACCOUNT,
+    CASH_FLOW,
+    TRANSFER,
+    /**
+     * A tenant's whole ledger, for bulk changes that do not go through the individual records.
+     */
+    LEDGER
+}
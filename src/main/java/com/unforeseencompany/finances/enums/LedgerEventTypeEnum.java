@@ -0,0 +1,26 @@
+package com.unforeseencompany.finances.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+@Getter
+public enum LedgerEventTypeEnum {
+    ACCOUNT_CREATED("account-created", "account"),
+    ACCOUNT_UPDATED("account-updated", "account"),
+    ACCOUNT_DELETED("account-deleted", "account"),
+    CASH_FLOW_CREATED("cash-flow-created", "cash_flow"),
+    CASH_FLOW_UPDATED("cash-flow-updated", "cash_flow"),
+    CASH_FLOW_DELETED("cash-flow-deleted", "cash_flow"),
+    TRANSFER_CREATED("transfer-created", "transfer"),
+    TRANSFER_UPDATED("transfer-updated", "transfer"),
+    TRANSFER_DELETED("transfer-deleted", "transfer"),
+    LEDGER_CLEARED("ledger-cleared", "ledger"),
+    ARCHIVE_CLEARED("archive-cleared", "ledger"),
+    TRANSACTIONS_ARCHIVED("transactions-archived", "ledger"),
+    RESET("reset", "ledger");
+
+    private final String eventName;
+
+    private final String aggregateType;
+}
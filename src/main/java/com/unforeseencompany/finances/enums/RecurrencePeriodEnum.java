@@ -0,0 +1,52 @@
+package com.unforeseencompany.finances.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+
+@RequiredArgsConstructor
+@Getter
+public enum RecurrencePeriodEnum {
+    WEEKLY(7, 1),
+    BIWEEKLY(14, 2),
+    MONTHLY(30, 2),
+    QUARTERLY(91, 5),
+    YEARLY(365, 7);
+
+    private final int nominalDays;
+
+    /**
+     * How many days an interval may differ from the nominal one and still count as this period.
+     */
+    private final int toleranceDays;
+
+    public boolean matches(int intervalDays) {
+        return Math.abs(intervalDays - nominalDays) <= toleranceDays;
+    }
+
+    /**
+     * @return The k-th occurrence after the given one. Calendar periods keep the day of the month of the anchor.
+     */
+    public LocalDate occurrence(LocalDate anchor, int k) {
+        return switch (this) {
+            case WEEKLY -> anchor.plusWeeks(k);
+            case BIWEEKLY -> anchor.plusWeeks(2L * k);
+            case MONTHLY -> anchor.plusMonths(k);
+            case QUARTERLY -> anchor.plusMonths(3L * k);
+            case YEARLY -> anchor.plusYears(k);
+        };
+    }
+
+    /**
+     * @return The period whose nominal interval matches the given one, or null if none does.
+     */
+    public static RecurrencePeriodEnum ofInterval(int intervalDays) {
+        for (RecurrencePeriodEnum period : values()) {
+            if (period.matches(intervalDays)) {
+                return period;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,10 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Classes of requests, each rate limited with its own budget.
+ */
+public enum RequestClassEnum {
+    READ,
+    WRITE,
+    BULK
+}
@@ -0,0 +1,15 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * Representation of the entities in a listing response.
+ */
+public enum ResponseViewEnum {
+    /**
+     * The entities as stored, with their accounts nested.
+     */
+    FULL,
+    /**
+     * Flat rows referencing the accounts by ID.
+     */
+    LEAN
+}
@@ -0,0 +1,11 @@
+package com.unforeseencompany.finances.enums;
+
+/**
+ * How a daily balance series is reduced before it is returned.
+ */
+public enum TimeSeriesResolutionEnum {
+    DAY,
+    WEEK,
+    MONTH,
+    LTTB
+}
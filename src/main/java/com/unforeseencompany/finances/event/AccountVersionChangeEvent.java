@@ -0,0 +1,35 @@
+package com.unforeseencompany.finances.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Application event published once a transaction that bumped the version of an account has committed, with the range
+ * of versions it went through. The account's row was locked for the whole transaction, so no other write changed it
+ * between those versions.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountVersionChangeEvent {
+
+    private final String tenantId;
+
+    private final Integer accountId;
+
+    /**
+     * The version of the account before the transaction changed it.
+     */
+    private final long fromVersion;
+
+    /**
+     * The version of the account the transaction committed.
+     */
+    private final long toVersion;
+
+    /**
+     * The earliest date whose closing balance the transaction changed, or null if it left the balance history intact.
+     */
+    private final LocalDate affectedFrom;
+}
@@ -0,0 +1,45 @@
+package com.unforeseencompany.finances.event;
+
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Application event published by the services whenever an account or a transaction changes.
+ * An event without account IDs concerns the whole ledger of its tenant, which is captured when the event is created.
+ * Changes to the balance history of the accounts carry the earliest date they affect.
+ */
+@Getter
+public class LedgerChangeEvent {
+
+    private final String tenantId;
+
+    private final LedgerEventTypeEnum type;
+
+    private final Object payload;
+
+    private final Set<Integer> accountIds;
+
+    /**
+     * The earliest date whose closing balance changed, or null if the change leaves the balance history intact.
+     */
+    private final LocalDate affectedFrom;
+
+    public LedgerChangeEvent(LedgerEventTypeEnum type, Object payload, Integer... accountIds) {
+        this(type, payload, null, accountIds);
+    }
+
+    public LedgerChangeEvent(LedgerEventTypeEnum type, Object payload, LocalDate affectedFrom, Integer... accountIds) {
+        this.tenantId = TenantContext.getTenantId();
+        this.type = type;
+        this.payload = payload;
+        this.affectedFrom = affectedFrom;
+        this.accountIds = Arrays.stream(accountIds).filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+}
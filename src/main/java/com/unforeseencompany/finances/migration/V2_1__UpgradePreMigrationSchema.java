@@ -0,0 +1,214 @@
+package com.unforeseencompany.finances.migration;
+
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Brings a database created by the versions before the migrations, through ddl-auto=update, to the schema of
+ * V1 and V2. Such a database is baselined at V2, so neither ran on it: it may have only the three ledger tables
+ * of the first version, without tenants or soft deletion, or any of the tables added since, with the types
+ * Hibernate chose, such as decimal(38,2), and without some of the foreign keys and indexes.
+ * <p>
+ * Every step checks the schema first, so on a database created by V1 and V2 the migration changes nothing.
+ */
+public class V2_1__UpgradePreMigrationSchema extends BaseJavaMigration {
+
+    private static final String MISSING_TABLES_SCRIPT = "/db/upgrade/V2_1__create_missing_tables.sql";
+
+    /**
+     * Tables of V1 with a tenant column, which ddl-auto=update added filled with empty strings, or not at all.
+     */
+    private static final List<String> TENANT_TABLES = List.of("account", "cash_flow_transaction", "transfer_transaction",
+            "cash_flow_transaction_archive", "transfer_transaction_archive", "account_balance_snapshot", "archived_year",
+            "outbox_event");
+
+    private static final List<String> SOFT_DELETED_TABLES = List.of("account", "cash_flow_transaction", "transfer_transaction");
+
+    private static final List<MoneyColumn> MONEY_COLUMNS = List.of(
+            new MoneyColumn("account", "initial_balance", true),
+            new MoneyColumn("account", "balance", true),
+            new MoneyColumn("cash_flow_transaction", "amount", false),
+            new MoneyColumn("transfer_transaction", "amount", false),
+            new MoneyColumn("cash_flow_transaction_archive", "amount", false),
+            new MoneyColumn("transfer_transaction_archive", "amount", false),
+            new MoneyColumn("account_balance_snapshot", "archived_cash_flow_net", false),
+            new MoneyColumn("account_balance_snapshot", "archived_transfer_net", false));
+
+    private static final List<ForeignKey> ACCOUNT_FOREIGN_KEYS = List.of(
+            new ForeignKey("cash_flow_transaction", "account_id", "fk_cash_flow_account"),
+            new ForeignKey("transfer_transaction", "source_account_id", "fk_transfer_source_account"),
+            new ForeignKey("transfer_transaction", "target_account_id", "fk_transfer_target_account"));
+
+    /**
+     * The indexes of V2, and the unique key of V1 added after its table, by name.
+     */
+    private static final List<Index> INDEXES = List.of(
+            new Index("account", "idx_account_tenant_live_name", "tenant_id, deleted_at, name"),
+            new Index("cash_flow_transaction", "idx_cash_flow_tenant_live_account_date", "tenant_id, deleted_at, account_id, transaction_date"),
+            new Index("cash_flow_transaction", "idx_cash_flow_tenant_live_date", "tenant_id, deleted_at, transaction_date"),
+            new Index("transfer_transaction", "idx_transfer_tenant_live_source_date", "tenant_id, deleted_at, source_account_id, transaction_date"),
+            new Index("transfer_transaction", "idx_transfer_tenant_live_target_date", "tenant_id, deleted_at, target_account_id, transaction_date"),
+            new Index("transfer_transaction", "idx_transfer_tenant_live_date", "tenant_id, deleted_at, transaction_date"),
+            new Index("cash_flow_transaction_archive", "idx_cash_flow_archive_tenant_account_date", "tenant_id, account_id, transaction_date"),
+            new Index("cash_flow_transaction_archive", "idx_cash_flow_archive_tenant_date", "tenant_id, transaction_date"),
+            new Index("transfer_transaction_archive", "idx_transfer_archive_tenant_source_date", "tenant_id, source_account_id, transaction_date"),
+            new Index("transfer_transaction_archive", "idx_transfer_archive_tenant_target_date", "tenant_id, target_account_id, transaction_date"),
+            new Index("transfer_transaction_archive", "idx_transfer_archive_tenant_date", "tenant_id, transaction_date"));
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        for (String statement : missingTablesStatements()) {
+            execute(connection, statement);
+        }
+
+        for (String table : TENANT_TABLES) {
+            assignDefaultTenant(connection, table);
+        }
+
+        for (String table : SOFT_DELETED_TABLES) {
+            if (!columnExists(connection, table, "deleted_at")) {
+                execute(connection, "alter table " + table + " add column deleted_at datetime(6)");
+            }
+        }
+
+        alignMoneyColumns(connection);
+
+        for (ForeignKey foreignKey : ACCOUNT_FOREIGN_KEYS) {
+            if (!foreignKeyExists(connection, foreignKey.table(), foreignKey.column())) {
+                execute(connection, "alter table " + foreignKey.table() + " add constraint " + foreignKey.name()
+                        + " foreign key (" + foreignKey.column() + ") references account (id)");
+            }
+        }
+
+        for (Index index : INDEXES) {
+            if (!indexExists(connection, index.table(), index.name())) {
+                execute(connection, "alter table " + index.table() + " add index " + index.name() + " (" + index.columns() + "), "
+                        + "algorithm = inplace, lock = none");
+            }
+        }
+        if (!indexExists(connection, "archived_year", "uk_archived_year_tenant_year")) {
+            execute(connection, "alter table archived_year add constraint uk_archived_year_tenant_year unique (tenant_id, archived_year)");
+        }
+    }
+
+    /**
+     * Gives the rows written before tenants existed to the default tenant, which requests without a tenant
+     * header run as, then makes the column required.
+     */
+    private void assignDefaultTenant(Connection connection, String table) throws SQLException {
+        if (!columnExists(connection, table, "tenant_id")) {
+            execute(connection, "alter table " + table + " add column tenant_id varchar(64)");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "update " + table + " set tenant_id = ? where tenant_id is null or tenant_id = ''")) {
+            statement.setString(1, TenantContext.DEFAULT_TENANT);
+            statement.executeUpdate();
+        }
+        if (isNullable(connection, table, "tenant_id")) {
+            execute(connection, "alter table " + table + " modify column tenant_id varchar(64) not null");
+        }
+    }
+
+    /**
+     * Changes the money columns Hibernate created as decimal(38,2) to the decimal(19,2) of V1, one statement per
+     * table so each table is rebuilt once. Fails, changing nothing, if an amount does not fit.
+     */
+    private void alignMoneyColumns(Connection connection) throws SQLException {
+        Map<String, List<String>> changes = new LinkedHashMap<>();
+        for (MoneyColumn column : MONEY_COLUMNS) {
+            if (!exists(connection, "select 1 from information_schema.columns where table_schema = database() and table_name = ? " +
+                    "and column_name = ? and data_type = 'decimal' and numeric_precision = 19 and numeric_scale = 2",
+                    column.table(), column.column())) {
+                changes.computeIfAbsent(column.table(), table -> new ArrayList<>())
+                        .add("modify column " + column.column() + " decimal(19, 2)" + (column.nullable() ? "" : " not null"));
+            }
+        }
+        for (Map.Entry<String, List<String>> change : changes.entrySet()) {
+            execute(connection, "alter table " + change.getKey() + " " + String.join(", ", change.getValue()));
+        }
+    }
+
+    private List<String> missingTablesStatements() {
+        try (InputStream script = V2_1__UpgradePreMigrationSchema.class.getResourceAsStream(MISSING_TABLES_SCRIPT)) {
+            if (script == null) {
+                throw new IllegalStateException("Missing " + MISSING_TABLES_SCRIPT);
+            }
+            String sql = new String(script.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.stripLeading().startsWith("--"))
+                    .collect(Collectors.joining("\n"));
+            List<String> statements = new ArrayList<>();
+            for (String statement : sql.split(";")) {
+                if (!statement.isBlank()) {
+                    statements.add(statement.strip());
+                }
+            }
+            return statements;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        return exists(connection, "select 1 from information_schema.columns where table_schema = database() " +
+                "and table_name = ? and column_name = ?", table, column);
+    }
+
+    private boolean isNullable(Connection connection, String table, String column) throws SQLException {
+        return exists(connection, "select 1 from information_schema.columns where table_schema = database() " +
+                "and table_name = ? and column_name = ? and is_nullable = 'YES'", table, column);
+    }
+
+    private boolean foreignKeyExists(Connection connection, String table, String column) throws SQLException {
+        return exists(connection, "select 1 from information_schema.key_column_usage where table_schema = database() " +
+                "and table_name = ? and column_name = ? and referenced_table_name = 'account'", table, column);
+    }
+
+    private boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        return exists(connection, "select 1 from information_schema.statistics where table_schema = database() " +
+                "and table_name = ? and index_name = ?", table, index);
+    }
+
+    private boolean exists(Connection connection, String sql, String... parameters) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next();
+            }
+        }
+    }
+
+    private void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private record MoneyColumn(String table, String column, boolean nullable) {
+    }
+
+    private record ForeignKey(String table, String column, String name) {
+    }
+
+    private record Index(String table, String name, String columns) {
+    }
+}
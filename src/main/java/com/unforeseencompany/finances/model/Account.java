@@ -6,12 +6,25 @@ import com.unforeseencompany.finances.dto.AccountDTO;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.TenantId;
+import org.hibernate.annotations.Where;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "account")
+@Table(name = "account", indexes = {
+        @Index(name = "idx_account_tenant_live_name", columnList = "tenant_id, deleted_at, name"),
+        @Index(name = "idx_account_tenant_live_group", columnList = "tenant_id, deleted_at, group_id")
+})
+@SQLDelete(sql = "update account set deleted_at = current_timestamp(6) where id = ?")
+@Where(clause = "deleted_at is null")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account")
 @Data
 @NoArgsConstructor
 public class Account {
@@ -21,20 +34,42 @@ public class Account {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
     @Column(name = "name")
     private String name;
 
-    @Column(name = "initial_balance")
+    @Column(name = "initial_balance", precision = 19, scale = 2)
     private BigDecimal initialBalance;
 
-    @Column(name = "balance")
+    @Column(name = "balance", precision = 19, scale = 2)
     private BigDecimal balance;
 
+    /**
+     * The group the account's balance is rolled up into, if any.
+     */
+    @Column(name = "group_id")
+    private Integer groupId;
+
+    /**
+     * Bumped by every change of the account, and part of its ETag.
+     */
+    @JsonIgnore
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @JsonIgnore
     @JsonFormat(pattern = "MM/dd/yyyy")
     @Column(name = "created_at")
     private LocalDate createdAt;
 
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Account(AccountDTO accountDTO) {
         this.name = accountDTO.getName();
         this.initialBalance = accountDTO.getInitialBalance();
@@ -0,0 +1,36 @@
+package com.unforeseencompany.finances.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The versions of a tenant's ledger behind the ETags of the read endpoints, shared by every instance through the
+ * database. Each write transaction bumps them before it commits, along with the versions of the accounts it changed.
+ */
+@Entity
+@Table(name = "ledger_version")
+@Data
+@NoArgsConstructor
+public class LedgerVersion {
+
+    @Id
+    @Column(name = "tenant_id", length = 64)
+    private String tenantId;
+
+    /**
+     * Bumped by every transaction that changes the tenant's ledger.
+     */
+    @Column(name = "ledger_version", nullable = false)
+    private long ledgerVersion;
+
+    /**
+     * Bumped by the bulk operations that change accounts without bumping their versions, and part of every account
+     * ETag of the tenant.
+     */
+    @Column(name = "account_generation", nullable = false)
+    private long accountGeneration;
+}
@@ -0,0 +1,63 @@
+package com.unforeseencompany.finances.model.accrual;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The accrual of one rule for one month. Written in bulk by the accrual run, never changed afterwards.
+ */
+@Entity
+@Table(name = "accrual_posting", indexes = {
+        @Index(name = "idx_accrual_posting_tenant_period", columnList = "tenant_id, period")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_accrual_posting_rule_period", columnNames = {"rule_id", "period"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccrualPosting {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "rule_id", nullable = false)
+    private Integer ruleId;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    /**
+     * The first day of the month accrued.
+     */
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    @Column(name = "period", nullable = false)
+    private LocalDate period;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    /**
+     * The cash flow posted, or null if the amount rounded to zero.
+     */
+    @Column(name = "cash_flow_id")
+    private Integer cashFlowId;
+
+    @Column(name = "posted_at", nullable = false)
+    private LocalDateTime postedAt;
+}
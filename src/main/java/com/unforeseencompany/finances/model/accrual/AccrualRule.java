@@ -0,0 +1,73 @@
+package com.unforeseencompany.finances.model.accrual;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.dto.accrual.AccrualRuleDTO;
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "accrual_rule", indexes = {
+        @Index(name = "idx_accrual_rule_tenant_account", columnList = "tenant_id, account_id")
+})
+@Data
+@NoArgsConstructor
+public class AccrualRule {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "accrual_type", nullable = false)
+    private AccrualTypeEnum accrualType;
+
+    /**
+     * The yearly rate as a fraction, 0.045 for 4.5%, applied to each day's closing balance.
+     */
+    @Column(name = "annual_rate", precision = 9, scale = 6)
+    private BigDecimal annualRate;
+
+    /**
+     * The flat amount charged every month, for fees only.
+     */
+    @Column(name = "monthly_fee", precision = 19, scale = 2)
+    private BigDecimal monthlyFee;
+
+    /**
+     * The first day accrued; earlier days, and the months before it, are not.
+     */
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    @Column(name = "effective_from", nullable = false)
+    private LocalDate effectiveFrom;
+
+    @Column(name = "description")
+    private String description;
+
+    public AccrualRule(AccrualRuleDTO accrualRuleDTO) {
+        update(accrualRuleDTO);
+    }
+
+    public void update(AccrualRuleDTO accrualRuleDTO) {
+        this.accountId = accrualRuleDTO.getAccountId();
+        this.accrualType = accrualRuleDTO.getAccrualType();
+        this.annualRate = accrualRuleDTO.getAnnualRate();
+        this.monthlyFee = accrualRuleDTO.getMonthlyFee();
+        this.effectiveFrom = accrualRuleDTO.getEffectiveFrom() != null ? accrualRuleDTO.getEffectiveFrom() : LocalDate.now();
+        this.description = accrualRuleDTO.getDescription();
+    }
+}
@@ -0,0 +1,52 @@
+package com.unforeseencompany.finances.model.archive;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Net effect of an account's archived transactions on its balance, so the balance can still be
+ * verified from the live tables alone.
+ */
+@Entity
+@Table(name = "account_balance_snapshot")
+@Data
+@NoArgsConstructor
+public class AccountBalanceSnapshot {
+
+    @Id
+    @Column(name = "account_id")
+    private Integer accountId;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "archived_through", nullable = false)
+    private LocalDate archivedThrough;
+
+    @Column(name = "archived_cash_flow_net", nullable = false, precision = 19, scale = 2)
+    private BigDecimal archivedCashFlowNet;
+
+    @Column(name = "archived_transfer_net", nullable = false, precision = 19, scale = 2)
+    private BigDecimal archivedTransferNet;
+
+    public AccountBalanceSnapshot(Integer accountId) {
+        this.accountId = accountId;
+        this.archivedCashFlowNet = BigDecimal.ZERO;
+        this.archivedTransferNet = BigDecimal.ZERO;
+    }
+
+    public BigDecimal getArchivedNet() {
+        return archivedCashFlowNet.add(archivedTransferNet);
+    }
+}
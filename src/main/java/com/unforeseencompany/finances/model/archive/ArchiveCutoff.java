@@ -0,0 +1,34 @@
+package com.unforeseencompany.finances.model.archive;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * How far a tenant's transactions are archived, shared by every instance through the database.
+ * <p>
+ * Writes dated before closedBefore are rejected. An archival moves it forward and commits before moving any
+ * month, so no write can land in a month being moved. Every transaction dated before archivedBefore is in the
+ * archive tables; it follows the months as they are moved, so listings always find each month in one place.
+ */
+@Entity
+@Table(name = "archive_cutoff")
+@Data
+@NoArgsConstructor
+public class ArchiveCutoff {
+
+    @Id
+    @Column(name = "tenant_id", length = 64)
+    private String tenantId;
+
+    @Column(name = "closed_before", nullable = false)
+    private LocalDate closedBefore;
+
+    @Column(name = "archived_before", nullable = false)
+    private LocalDate archivedBefore;
+}
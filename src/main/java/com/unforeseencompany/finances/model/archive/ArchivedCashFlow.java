@@ -0,0 +1,55 @@
+package com.unforeseencompany.finances.model.archive;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Cash flow transaction of a closed year, moved out of cash_flow_transaction by the archival job.
+ * Keeps the original ID; the account is referenced by ID only.
+ */
+@Entity
+@Table(name = "cash_flow_transaction_archive", indexes = {
+        @Index(name = "idx_cash_flow_archive_tenant_account_date", columnList = "tenant_id, account_id, transaction_date"),
+        @Index(name = "idx_cash_flow_archive_tenant_date", columnList = "tenant_id, transaction_date")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedCashFlow {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "description")
+    private String description;
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionTypeEnum transactionType;
+
+    @Column(name = "account_id", nullable = false)
+    private Integer accountId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
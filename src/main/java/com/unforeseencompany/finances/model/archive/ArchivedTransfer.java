@@ -0,0 +1,59 @@
+package com.unforeseencompany.finances.model.archive;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Transfer transaction of a closed year, moved out of transfer_transaction by the archival job.
+ * Keeps the original ID; the accounts are referenced by ID only.
+ */
+@Entity
+@Table(name = "transfer_transaction_archive", indexes = {
+        @Index(name = "idx_transfer_archive_tenant_source_date", columnList = "tenant_id, source_account_id, transaction_date"),
+        @Index(name = "idx_transfer_archive_tenant_target_date", columnList = "tenant_id, target_account_id, transaction_date"),
+        @Index(name = "idx_transfer_archive_tenant_date", columnList = "tenant_id, transaction_date")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedTransfer {
+
+    @Id
+    @Column(name = "id")
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "description")
+    private String description;
+
+    @JsonFormat(pattern = "MM/dd/yyyy")
+    @Column(name = "transaction_date", nullable = false)
+    private LocalDate transactionDate;
+
+    @Column(name = "transaction_type", nullable = false)
+    private TransactionTypeEnum transactionType;
+
+    @Column(name = "source_account_id", nullable = false)
+    private Integer sourceAccountId;
+
+    @Column(name = "target_account_id", nullable = false)
+    private Integer targetAccountId;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
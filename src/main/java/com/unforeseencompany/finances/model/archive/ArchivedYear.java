@@ -0,0 +1,46 @@
+package com.unforeseencompany.finances.model.archive;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "archived_year", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archived_year_tenant_year", columnNames = {"tenant_id", "archived_year"})
+})
+@Data
+@NoArgsConstructor
+public class ArchivedYear {
+
+    @Id
+    @JsonIgnore
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "archived_year", nullable = false)
+    private Integer year;
+
+    @Column(name = "cash_flow_rows", nullable = false)
+    private long cashFlowRows;
+
+    @Column(name = "transfer_rows", nullable = false)
+    private long transferRows;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    public ArchivedYear(Integer year) {
+        this.year = year;
+        this.archivedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,64 @@
+package com.unforeseencompany.finances.model.attachment;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.enums.AttachmentOwnerTypeEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "attachment", indexes = {
+        @Index(name = "idx_attachment_tenant_owner", columnList = "tenant_id, owner_type, owner_id"),
+        @Index(name = "idx_attachment_tenant_sha256", columnList = "tenant_id, sha256")
+})
+@Data
+@NoArgsConstructor
+public class Attachment {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "owner_type", nullable = false)
+    private AttachmentOwnerTypeEnum ownerType;
+
+    @Column(name = "owner_id", nullable = false)
+    private Integer ownerId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false, length = 127)
+    private String contentType;
+
+    @Column(name = "size", nullable = false)
+    private Long size;
+
+    /**
+     * The hex SHA-256 of the content, which names the stored file.
+     */
+    @Column(name = "sha256", nullable = false, length = 64, columnDefinition = "char(64)")
+    private String sha256;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Attachment(AttachmentOwnerTypeEnum ownerType, Integer ownerId, String fileName, String contentType, long size, String sha256) {
+        this.ownerType = ownerType;
+        this.ownerId = ownerId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = LocalDateTime.now();
+    }
+}
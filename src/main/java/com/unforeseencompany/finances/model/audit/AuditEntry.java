@@ -0,0 +1,54 @@
+package com.unforeseencompany.finances.model.audit;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.unforeseencompany.finances.enums.AuditActionEnum;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "audit_entry", indexes = {
+        @Index(name = "idx_audit_entry_tenant", columnList = "tenant_id, id"),
+        @Index(name = "idx_audit_entry_tenant_entity", columnList = "tenant_id, entity_type, entity_id, id")
+})
+@Data
+@NoArgsConstructor
+public class AuditEntry {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "entity_type", nullable = false)
+    private AuditEntityTypeEnum entityType;
+
+    @Column(name = "entity_id")
+    private Integer entityId;
+
+    @Column(name = "action", nullable = false)
+    private AuditActionEnum action;
+
+    @Column(name = "actor", nullable = false, length = 160)
+    private String actor;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    /**
+     * The changed fields as a JSON object of [before, after] pairs.
+     */
+    @JsonRawValue
+    @Column(name = "changes", columnDefinition = "text")
+    private String changes;
+}
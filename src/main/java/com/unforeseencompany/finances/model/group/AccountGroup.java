@@ -0,0 +1,78 @@
+package com.unforeseencompany.finances.model.group;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.dto.group.AccountGroupDTO;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "account_group", indexes = {
+        @Index(name = "idx_account_group_tenant_path", columnList = "tenant_id, path")
+})
+@Data
+@NoArgsConstructor
+public class AccountGroup {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "parent_id")
+    private Integer parentId;
+
+    /**
+     * The IDs from the root down to this group, as /1/4/9/.
+     */
+    @Column(name = "path", nullable = false, length = 512)
+    private String path;
+
+    /**
+     * The sum of the balances of the accounts in this group and in every group below it. Only ever changed by
+     * set-based statements, so saving the group never writes back a balance it read before a concurrent change.
+     */
+    @Column(name = "balance", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    public AccountGroup(AccountGroupDTO accountGroupDTO) {
+        this.name = accountGroupDTO.getName();
+        this.parentId = accountGroupDTO.getParentId();
+        this.path = "";
+        this.balance = BigDecimal.ZERO;
+    }
+
+    /**
+     * @return The IDs of this group and of every group above it, from the root down.
+     */
+    @JsonIgnore
+    public List<Integer> getAncestorIds() {
+        return idsOnPath(path);
+    }
+
+    /**
+     * @return The IDs of the groups on the given path, from the root down.
+     */
+    public static List<Integer> idsOnPath(String path) {
+        List<Integer> ids = new ArrayList<>();
+        for (String id : path.split("/")) {
+            if (!id.isEmpty()) {
+                ids.add(Integer.valueOf(id));
+            }
+        }
+        return ids;
+    }
+}
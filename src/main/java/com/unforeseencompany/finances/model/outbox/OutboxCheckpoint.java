@@ -0,0 +1,33 @@
+package com.unforeseencompany.finances.model.outbox;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_checkpoint")
+@Data
+@NoArgsConstructor
+public class OutboxCheckpoint {
+
+    @Id
+    @Column(name = "consumer", length = 64)
+    private String consumer;
+
+    @Column(name = "last_event_id", nullable = false)
+    private Long lastEventId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public OutboxCheckpoint(String consumer) {
+        this.consumer = consumer;
+        this.lastEventId = 0L;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
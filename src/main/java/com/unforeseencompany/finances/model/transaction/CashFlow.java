@@ -1,14 +1,28 @@
 package com.unforeseencompany.finances.model.transaction;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.unforeseencompany.finances.dto.transaction.CashFlowDTO;
+import com.unforeseencompany.finances.enums.AnomalyTypeEnum;
 import com.unforeseencompany.finances.model.Account;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
-@Table(name = "cash_flow_transaction")
+@Table(name = "cash_flow_transaction", indexes = {
+        @Index(name = "idx_cash_flow_tenant_live_account_date", columnList = "tenant_id, deleted_at, account_id, transaction_date"),
+        @Index(name = "idx_cash_flow_tenant_live_date", columnList = "tenant_id, deleted_at, transaction_date")
+})
+@SQLDelete(sql = "update cash_flow_transaction set deleted_at = current_timestamp(6) where id = ?")
+@Where(clause = "deleted_at is null")
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -19,7 +33,34 @@ public class CashFlow extends Transaction{
     @JoinColumn(name = "account_id", nullable = false)
     private Account account;
 
+    /**
+     * Loaded with the cash flow; for a listing, the splits of every cash flow listed are read in one query.
+     */
+    @OneToMany(mappedBy = "cashFlow", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SUBSELECT)
+    @OrderBy("id")
+    private List<CashFlowSplit> splits = new ArrayList<>();
+
+    /**
+     * The anomalies found when the cash flow was created, returned with it but not stored.
+     */
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    @EqualsAndHashCode.Exclude
+    private List<AnomalyTypeEnum> anomalies;
+
     public CashFlow(CashFlowDTO cashFlowDTO) {
         super(cashFlowDTO.getAmount(), cashFlowDTO.getDescription(), cashFlowDTO.getTransactionDate(), cashFlowDTO.getTransactionType());
+        replaceSplits(cashFlowDTO);
+    }
+
+    /**
+     * Replaces the splits with those of the DTO, or removes them if it has none.
+     */
+    public void replaceSplits(CashFlowDTO cashFlowDTO) {
+        splits.clear();
+        if (cashFlowDTO.getSplits() != null) {
+            cashFlowDTO.getSplits().forEach(split -> splits.add(new CashFlowSplit(this, split)));
+        }
     }
 }
@@ -0,0 +1,55 @@
+package com.unforeseencompany.finances.model.transaction;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.unforeseencompany.finances.dto.transaction.CashFlowSplitDTO;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.TenantId;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of a cash flow's amount that belongs to one category. The splits of a cash flow add up to its amount.
+ */
+@Entity
+@Table(name = "cash_flow_split")
+@Data
+@NoArgsConstructor
+public class CashFlowSplit {
+
+    @Id
+    @Column(name = "id")
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cash_flow_id", nullable = false)
+    private CashFlow cashFlow;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "category", length = 64)
+    private String category;
+
+    @Column(name = "description")
+    private String description;
+
+    public CashFlowSplit(CashFlow cashFlow, CashFlowSplitDTO cashFlowSplitDTO) {
+        this.cashFlow = cashFlow;
+        this.amount = cashFlowSplitDTO.getAmount();
+        this.category = cashFlowSplitDTO.getCategory();
+        this.description = cashFlowSplitDTO.getDescription();
+    }
+}
@@ -1,13 +1,16 @@
 package com.unforeseencompany.finances.model.transaction;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.unforeseencompany.finances.enums.TransactionTypeEnum;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.TenantId;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @MappedSuperclass
 @Data
@@ -19,7 +22,12 @@ public abstract class Transaction {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer id;
 
-    @Column(name = "amount", nullable = false)
+    @TenantId
+    @JsonIgnore
+    @Column(name = "tenant_id", nullable = false, updatable = false, length = 64)
+    private String tenantId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
     private BigDecimal amount;
 
     @Column(name = "description")
@@ -32,6 +40,10 @@ public abstract class Transaction {
     @Column(name = "transaction_type", nullable = false)
     private TransactionTypeEnum transactionType;
 
+    @JsonIgnore
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public Transaction(BigDecimal amount, String description, LocalDate transactionDate, TransactionTypeEnum transactionType) {
         this.amount = amount;
         this.description = description;
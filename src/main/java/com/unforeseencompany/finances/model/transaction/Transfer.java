@@ -1,18 +1,31 @@
 package com.unforeseencompany.finances.model.transaction;
 
+import com.unforeseencompany.finances.dto.transaction.TransferBatchDTO;
 import com.unforeseencompany.finances.dto.transaction.TransferDTO;
+import com.unforeseencompany.finances.dto.transaction.TransferLegDTO;
 import com.unforeseencompany.finances.enums.TransactionTypeEnum;
 import com.unforeseencompany.finances.model.Account;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.Where;
 
 @Entity
-@Table(name = "transfer_transaction")
+@Table(name = "transfer_transaction", indexes = {
+        @Index(name = "idx_transfer_tenant_live_source_date", columnList = "tenant_id, deleted_at, source_account_id, transaction_date"),
+        @Index(name = "idx_transfer_tenant_live_target_date", columnList = "tenant_id, deleted_at, target_account_id, transaction_date"),
+        @Index(name = "idx_transfer_tenant_live_date", columnList = "tenant_id, deleted_at, transaction_date"),
+        @Index(name = "idx_transfer_tenant_live_batch", columnList = "tenant_id, deleted_at, batch_id")
+})
+@SQLDelete(sql = "update transfer_transaction set deleted_at = current_timestamp(6) where id = ?")
+@Where(clause = "deleted_at is null")
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -26,7 +39,19 @@ public class Transfer extends Transaction {
     @JoinColumn(name = "target_account_id", nullable = false)
     private Account targetAccount;
 
+    /**
+     * The ID of the first transfer of the batch this one was made in, from one source to many targets, if any.
+     */
+    @Column(name = "batch_id")
+    private Integer batchId;
+
     public Transfer(TransferDTO transferDTO) {
         super(transferDTO.getAmount(), transferDTO.getDescription(), transferDTO.getTransactionDate(), TransactionTypeEnum.TRANSFER);
     }
+
+    public Transfer(TransferBatchDTO transferBatchDTO, TransferLegDTO transferLegDTO) {
+        super(transferLegDTO.getAmount(),
+                transferLegDTO.getDescription() != null ? transferLegDTO.getDescription() : transferBatchDTO.getDescription(),
+                transferBatchDTO.getTransactionDate(), TransactionTypeEnum.TRANSFER);
+    }
 }
@@ -0,0 +1,103 @@
+package com.unforeseencompany.finances.ratelimit;
+
+import com.unforeseencompany.finances.config.RateLimitProperties;
+import com.unforeseencompany.finances.enums.RequestClassEnum;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admits each request only if its client has budget left for the request's class, answering
+ * 429 Too Many Requests with a Retry-After header otherwise. Runs right after the tenant filter,
+ * before the request can take a database connection.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    /**
+     * Endpoints that delete every resource of a collection when called without an ID.
+     */
+    private static final Set<String> BULK_DELETE_PATHS = Set.of("/transactions", "/cashflow", "/transfer", "/accounts");
+
+    /**
+     * Endpoints that archive, repair or accrue the whole ledger.
+     */
+    private static final Set<String> BULK_POST_PATHS = Set.of("/archive", "/reconciliation", "/accruals/run");
+
+    Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitProperties rateLimitProperties;
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties rateLimitProperties) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitProperties = rateLimitProperties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.endsWith("/") && path.length() > 1) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        String clientId = clientId(request, rateLimitProperties);
+        RequestClassEnum requestClass = classify(request.getMethod(), path);
+        long waitNanos = rateLimiter.tryAcquire(clientId, requestClass);
+
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.warn("Rate limited " + requestClass + " request " + request.getMethod() + " " + path + " from client " + clientId);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded, retry after " + retryAfterSeconds + " s");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !rateLimitProperties.isEnabled() || path.startsWith("/actuator");
+    }
+
+    /**
+     * @return The client named in the client header by a trusted proxy, or else the client's IP address. The header
+     * is not trusted from anyone else: a client could send a new ID with every request and never run out of budget.
+     */
+    public static String clientId(HttpServletRequest request, RateLimitProperties rateLimitProperties) {
+        if (rateLimitProperties.getTrustedProxies().contains(request.getRemoteAddr())) {
+            String clientId = request.getHeader(rateLimitProperties.getClientHeader());
+            if (clientId != null && !clientId.isBlank() && clientId.length() <= 128) {
+                return "client:" + clientId;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private RequestClassEnum classify(String method, String path) {
+        return switch (method) {
+            case "GET", "HEAD", "OPTIONS" -> RequestClassEnum.READ;
+            case "DELETE" -> BULK_DELETE_PATHS.contains(path) ? RequestClassEnum.BULK : RequestClassEnum.WRITE;
+            case "POST" -> BULK_POST_PATHS.contains(path) ? RequestClassEnum.BULK : RequestClassEnum.WRITE;
+            default -> RequestClassEnum.WRITE;
+        };
+    }
+}
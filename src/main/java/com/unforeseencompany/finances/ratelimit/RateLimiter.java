@@ -0,0 +1,111 @@
+package com.unforeseencompany.finances.ratelimit;
+
+import com.unforeseencompany.finances.config.RateLimitProperties;
+import com.unforeseencompany.finances.enums.RequestClassEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a token bucket per client and class of request, created on the client's first request and
+ * dropped once idle. Admission never takes a lock: buckets are created with computeIfAbsent and
+ * consumed by compare-and-set. Past finances.rate-limit.max-clients, new clients share a single bucket
+ * until idle ones are dropped, so a flood of new addresses neither grows the map nor escapes the limits.
+ */
+@Component
+public class RateLimiter {
+
+    /**
+     * Key of the bucket shared by the clients that come when every bucket is taken.
+     */
+    static final String OVERFLOW_CLIENT_ID = "overflow";
+
+    private final RateLimitProperties rateLimitProperties;
+
+    private final Map<RequestClassEnum, ConcurrentHashMap<String, TokenBucket>> buckets = new EnumMap<>(RequestClassEnum.class);
+
+    private final Map<RequestClassEnum, Counter> allowedCounters = new EnumMap<>(RequestClassEnum.class);
+
+    private final Map<RequestClassEnum, Counter> rejectedCounters = new EnumMap<>(RequestClassEnum.class);
+
+    public RateLimiter(RateLimitProperties rateLimitProperties, MeterRegistry meterRegistry) {
+        this.rateLimitProperties = rateLimitProperties;
+
+        for (RequestClassEnum requestClass : RequestClassEnum.values()) {
+            ConcurrentHashMap<String, TokenBucket> classBuckets = new ConcurrentHashMap<>();
+            buckets.put(requestClass, classBuckets);
+            String tag = requestClass.name().toLowerCase();
+
+            allowedCounters.put(requestClass, Counter.builder("finances.ratelimit.requests")
+                    .description("Requests checked against the rate limits")
+                    .tag("class", tag).tag("outcome", "allowed")
+                    .register(meterRegistry));
+            rejectedCounters.put(requestClass, Counter.builder("finances.ratelimit.requests")
+                    .description("Requests checked against the rate limits")
+                    .tag("class", tag).tag("outcome", "rejected")
+                    .register(meterRegistry));
+            Gauge.builder("finances.ratelimit.clients", classBuckets, Map::size)
+                    .description("Clients with a token bucket")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+            Gauge.builder("finances.ratelimit.clients.throttled", classBuckets, this::countThrottled)
+                    .description("Clients whose token bucket is empty")
+                    .tag("class", tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Takes a token from the client's bucket for the given class of request.
+     *
+     * @param clientId     The client, by API client ID or IP address.
+     * @param requestClass The class of the request.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client may retry.
+     */
+    public long tryAcquire(String clientId, RequestClassEnum requestClass) {
+        long now = System.nanoTime();
+        RateLimitProperties.Budget budget = budget(requestClass);
+        ConcurrentHashMap<String, TokenBucket> classBuckets = buckets.get(requestClass);
+        TokenBucket bucket = classBuckets.get(clientId);
+        if (bucket == null) {
+            // the size is only approximate under concurrency, which lets the map run over by a few buckets at most
+            String key = classBuckets.size() < rateLimitProperties.getMaxClients() ? clientId : OVERFLOW_CLIENT_ID;
+            bucket = classBuckets.computeIfAbsent(key,
+                    id -> new TokenBucket(budget.getCapacity(), budget.getRefillPeriod().toNanos(), now));
+        }
+
+        long wait = bucket.tryConsume(now);
+        (wait == 0 ? allowedCounters : rejectedCounters).get(requestClass).increment();
+        return wait;
+    }
+
+    /**
+     * Drops the buckets of clients idle for longer than finances.rate-limit.idle-timeout.
+     */
+    @Scheduled(fixedDelayString = "${finances.rate-limit.idle-timeout:PT10M}")
+    public void evictIdleBuckets() {
+        long idleSince = System.nanoTime() - rateLimitProperties.getIdleTimeout().toNanos();
+        for (ConcurrentHashMap<String, TokenBucket> classBuckets : buckets.values()) {
+            classBuckets.values().removeIf(bucket -> bucket.getLastUsed() - idleSince < 0);
+        }
+    }
+
+    private RateLimitProperties.Budget budget(RequestClassEnum requestClass) {
+        return switch (requestClass) {
+            case READ -> rateLimitProperties.getRead();
+            case WRITE -> rateLimitProperties.getWrite();
+            case BULK -> rateLimitProperties.getBulk();
+        };
+    }
+
+    private double countThrottled(ConcurrentHashMap<String, TokenBucket> classBuckets) {
+        long now = System.nanoTime();
+        return classBuckets.values().stream().filter(bucket -> bucket.availableTokens(now) == 0).count();
+    }
+}
@@ -0,0 +1,65 @@
+package com.unforeseencompany.finances.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, kept as a single timestamp.
+ * <p>
+ * Instead of a token count and a refill time, the bucket stores the theoretical arrival time of the next
+ * request: the time at which the bucket would be full again, moved forward by one refill period per request.
+ * A request is admitted while that time is less than one burst ahead of the clock, which is exactly the
+ * token bucket's rule, and the whole state fits in one {@link AtomicLong} updated by compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long refillNanos;
+
+    /**
+     * How far ahead of the clock the arrival time may run: the capacity minus the request being admitted.
+     */
+    private final long burstNanos;
+
+    private final AtomicLong arrivalTime;
+
+    private volatile long lastUsed;
+
+    public TokenBucket(int capacity, long refillNanos, long now) {
+        this.refillNanos = refillNanos;
+        this.burstNanos = refillNanos * (capacity - 1);
+        this.arrivalTime = new AtomicLong(now);
+        this.lastUsed = now;
+    }
+
+    /**
+     * Takes one token if available.
+     *
+     * @param now The current time in nanoseconds, from {@link System#nanoTime()}.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until a token is available.
+     */
+    public long tryConsume(long now) {
+        lastUsed = now;
+        while (true) {
+            long current = arrivalTime.get();
+            long start = Math.max(current, now);
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivalTime.compareAndSet(current, start + refillNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return The number of whole tokens left at the given time.
+     */
+    public long availableTokens(long now) {
+        long ahead = Math.max(arrivalTime.get() - now, 0);
+        return (burstNanos + refillNanos - ahead) / refillNanos;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+}
@@ -0,0 +1,42 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.archive.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Integer> {
+    List<AccountBalanceSnapshot> findByAccountIdBetween(Integer fromId, Integer toId);
+
+    /**
+     * Removes the archived cash flows' effect from the balance of every account that has some.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - (select s.archivedCashFlowNet from AccountBalanceSnapshot s where s.accountId = a.id) " +
+            "where a.tenantId = :tenantId and a.id in (select s.accountId from AccountBalanceSnapshot s where s.tenantId = :tenantId)")
+    int revertArchivedCashFlowNets(String tenantId);
+
+    /**
+     * Removes the archived transfers' effect from the balance of every account that has some.
+     */
+    @Modifying
+    @Query("update Account a set a.balance = a.balance - (select s.archivedTransferNet from AccountBalanceSnapshot s where s.accountId = a.id) " +
+            "where a.tenantId = :tenantId and a.id in (select s.accountId from AccountBalanceSnapshot s where s.tenantId = :tenantId)")
+    int revertArchivedTransferNets(String tenantId);
+
+    @Modifying
+    @Query("update AccountBalanceSnapshot s set s.archivedCashFlowNet = 0 where s.tenantId = :tenantId")
+    int clearArchivedCashFlowNets(String tenantId);
+
+    @Modifying
+    @Query("update AccountBalanceSnapshot s set s.archivedTransferNet = 0 where s.tenantId = :tenantId")
+    int clearArchivedTransferNets(String tenantId);
+
+    @Modifying
+    @Query("delete from AccountBalanceSnapshot s where s.tenantId = :tenantId")
+    int deleteByTenant(String tenantId);
+}
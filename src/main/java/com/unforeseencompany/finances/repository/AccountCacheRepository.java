@@ -0,0 +1,17 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.Account;
+
+import java.util.Optional;
+
+/**
+ * Account lookups that can be answered from the second-level cache.
+ */
+public interface AccountCacheRepository {
+
+    /**
+     * Loads an account by ID through the persistence context and the second-level cache, so a cached account
+     * costs no query. The account is only returned if it belongs to the current tenant.
+     */
+    Optional<Account> findCachedById(Integer id);
+}
@@ -0,0 +1,22 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Optional;
+
+public class AccountCacheRepositoryImpl implements AccountCacheRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Account> findCachedById(Integer id) {
+        // loading by ID is not restricted to the tenant nor to live rows like queries are, so both are checked here
+        return Optional.ofNullable(entityManager.find(Account.class, id))
+                .filter(account -> TenantContext.getTenantId().equals(account.getTenantId()))
+                .filter(account -> account.getDeletedAt() == null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.group.AccountGroup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountGroupRepository extends JpaRepository<AccountGroup, Integer> {
+    /**
+     * Loads a group through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select g from AccountGroup g where g.id = :id")
+    Optional<AccountGroup> findById(Integer id);
+
+    @Query("select count(g) > 0 from AccountGroup g")
+    boolean existsAny();
+
+    boolean existsByParentId(Integer parentId);
+
+    /**
+     * @return The group and every group below it.
+     */
+    List<AccountGroup> findByPathStartingWith(String path);
+
+    /**
+     * @return Rows of ID and path of the given groups, as last committed.
+     */
+    @Query(value = "select id, path from account_group where tenant_id = :tenantId and id in (:ids)", nativeQuery = true)
+    List<Object[]> findPaths(String tenantId, Collection<Integer> ids);
+
+    /**
+     * Locks the given groups with select ... for update, in ID order.
+     *
+     * @return Rows of ID and path of the groups.
+     */
+    @Query(value = "select id, path from account_group where tenant_id = :tenantId and id in (:ids) order by id for update", nativeQuery = true)
+    List<Object[]> lockPaths(String tenantId, Collection<Integer> ids);
+
+    /**
+     * @return The IDs of the group with the given path and of every group below it.
+     */
+    @Query(value = "select id from account_group where tenant_id = :tenantId and path like concat(:path, '%')", nativeQuery = true)
+    List<Integer> findSubtreeIds(String tenantId, String path);
+
+    @Query(value = "select balance from account_group where tenant_id = :tenantId and id = :id", nativeQuery = true)
+    BigDecimal findBalance(String tenantId, Integer id);
+
+    @Modifying
+    @Query(value = "update account_group set balance = balance + :delta where tenant_id = :tenantId and id = :id", nativeQuery = true)
+    int addToBalance(String tenantId, Integer id, BigDecimal delta);
+
+    @Modifying
+    @Query(value = "insert into account_group_period_net (group_id, period, tenant_id, net_change) " +
+            "values (:id, :period, :tenantId, :delta) on duplicate key update net_change = net_change + :delta", nativeQuery = true)
+    int addToPeriodNet(String tenantId, Integer id, LocalDate period, BigDecimal delta);
+
+    /**
+     * @return Rows of month and net change of the group in the months starting in the given range, ordered by month.
+     */
+    @Query(value = "select period, net_change from account_group_period_net " +
+            "where tenant_id = :tenantId and group_id = :id and period between :from and :to order by period", nativeQuery = true)
+    List<Object[]> findPeriodNets(String tenantId, Integer id, LocalDate from, LocalDate to);
+
+    /**
+     * @return Rows of month and net change of the group in every month it has transactions in.
+     */
+    @Query(value = "select period, net_change from account_group_period_net where tenant_id = :tenantId and group_id = :id", nativeQuery = true)
+    List<Object[]> findAllPeriodNets(String tenantId, Integer id);
+
+    /**
+     * @return Rows of month and net change of the account's live and archived transactions, as the rows of
+     * {@link #rebuildPeriodNets} count them.
+     */
+    @Query(value = "select period, sum(delta) from (" +
+            "select transaction_date - interval (dayofmonth(transaction_date) - 1) day as period, " +
+            "case when transaction_type = 0 then amount else -amount end as delta " +
+            "from cash_flow_transaction where tenant_id = :tenantId and account_id = :accountId and deleted_at is null " +
+            "union all select transaction_date - interval (dayofmonth(transaction_date) - 1) day, " +
+            "case when transaction_type = 0 then amount else -amount end " +
+            "from cash_flow_transaction_archive where tenant_id = :tenantId and account_id = :accountId " +
+            "union all select transaction_date - interval (dayofmonth(transaction_date) - 1) day, -amount " +
+            "from transfer_transaction where tenant_id = :tenantId and source_account_id = :accountId and deleted_at is null " +
+            "union all select transaction_date - interval (dayofmonth(transaction_date) - 1) day, amount " +
+            "from transfer_transaction where tenant_id = :tenantId and target_account_id = :accountId and deleted_at is null " +
+            "union all select transaction_date - interval (dayofmonth(transaction_date) - 1) day, -amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId and source_account_id = :accountId " +
+            "union all select transaction_date - interval (dayofmonth(transaction_date) - 1) day, amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId and target_account_id = :accountId" +
+            ") x group by period", nativeQuery = true)
+    List<Object[]> findAccountPeriodNets(String tenantId, Integer accountId);
+
+    /**
+     * Replaces the paths starting with the old prefix, to move a group and everything below it. The persistence
+     * context is cleared afterwards, as the groups it holds no longer match their rows.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "update account_group set path = concat(:newPrefix, substring(path, char_length(:oldPrefix) + 1)) " +
+            "where tenant_id = :tenantId and path like concat(:oldPrefix, '%')", nativeQuery = true)
+    int replacePathPrefix(String tenantId, String oldPrefix, String newPrefix);
+
+    @Modifying
+    @Query(value = "delete from account_group_period_net where tenant_id = :tenantId", nativeQuery = true)
+    int deletePeriodNetsByTenant(String tenantId);
+
+    @Modifying
+    @Query(value = "delete from account_group_period_net where tenant_id = :tenantId and group_id = :id", nativeQuery = true)
+    int deletePeriodNets(String tenantId, Integer id);
+
+    /**
+     * Sets every group's balance to the sum of the live accounts in its subtree. Pending changes are flushed first.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update account_group g left join (" +
+            "select anc.id, sum(a.balance) as balance from account a " +
+            "join account_group leaf on leaf.id = a.group_id " +
+            "join account_group anc on anc.tenant_id = :tenantId and leaf.path like concat(anc.path, '%') " +
+            "where a.tenant_id = :tenantId and a.deleted_at is null group by anc.id" +
+            ") t on t.id = g.id set g.balance = coalesce(t.balance, 0) where g.tenant_id = :tenantId", nativeQuery = true)
+    int rebuildBalances(String tenantId);
+
+    /**
+     * Recomputes every group's net change per month from the live and archived transactions of the live accounts
+     * in its subtree. The existing rows must be deleted first; the persistence context is cleared afterwards,
+     * as the groups it holds no longer match their rows.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "insert into account_group_period_net (group_id, period, tenant_id, net_change) " +
+            "select anc.id, x.period, :tenantId, sum(x.delta) from (" +
+            "select account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day as period, " +
+            "case when transaction_type = 0 then amount else -amount end as delta " +
+            "from cash_flow_transaction where tenant_id = :tenantId and deleted_at is null " +
+            "union all select account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day, " +
+            "case when transaction_type = 0 then amount else -amount end " +
+            "from cash_flow_transaction_archive where tenant_id = :tenantId " +
+            "union all select source_account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day, -amount " +
+            "from transfer_transaction where tenant_id = :tenantId and deleted_at is null " +
+            "union all select target_account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day, amount " +
+            "from transfer_transaction where tenant_id = :tenantId and deleted_at is null " +
+            "union all select source_account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day, -amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId " +
+            "union all select target_account_id, transaction_date - interval (dayofmonth(transaction_date) - 1) day, amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId" +
+            ") x join account a on a.id = x.account_id and a.tenant_id = :tenantId and a.deleted_at is null " +
+            "join account_group leaf on leaf.id = a.group_id " +
+            "join account_group anc on anc.tenant_id = :tenantId and leaf.path like concat(anc.path, '%') " +
+            "group by anc.id, x.period", nativeQuery = true)
+    int rebuildPeriodNets(String tenantId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update account_group set balance = 0 where tenant_id = :tenantId", nativeQuery = true)
+    int clearBalancesByTenant(String tenantId);
+}
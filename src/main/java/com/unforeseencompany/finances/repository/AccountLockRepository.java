@@ -0,0 +1,20 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.Account;
+
+import java.util.Collection;
+
+/**
+ * Row locks on accounts whose balances are about to change.
+ */
+public interface AccountLockRepository {
+
+    /**
+     * Locks the rows of the given managed accounts until the end of the transaction and reloads them, so their
+     * balances include every write committed before. Rows are locked in ID order, so two transactions locking
+     * the same accounts wait for each other instead of deadlocking.
+     *
+     * @throws IllegalArgumentException If one of the accounts was deleted in the meantime.
+     */
+    void lockForUpdate(Collection<Account> accounts);
+}
@@ -0,0 +1,30 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.Account;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class AccountLockRepositoryImpl implements AccountLockRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void lockForUpdate(Collection<Account> accounts) {
+        Map<Integer, Account> byId = new TreeMap<>();
+        accounts.forEach(account -> byId.put(account.getId(), account));
+
+        for (Account account : byId.values()) {
+            // refreshing bypasses the second-level cache and reads the row with select ... for update
+            entityManager.refresh(account, LockModeType.PESSIMISTIC_WRITE);
+            if (account.getDeletedAt() != null) {
+                throw new IllegalArgumentException("Account not found with id: " + account.getId());
+            }
+        }
+    }
+}
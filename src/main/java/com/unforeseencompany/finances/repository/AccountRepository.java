@@ -1,12 +1,111 @@
 package com.unforeseencompany.finances.repository;
 
 import com.unforeseencompany.finances.model.Account;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends JpaRepository<Account, Integer> {
+public interface AccountRepository extends JpaRepository<Account, Integer>, AccountCacheRepository, AccountLockRepository {
+    /**
+     * Loads an account through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findById(Integer id);
+
+    /**
+     * Cached in the query cache when the second-level cache is enabled; any write to the account table invalidates it.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "account-queries")
+    })
     Optional<Account> findAccountByName(String name);
+
+    @Query("select a.id from Account a order by a.id")
+    List<Integer> findAllIds();
+
+    /**
+     * Reads the version from the table rather than the second-level cache, which only this instance's writes evict.
+     */
+    @Query("select a.version from Account a where a.id = :id")
+    Optional<Long> findVersion(Integer id);
+
+    /**
+     * @return The ID and version of each of the given accounts that exists, read from the table like {@link #findVersion}.
+     */
+    @Query("select a.id, a.version from Account a where a.id in :ids")
+    List<Object[]> findVersions(Collection<Integer> ids);
+
+    List<Account> findByIdBetweenOrderById(Integer fromId, Integer toId);
+
+    boolean existsByGroupId(Integer groupId);
+
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta, a.version = a.version + 1 " +
+            "where a.tenantId = :tenantId and a.id = :id and a.balance = :expectedBalance")
+    int adjustBalanceIfUnchanged(String tenantId, Integer id, BigDecimal expectedBalance, BigDecimal delta);
+
+    @Modifying
+    @Query("update Account a set a.deletedAt = local datetime where a.tenantId = :tenantId and a.deletedAt is null")
+    int softDeleteByTenant(String tenantId);
+
+    /**
+     * Removes up to the given number of the tenant's accounts deleted more than the given number of seconds ago,
+     * skipping those still referenced by a transaction that has not been purged yet.
+     */
+    @Modifying
+    @Query(value = "delete from account where tenant_id = :tenantId " +
+            "and deleted_at < current_timestamp(6) - interval :retentionSeconds second " +
+            "and not exists (select 1 from cash_flow_transaction c where c.account_id = account.id) " +
+            "and not exists (select 1 from transfer_transaction t where t.source_account_id = account.id) " +
+            "and not exists (select 1 from transfer_transaction t where t.target_account_id = account.id) " +
+            "limit :limit", nativeQuery = true)
+    int purgeDeleted(String tenantId, long retentionSeconds, int limit);
+
+    /**
+     * @return Every tenant that has accounts, deleted ones included. Native, so it is not restricted to the current tenant.
+     */
+    @Query(value = "select distinct tenant_id from account", nativeQuery = true)
+    List<String> findAllTenantIds();
+
+    /**
+     * Computes the closing balance of the given accounts on every day they had a cash flow or transfer,
+     * live or archived, from their initial balance plus the running sum of the daily deltas. Deleted transactions
+     * awaiting the purge are skipped.
+     * Transactions dated on or before the opening day are collapsed into a single row on that day.
+     *
+     * @return Rows of account ID, day and closing balance, ordered by account and day.
+     */
+    @Query(value = "select d.account_id, d.day, a.initial_balance + sum(d.delta) over (partition by d.account_id order by d.day) as balance " +
+            "from (select x.account_id, x.day, sum(x.delta) as delta from (" +
+            "select account_id, greatest(transaction_date, :openingDay) as day, " +
+            "case when transaction_type = 0 then amount else -amount end as delta " +
+            "from cash_flow_transaction where tenant_id = :tenantId and deleted_at is null and account_id in (:accountIds) " +
+            "union all select account_id, greatest(transaction_date, :openingDay), " +
+            "case when transaction_type = 0 then amount else -amount end " +
+            "from cash_flow_transaction_archive where tenant_id = :tenantId and account_id in (:accountIds) " +
+            "union all select source_account_id, greatest(transaction_date, :openingDay), -amount " +
+            "from transfer_transaction where tenant_id = :tenantId and deleted_at is null and source_account_id in (:accountIds) " +
+            "union all select target_account_id, greatest(transaction_date, :openingDay), amount " +
+            "from transfer_transaction where tenant_id = :tenantId and deleted_at is null and target_account_id in (:accountIds) " +
+            "union all select source_account_id, greatest(transaction_date, :openingDay), -amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId and source_account_id in (:accountIds) " +
+            "union all select target_account_id, greatest(transaction_date, :openingDay), amount " +
+            "from transfer_transaction_archive where tenant_id = :tenantId and target_account_id in (:accountIds)" +
+            ") x group by x.account_id, x.day) d " +
+            "join account a on a.id = d.account_id and a.tenant_id = :tenantId " +
+            "order by d.account_id, d.day", nativeQuery = true)
+    List<Object[]> findDailyBalances(String tenantId, Collection<Integer> accountIds, LocalDate openingDay);
 }
@@ -0,0 +1,16 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.accrual.AccrualPosting;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AccrualPostingRepository extends JpaRepository<AccrualPosting, Long> {
+
+    List<AccrualPosting> findByPeriodOrderById(LocalDate period);
+
+    List<AccrualPosting> findByRuleIdOrderByPeriodDesc(Integer ruleId);
+}
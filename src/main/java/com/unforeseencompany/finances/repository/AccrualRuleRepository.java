@@ -0,0 +1,32 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccrualRuleRepository extends JpaRepository<AccrualRule, Integer> {
+    /**
+     * Loads a rule through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select r from AccrualRule r where r.id = :id")
+    Optional<AccrualRule> findById(Integer id);
+
+    List<AccrualRule> findByAccountIdOrderById(Integer accountId);
+
+    /**
+     * @return The rules of the live accounts in the given ID range that are in effect by the end of the month
+     * and have not been accrued for it yet, ordered by account.
+     */
+    @Query("select r from AccrualRule r, Account a where a.id = r.accountId and a.deletedAt is null " +
+            "and a.id between :fromId and :toId " +
+            "and r.effectiveFrom <= :periodEnd and not exists (select 1 from AccrualPosting p " +
+            "where p.ruleId = r.id and p.period = :periodStart) order by r.accountId, r.id")
+    List<AccrualRule> findUnposted(Integer fromId, Integer toId, LocalDate periodStart, LocalDate periodEnd);
+}
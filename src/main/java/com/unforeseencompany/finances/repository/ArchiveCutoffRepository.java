@@ -0,0 +1,50 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.archive.ArchiveCutoff;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * The cutoff rows are keyed by tenant, so every query takes the tenant explicitly.
+ */
+@Repository
+public interface ArchiveCutoffRepository extends JpaRepository<ArchiveCutoff, String> {
+
+    @Query("select a.archivedBefore from ArchiveCutoff a where a.tenantId = :tenantId")
+    Optional<LocalDate> findArchivedBefore(String tenantId);
+
+    /**
+     * Loads the tenant's cutoff and holds a shared lock on it until the end of the transaction, so an archival
+     * cannot close more months until the write that read it has committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select a from ArchiveCutoff a where a.tenantId = :tenantId")
+    Optional<ArchiveCutoff> findForShare(String tenantId);
+
+    @Modifying
+    @Query(value = "insert ignore into archive_cutoff (tenant_id, closed_before, archived_before) " +
+            "values (:tenantId, :date, :date)", nativeQuery = true)
+    int insertIfAbsent(String tenantId, LocalDate date);
+
+    /**
+     * Rejects the writes dated before the given day from now on. Waits for the writes that read the previous cutoff.
+     */
+    @Modifying
+    @Query("update ArchiveCutoff a set a.closedBefore = :closedBefore where a.tenantId = :tenantId and a.closedBefore < :closedBefore")
+    int close(String tenantId, LocalDate closedBefore);
+
+    @Modifying
+    @Query("update ArchiveCutoff a set a.archivedBefore = :archivedBefore where a.tenantId = :tenantId and a.archivedBefore < :archivedBefore")
+    int advanceArchivedBefore(String tenantId, LocalDate archivedBefore);
+
+    @Modifying
+    @Query("delete from ArchiveCutoff a where a.tenantId = :tenantId")
+    int deleteByTenant(String tenantId);
+}
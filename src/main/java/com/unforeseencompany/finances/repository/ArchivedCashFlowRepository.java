@@ -0,0 +1,43 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.archive.ArchivedCashFlow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArchivedCashFlowRepository extends JpaRepository<ArchivedCashFlow, Integer> {
+    List<ArchivedCashFlow> findByAccountIdAndTransactionDateBetween(Integer accountId, LocalDate from, LocalDate to);
+
+    List<ArchivedCashFlow> findByTransactionDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Copies the tenant's live cash flows dated in [from, to) into the archive.
+     */
+    @Modifying
+    @Query(value = "insert into cash_flow_transaction_archive (id, tenant_id, amount, description, transaction_date, transaction_type, account_id, archived_at) " +
+            "select id, tenant_id, amount, description, transaction_date, transaction_type, account_id, now() from cash_flow_transaction " +
+            "where tenant_id = :tenantId and deleted_at is null and transaction_date >= :from and transaction_date < :to", nativeQuery = true)
+    int archiveDatedBetween(String tenantId, LocalDate from, LocalDate to);
+
+    /**
+     * @return Pairs of account ID and net cash flow of the archived cash flows dated in [from, to) that are still
+     * live, which are those just copied by {@link #archiveDatedBetween} and not deleted yet.
+     */
+    @Query("select a.accountId, sum(case when a.transactionType = com.unforeseencompany.finances.enums.TransactionTypeEnum.INCOME " +
+            "then a.amount else -a.amount end) from ArchivedCashFlow a where a.transactionDate >= :from and a.transactionDate < :to " +
+            "and exists (select c.id from CashFlow c where c.id = a.id) group by a.accountId")
+    List<Object[]> sumCopiedNetAmountByAccountIdDatedBetween(LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query("delete from ArchivedCashFlow a where a.tenantId = :tenantId and a.accountId = :accountId")
+    int deleteByAccount(String tenantId, Integer accountId);
+
+    @Modifying
+    @Query("delete from ArchivedCashFlow a where a.tenantId = :tenantId")
+    int deleteByTenant(String tenantId);
+}
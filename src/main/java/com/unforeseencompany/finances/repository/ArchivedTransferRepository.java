@@ -0,0 +1,66 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.archive.ArchivedTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ArchivedTransferRepository extends JpaRepository<ArchivedTransfer, Integer> {
+    List<ArchivedTransfer> findBySourceAccountIdAndTransactionDateBetween(Integer accountId, LocalDate from, LocalDate to);
+
+    List<ArchivedTransfer> findByTargetAccountIdAndTransactionDateBetween(Integer accountId, LocalDate from, LocalDate to);
+
+    List<ArchivedTransfer> findByTransactionDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Copies the tenant's live transfers dated in [from, to) into the archive.
+     */
+    @Modifying
+    @Query(value = "insert into transfer_transaction_archive (id, tenant_id, amount, description, transaction_date, transaction_type, source_account_id, target_account_id, archived_at) " +
+            "select id, tenant_id, amount, description, transaction_date, transaction_type, source_account_id, target_account_id, now() from transfer_transaction " +
+            "where tenant_id = :tenantId and deleted_at is null and transaction_date >= :from and transaction_date < :to", nativeQuery = true)
+    int archiveDatedBetween(String tenantId, LocalDate from, LocalDate to);
+
+    /**
+     * @return Pairs of account ID and total amount transferred out of it by the archived transfers dated in [from, to)
+     * that are still live, which are those just copied by {@link #archiveDatedBetween} and not deleted yet.
+     */
+    @Query("select a.sourceAccountId, sum(a.amount) from ArchivedTransfer a where a.transactionDate >= :from and a.transactionDate < :to " +
+            "and exists (select t.id from Transfer t where t.id = a.id) group by a.sourceAccountId")
+    List<Object[]> sumCopiedOutgoingAmountByAccountIdDatedBetween(LocalDate from, LocalDate to);
+
+    /**
+     * @return Pairs of account ID and total amount transferred into it by the archived transfers dated in [from, to)
+     * that are still live.
+     */
+    @Query("select a.targetAccountId, sum(a.amount) from ArchivedTransfer a where a.transactionDate >= :from and a.transactionDate < :to " +
+            "and exists (select t.id from Transfer t where t.id = a.id) group by a.targetAccountId")
+    List<Object[]> sumCopiedIncomingAmountByAccountIdDatedBetween(LocalDate from, LocalDate to);
+
+    /**
+     * @return Rows of target account ID, date and total amount of the archived transfers out of the given account.
+     */
+    @Query("select a.targetAccountId, a.transactionDate, sum(a.amount) from ArchivedTransfer a where a.sourceAccountId = :accountId " +
+            "group by a.targetAccountId, a.transactionDate")
+    List<Object[]> sumOutgoingAmountByTargetAccountAndDate(Integer accountId);
+
+    /**
+     * @return Rows of source account ID, date and total amount of the archived transfers into the given account.
+     */
+    @Query("select a.sourceAccountId, a.transactionDate, sum(a.amount) from ArchivedTransfer a where a.targetAccountId = :accountId " +
+            "group by a.sourceAccountId, a.transactionDate")
+    List<Object[]> sumIncomingAmountBySourceAccountAndDate(Integer accountId);
+
+    @Modifying
+    @Query("delete from ArchivedTransfer a where a.tenantId = :tenantId and (a.sourceAccountId = :accountId or a.targetAccountId = :accountId)")
+    int deleteByAccount(String tenantId, Integer accountId);
+
+    @Modifying
+    @Query("delete from ArchivedTransfer a where a.tenantId = :tenantId")
+    int deleteByTenant(String tenantId);
+}
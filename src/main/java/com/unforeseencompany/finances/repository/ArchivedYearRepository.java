@@ -0,0 +1,18 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.archive.ArchivedYear;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ArchivedYearRepository extends JpaRepository<ArchivedYear, Integer> {
+    Optional<ArchivedYear> findByYear(Integer year);
+
+    @Modifying
+    @Query("delete from ArchivedYear y where y.tenantId = :tenantId")
+    int deleteByTenant(String tenantId);
+}
@@ -0,0 +1,43 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.enums.AttachmentOwnerTypeEnum;
+import com.unforeseencompany.finances.model.attachment.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, Long> {
+    /**
+     * Loads an attachment through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select a from Attachment a where a.id = :id")
+    Optional<Attachment> findById(Long id);
+
+    List<Attachment> findByOwnerTypeAndOwnerIdOrderById(AttachmentOwnerTypeEnum ownerType, Integer ownerId);
+
+    /**
+     * @return Whether any attachment of the tenant, whichever its owner, refers to the content. Native, so it
+     * also runs outside of a request, where the tenant is not bound.
+     */
+    @Query(value = "select count(*) > 0 from attachment where tenant_id = :tenantId and sha256 = :sha256", nativeQuery = true)
+    boolean existsByContent(String tenantId, String sha256);
+
+    /**
+     * Removes up to the given number of the tenant's attachments whose cash flow or transfer was purged,
+     * keeping those of archived transactions.
+     */
+    @Modifying
+    @Query(value = "delete from attachment where tenant_id = :tenantId and (" +
+            "(owner_type = 0 and not exists (select 1 from cash_flow_transaction c where c.id = attachment.owner_id) " +
+            "and not exists (select 1 from cash_flow_transaction_archive c where c.id = attachment.owner_id)) or " +
+            "(owner_type = 1 and not exists (select 1 from transfer_transaction t where t.id = attachment.owner_id) " +
+            "and not exists (select 1 from transfer_transaction_archive t where t.id = attachment.owner_id))) " +
+            "limit :limit", nativeQuery = true)
+    int purgeOrphaned(String tenantId, int limit);
+}
@@ -0,0 +1,17 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.model.audit.AuditEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AuditEntryRepository extends JpaRepository<AuditEntry, Long> {
+    List<AuditEntry> findByIdLessThanOrderByIdDesc(Long id, Pageable pageable);
+
+    List<AuditEntry> findByEntityTypeAndEntityIdAndIdLessThanOrderByIdDesc(AuditEntityTypeEnum entityType, Integer entityId,
+                                                                           Long id, Pageable pageable);
+}
@@ -1,12 +1,109 @@
 package com.unforeseencompany.finances.repository;
 
 import com.unforeseencompany.finances.model.transaction.CashFlow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CashFlowRepository extends JpaRepository<CashFlow, Integer> {
+    /**
+     * Loads a cash flow through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select c from CashFlow c where c.id = :id")
+    Optional<CashFlow> findById(Integer id);
+
+    /**
+     * Loads a cash flow and locks its row until the end of the transaction, so concurrent changes to it apply one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from CashFlow c where c.id = :id")
+    Optional<CashFlow> findByIdForUpdate(Integer id);
+
     List<CashFlow> findByAccountName(String accountName);
+
+    List<CashFlow> findByAccountNameAndTransactionDateBetween(String accountName, LocalDate from, LocalDate to);
+
+    List<CashFlow> findByTransactionDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * Streams the cash flows dated from the given day as rows of account ID, date, signed amount (negative for
+     * expenses) and description, ordered by account and date. Must be consumed inside a transaction.
+     */
+    @Query("select c.account.id, c.transactionDate, case when c.transactionType = com.unforeseencompany.finances.enums.TransactionTypeEnum.INCOME " +
+            "then c.amount else -c.amount end, c.description from CashFlow c where c.transactionDate >= :from order by c.account.id, c.transactionDate")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamSignedAmountsDatedFrom(LocalDate from);
+
+    /**
+     * Same as {@link #streamSignedAmountsDatedFrom} for a single account.
+     */
+    @Query("select c.account.id, c.transactionDate, case when c.transactionType = com.unforeseencompany.finances.enums.TransactionTypeEnum.INCOME " +
+            "then c.amount else -c.amount end, c.description from CashFlow c where c.account.id = :accountId and c.transactionDate >= :from " +
+            "order by c.transactionDate")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamSignedAmountsByAccountDatedFrom(Integer accountId, LocalDate from);
+
+    /**
+     * @return Rows of type, amount, date and description of the given account's latest cash flows, newest first.
+     */
+    @Query("select c.transactionType, c.amount, c.transactionDate, c.description from CashFlow c where c.account.id = :accountId " +
+            "order by c.transactionDate desc, c.id desc")
+    List<Object[]> findRecentSummariesByAccountId(Integer accountId, Pageable pageable);
+
+    @Query("select min(c.transactionDate) from CashFlow c")
+    Optional<LocalDate> findEarliestTransactionDate();
+
+    /**
+     * @return Pairs of account ID and net cash flow (income minus expenses) for the accounts in the ID range.
+     */
+    @Query("select c.account.id, sum(case when c.transactionType = com.unforeseencompany.finances.enums.TransactionTypeEnum.INCOME " +
+            "then c.amount else -c.amount end) from CashFlow c where c.account.id between :fromId and :toId group by c.account.id")
+    List<Object[]> sumNetAmountByAccountIdBetween(Integer fromId, Integer toId);
+
+    /**
+     * Deletes the tenant's cash flows dated in [from, to) that were copied into the archive.
+     */
+    @Modifying
+    @Query("delete from CashFlow c where c.tenantId = :tenantId and c.transactionDate >= :from and c.transactionDate < :to " +
+            "and exists (select a.id from ArchivedCashFlow a where a.id = c.id)")
+    int deleteArchivedDatedBetween(String tenantId, LocalDate from, LocalDate to);
+
+    /**
+     * @return Pairs of ID and date of the given account's cash flows.
+     */
+    @Query("select c.id, c.transactionDate from CashFlow c where c.account.id = :accountId")
+    List<Object[]> findIdAndDateByAccountId(Integer accountId);
+
+    /**
+     * Marks every cash flow of the given account as deleted in one statement.
+     */
+    @Modifying
+    @Query("update CashFlow c set c.deletedAt = local datetime where c.tenantId = :tenantId and c.account.id = :accountId and c.deletedAt is null")
+    int softDeleteByAccount(String tenantId, Integer accountId);
+
+    @Modifying
+    @Query("update CashFlow c set c.deletedAt = local datetime where c.tenantId = :tenantId and c.deletedAt is null")
+    int softDeleteByTenant(String tenantId);
+
+    /**
+     * Removes up to the given number of the tenant's cash flows deleted more than the given number of seconds ago.
+     */
+    @Modifying
+    @Query(value = "delete from cash_flow_transaction where tenant_id = :tenantId " +
+            "and deleted_at < current_timestamp(6) - interval :retentionSeconds second limit :limit", nativeQuery = true)
+    int purgeDeleted(String tenantId, long retentionSeconds, int limit);
 }
@@ -0,0 +1,30 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.LedgerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The version rows are keyed by tenant, so every query takes the tenant explicitly.
+ */
+@Repository
+public interface LedgerVersionRepository extends JpaRepository<LedgerVersion, String> {
+
+    /**
+     * Bumps the tenant's ledger version, and its account generation by the given amount. The row stays locked until
+     * the transaction ends.
+     *
+     * @return 1, or 0 if the tenant has no row yet.
+     */
+    @Modifying
+    @Query("update LedgerVersion l set l.ledgerVersion = l.ledgerVersion + 1, l.accountGeneration = l.accountGeneration + :generations " +
+            "where l.tenantId = :tenantId")
+    int bump(String tenantId, long generations);
+
+    @Modifying
+    @Query(value = "insert ignore into ledger_version (tenant_id, ledger_version, account_generation) values (:tenantId, 0, 0)",
+            nativeQuery = true)
+    int insertIfAbsent(String tenantId);
+}
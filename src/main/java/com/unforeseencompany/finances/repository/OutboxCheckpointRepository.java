@@ -0,0 +1,15 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.outbox.OutboxCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OutboxCheckpointRepository extends JpaRepository<OutboxCheckpoint, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<OutboxCheckpoint> findByConsumer(String consumer);
+}
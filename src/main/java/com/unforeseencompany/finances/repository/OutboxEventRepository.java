@@ -0,0 +1,22 @@
+package com.unforeseencompany.finances.repository;
+
+import com.unforeseencompany.finances.model.outbox.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select count(e) from OutboxEvent e where e.id > :id")
+    long countPendingAfter(Long id);
+
+    @Modifying
+    @Query("delete from OutboxEvent e where e.id <= :id")
+    int deletePublishedUpTo(Long id);
+}
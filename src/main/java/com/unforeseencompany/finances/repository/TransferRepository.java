@@ -1,13 +1,107 @@
 package com.unforeseencompany.finances.repository;
 
 import com.unforeseencompany.finances.model.transaction.Transfer;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer, Integer> {
+    /**
+     * Loads a transfer through a query, so the tenant restriction applies as it does to every other query.
+     */
+    @Override
+    @Query("select t from Transfer t where t.id = :id")
+    Optional<Transfer> findById(Integer id);
+
+    /**
+     * Loads a transfer and locks its row until the end of the transaction, so concurrent changes to it apply one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Transfer t where t.id = :id")
+    Optional<Transfer> findByIdForUpdate(Integer id);
+
+    /**
+     * Lists the transfers of a batch with both their accounts, in a single query.
+     */
+    @Query("select t from Transfer t join fetch t.sourceAccount join fetch t.targetAccount where t.batchId = :batchId order by t.id")
+    List<Transfer> findByBatchId(Integer batchId);
+
+    /**
+     * Same as {@link #findByBatchId}, locking the rows until the end of the transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Transfer t where t.batchId = :batchId order by t.id")
+    List<Transfer> findByBatchIdForUpdate(Integer batchId);
+
     List<Transfer> findBySourceAccountName(String accountName);
     List<Transfer> findByTargetAccountName(String accountName);
+
+    List<Transfer> findBySourceAccountNameAndTransactionDateBetween(String accountName, LocalDate from, LocalDate to);
+    List<Transfer> findByTargetAccountNameAndTransactionDateBetween(String accountName, LocalDate from, LocalDate to);
+
+    List<Transfer> findByTransactionDateBetween(LocalDate from, LocalDate to);
+
+    /**
+     * @return Rows of source account ID, target account ID, date and amount of the transfers dated after the given day.
+     */
+    @Query("select t.sourceAccount.id, t.targetAccount.id, t.transactionDate, t.amount from Transfer t where t.transactionDate > :day")
+    List<Object[]> findAmountsDatedAfter(LocalDate day);
+
+    @Query("select min(t.transactionDate) from Transfer t")
+    Optional<LocalDate> findEarliestTransactionDate();
+
+    /**
+     * @return Pairs of account ID and total amount transferred out of the accounts in the ID range.
+     */
+    @Query("select t.sourceAccount.id, sum(t.amount) from Transfer t where t.sourceAccount.id between :fromId and :toId group by t.sourceAccount.id")
+    List<Object[]> sumOutgoingAmountByAccountIdBetween(Integer fromId, Integer toId);
+
+    /**
+     * @return Pairs of account ID and total amount transferred into the accounts in the ID range.
+     */
+    @Query("select t.targetAccount.id, sum(t.amount) from Transfer t where t.targetAccount.id between :fromId and :toId group by t.targetAccount.id")
+    List<Object[]> sumIncomingAmountByAccountIdBetween(Integer fromId, Integer toId);
+
+    /**
+     * Deletes the tenant's transfers dated in [from, to) that were copied into the archive.
+     */
+    @Modifying
+    @Query("delete from Transfer t where t.tenantId = :tenantId and t.transactionDate >= :from and t.transactionDate < :to " +
+            "and exists (select a.id from ArchivedTransfer a where a.id = t.id)")
+    int deleteArchivedDatedBetween(String tenantId, LocalDate from, LocalDate to);
+
+    /**
+     * @return Rows of ID, date, source account ID, target account ID and amount of the transfers from or to the given account.
+     */
+    @Query("select t.id, t.transactionDate, t.sourceAccount.id, t.targetAccount.id, t.amount from Transfer t " +
+            "where t.sourceAccount.id = :accountId or t.targetAccount.id = :accountId")
+    List<Object[]> findSummariesByAccountId(Integer accountId);
+
+    /**
+     * Marks every transfer from or to the given account as deleted in one statement.
+     */
+    @Modifying
+    @Query("update Transfer t set t.deletedAt = local datetime where t.tenantId = :tenantId " +
+            "and (t.sourceAccount.id = :accountId or t.targetAccount.id = :accountId) and t.deletedAt is null")
+    int softDeleteByAccount(String tenantId, Integer accountId);
+
+    @Modifying
+    @Query("update Transfer t set t.deletedAt = local datetime where t.tenantId = :tenantId and t.deletedAt is null")
+    int softDeleteByTenant(String tenantId);
+
+    /**
+     * Removes up to the given number of the tenant's transfers deleted more than the given number of seconds ago.
+     */
+    @Modifying
+    @Query(value = "delete from transfer_transaction where tenant_id = :tenantId " +
+            "and deleted_at < current_timestamp(6) - interval :retentionSeconds second limit :limit", nativeQuery = true)
+    int purgeDeleted(String tenantId, long retentionSeconds, int limit);
 }
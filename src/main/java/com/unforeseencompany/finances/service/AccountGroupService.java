@@ -0,0 +1,253 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.dto.group.AccountGroupDTO;
+import com.unforeseencompany.finances.dto.group.GroupPeriodNetDTO;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.group.AccountGroup;
+import com.unforeseencompany.finances.repository.AccountGroupRepository;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.service.group.GroupTotalsPropagator;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Manages the tree of account groups and serves their rolled-up totals.
+ * <p>
+ * Each group row holds the balance of its whole subtree and its net change per month, kept current by
+ * {@link GroupTotalsPropagator} as balances change and as accounts and groups move, so reading a group's totals
+ * is a primary key lookup. Bulk changes to the ledger rebuild the totals of the tenant's groups from the accounts
+ * in a couple of set-based statements instead; they lock every account of the tenant first, so no balance changes
+ * while the totals are recomputed.
+ */
+@Service
+@RequiredArgsConstructor
+public class AccountGroupService {
+
+    private final AccountGroupRepository accountGroupRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final GroupTotalsPropagator groupTotalsPropagator;
+
+    private final LedgerVersionService ledgerVersionService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<AccountGroup> getAllGroups() {
+        return accountGroupRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AccountGroup> findGroupById(Integer id) {
+        return accountGroupRepository.findById(id);
+    }
+
+    /**
+     * Lists a group's net change per month, for the months starting in the given range. Months without
+     * transactions are left out.
+     */
+    @Transactional(readOnly = true)
+    public List<GroupPeriodNetDTO> getPeriodNets(Integer id, LocalDate from, LocalDate to) {
+        if (accountGroupRepository.findById(id).isEmpty()) {
+            throw new IllegalArgumentException("Group not found with id: " + id);
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The range starts after it ends");
+        }
+
+        List<GroupPeriodNetDTO> periodNets = new ArrayList<>();
+        for (Object[] row : accountGroupRepository.findPeriodNets(TenantContext.getTenantId(), id, from.withDayOfMonth(1), to)) {
+            periodNets.add(new GroupPeriodNetDTO(((Date) row[0]).toLocalDate(), (BigDecimal) row[1]));
+        }
+        return periodNets;
+    }
+
+    /**
+     * @return Whether the current tenant has any group, and so totals to keep.
+     */
+    @Transactional(readOnly = true)
+    public boolean hasGroups() {
+        return accountGroupRepository.existsAny();
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountGroup saveGroup(AccountGroupDTO accountGroupDTO) {
+        String parentPath = "/";
+        if (accountGroupDTO.getParentId() != null) {
+            parentPath = findGroup(accountGroupDTO.getParentId()).getPath();
+        }
+
+        // the path ends with the group's own ID, known once it is inserted
+        AccountGroup group = accountGroupRepository.saveAndFlush(new AccountGroup(accountGroupDTO));
+        group.setPath(parentPath + group.getId() + "/");
+        return group;
+    }
+
+    /**
+     * Renames a group and moves it, with everything below it, under another parent. Moving takes the group's totals
+     * off the groups above it and adds them to those of its new parent's path.
+     *
+     * @throws IllegalStateException If the group or its new parent is moved or deleted meanwhile.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccountGroup updateGroup(Integer id, AccountGroupDTO accountGroupDTO) {
+        Optional<AccountGroup> groupOptional = accountGroupRepository.findById(id);
+        if (groupOptional.isEmpty()) {
+            return null;
+        }
+
+        AccountGroup group = groupOptional.get();
+        String tenantId = TenantContext.getTenantId();
+        String oldPath = group.getPath();
+        Integer parentId = accountGroupDTO.getParentId();
+        boolean moving = parentId == null ? group.getParentId() != null : !parentId.equals(group.getParentId());
+
+        String parentPath = "/";
+        if (parentId != null) {
+            parentPath = findGroup(parentId).getPath();
+        }
+
+        // a move locks the group with everything below it and the groups of both paths, in the ID order changes
+        // of the totals lock them in; the rows read before must not have moved meanwhile
+        Set<Integer> ids = new TreeSet<>(List.of(id));
+        List<Integer> subtreeIds = List.of();
+        if (moving) {
+            subtreeIds = accountGroupRepository.findSubtreeIds(tenantId, oldPath);
+            ids.addAll(subtreeIds);
+            ids.addAll(AccountGroup.idsOnPath(oldPath));
+            ids.addAll(AccountGroup.idsOnPath(parentPath));
+        }
+        Map<Integer, String> lockedPaths = groupTotalsPropagator.lockGroups(tenantId, ids);
+        if (!oldPath.equals(lockedPaths.get(id)) || (parentId != null && !parentPath.equals(lockedPaths.get(parentId)))
+                || (moving && !new HashSet<>(subtreeIds).equals(new HashSet<>(accountGroupRepository.findSubtreeIds(tenantId, oldPath))))) {
+            throw new IllegalStateException("Group " + id + " was changed by a concurrent request");
+        }
+
+        group.setName(accountGroupDTO.getName());
+        if (!moving) {
+            return group;
+        }
+        if (parentPath.startsWith(oldPath)) {
+            throw new IllegalArgumentException("A group cannot be moved below itself");
+        }
+
+        List<Integer> oldAncestorIds = AccountGroup.idsOnPath(oldPath);
+        oldAncestorIds.remove(id);
+        groupTotalsPropagator.groupMoved(id, oldAncestorIds, AccountGroup.idsOnPath(parentPath));
+
+        group.setParentId(parentId);
+        accountGroupRepository.saveAndFlush(group);
+        accountGroupRepository.replacePathPrefix(tenantId, oldPath, parentPath + id + "/");
+        return accountGroupRepository.findById(id).orElseThrow();
+    }
+
+    /**
+     * Deletes a group that has no groups or accounts in it.
+     *
+     * @return Whether the group existed.
+     * @throws IllegalStateException If the group is not empty.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean deleteGroupById(Integer id) {
+        Optional<AccountGroup> groupOptional = accountGroupRepository.findById(id);
+        if (groupOptional.isEmpty()) {
+            return false;
+        }
+        if (accountGroupRepository.existsByParentId(id) || accountRepository.existsByGroupId(id)) {
+            throw new IllegalStateException("Group " + id + " still has groups or accounts in it");
+        }
+
+        accountGroupRepository.deletePeriodNets(TenantContext.getTenantId(), id);
+        accountGroupRepository.delete(groupOptional.get());
+        return true;
+    }
+
+    /**
+     * Puts an account in a group, or takes it out of any group with a null group ID, moving its totals from the
+     * groups of its old group's path to those of the new one's.
+     *
+     * @return The account, or null if it does not exist.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Account assignAccount(Integer accountId, Integer groupId) {
+        if (groupId != null) {
+            findGroup(groupId);
+        }
+
+        Optional<Account> accountOptional = accountRepository.findById(accountId);
+        if (accountOptional.isEmpty()) {
+            return null;
+        }
+
+        // locked, so neither its balance nor its transactions change while its totals are moved
+        Account account = accountOptional.get();
+        accountRepository.lockForUpdate(List.of(account));
+        groupTotalsPropagator.accountMoved(account, account.getGroupId(), groupId);
+        account.setGroupId(groupId);
+
+        ledgerVersionService.accountChanged(account);
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_UPDATED, account, accountId));
+        return account;
+    }
+
+    /**
+     * Recomputes the totals of every group of the current tenant from its accounts and their transactions.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void rebuildTotals() {
+        accountRepository.lockForUpdate(accountRepository.findAll());
+        rebuildTotals(TenantContext.getTenantId());
+    }
+
+    /**
+     * Recomputes the totals as {@link #rebuildTotals()}, in a transaction that already holds the locks of the
+     * tenant's accounts. Pending changes are flushed first, and the persistence context is cleared afterwards,
+     * so managed entities must not be changed after this call.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rebuildTotalsLocked() {
+        rebuildTotals(TenantContext.getTenantId());
+    }
+
+    /**
+     * Sets every group's totals to zero, for when every account is deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void clearTotals() {
+        String tenantId = TenantContext.getTenantId();
+        groupTotalsPropagator.discardPending();
+        accountGroupRepository.clearBalancesByTenant(tenantId);
+        accountGroupRepository.deletePeriodNetsByTenant(tenantId);
+    }
+
+    private void rebuildTotals(String tenantId) {
+        groupTotalsPropagator.discardPending();
+        accountGroupRepository.rebuildBalances(tenantId);
+        accountGroupRepository.deletePeriodNetsByTenant(tenantId);
+        accountGroupRepository.rebuildPeriodNets(tenantId);
+    }
+
+    private AccountGroup findGroup(Integer id) {
+        return accountGroupRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Group not found with id: " + id));
+    }
+}
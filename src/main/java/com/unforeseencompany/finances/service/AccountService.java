@@ -1,20 +1,32 @@
 package com.unforeseencompany.finances.service;
 
 import com.unforeseencompany.finances.dto.AccountDTO;
-import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
 import com.unforeseencompany.finances.model.Account;
-import com.unforeseencompany.finances.model.transaction.Transfer;
 import com.unforeseencompany.finances.repository.AccountRepository;
 import com.unforeseencompany.finances.repository.CashFlowRepository;
 import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.service.audit.AuditRecorder;
+import com.unforeseencompany.finances.service.group.GroupTotalsPropagator;
+import com.unforeseencompany.finances.tenant.TenantContext;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -27,102 +39,197 @@ public class AccountService {
 
     private final CashFlowRepository cashFlowRepository;
 
-    public void decreaseBalance(Account account, BigDecimal amount) {
+    private final LedgerVersionService ledgerVersionService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ArchiveService archiveService;
+
+    private final AuditRecorder auditRecorder;
+
+    private final AccountGroupService accountGroupService;
+
+    private final GroupTotalsPropagator groupTotalsPropagator;
+
+    /**
+     * Locks the accounts whose balances the current write is about to change. Writes run at READ COMMITTED:
+     * balances are only ever changed under these row locks, which already serialize concurrent writes to an
+     * account, so the snapshot and gap locks of MySQL's default REPEATABLE READ would only add contention.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockForUpdate(Collection<Account> accounts) {
+        accountRepository.lockForUpdate(accounts);
+    }
+
+    /**
+     * Changes the balance of a managed account locked with {@link #lockForUpdate}; the change is flushed at commit,
+     * and rolled up into the account's groups as part of the net change of the transaction date's month.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void decreaseBalance(Account account, BigDecimal amount, LocalDate transactionDate) {
         account.setBalance(account.getBalance().subtract(amount));
-        accountRepository.save(account);
+        groupTotalsPropagator.balanceChanged(account, amount.negate(), transactionDate);
+        ledgerVersionService.accountChanged(account, transactionDate);
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_UPDATED, account, account.getId()));
     }
 
-    public void increaseBalance(Account account, BigDecimal amount) {
+    /**
+     * Changes the balance of a managed account locked with {@link #lockForUpdate}; the change is flushed at commit,
+     * and rolled up into the account's groups as part of the net change of the transaction date's month.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void increaseBalance(Account account, BigDecimal amount, LocalDate transactionDate) {
         account.setBalance(account.getBalance().add(amount));
-        accountRepository.save(account);
+        groupTotalsPropagator.balanceChanged(account, amount, transactionDate);
+        ledgerVersionService.accountChanged(account, transactionDate);
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_UPDATED, account, account.getId()));
     }
 
+    @Transactional(readOnly = true)
     public List<Account> getAllAccounts() {
         return accountRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Account> findAccountById(Integer id) {
-        return accountRepository.findById(id);
+        return accountRepository.findCachedById(id);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Account> findAccountByName(String name) {
         return accountRepository.findAccountByName(name);
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Account saveAccount(Account account) {
-        return accountRepository.save(account);
+        Account savedAccount = accountRepository.save(account);
+        ledgerVersionService.ledgerChanged();
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_CREATED, savedAccount, savedAccount.getId()));
+        return savedAccount;
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Account updateAccount(Integer id, AccountDTO accountDto) {
         Optional<Account> accountOptional = accountRepository.findById(id);
 
         if (accountOptional.isPresent()) {
             Account existingAccount = accountOptional.get();
+            accountRepository.lockForUpdate(List.of(existingAccount));
+            LocalDate affectedFrom = null;
 
             if (!accountDto.getName().equals(existingAccount.getName())) {
                 existingAccount.setName(accountDto.getName());
             }
 
-            if (!accountDto.getInitialBalance().equals(existingAccount.getInitialBalance())) {
+            if (accountDto.getInitialBalance().compareTo(existingAccount.getInitialBalance()) != 0) {
 
-                if (existingAccount.getInitialBalance().compareTo(accountDto.getInitialBalance()) > 0) {
-                    existingAccount.setBalance(existingAccount.getBalance().subtract(existingAccount.getBalance().subtract(accountDto.getInitialBalance())));
-                } else {
-                    existingAccount.setBalance(existingAccount.getBalance().add(accountDto.getInitialBalance().subtract(existingAccount.getBalance())));
-                }
+                // shift the balance by the change of the initial balance, keeping the effect of the transactions
+                BigDecimal delta = accountDto.getInitialBalance().subtract(existingAccount.getInitialBalance());
+                existingAccount.setBalance(existingAccount.getBalance().add(delta));
+                groupTotalsPropagator.balanceChanged(existingAccount, delta, null);
 
                 existingAccount.setInitialBalance(accountDto.getInitialBalance());
+                affectedFrom = ArchiveService.EARLIEST_DATE;
             }
 
-            return accountRepository.save(existingAccount);
+            ledgerVersionService.accountChanged(existingAccount, affectedFrom);
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_UPDATED, existingAccount, affectedFrom, existingAccount.getId()));
+            return existingAccount;
         } else {
             return null; // Account not found
         }
     }
 
+    /**
+     * Deletes an account with its cash flows and transfers. The rows are only marked as deleted, in a few
+     * set-based statements, and the transfers are reverted on the other accounts with one adjustment per month;
+     * the purge job removes the rows later, off-peak.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Boolean deleteAccountById(Integer id) {
         Optional<Account> accountOptional = accountRepository.findById(id);
 
         if (accountOptional.isPresent()) {
+            String tenantId = TenantContext.getTenantId();
+
+            // locked first, so no transaction can be added to the account while its transactions are read
+            Account deletedAccount = accountOptional.get();
+            accountRepository.lockForUpdate(List.of(deletedAccount));
+
+            List<Object[]> cashFlows = cashFlowRepository.findIdAndDateByAccountId(id);
+            List<Object[]> transfers = transferRepository.findSummariesByAccountId(id);
+
+            // net change of each other account's balance per month once the transfers with this one are reverted
+            Map<Integer, Map<LocalDate, BigDecimal>> adjustments = new HashMap<>();
+            for (Object[] transfer : transfers) {
+                LocalDate period = ((LocalDate) transfer[1]).withDayOfMonth(1);
+                Integer sourceId = (Integer) transfer[2];
+                Integer targetId = (Integer) transfer[3];
+                BigDecimal amount = (BigDecimal) transfer[4];
+                if (!sourceId.equals(id)) {
+                    adjustments.computeIfAbsent(sourceId, accountId -> new TreeMap<>()).merge(period, amount, BigDecimal::add);
+                }
+                if (!targetId.equals(id)) {
+                    adjustments.computeIfAbsent(targetId, accountId -> new TreeMap<>()).merge(period, amount.negate(), BigDecimal::add);
+                }
+            }
 
-            cashFlowRepository.findByAccountName(accountOptional.get().getName()).forEach(
-                    cashFlow -> {
-                        if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-                            decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
-                        } else {
-                            increaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
-                        }
+            List<Account> counterparts = accountRepository.findAllById(adjustments.keySet());
+            accountRepository.lockForUpdate(counterparts);
 
-                        cashFlowRepository.delete(cashFlow);
-                    }
-            );
+            // the deleted account's totals leave its groups while its transactions are still there to be counted
+            groupTotalsPropagator.accountMoved(deletedAccount, deletedAccount.getGroupId(), null);
 
-            List<Transfer> sourceAccountList = transferRepository.findBySourceAccountName(accountOptional.get().getName());
-            List<Transfer> targetTransferList = transferRepository.findByTargetAccountName(accountOptional.get().getName());
+            for (Account account : counterparts) {
+                adjustments.get(account.getId()).forEach((period, amount) -> {
+                    if (amount.signum() > 0) {
+                        increaseBalance(account, amount, period);
+                    } else if (amount.signum() < 0) {
+                        decreaseBalance(account, amount.negate(), period);
+                    }
+                });
+            }
 
-            List<Transfer> transferList = Stream.concat(sourceAccountList.stream(), targetTransferList.stream()).toList();
+            cashFlowRepository.softDeleteByAccount(tenantId, id);
+            transferRepository.softDeleteByAccount(tenantId, id);
 
-            transferList.forEach(
-                    transfer -> {
-                        increaseBalance(transfer.getSourceAccount(), transfer.getAmount());
-                        decreaseBalance(transfer.getTargetAccount(), transfer.getAmount());
+            for (Object[] cashFlow : cashFlows) {
+                auditRecorder.recordDeleted(AuditEntityTypeEnum.CASH_FLOW, (Integer) cashFlow[0]);
+                eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_DELETED,
+                        Map.of("id", cashFlow[0]), (LocalDate) cashFlow[1], id));
+            }
+            for (Object[] transfer : transfers) {
+                auditRecorder.recordDeleted(AuditEntityTypeEnum.TRANSFER, (Integer) transfer[0]);
+                eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_DELETED,
+                        Map.of("id", transfer[0]), (LocalDate) transfer[1], (Integer) transfer[2], (Integer) transfer[3]));
+            }
 
-                        transferRepository.delete(transfer);
-                    }
-            );
+            archiveService.deleteAccountArchive(id);
 
-            accountRepository.deleteById(id);
+            accountRepository.delete(deletedAccount);
+            ledgerVersionService.ledgerChanged();
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_DELETED, Map.of("id", id), id));
             return true; // Account found and deleted
         } else {
             return false; // Account not found
         }
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteAllAccounts() {
-        cashFlowRepository.deleteAll();
+        String tenantId = TenantContext.getTenantId();
+
+        cashFlowRepository.softDeleteByTenant(tenantId);
+
+        transferRepository.softDeleteByTenant(tenantId);
+
+        archiveService.deleteAll();
 
-        transferRepository.deleteAll();
+        accountRepository.softDeleteByTenant(tenantId);
+        accountGroupService.clearTotals();
 
-        accountRepository.deleteAll();
+        auditRecorder.recordLedgerCleared();
+        ledgerVersionService.accountsChanged();
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.LEDGER_CLEARED, Map.of()));
     }
 }
\ No newline at end of file
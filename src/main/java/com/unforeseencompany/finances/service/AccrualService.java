@@ -0,0 +1,372 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.AccrualProperties;
+import com.unforeseencompany.finances.dto.accrual.AccrualRuleDTO;
+import com.unforeseencompany.finances.dto.accrual.AccrualRunReportDTO;
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.accrual.AccrualPosting;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.AccrualPostingRepository;
+import com.unforeseencompany.finances.repository.AccrualRuleRepository;
+import com.unforeseencompany.finances.service.accrual.AccrualBatchWriter;
+import com.unforeseencompany.finances.service.accrual.AccrualCalculator;
+import com.unforeseencompany.finances.service.accrual.DailyBalance;
+import com.unforeseencompany.finances.service.audit.AuditRecorder;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Credits interest to and charges fees on accounts once a month, following their accrual rules.
+ * <p>
+ * A run accrues one month of the current tenant. Accounts are split into chunks of consecutive IDs, accrued in
+ * parallel on a bounded pool, each chunk in one transaction: its accounts are locked, their daily closing balances
+ * over the month are read with one windowed query, the resulting cash flows and postings are inserted as batches,
+ * and each account's balance changes once by its net accrual. A rule's posting for the month commits with its cash
+ * flow, and rules already posted are skipped, so a run that stopped halfway is finished by running it again.
+ * Each chunk also locks the archive cutoff, as every write does, so an archival cannot close the month while a
+ * chunk is inserting into it. Transactions dated in the month after it was accrued are not accrued retroactively.
+ */
+@Service
+public class AccrualService {
+
+    Logger log = LoggerFactory.getLogger(AccrualService.class);
+
+    private final AccrualRuleRepository accrualRuleRepository;
+
+    private final AccrualPostingRepository accrualPostingRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountService accountService;
+
+    private final ArchiveService archiveService;
+
+    private final AccrualBatchWriter accrualBatchWriter;
+
+    private final AuditRecorder auditRecorder;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AccrualProperties accrualProperties;
+
+    private final TransactionTemplate writeTransaction;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AccrualService(AccrualRuleRepository accrualRuleRepository, AccrualPostingRepository accrualPostingRepository,
+                          AccountRepository accountRepository, AccountService accountService, ArchiveService archiveService,
+                          AccrualBatchWriter accrualBatchWriter, AuditRecorder auditRecorder, ApplicationEventPublisher eventPublisher,
+                          AccrualProperties accrualProperties, PlatformTransactionManager transactionManager) {
+        this.accrualRuleRepository = accrualRuleRepository;
+        this.accrualPostingRepository = accrualPostingRepository;
+        this.accountRepository = accountRepository;
+        this.accountService = accountService;
+        this.archiveService = archiveService;
+        this.accrualBatchWriter = accrualBatchWriter;
+        this.auditRecorder = auditRecorder;
+        this.eventPublisher = eventPublisher;
+        this.accrualProperties = accrualProperties;
+
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccrualRule> getAllRules() {
+        return accrualRuleRepository.findAll();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AccrualRule> findRuleById(Integer id) {
+        return accrualRuleRepository.findById(id);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccrualRule> listRulesByAccountId(Integer accountId) {
+        return accrualRuleRepository.findByAccountIdOrderById(accountId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccrualPosting> listPostings(YearMonth period) {
+        return accrualPostingRepository.findByPeriodOrderById(period.atDay(1));
+    }
+
+    @Transactional(readOnly = true)
+    public List<AccrualPosting> listPostingsByRuleId(Integer ruleId) {
+        return accrualPostingRepository.findByRuleIdOrderByPeriodDesc(ruleId);
+    }
+
+    /**
+     * @throws IllegalArgumentException If the account does not exist or the rule is incomplete.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccrualRule saveRule(AccrualRuleDTO accrualRuleDTO) {
+        validateRule(accrualRuleDTO);
+        return accrualRuleRepository.save(new AccrualRule(accrualRuleDTO));
+    }
+
+    /**
+     * Changes a rule. The months already accrued keep what was posted.
+     *
+     * @return The rule, or null if it does not exist.
+     * @throws IllegalArgumentException If the account does not exist or the rule is incomplete.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public AccrualRule updateRule(Integer id, AccrualRuleDTO accrualRuleDTO) {
+        Optional<AccrualRule> ruleOptional = accrualRuleRepository.findById(id);
+        if (ruleOptional.isEmpty()) {
+            return null;
+        }
+        validateRule(accrualRuleDTO);
+        ruleOptional.get().update(accrualRuleDTO);
+        return ruleOptional.get();
+    }
+
+    /**
+     * Deletes a rule, keeping its postings and the cash flows they posted.
+     *
+     * @return Whether the rule existed.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean deleteRuleById(Integer id) {
+        Optional<AccrualRule> ruleOptional = accrualRuleRepository.findById(id);
+        if (ruleOptional.isEmpty()) {
+            return false;
+        }
+        accrualRuleRepository.delete(ruleOptional.get());
+        return true;
+    }
+
+    /**
+     * Accrues a month for every rule of the current tenant that has not been accrued for it yet.
+     *
+     * @throws IllegalArgumentException If the month has not ended yet or is archived.
+     * @throws IllegalStateException    If an accrual is already running.
+     */
+    public AccrualRunReportDTO accrue(YearMonth period) {
+        if (!period.isBefore(YearMonth.now())) {
+            throw new IllegalArgumentException("Only past months can be accrued, not " + period);
+        }
+        // rejected before any chunk starts; each chunk checks again, as an archival may close the month meanwhile
+        writeTransaction.executeWithoutResult(status -> archiveService.ensureNotArchived(period.atEndOfMonth()));
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An accrual is already running");
+        }
+
+        String tenantId = TenantContext.getTenantId();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(accrualProperties.getParallelism());
+        try {
+            List<Integer> accountIds = accountRepository.findAllIds();
+
+            List<Future<ChunkTotals>> chunks = new ArrayList<>();
+            for (int i = 0; i < accountIds.size(); i += accrualProperties.getChunkSize()) {
+                Integer fromId = accountIds.get(i);
+                Integer toId = accountIds.get(Math.min(i + accrualProperties.getChunkSize(), accountIds.size()) - 1);
+                chunks.add(executor.submit(() -> TenantContext.callAs(tenantId,
+                        () -> writeTransaction.execute(status -> accrueChunk(tenantId, period, fromId, toId)))));
+            }
+
+            ChunkTotals totals = ChunkTotals.NONE;
+            for (Future<ChunkTotals> chunk : chunks) {
+                totals = totals.plus(chunk.get());
+            }
+
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Accrued " + period + " for " + totals.rules() + " rules of tenant " + tenantId + " in " + durationMillis
+                    + " ms: " + totals.cashFlows() + " cash flows, " + totals.interest() + " interest, " + totals.fees() + " fees");
+
+            return new AccrualRunReportDTO(period, startedAt, durationMillis, totals.rules(), totals.cashFlows(),
+                    totals.interest(), totals.fees());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Accrual interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException rejected) {
+                throw rejected;
+            }
+            throw new IllegalStateException("Error accruing accounts: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Accrues the previous month for every tenant, on the schedule set by finances.accrual.cron.
+     */
+    @Scheduled(cron = "${finances.accrual.cron:-}")
+    public void scheduledAccrual() {
+        YearMonth period = YearMonth.now().minusMonths(1);
+        for (String tenantId : accountRepository.findAllTenantIds()) {
+            try {
+                TenantContext.runAs(tenantId, () -> accrue(period));
+            } catch (Exception e) {
+                log.error("Error accruing " + period + " for tenant " + tenantId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private ChunkTotals accrueChunk(String tenantId, YearMonth period, Integer fromId, Integer toId) {
+        LocalDate periodStart = period.atDay(1);
+        LocalDate periodEnd = period.atEndOfMonth();
+        // held until the chunk commits, so the month cannot be closed while its cash flows are inserted
+        archiveService.ensureNotArchived(periodEnd);
+
+        List<AccrualRule> rules = accrualRuleRepository.findUnposted(fromId, toId, periodStart, periodEnd);
+        if (rules.isEmpty()) {
+            return ChunkTotals.NONE;
+        }
+
+        Set<Integer> accountIds = new LinkedHashSet<>();
+        rules.forEach(rule -> accountIds.add(rule.getAccountId()));
+        Map<Integer, Account> accounts = new HashMap<>();
+        accountRepository.findAllById(accountIds).forEach(account -> accounts.put(account.getId(), account));
+        // the balances read below are final once the accounts are locked, as every write locks its accounts
+        accountService.lockForUpdate(accounts.values());
+
+        Map<Integer, List<DailyBalance>> changes = new HashMap<>();
+        for (Object[] row : accountRepository.findDailyBalances(tenantId, accountIds, periodStart)) {
+            changes.computeIfAbsent(((Number) row[0]).intValue(), id -> new ArrayList<>())
+                    .add(new DailyBalance(toLocalDate(row[1]), (BigDecimal) row[2]));
+        }
+
+        LocalDateTime postedAt = LocalDateTime.now();
+        List<AccrualPosting> postings = new ArrayList<>(rules.size());
+        List<CashFlow> cashFlows = new ArrayList<>(rules.size());
+        Map<Integer, BigDecimal> netChanges = new LinkedHashMap<>();
+        BigDecimal interest = BigDecimal.ZERO;
+        BigDecimal fees = BigDecimal.ZERO;
+        for (AccrualRule rule : rules) {
+            Account account = accounts.get(rule.getAccountId());
+            BigDecimal amount = AccrualCalculator.accrue(rule, account.getInitialBalance(),
+                    changes.getOrDefault(account.getId(), List.of()), periodStart, periodEnd, accrualProperties.getDaysInYear());
+
+            postings.add(new AccrualPosting(null, tenantId, rule.getId(), account.getId(), periodStart, amount, null, postedAt));
+            if (amount.signum() == 0) {
+                continue;
+            }
+
+            boolean isInterest = rule.getAccrualType() == AccrualTypeEnum.INTEREST;
+            CashFlow cashFlow = new CashFlow();
+            cashFlow.setAccount(account);
+            cashFlow.setAmount(amount);
+            cashFlow.setDescription(rule.getDescription() != null ? rule.getDescription()
+                    : (isInterest ? "Interest " : "Fees ") + period);
+            cashFlow.setTransactionDate(periodEnd);
+            cashFlow.setTransactionType(isInterest ? TransactionTypeEnum.INCOME : TransactionTypeEnum.EXPENSE);
+            cashFlows.add(cashFlow);
+
+            netChanges.merge(account.getId(), isInterest ? amount : amount.negate(), BigDecimal::add);
+            if (isInterest) {
+                interest = interest.add(amount);
+            } else {
+                fees = fees.add(amount);
+            }
+        }
+
+        accrualBatchWriter.insertCashFlows(tenantId, cashFlows);
+        // the postings follow their cash flows, whose IDs they keep
+        int cashFlowIndex = 0;
+        for (AccrualPosting posting : postings) {
+            if (posting.getAmount().signum() != 0) {
+                posting.setCashFlowId(cashFlows.get(cashFlowIndex++).getId());
+            }
+        }
+        accrualBatchWriter.insertPostings(tenantId, postings);
+
+        netChanges.forEach((accountId, netChange) -> {
+            if (netChange.signum() > 0) {
+                accountService.increaseBalance(accounts.get(accountId), netChange, periodEnd);
+            } else if (netChange.signum() < 0) {
+                accountService.decreaseBalance(accounts.get(accountId), netChange.negate(), periodEnd);
+            }
+        });
+
+        for (CashFlow cashFlow : cashFlows) {
+            auditRecorder.recordCreated(AuditEntityTypeEnum.CASH_FLOW, cashFlow.getId(), auditedFields(cashFlow));
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_CREATED, cashFlow,
+                    cashFlow.getTransactionDate(), cashFlow.getAccount().getId()));
+        }
+        return new ChunkTotals(rules.size(), cashFlows.size(), interest, fees);
+    }
+
+    private void validateRule(AccrualRuleDTO accrualRuleDTO) {
+        if (accountRepository.findById(accrualRuleDTO.getAccountId()).isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + accrualRuleDTO.getAccountId());
+        }
+        if (accrualRuleDTO.getAccrualType() == AccrualTypeEnum.INTEREST) {
+            if (accrualRuleDTO.getAnnualRate() == null) {
+                throw new IllegalArgumentException("An interest rule needs an annual rate");
+            }
+            if (accrualRuleDTO.getMonthlyFee() != null) {
+                throw new IllegalArgumentException("An interest rule has no monthly fee");
+            }
+        } else if (accrualRuleDTO.getAnnualRate() == null && accrualRuleDTO.getMonthlyFee() == null) {
+            throw new IllegalArgumentException("A fee rule needs an annual rate, a monthly fee or both");
+        }
+    }
+
+    /**
+     * @return The fields of a cash flow inserted in bulk, as Hibernate would report them.
+     */
+    private Map<String, Object> auditedFields(CashFlow cashFlow) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("amount", cashFlow.getAmount());
+        fields.put("description", cashFlow.getDescription());
+        fields.put("transactionDate", cashFlow.getTransactionDate());
+        fields.put("transactionType", cashFlow.getTransactionType());
+        fields.put("account", cashFlow.getAccount());
+        return fields;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private record ChunkTotals(int rules, int cashFlows, BigDecimal interest, BigDecimal fees) {
+
+        static final ChunkTotals NONE = new ChunkTotals(0, 0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        ChunkTotals plus(ChunkTotals other) {
+            return new ChunkTotals(rules + other.rules, cashFlows + other.cashFlows,
+                    interest.add(other.interest), fees.add(other.fees));
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.ArchiveProperties;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.archive.AccountBalanceSnapshot;
+import com.unforeseencompany.finances.model.archive.ArchiveCutoff;
+import com.unforeseencompany.finances.model.archive.ArchivedCashFlow;
+import com.unforeseencompany.finances.model.archive.ArchivedTransfer;
+import com.unforeseencompany.finances.model.archive.ArchivedYear;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import com.unforeseencompany.finances.repository.AccountBalanceSnapshotRepository;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.ArchiveCutoffRepository;
+import com.unforeseencompany.finances.repository.ArchivedCashFlowRepository;
+import com.unforeseencompany.finances.repository.ArchivedTransferRepository;
+import com.unforeseencompany.finances.repository.ArchivedYearRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.service.group.GroupTotalsPropagator;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves the transactions of closed years to the archive tables and serves them back when a listing's
+ * date range reaches before the archive cutoff.
+ * <p>
+ * Archiving never changes a balance: the net effect of the archived transactions on each account is
+ * kept in {@link AccountBalanceSnapshot}, so balances can still be verified from the live tables.
+ * Each tenant has its own archived years and cutoff, kept in the database so every instance sees the months an
+ * archival closes as soon as it starts.
+ */
+@Service
+public class ArchiveService {
+
+    public static final LocalDate EARLIEST_DATE = LocalDate.of(1, 1, 1);
+
+    public static final LocalDate LATEST_DATE = LocalDate.of(9999, 12, 31);
+
+    Logger log = LoggerFactory.getLogger(ArchiveService.class);
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final ArchivedCashFlowRepository archivedCashFlowRepository;
+
+    private final ArchivedTransferRepository archivedTransferRepository;
+
+    private final AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+
+    private final ArchivedYearRepository archivedYearRepository;
+
+    private final ArchiveCutoffRepository archiveCutoffRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final LedgerVersionService ledgerVersionService;
+
+    private final GroupTotalsPropagator groupTotalsPropagator;
+
+    private final ArchiveProperties archiveProperties;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ArchiveService(CashFlowRepository cashFlowRepository, TransferRepository transferRepository,
+                          ArchivedCashFlowRepository archivedCashFlowRepository, ArchivedTransferRepository archivedTransferRepository,
+                          AccountBalanceSnapshotRepository accountBalanceSnapshotRepository, ArchivedYearRepository archivedYearRepository,
+                          ArchiveCutoffRepository archiveCutoffRepository, AccountRepository accountRepository, LedgerVersionService ledgerVersionService,
+                          GroupTotalsPropagator groupTotalsPropagator, ArchiveProperties archiveProperties, ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager) {
+        this.cashFlowRepository = cashFlowRepository;
+        this.transferRepository = transferRepository;
+        this.archivedCashFlowRepository = archivedCashFlowRepository;
+        this.archivedTransferRepository = archivedTransferRepository;
+        this.accountBalanceSnapshotRepository = accountBalanceSnapshotRepository;
+        this.archivedYearRepository = archivedYearRepository;
+        this.archiveCutoffRepository = archiveCutoffRepository;
+        this.accountRepository = accountRepository;
+        this.ledgerVersionService = ledgerVersionService;
+        this.groupTotalsPropagator = groupTotalsPropagator;
+        this.archiveProperties = archiveProperties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public List<ArchivedYear> getArchivedYears() {
+        return archivedYearRepository.findAll();
+    }
+
+    /**
+     * @return The first day whose transactions are still in the live tables, or empty if nothing has been archived.
+     */
+    public Optional<LocalDate> getArchiveCutoff() {
+        return archiveCutoffRepository.findArchivedBefore(TenantContext.getTenantId())
+                .filter(archivedBefore -> archivedBefore.isAfter(EARLIEST_DATE));
+    }
+
+    /**
+     * @return Whether a listing starting on the given date has to read the archive tables.
+     */
+    public boolean isArchiveNeeded(LocalDate from) {
+        return getArchiveCutoff().map(from::isBefore).orElse(false);
+    }
+
+    /**
+     * @return Whether a listing ending on the given date has to read the live tables.
+     */
+    public boolean isLiveNeeded(LocalDate to) {
+        return getArchiveCutoff().map(cutoff -> !to.isBefore(cutoff)).orElse(true);
+    }
+
+    /**
+     * Rejects transactions dated in an archived year, or in a year being archived, which is closed. Called by the
+     * writes in their transaction: the cutoff stays locked until they commit, so an archival starting meanwhile
+     * waits for them before moving any month.
+     *
+     * @throws IllegalArgumentException If the date is before the archive cutoff.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ensureNotArchived(LocalDate transactionDate) {
+        String tenantId = TenantContext.getTenantId();
+        Optional<ArchiveCutoff> cutoff = archiveCutoffRepository.findForShare(tenantId);
+        if (cutoff.isEmpty()) {
+            // a missing row could not be locked, so the tenant's first write creates it
+            archiveCutoffRepository.insertIfAbsent(tenantId, EARLIEST_DATE);
+            cutoff = archiveCutoffRepository.findForShare(tenantId);
+        }
+        LocalDate closedBefore = cutoff.orElseThrow().getClosedBefore();
+        if (transactionDate.isBefore(closedBefore)) {
+            throw new IllegalArgumentException("Transactions dated before " + closedBefore + " are archived and closed");
+        }
+    }
+
+    public List<CashFlow> listArchivedCashFlows(Account account, LocalDate from, LocalDate to) {
+        if (!isArchiveNeeded(from)) {
+            return List.of();
+        }
+        return archivedCashFlowRepository.findByAccountIdAndTransactionDateBetween(account.getId(), from, to).stream()
+                .map(archived -> toCashFlow(archived, account))
+                .toList();
+    }
+
+    public List<CashFlow> listArchivedCashFlows(LocalDate from, LocalDate to) {
+        if (!isArchiveNeeded(from)) {
+            return List.of();
+        }
+        List<ArchivedCashFlow> archivedCashFlows = archivedCashFlowRepository.findByTransactionDateBetween(from, to);
+        Map<Integer, Account> accounts = findAccounts(archivedCashFlows.stream().map(ArchivedCashFlow::getAccountId));
+
+        return archivedCashFlows.stream()
+                .map(archived -> toCashFlow(archived, accounts.get(archived.getAccountId())))
+                .toList();
+    }
+
+    public List<Transfer> listArchivedTransfers(Account account, LocalDate from, LocalDate to) {
+        if (!isArchiveNeeded(from)) {
+            return List.of();
+        }
+        List<ArchivedTransfer> archivedTransfers = Stream.concat(
+                archivedTransferRepository.findBySourceAccountIdAndTransactionDateBetween(account.getId(), from, to).stream(),
+                archivedTransferRepository.findByTargetAccountIdAndTransactionDateBetween(account.getId(), from, to).stream()).toList();
+
+        return toTransfers(archivedTransfers);
+    }
+
+    public List<Transfer> listArchivedTransfers(LocalDate from, LocalDate to) {
+        if (!isArchiveNeeded(from)) {
+            return List.of();
+        }
+        return toTransfers(archivedTransferRepository.findByTransactionDateBetween(from, to));
+    }
+
+    /**
+     * Archives the current tenant's transactions of every year up to and including the given one.
+     *
+     * @param year The last year to archive.
+     * @return The years archived by this call.
+     * @throws IllegalArgumentException If the year is within the retained years.
+     * @throws IllegalStateException    If an archival is already running.
+     */
+    public List<ArchivedYear> archiveThroughYear(int year) {
+        int latestArchivableYear = LocalDate.now().getYear() - archiveProperties.getRetainedYears();
+        if (year > latestArchivableYear) {
+            throw new IllegalArgumentException("Only years up to " + latestArchivableYear + " can be archived");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An archival is already running");
+        }
+
+        String tenantId = TenantContext.getTenantId();
+        try {
+            LocalDate cutoff = LocalDate.of(year + 1, 1, 1);
+
+            // closed first, on every instance, so no write lands in a month once it is being moved
+            transactionTemplate.executeWithoutResult(status -> {
+                archiveCutoffRepository.insertIfAbsent(tenantId, EARLIEST_DATE);
+                archiveCutoffRepository.close(tenantId, cutoff);
+            });
+
+            LocalDate earliest = Stream.of(cashFlowRepository.findEarliestTransactionDate(), transferRepository.findEarliestTransactionDate())
+                    .flatMap(Optional::stream)
+                    .min(LocalDate::compareTo)
+                    .orElse(cutoff);
+
+            Map<Integer, ArchivedYear> archivedYears = new HashMap<>();
+            for (int y = getArchiveCutoff().map(LocalDate::getYear).orElse(earliest.getYear()); y <= year; y++) {
+                archivedYears.put(y, archivedYearRepository.findByYear(y).orElse(new ArchivedYear(y)));
+            }
+
+            // one transaction per month keeps the locks on the live tables short
+            for (LocalDate month = earliest.withDayOfMonth(1); month.isBefore(cutoff); month = month.plusMonths(1)) {
+                LocalDate from = month;
+                long[] rows = transactionTemplate.execute(status -> {
+                    long[] moved = archiveDatedBetween(tenantId, from, from.plusMonths(1));
+                    archiveCutoffRepository.advanceArchivedBefore(tenantId, from.plusMonths(1));
+                    return moved;
+                });
+
+                ArchivedYear archivedYear = archivedYears.computeIfAbsent(from.getYear(), ArchivedYear::new);
+                archivedYear.setCashFlowRows(archivedYear.getCashFlowRows() + rows[0]);
+                archivedYear.setTransferRows(archivedYear.getTransferRows() + rows[1]);
+            }
+
+            List<ArchivedYear> saved = transactionTemplate.execute(status -> {
+                archiveCutoffRepository.advanceArchivedBefore(tenantId, cutoff);
+                return archivedYearRepository.saveAll(archivedYears.values());
+            });
+            ledgerVersionService.ledgerChanged();
+
+            log.info("Archived transactions of tenant " + tenantId + " dated before " + cutoff);
+            return saved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Archives the years that are no longer retained for every tenant, on the schedule set by finances.archive.cron.
+     */
+    @Scheduled(cron = "${finances.archive.cron:-}")
+    public void archiveClosedYears() {
+        int year = LocalDate.now().getYear() - archiveProperties.getRetainedYears();
+        for (String tenantId : accountRepository.findAllTenantIds()) {
+            try {
+                TenantContext.runAs(tenantId, () -> archiveThroughYear(year));
+            } catch (Exception e) {
+                log.error("Error archiving transactions of tenant " + tenantId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes an account's archived transactions, reverting the archived transfers on the other accounts
+     * as the live ones are. Must run in the caller's transaction.
+     */
+    @Transactional
+    public void deleteAccountArchive(Integer accountId) {
+        // amount to add to each other account's balance per month
+        Map<Integer, Map<LocalDate, BigDecimal>> adjustments = new TreeMap<>();
+        for (Object[] row : archivedTransferRepository.sumOutgoingAmountByTargetAccountAndDate(accountId)) {
+            adjustments.computeIfAbsent((Integer) row[0], id -> new TreeMap<>())
+                    .merge(((LocalDate) row[1]).withDayOfMonth(1), ((BigDecimal) row[2]).negate(), BigDecimal::add);
+        }
+        for (Object[] row : archivedTransferRepository.sumIncomingAmountBySourceAccountAndDate(accountId)) {
+            adjustments.computeIfAbsent((Integer) row[0], id -> new TreeMap<>())
+                    .merge(((LocalDate) row[1]).withDayOfMonth(1), (BigDecimal) row[2], BigDecimal::add);
+        }
+        adjustments.forEach(this::adjustArchivedTransfers);
+
+        archivedCashFlowRepository.deleteByAccount(TenantContext.getTenantId(), accountId);
+        archivedTransferRepository.deleteByAccount(TenantContext.getTenantId(), accountId);
+        accountBalanceSnapshotRepository.findById(accountId).ifPresent(accountBalanceSnapshotRepository::delete);
+    }
+
+    /**
+     * Removes every archived cash flow of the current tenant and reverts its effect on the balances.
+     */
+    @Transactional
+    public void deleteAllArchivedCashFlows() {
+        String tenantId = TenantContext.getTenantId();
+        accountBalanceSnapshotRepository.revertArchivedCashFlowNets(tenantId);
+        accountBalanceSnapshotRepository.clearArchivedCashFlowNets(tenantId);
+        archivedCashFlowRepository.deleteByTenant(tenantId);
+        ledgerVersionService.accountsChanged();
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ARCHIVE_CLEARED,
+                Map.of("aggregateType", "cash_flow"), EARLIEST_DATE));
+    }
+
+    /**
+     * Removes every archived transfer of the current tenant and reverts its effect on the balances.
+     */
+    @Transactional
+    public void deleteAllArchivedTransfers() {
+        String tenantId = TenantContext.getTenantId();
+        accountBalanceSnapshotRepository.revertArchivedTransferNets(tenantId);
+        accountBalanceSnapshotRepository.clearArchivedTransferNets(tenantId);
+        archivedTransferRepository.deleteByTenant(tenantId);
+        ledgerVersionService.accountsChanged();
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ARCHIVE_CLEARED,
+                Map.of("aggregateType", "transfer"), EARLIEST_DATE));
+    }
+
+    /**
+     * Removes the current tenant's whole archive, for when every account is deleted.
+     */
+    @Transactional
+    public void deleteAll() {
+        String tenantId = TenantContext.getTenantId();
+        archivedCashFlowRepository.deleteByTenant(tenantId);
+        archivedTransferRepository.deleteByTenant(tenantId);
+        accountBalanceSnapshotRepository.deleteByTenant(tenantId);
+        archivedYearRepository.deleteByTenant(tenantId);
+        archiveCutoffRepository.deleteByTenant(tenantId);
+    }
+
+    /**
+     * Moves the transactions dated in [from, to) to the archive and adds their net effect to the snapshots.
+     * <p>
+     * The rows are copied first: the copy locks them, and the nets and the deletion then both follow the copies,
+     * so the snapshots hold exactly the rows that left the live tables.
+     *
+     * @return The number of cash flows and of transfers archived.
+     */
+    private long[] archiveDatedBetween(String tenantId, LocalDate from, LocalDate to) {
+        long cashFlowRows = archivedCashFlowRepository.archiveDatedBetween(tenantId, from, to);
+        long transferRows = archivedTransferRepository.archiveDatedBetween(tenantId, from, to);
+        if (cashFlowRows == 0 && transferRows == 0) {
+            return new long[]{0, 0};
+        }
+
+        Map<Integer, BigDecimal> cashFlowNets = toMap(archivedCashFlowRepository.sumCopiedNetAmountByAccountIdDatedBetween(from, to));
+        Map<Integer, BigDecimal> outgoingTransfers = toMap(archivedTransferRepository.sumCopiedOutgoingAmountByAccountIdDatedBetween(from, to));
+        Map<Integer, BigDecimal> incomingTransfers = toMap(archivedTransferRepository.sumCopiedIncomingAmountByAccountIdDatedBetween(from, to));
+
+        Set<Integer> accountIds = new HashSet<>(cashFlowNets.keySet());
+        accountIds.addAll(outgoingTransfers.keySet());
+        accountIds.addAll(incomingTransfers.keySet());
+
+        Map<Integer, AccountBalanceSnapshot> snapshots = accountBalanceSnapshotRepository.findAllById(accountIds).stream()
+                .collect(Collectors.toMap(AccountBalanceSnapshot::getAccountId, Function.identity()));
+        for (Integer accountId : accountIds) {
+            AccountBalanceSnapshot snapshot = snapshots.computeIfAbsent(accountId, AccountBalanceSnapshot::new);
+            snapshot.setArchivedThrough(to.minusDays(1));
+            snapshot.setArchivedCashFlowNet(snapshot.getArchivedCashFlowNet().add(cashFlowNets.getOrDefault(accountId, BigDecimal.ZERO)));
+            snapshot.setArchivedTransferNet(snapshot.getArchivedTransferNet()
+                    .add(incomingTransfers.getOrDefault(accountId, BigDecimal.ZERO))
+                    .subtract(outgoingTransfers.getOrDefault(accountId, BigDecimal.ZERO)));
+        }
+        accountBalanceSnapshotRepository.saveAll(snapshots.values());
+
+        cashFlowRepository.deleteArchivedDatedBetween(tenantId, from, to);
+        transferRepository.deleteArchivedDatedBetween(tenantId, from, to);
+        // the rows are moved in bulk, so the consumers of the outbox learn of them by their dates
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSACTIONS_ARCHIVED,
+                Map.of("from", from.toString(), "to", to.toString(), "cashFlows", cashFlowRows, "transfers", transferRows)));
+
+        return new long[]{cashFlowRows, transferRows};
+    }
+
+    /**
+     * Reverts archived transfers between a deleted account and the given one.
+     *
+     * @param accountId The account on the other side of the transfers.
+     * @param amounts   The amounts to add to its balance, by the month of the transfers, which its groups'
+     *                  net changes of those months lose.
+     */
+    private void adjustArchivedTransfers(Integer accountId, Map<LocalDate, BigDecimal> amounts) {
+        BigDecimal amount = amounts.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        accountRepository.findById(accountId).ifPresent(account -> {
+            accountRepository.lockForUpdate(List.of(account));
+            account.setBalance(account.getBalance().add(amount));
+            amounts.forEach((period, periodAmount) -> groupTotalsPropagator.balanceChanged(account, periodAmount, period));
+            ledgerVersionService.accountChanged(account, EARLIEST_DATE);
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.ACCOUNT_UPDATED, account, EARLIEST_DATE, accountId));
+        });
+        accountBalanceSnapshotRepository.findById(accountId).ifPresent(snapshot ->
+                snapshot.setArchivedTransferNet(snapshot.getArchivedTransferNet().add(amount)));
+    }
+
+    private Map<Integer, Account> findAccounts(Stream<Integer> accountIds) {
+        return accountRepository.findAllById(accountIds.collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+    }
+
+    private List<Transfer> toTransfers(List<ArchivedTransfer> archivedTransfers) {
+        Map<Integer, Account> accounts = findAccounts(archivedTransfers.stream()
+                .flatMap(archived -> Stream.of(archived.getSourceAccountId(), archived.getTargetAccountId())));
+
+        return archivedTransfers.stream().map(archived -> {
+            Transfer transfer = new Transfer();
+            transfer.setId(archived.getId());
+            transfer.setAmount(archived.getAmount());
+            transfer.setDescription(archived.getDescription());
+            transfer.setTransactionDate(archived.getTransactionDate());
+            transfer.setTransactionType(archived.getTransactionType());
+            transfer.setSourceAccount(accounts.get(archived.getSourceAccountId()));
+            transfer.setTargetAccount(accounts.get(archived.getTargetAccountId()));
+            return transfer;
+        }).toList();
+    }
+
+    private CashFlow toCashFlow(ArchivedCashFlow archived, Account account) {
+        CashFlow cashFlow = new CashFlow();
+        cashFlow.setId(archived.getId());
+        cashFlow.setAmount(archived.getAmount());
+        cashFlow.setDescription(archived.getDescription());
+        cashFlow.setTransactionDate(archived.getTransactionDate());
+        cashFlow.setTransactionType(archived.getTransactionType());
+        cashFlow.setAccount(account);
+        return cashFlow;
+    }
+
+    private Map<Integer, BigDecimal> toMap(List<Object[]> sums) {
+        Map<Integer, BigDecimal> map = new HashMap<>(sums.size() * 2);
+        for (Object[] row : sums) {
+            map.put((Integer) row[0], (BigDecimal) row[1]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,167 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.AttachmentProperties;
+import com.unforeseencompany.finances.enums.AttachmentOwnerTypeEnum;
+import com.unforeseencompany.finances.model.attachment.Attachment;
+import com.unforeseencompany.finances.repository.AttachmentRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.service.attachment.ContentStore;
+import com.unforeseencompany.finances.service.attachment.StoredContent;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Attaches receipts and invoices to cash flows and transfers.
+ * <p>
+ * The content goes to the {@link ContentStore} before any database work, so a slow upload never holds a
+ * connection or a lock; only its metadata is saved, once the file is complete. Deleting an attachment only
+ * removes its metadata, and the files no attachment refers to anymore are swept on the schedule set by
+ * finances.attachments.sweep-cron.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttachmentService {
+
+    Logger log = LoggerFactory.getLogger(AttachmentService.class);
+
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+
+    private final AttachmentRepository attachmentRepository;
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final ContentStore contentStore;
+
+    private final AttachmentProperties attachmentProperties;
+
+    /**
+     * Stores a file and attaches it to a cash flow or a transfer.
+     *
+     * @param contentLength The declared length of the content, or -1 when unknown.
+     * @throws IllegalArgumentException       If the owner does not exist or the content type is not accepted.
+     * @throws MaxUploadSizeExceededException If the content is larger than finances.attachments.max-size.
+     */
+    public Attachment saveAttachment(AttachmentOwnerTypeEnum ownerType, Integer ownerId, String fileName,
+                                     String contentType, long contentLength, InputStream content) throws IOException {
+        if (!ownerExists(ownerType, ownerId)) {
+            throw new IllegalArgumentException(ownerType + " not found with id: " + ownerId);
+        }
+        String mediaType = mediaType(contentType);
+        if (!isAllowed(mediaType)) {
+            throw new IllegalArgumentException("Content type not accepted: " + contentType);
+        }
+        long maxSize = attachmentProperties.getMaxSize().toBytes();
+        if (contentLength > maxSize) {
+            throw new MaxUploadSizeExceededException(maxSize);
+        }
+
+        StoredContent stored = contentStore.store(TenantContext.getTenantId(), content);
+        return attachmentRepository.save(new Attachment(ownerType, ownerId, sanitize(fileName), mediaType,
+                stored.size(), stored.sha256()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Attachment> listAttachments(AttachmentOwnerTypeEnum ownerType, Integer ownerId) {
+        return attachmentRepository.findByOwnerTypeAndOwnerIdOrderById(ownerType, ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Attachment> findAttachment(Long id) {
+        return attachmentRepository.findById(id);
+    }
+
+    /**
+     * @return The file holding the content of the attachment.
+     */
+    public Path contentPath(Attachment attachment) {
+        return contentStore.path(attachment.getTenantId(), attachment.getSha256());
+    }
+
+    /**
+     * Deletes an attachment. Its file stays until the sweep, as other attachments may share it.
+     *
+     * @throws IllegalArgumentException If the attachment does not exist.
+     */
+    @Transactional
+    public void deleteAttachment(Long id) {
+        Attachment attachment = attachmentRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Attachment not found with id: " + id));
+        attachmentRepository.delete(attachment);
+    }
+
+    /**
+     * Deletes the stored files no attachment refers to anymore, once past the grace period.
+     */
+    @Scheduled(cron = "${finances.attachments.sweep-cron:-}")
+    public void sweepUnreferenced() {
+        try {
+            int deleted = contentStore.deleteUnreferenced(attachmentRepository::existsByContent);
+            log.info("Deleted " + deleted + " unreferenced attachment files");
+        } catch (Exception e) {
+            log.error("Error sweeping attachment files: " + e.getMessage());
+        }
+    }
+
+    private boolean ownerExists(AttachmentOwnerTypeEnum ownerType, Integer ownerId) {
+        return switch (ownerType) {
+            case CASH_FLOW -> cashFlowRepository.findById(ownerId).isPresent();
+            case TRANSFER -> transferRepository.findById(ownerId).isPresent();
+        };
+    }
+
+    private boolean isAllowed(String mediaType) {
+        for (String allowed : attachmentProperties.getAllowedContentTypes()) {
+            String pattern = allowed.toLowerCase(Locale.ROOT);
+            if (pattern.endsWith("/*")
+                    ? mediaType.startsWith(pattern.substring(0, pattern.length() - 1))
+                    : mediaType.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The type and subtype of the content type, without its parameters.
+     */
+    private String mediaType(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            throw new IllegalArgumentException("The content type is required");
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters >= 0 ? contentType.substring(0, parameters) : contentType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Keeps only the last path segment of the file name and drops control characters, since the name is sent
+     * back in a header.
+     */
+    private String sanitize(String fileName) {
+        if (fileName == null) {
+            return "attachment";
+        }
+        String name = fileName.substring(Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\')) + 1)
+                .replaceAll("\\p{Cntrl}", "")
+                .strip();
+        if (name.isEmpty()) {
+            return "attachment";
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(0, MAX_FILE_NAME_LENGTH) : name;
+    }
+}
@@ -0,0 +1,60 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.AuditProperties;
+import com.unforeseencompany.finances.dto.audit.AuditHistoryDTO;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.model.audit.AuditEntry;
+import com.unforeseencompany.finances.repository.AuditEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Reads the audit trail, newest first.
+ * <p>
+ * Pages are keyed by entry ID rather than by offset: each page starts below the last ID of the previous
+ * one, so reading deep into the history costs the same index range scan as reading its first page.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditService {
+
+    private final AuditEntryRepository auditEntryRepository;
+
+    private final AuditProperties auditProperties;
+
+    /**
+     * Lists the changes older than the given entry, optionally only those of one record.
+     *
+     * @param entityType The kind of record, or null for every change of the tenant.
+     * @param entityId   The ID of the record, required with an entity type other than LEDGER.
+     * @param before     The ID the entries listed are below, or null to start from the newest.
+     * @param limit      The maximum number of entries, up to the configured page size.
+     */
+    @Transactional(readOnly = true)
+    public AuditHistoryDTO getHistory(AuditEntityTypeEnum entityType, Integer entityId, Long before, int limit) {
+        if (limit < 1 || limit > auditProperties.getMaxPageSize()) {
+            throw new IllegalArgumentException("The limit must be between 1 and " + auditProperties.getMaxPageSize());
+        }
+        if (entityType != null && entityType != AuditEntityTypeEnum.LEDGER && entityId == null) {
+            throw new IllegalArgumentException("The ID of the " + entityType + " is required");
+        }
+
+        long start = before != null ? before : Long.MAX_VALUE;
+        // one extra entry tells whether there is a next page without counting
+        PageRequest page = PageRequest.of(0, limit + 1);
+
+        List<AuditEntry> entries = entityType == null
+                ? auditEntryRepository.findByIdLessThanOrderByIdDesc(start, page)
+                : auditEntryRepository.findByEntityTypeAndEntityIdAndIdLessThanOrderByIdDesc(entityType, entityId, start, page);
+
+        if (entries.size() <= limit) {
+            return new AuditHistoryDTO(entries, null);
+        }
+        List<AuditEntry> pageEntries = entries.subList(0, limit);
+        return new AuditHistoryDTO(pageEntries, pageEntries.get(limit - 1).getId());
+    }
+}
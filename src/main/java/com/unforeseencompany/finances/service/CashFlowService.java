@@ -1,16 +1,29 @@
 package com.unforeseencompany.finances.service;
 
 import com.unforeseencompany.finances.dto.transaction.CashFlowDTO;
+import com.unforeseencompany.finances.config.AnomalyProperties;
+import com.unforeseencompany.finances.dto.transaction.CashFlowSplitDTO;
+import com.unforeseencompany.finances.enums.AnomalyTypeEnum;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
 import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
 import com.unforeseencompany.finances.model.Account;
 import com.unforeseencompany.finances.model.transaction.CashFlow;
 import com.unforeseencompany.finances.repository.AccountRepository;
 import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.service.anomaly.AnomalyDetector;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -24,23 +37,73 @@ public class CashFlowService {
 
     private final AccountRepository accountRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ArchiveService archiveService;
+
+    private final AccountGroupService accountGroupService;
+
+    private final AnomalyDetector anomalyDetector;
+
+    private final AnomalyProperties anomalyProperties;
+
+    @Transactional(readOnly = true)
     public List<CashFlow> getAllCashFlowTransactions() {
         return cashFlowRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<CashFlow> findCashFlowById(Integer id) {
         return cashFlowRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<CashFlow> listCashFlowTransactionsByAccountName(String accountName) {
-        if (accountRepository.findAccountByName(accountName).isEmpty()) {
+        return listCashFlowTransactionsByAccountName(accountName, null, null);
+    }
+
+    /**
+     * Lists an account's cash flows dated in the given range. Without a range only the live transactions are listed;
+     * archived ones are read only when the range starts before the archive cutoff.
+     */
+    @Transactional(readOnly = true)
+    public List<CashFlow> listCashFlowTransactionsByAccountName(String accountName, LocalDate from, LocalDate to) {
+        Optional<Account> account = accountRepository.findAccountByName(accountName);
+        if (account.isEmpty()) {
             throw new IllegalArgumentException("Account not found with name: " + accountName);
         }
 
-        return cashFlowRepository.findByAccountName(accountName);
+        if (from == null && to == null) {
+            return cashFlowRepository.findByAccountName(accountName);
+        }
+
+        LocalDate start = from != null ? from : ArchiveService.EARLIEST_DATE;
+        LocalDate end = to != null ? to : ArchiveService.LATEST_DATE;
+
+        List<CashFlow> cashFlows = new ArrayList<>(archiveService.listArchivedCashFlows(account.get(), start, end));
+        if (archiveService.isLiveNeeded(end)) {
+            cashFlows.addAll(cashFlowRepository.findByAccountNameAndTransactionDateBetween(accountName, start, end));
+        }
+        return cashFlows;
     }
 
+    /**
+     * Lists every cash flow dated in the given range, reading the archive only if the range needs it.
+     */
+    @Transactional(readOnly = true)
+    public List<CashFlow> getCashFlowTransactionsDatedBetween(LocalDate from, LocalDate to) {
+        List<CashFlow> cashFlows = new ArrayList<>(archiveService.listArchivedCashFlows(from, to));
+        if (archiveService.isLiveNeeded(to)) {
+            cashFlows.addAll(cashFlowRepository.findByTransactionDateBetween(from, to));
+        }
+        return cashFlows;
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public CashFlow saveCashFlowTransaction(CashFlowDTO cashFlowDTO) {
+        archiveService.ensureNotArchived(cashFlowDTO.getTransactionDate());
+        validateSplits(cashFlowDTO);
+
         Optional<Account> account = accountService.findAccountById(cashFlowDTO.getAccountId());
 
         CashFlow cashFlow = new CashFlow(cashFlowDTO);
@@ -51,92 +114,164 @@ public class CashFlowService {
             throw new IllegalArgumentException("Account not found with id: " + cashFlowDTO.getAccountId());
         }
 
+        accountService.lockForUpdate(List.of(account.get()));
+
+        // checked with the account locked, so two identical cash flows sent together are not both let through
+        List<AnomalyTypeEnum> anomalies = anomalyDetector.check(cashFlow);
+        if (anomalyProperties.isRejectDuplicates() && anomalies.contains(AnomalyTypeEnum.PROBABLE_DUPLICATE)) {
+            throw new IllegalStateException("Probable duplicate of a cash flow of account " + account.get().getId()
+                    + " dated within " + anomalyProperties.getDuplicateWindowDays() + " days of " + cashFlowDTO.getTransactionDate());
+        }
+        cashFlow.setAnomalies(anomalies);
+
         if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-            accountService.increaseBalance(account.get(), cashFlowDTO.getAmount());
+            accountService.increaseBalance(account.get(), cashFlowDTO.getAmount(), cashFlowDTO.getTransactionDate());
         } else {
-            accountService.decreaseBalance(account.get(), cashFlowDTO.getAmount());
+            accountService.decreaseBalance(account.get(), cashFlowDTO.getAmount(), cashFlowDTO.getTransactionDate());
         }
 
-        return cashFlowRepository.save(cashFlow);
+        CashFlow savedCashFlow = cashFlowRepository.save(cashFlow);
+        anomalyDetector.recordCreated(savedCashFlow);
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_CREATED, savedCashFlow,
+                savedCashFlow.getTransactionDate(), savedCashFlow.getAccount().getId()));
+        return savedCashFlow;
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public CashFlow updateCashFlowTransaction(Integer id, CashFlowDTO cashFlowDTO) {
-        Optional<CashFlow> cashFlowOptional = cashFlowRepository.findById(id);
+        if (cashFlowDTO != null) {
+            archiveService.ensureNotArchived(cashFlowDTO.getTransactionDate());
+        }
+
+        Optional<CashFlow> cashFlowOptional = cashFlowRepository.findByIdForUpdate(id);
 
         if (cashFlowOptional.isPresent()) {
+            if (cashFlowDTO == null) {
+                throw new IllegalArgumentException("CashFlowDTO cannot be null");
+            }
+            validateSplits(cashFlowDTO);
+
             CashFlow cashFlow = cashFlowOptional.get();
+            // moving a cash flow out of a closed month changes that month as much as moving one in
+            archiveService.ensureNotArchived(cashFlow.getTransactionDate());
+            Integer previousAccountId = cashFlow.getAccount().getId();
+            LocalDate previousDate = cashFlow.getTransactionDate();
+
+            Optional<Account> account = accountService.findAccountById(cashFlowDTO.getAccountId());
+            if (account.isEmpty()) {
+                throw new IllegalArgumentException("Account not found with id: " + cashFlowDTO.getAccountId());
+            }
+
+            accountService.lockForUpdate(List.of(cashFlow.getAccount(), account.get()));
 
             if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             } else {
-                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             }
 
-            if (cashFlowDTO != null) {
-
-                Optional<Account> account = accountService.findAccountById(cashFlowDTO.getAccountId());
-                if (account.isPresent()) {
-                    cashFlow.setAccount(account.get());
-                } else {
-                    throw new IllegalArgumentException("Account not found with id: " + cashFlowDTO.getAccountId());
-                }
-
-                cashFlow.setAmount(cashFlowDTO.getAmount());
+            cashFlow.setAccount(account.get());
+            cashFlow.setAmount(cashFlowDTO.getAmount());
 
-                if (cashFlowDTO.getDescription() != null && !cashFlowDTO.getDescription().isEmpty()) {
-                    cashFlow.setDescription(cashFlowDTO.getDescription());
-                }
+            if (cashFlowDTO.getDescription() != null && !cashFlowDTO.getDescription().isEmpty()) {
+                cashFlow.setDescription(cashFlowDTO.getDescription());
+            }
 
-                cashFlow.setTransactionDate(cashFlowDTO.getTransactionDate());
+            cashFlow.setTransactionDate(cashFlowDTO.getTransactionDate());
+            cashFlow.replaceSplits(cashFlowDTO);
 
-                if (cashFlowDTO.getTransactionType() != null) {
-                    cashFlow.setTransactionType(cashFlowDTO.getTransactionType());
-                }
-            } else {
-                throw new IllegalArgumentException("CashFlowDTO cannot be null");
+            if (cashFlowDTO.getTransactionType() != null) {
+                cashFlow.setTransactionType(cashFlowDTO.getTransactionType());
             }
 
             if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-                accountService.increaseBalance(cashFlow.getAccount(), cashFlowDTO.getAmount());
+                accountService.increaseBalance(cashFlow.getAccount(), cashFlowDTO.getAmount(), cashFlow.getTransactionDate());
             } else {
-                accountService.decreaseBalance(cashFlow.getAccount(), cashFlowDTO.getAmount());
+                accountService.decreaseBalance(cashFlow.getAccount(), cashFlowDTO.getAmount(), cashFlow.getTransactionDate());
             }
 
-            return cashFlowRepository.save(cashFlow);
+            anomalyDetector.recordUpdated(previousAccountId, cashFlow);
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_UPDATED, cashFlow,
+                    previousDate.isBefore(cashFlow.getTransactionDate()) ? previousDate : cashFlow.getTransactionDate(),
+                    previousAccountId, cashFlow.getAccount().getId()));
+            return cashFlow;
         } else {
             return null;
         }
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean deleteCashFlowById(Integer id) {
-        Optional<CashFlow> cashFlowOptional = cashFlowRepository.findById(id);
+        Optional<CashFlow> cashFlowOptional = cashFlowRepository.findByIdForUpdate(id);
 
         if (cashFlowOptional.isPresent()) {
             CashFlow cashFlow = cashFlowOptional.get();
+            archiveService.ensureNotArchived(cashFlow.getTransactionDate());
+            accountService.lockForUpdate(List.of(cashFlow.getAccount()));
 
             if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             } else {
-                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             }
 
             cashFlowRepository.delete(cashFlow);
+            anomalyDetector.recordDeleted(cashFlow);
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_DELETED,
+                    Map.of("id", cashFlow.getId()), cashFlow.getTransactionDate(), cashFlow.getAccount().getId()));
             return true;
         }
         return false;
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteAllCashFlowTransactions() {
+        // every write to a cash flow locks its account, so with all accounts locked the cash flows read are current
+        List<Account> accounts = accountRepository.findAll();
+        accountService.lockForUpdate(accounts);
         List<CashFlow> cashFlows = cashFlowRepository.findAll();
 
         for (CashFlow cashFlow : cashFlows) {
             if (cashFlow.getTransactionType().equals(TransactionTypeEnum.INCOME)) {
-                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.decreaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             } else {
-                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount());
+                accountService.increaseBalance(cashFlow.getAccount(), cashFlow.getAmount(), cashFlow.getTransactionDate());
             }
         }
 
+        cashFlowRepository.deleteAll(cashFlows);
+        anomalyDetector.forgetAccounts(accounts.stream().map(Account::getId).toList());
 
+        for (CashFlow cashFlow : cashFlows) {
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.CASH_FLOW_DELETED,
+                    Map.of("id", cashFlow.getId()), cashFlow.getTransactionDate(), cashFlow.getAccount().getId()));
+        }
+
+        archiveService.deleteAllArchivedCashFlows();
+
+        // the archived transactions are reverted in bulk, so the group totals are recomputed rather than adjusted
+        if (accountGroupService.hasGroups()) {
+            accountGroupService.rebuildTotalsLocked();
+        }
+    }
+
+    /**
+     * Checks that the splits of a cash flow, if any, add up to its amount. The splits only break the amount down,
+     * so the account's balance still changes once, by the whole amount.
+     */
+    private void validateSplits(CashFlowDTO cashFlowDTO) {
+        if (cashFlowDTO.getSplits() == null || cashFlowDTO.getSplits().isEmpty()) {
+            return;
+        }
+        BigDecimal total = BigDecimal.ZERO;
+        for (CashFlowSplitDTO split : cashFlowDTO.getSplits()) {
+            if (split.getAmount() == null || split.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException("Every split must have a positive amount");
+            }
+            total = total.add(split.getAmount());
+        }
+        if (total.compareTo(cashFlowDTO.getAmount()) != 0) {
+            throw new IllegalArgumentException("The splits add up to " + total + " instead of " + cashFlowDTO.getAmount());
+        }
     }
 }
@@ -0,0 +1,241 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.ForecastProperties;
+import com.unforeseencompany.finances.dto.forecast.AccountForecastDTO;
+import com.unforeseencompany.finances.dto.forecast.ForecastPointDTO;
+import com.unforeseencompany.finances.dto.forecast.RecurringPatternDTO;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.service.forecast.AccountForecast;
+import com.unforeseencompany.finances.service.forecast.AccountHistory;
+import com.unforeseencompany.finances.service.forecast.ForecastEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Stream;
+
+/**
+ * Projects account balances month by month from recurring cash flows and known future-dated transactions.
+ * <p>
+ * The history is read in one read-only transaction straight into a columnar {@link AccountHistory} per
+ * account, without loading entities. The accounts are then forecast in parallel on a fork-join pool,
+ * outside the transaction.
+ */
+@Service
+public class ForecastService {
+
+    /**
+     * Accounts forecast by each fork-join leaf task.
+     */
+    private static final int ACCOUNTS_PER_TASK = 64;
+
+    Logger log = LoggerFactory.getLogger(ForecastService.class);
+
+    private final AccountRepository accountRepository;
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final ForecastProperties forecastProperties;
+
+    private final ForecastEngine forecastEngine;
+
+    private final ForkJoinPool pool;
+
+    private final TransactionTemplate readTransaction;
+
+    public ForecastService(AccountRepository accountRepository, CashFlowRepository cashFlowRepository,
+                           TransferRepository transferRepository, ForecastProperties forecastProperties,
+                           PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.transferRepository = transferRepository;
+        this.forecastProperties = forecastProperties;
+        this.forecastEngine = new ForecastEngine(forecastProperties.getMinOccurrences());
+        this.pool = new ForkJoinPool(forecastProperties.getParallelism());
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Forecasts every account.
+     *
+     * @param months Number of month ends to project, starting with the current month.
+     * @return The forecast of each account.
+     * @throws IllegalArgumentException If the number of months is out of range.
+     */
+    public List<AccountForecastDTO> forecastAllAccounts(int months) {
+        validateMonths(months);
+        LocalDate today = LocalDate.now();
+        long start = System.nanoTime();
+
+        ForecastInput input = readTransaction.execute(status -> loadInput(null, today));
+        List<AccountForecastDTO> forecasts = forecast(input, today, months);
+
+        log.info("Forecast " + forecasts.size() + " accounts in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return forecasts;
+    }
+
+    /**
+     * Forecasts a single account.
+     *
+     * @param accountId The ID of the account.
+     * @param months    Number of month ends to project, starting with the current month.
+     * @return The forecast of the account.
+     * @throws IllegalArgumentException If the account does not exist or the number of months is out of range.
+     */
+    public AccountForecastDTO forecastAccount(Integer accountId, int months) {
+        validateMonths(months);
+        LocalDate today = LocalDate.now();
+
+        ForecastInput input = readTransaction.execute(status -> loadInput(accountId, today));
+        if (input == null || input.accounts().isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + accountId);
+        }
+        return forecast(input, today, months).get(0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void validateMonths(int months) {
+        if (months < 1 || months > forecastProperties.getMaxMonths()) {
+            throw new IllegalArgumentException("The forecast must cover between 1 and " + forecastProperties.getMaxMonths() + " months");
+        }
+    }
+
+    /**
+     * Reads the accounts, their cash flows in the lookback window and the future-dated transfers. Runs inside a transaction.
+     *
+     * @param accountId The only account to read, or null for all of them.
+     */
+    private ForecastInput loadInput(Integer accountId, LocalDate today) {
+        List<Account> accounts = accountId != null
+                ? accountRepository.findById(accountId).map(List::of).orElse(List.of())
+                : accountRepository.findAll();
+
+        Map<Integer, AccountHistory.Builder> builders = new HashMap<>(accounts.size() * 2);
+        for (Account account : accounts) {
+            builders.put(account.getId(), new AccountHistory.Builder(account.getId()));
+        }
+
+        LocalDate from = today.minusMonths(forecastProperties.getLookbackMonths());
+        try (Stream<Object[]> rows = accountId != null
+                ? cashFlowRepository.streamSignedAmountsByAccountDatedFrom(accountId, from)
+                : cashFlowRepository.streamSignedAmountsDatedFrom(from)) {
+            rows.forEach(row -> {
+                AccountHistory.Builder builder = builders.get((Integer) row[0]);
+                if (builder != null) {
+                    builder.addCashFlow((int) ((LocalDate) row[1]).toEpochDay(), AccountHistory.toMinorUnits((BigDecimal) row[2]), (String) row[3]);
+                }
+            });
+        }
+
+        for (Object[] row : transferRepository.findAmountsDatedAfter(today)) {
+            int day = (int) ((LocalDate) row[2]).toEpochDay();
+            long amount = AccountHistory.toMinorUnits((BigDecimal) row[3]);
+            AccountHistory.Builder source = builders.get((Integer) row[0]);
+            AccountHistory.Builder target = builders.get((Integer) row[1]);
+            if (source != null) {
+                source.addOneOff(day, -amount);
+            }
+            if (target != null) {
+                target.addOneOff(day, amount);
+            }
+        }
+
+        List<AccountHistory> histories = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            histories.add(builders.get(account.getId()).build());
+        }
+        return new ForecastInput(accounts, histories);
+    }
+
+    private List<AccountForecastDTO> forecast(ForecastInput input, LocalDate today, int months) {
+        List<Account> accounts = input.accounts();
+        AccountForecast[] results = new AccountForecast[accounts.size()];
+        pool.invoke(new ForecastTask(input, today, months, results, 0, results.length));
+
+        List<AccountForecastDTO> forecasts = new ArrayList<>(results.length);
+        for (int i = 0; i < results.length; i++) {
+            forecasts.add(toDTO(accounts.get(i), results[i]));
+        }
+        return forecasts;
+    }
+
+    private AccountForecastDTO toDTO(Account account, AccountForecast forecast) {
+        List<ForecastPointDTO> points = new ArrayList<>(forecast.getPointDates().length);
+        for (int i = 0; i < forecast.getPointDates().length; i++) {
+            points.add(new ForecastPointDTO(forecast.getPointDates()[i], AccountHistory.fromMinorUnits(forecast.getPointBalances()[i])));
+        }
+        List<RecurringPatternDTO> recurring = forecast.getPatterns().stream()
+                .map(pattern -> new RecurringPatternDTO(pattern.getLabel(), pattern.getPeriod(),
+                        AccountHistory.fromMinorUnits(pattern.getAmount()), pattern.getOccurrences(), pattern.getLastDate()))
+                .toList();
+
+        return new AccountForecastDTO(account.getId(), account.getName(), AccountHistory.fromMinorUnits(forecast.getCurrentBalance()),
+                points, recurring);
+    }
+
+    private record ForecastInput(List<Account> accounts, List<AccountHistory> histories) {
+    }
+
+    /**
+     * Splits the accounts in halves until a range is small enough to forecast directly.
+     */
+    private class ForecastTask extends RecursiveAction {
+
+        private final ForecastInput input;
+
+        private final LocalDate today;
+
+        private final int months;
+
+        private final AccountForecast[] results;
+
+        private final int from;
+
+        private final int to;
+
+        ForecastTask(ForecastInput input, LocalDate today, int months, AccountForecast[] results, int from, int to) {
+            this.input = input;
+            this.today = today;
+            this.months = months;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ACCOUNTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    long balance = AccountHistory.toMinorUnits(input.accounts().get(i).getBalance());
+                    results[i] = forecastEngine.forecast(input.histories().get(i), balance, today, months);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ForecastTask(input, today, months, results, from, middle),
+                    new ForecastTask(input, today, months, results, middle, to));
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.unforeseencompany.finances.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unforeseencompany.finances.config.LedgerEventProperties;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fans out committed ledger changes to server-sent event subscribers.
+ * <p>
+ * Streams are asynchronous, so an idle subscriber holds a connection but no thread. Each subscriber has
+ * a bounded buffer drained by a task of its own, which only holds a thread while there are events to send,
+ * so a client that reads slowly only ever blocks its own writes. A subscriber that falls behind, or whose
+ * write has not completed within the send timeout, is disconnected and can resume from the in-memory ring
+ * buffer of recent events by sending its Last-Event-ID.
+ * <p>
+ * Event IDs are prefixed with the epoch of this instance, so an ID handed out before a restart or by
+ * another instance is recognised and answered with a "reset" event instead of replaying the wrong events.
+ * Subscribers only receive the events of the tenant they subscribed as.
+ */
+@Service
+public class LedgerEventStreamService {
+
+    Logger log = LoggerFactory.getLogger(LedgerEventStreamService.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final LedgerEventProperties properties;
+
+    private final StreamEvent[] ring;
+
+    /**
+     * Identifies this instance's sequence of event IDs, which starts over at every start.
+     */
+    private final String epoch;
+
+    private long lastEventId;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService dispatcher;
+
+    /**
+     * Queued to send a keep-alive comment in order with the events.
+     */
+    private static final StreamEvent HEARTBEAT = new StreamEvent(0, null, null, Set.of(), null);
+
+    public LedgerEventStreamService(ObjectMapper objectMapper, LedgerEventProperties properties) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.ring = new StreamEvent[properties.getReplaySize()];
+        this.epoch = Long.toString(System.currentTimeMillis(), 36) + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36), 36);
+
+        // threads are only held by subscribers with events in flight, so a blocked write never delays the others
+        AtomicInteger threadCount = new AtomicInteger();
+        this.dispatcher = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ledger-events-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Records a ledger change once its transaction has committed and queues it for every matching subscriber.
+     *
+     * @param event The change published by one of the services.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChange(LedgerChangeEvent event) {
+        String data;
+        try {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("tenantId", event.getTenantId());
+            body.put("type", event.getType());
+            body.put("accountIds", event.getAccountIds());
+            body.put("payload", event.getPayload());
+            data = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            log.error("Error serializing ledger event: " + e.getMessage());
+            return;
+        }
+
+        List<Subscriber> ready = new ArrayList<>();
+        synchronized (ring) {
+            StreamEvent streamEvent = new StreamEvent(++lastEventId, event.getTenantId(), event.getType().getEventName(), event.getAccountIds(), data);
+            ring[(int) (streamEvent.getId() % ring.length)] = streamEvent;
+
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(streamEvent)) {
+                    if (subscriber.getBuffer().offer(streamEvent)) {
+                        ready.add(subscriber);
+                    } else {
+                        // completed by its own drain, as the emitter is locked while a write is blocked
+                        log.warn("Disconnecting slow ledger event subscriber, buffer is full");
+                        subscribers.remove(subscriber);
+                        subscriber.getBuffer().clear();
+                        ready.add(subscriber);
+                    }
+                }
+            }
+        }
+
+        ready.forEach(this::scheduleDrain);
+    }
+
+    /**
+     * Opens a new stream of the current tenant's ledger changes.
+     *
+     * @param lastEventId The ID of the last event the client received, or null for a fresh stream. An ID
+     *                    from another epoch, or one no longer in the ring buffer, gets a "reset" event.
+     * @param accountIds  The accounts the client is interested in, or an empty set for all of them.
+     * @return The emitter backing the stream.
+     */
+    public SseEmitter subscribe(String lastEventId, Set<Integer> accountIds) {
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, TenantContext.getTenantId(), accountIds, new ArrayBlockingQueue<>(properties.getSubscriberBufferSize()), new AtomicBoolean(), new AtomicLong());
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (ring) {
+            if (lastEventId != null) {
+                Long fromEventId = sequenceOf(lastEventId);
+                if (fromEventId == null || !replay(subscriber, fromEventId)) {
+                    subscriber.getBuffer().clear();
+                    subscriber.getBuffer().offer(new StreamEvent(this.lastEventId, subscriber.getTenantId(), LedgerEventTypeEnum.RESET.getEventName(), Set.of(), "{}"));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+
+        scheduleDrain(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Sends a comment to every idle stream so proxies and clients do not drop idle connections. Streams with
+     * events waiting are not idle and get none.
+     */
+    @Scheduled(fixedDelayString = "${finances.events.heartbeat-interval:PT15S}")
+    public void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.getBuffer().isEmpty() && subscriber.getBuffer().offer(HEARTBEAT)) {
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Disconnects the subscribers whose current write has not completed within the send timeout. They get no
+     * more events, and their drain completes the connection once the blocked write returns or the container
+     * fails it.
+     */
+    @Scheduled(fixedDelayString = "${finances.events.send-timeout:PT10S}")
+    public void disconnectStalledSubscribers() {
+        long now = System.nanoTime();
+        long sendTimeout = properties.getSendTimeout().toNanos();
+        for (Subscriber subscriber : subscribers) {
+            long sendingSince = subscriber.getSendingSince().get();
+            if (sendingSince != 0 && now - sendingSince > sendTimeout) {
+                log.warn("Disconnecting stalled ledger event subscriber, a write did not complete within " + properties.getSendTimeout());
+                subscribers.remove(subscriber);
+                subscriber.getBuffer().clear();
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.getEmitter().complete());
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * @return The sequence number of an event ID of this instance's epoch, or null if it is from another epoch
+     * or not an event ID at all.
+     */
+    private Long sequenceOf(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !epoch.equals(eventId.substring(0, separator))) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Queues the events after the given ID, if they are all still in the ring buffer. Must hold the ring lock.
+     *
+     * @return false if the client is too far behind and must reload its state.
+     */
+    private boolean replay(Subscriber subscriber, long fromEventId) {
+        long oldestEventId = Math.max(1, lastEventId - ring.length + 1);
+        if (fromEventId < 0 || fromEventId > lastEventId || fromEventId + 1 < oldestEventId) {
+            return false;
+        }
+
+        for (long id = fromEventId + 1; id <= lastEventId; id++) {
+            StreamEvent streamEvent = ring[(int) (id % ring.length)];
+            if (subscriber.accepts(streamEvent) && !subscriber.getBuffer().offer(streamEvent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.getDraining().compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            StreamEvent streamEvent;
+            while (subscribers.contains(subscriber) && (streamEvent = subscriber.getBuffer().poll()) != null) {
+                subscriber.getSendingSince().set(System.nanoTime());
+                if (streamEvent == HEARTBEAT) {
+                    subscriber.getEmitter().send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    subscriber.getEmitter().send(SseEmitter.event()
+                            .id(epoch + "-" + streamEvent.getId())
+                            .name(streamEvent.getName())
+                            .data(streamEvent.getData(), MediaType.APPLICATION_JSON));
+                }
+                subscriber.getSendingSince().set(0);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.getBuffer().clear();
+        } finally {
+            subscriber.getSendingSince().set(0);
+            subscriber.getDraining().set(false);
+        }
+
+        if (!subscribers.contains(subscriber)) {
+            // disconnected for falling behind or stalling, or already closed
+            subscriber.getBuffer().clear();
+            subscriber.getEmitter().complete();
+        } else if (!subscriber.getBuffer().isEmpty()) {
+            // an event may have been queued after the last poll but before the flag was released
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class StreamEvent {
+
+        private final long id;
+
+        private final String tenantId;
+
+        private final String name;
+
+        private final Set<Integer> accountIds;
+
+        private final String data;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final String tenantId;
+
+        private final Set<Integer> accountIds;
+
+        private final BlockingQueue<StreamEvent> buffer;
+
+        private final AtomicBoolean draining;
+
+        /**
+         * The {@link System#nanoTime()} at which the write in flight started, or 0 if there is none.
+         */
+        private final AtomicLong sendingSince;
+
+        boolean accepts(StreamEvent streamEvent) {
+            if (!tenantId.equals(streamEvent.getTenantId())) {
+                return false;
+            }
+            return accountIds.isEmpty() || streamEvent.getAccountIds().isEmpty()
+                    || streamEvent.getAccountIds().stream().anyMatch(accountIds::contains);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.event.AccountVersionChangeEvent;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.LedgerVersion;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.LedgerVersionRepository;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps the versions of every account and of each tenant's ledger as a whole, which back the ETags of the read
+ * endpoints, so a conditional GET can be answered without querying the account or transaction tables. The versions
+ * are columns bumped by the write transactions themselves, so every instance answers with the same ETags, and a write
+ * through one instance is seen by all the others as soon as it commits. ETags carry the tenant, so one tenant's
+ * cached representation never validates against another's.
+ * <p>
+ * Each transaction bumps its tenant's ledger version once, just before it commits, so concurrent writes of a tenant
+ * only wait for each other's commits on the version row. Once it has committed, an {@link AccountVersionChangeEvent}
+ * is published for every account whose version it bumped, so caches of this instance that are checked against the
+ * versions can keep up with its own writes.
+ */
+@Service
+public class LedgerVersionService {
+
+    private final LedgerVersionRepository ledgerVersionRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerVersionService(LedgerVersionRepository ledgerVersionRepository, AccountRepository accountRepository,
+                                ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.ledgerVersionRepository = ledgerVersionRepository;
+        this.accountRepository = accountRepository;
+        this.eventPublisher = eventPublisher;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Bumps the version of the given managed account, flushed with the account, and the version of the ledger, after
+     * a change that leaves the account's balance history intact.
+     *
+     * @param account The changed account.
+     */
+    public void accountChanged(Account account) {
+        accountChanged(account, null);
+    }
+
+    /**
+     * Bumps the version of the given managed account, flushed with the account, and the version of the ledger.
+     * The account must be locked until the transaction ends.
+     *
+     * @param account      The changed account.
+     * @param affectedFrom The earliest date whose closing balance changed, or null if the balance history is intact.
+     */
+    public void accountChanged(Account account, LocalDate affectedFrom) {
+        long version = account.getVersion();
+        account.setVersion(version + 1);
+
+        PendingBumps pending = bumpOnCommit(false);
+        if (pending != null && account.getId() != null) {
+            pending.accountChanges.computeIfAbsent(new AccountKey(TenantContext.getTenantId(), account.getId()),
+                    key -> new AccountChange(version)).changed(version + 1, affectedFrom);
+        }
+    }
+
+    /**
+     * Bumps the ledger version of the current tenant, after a change that leaves the accounts' versions as they
+     * should be: an account created or deleted, or accounts changed by a query that bumped their versions itself.
+     */
+    public void ledgerChanged() {
+        bumpOnCommit(false);
+    }
+
+    /**
+     * Bumps the ledger version and the account generation of the current tenant after a bulk operation that may
+     * change any of its accounts without bumping their versions.
+     */
+    public void accountsChanged() {
+        bumpOnCommit(true);
+    }
+
+    public long getLedgerVersion() {
+        return ledgerVersionRepository.findById(TenantContext.getTenantId()).map(LedgerVersion::getLedgerVersion).orElse(0L);
+    }
+
+    /**
+     * @return The version of the account, or empty if it does not exist.
+     */
+    public Optional<Long> getAccountVersion(Integer accountId) {
+        return accountRepository.findVersion(accountId);
+    }
+
+    public long getAccountGeneration() {
+        return ledgerVersionRepository.findById(TenantContext.getTenantId()).map(LedgerVersion::getAccountGeneration).orElse(0L);
+    }
+
+    /**
+     * @return The strong ETag of any representation derived from the current tenant's whole ledger.
+     */
+    public String ledgerETag() {
+        return "\"" + TenantContext.getTenantId() + "-" + getLedgerVersion() + "\"";
+    }
+
+    /**
+     * @param variant Distinguishes representations of the same data, such as different views or formats. It must
+     *                only contain characters allowed in an ETag, and no double quote.
+     * @return The strong ETag of one variant of a representation derived from the current tenant's whole ledger.
+     */
+    public String ledgerETag(String variant) {
+        return "\"" + TenantContext.getTenantId() + "-" + getLedgerVersion() + "-" + variant + "\"";
+    }
+
+    /**
+     * @param accountId The ID of the account.
+     * @return The strong ETag of the representation of a single account.
+     */
+    public String accountETag(Integer accountId) {
+        String version = getAccountVersion(accountId).map(String::valueOf).orElse("none");
+        return "\"" + TenantContext.getTenantId() + "-a" + accountId + "-" + getAccountGeneration() + "." + version + "\"";
+    }
+
+    /**
+     * Bumps the current tenant's versions just before the current transaction commits, or at once in a transaction
+     * of its own if there is none.
+     *
+     * @return The bumps of the current transaction, or null if there is none.
+     */
+    private PendingBumps bumpOnCommit(boolean accountGeneration) {
+        String tenantId = TenantContext.getTenantId();
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionTemplate.executeWithoutResult(status -> bump(tenantId, accountGeneration));
+            return null;
+        }
+
+        PendingBumps pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(PendingBumps.class::isInstance)
+                .map(PendingBumps.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingBumps bumps = new PendingBumps();
+                    TransactionSynchronizationManager.registerSynchronization(bumps);
+                    return bumps;
+                });
+        pending.accountGenerations.merge(tenantId, accountGeneration, Boolean::logicalOr);
+        return pending;
+    }
+
+    private void bump(String tenantId, boolean accountGeneration) {
+        long generations = accountGeneration ? 1 : 0;
+        if (ledgerVersionRepository.bump(tenantId, generations) == 0) {
+            // a missing row could not be updated, so the tenant's first write creates it
+            ledgerVersionRepository.insertIfAbsent(tenantId);
+            ledgerVersionRepository.bump(tenantId, generations);
+        }
+    }
+
+    /**
+     * The tenants whose versions the transaction bumps, with whether their account generation is bumped too, and the
+     * accounts whose versions it bumped.
+     */
+    private class PendingBumps implements TransactionSynchronization {
+
+        private final Map<String, Boolean> accountGenerations = new HashMap<>();
+
+        private final Map<AccountKey, AccountChange> accountChanges = new LinkedHashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            accountGenerations.forEach(LedgerVersionService.this::bump);
+        }
+
+        @Override
+        public void afterCommit() {
+            accountChanges.forEach((key, change) -> eventPublisher.publishEvent(new AccountVersionChangeEvent(
+                    key.tenantId(), key.accountId(), change.fromVersion, change.toVersion, change.affectedFrom)));
+        }
+    }
+
+    private record AccountKey(String tenantId, Integer accountId) {
+    }
+
+    /**
+     * The versions an account went through in the transaction, and the earliest date whose balance changed.
+     */
+    private static class AccountChange {
+
+        private final long fromVersion;
+
+        private long toVersion;
+
+        private LocalDate affectedFrom;
+
+        AccountChange(long fromVersion) {
+            this.fromVersion = fromVersion;
+        }
+
+        void changed(long version, LocalDate date) {
+            toVersion = version;
+            if (date != null && (affectedFrom == null || date.isBefore(affectedFrom))) {
+                affectedFrom = date;
+            }
+        }
+    }
+}
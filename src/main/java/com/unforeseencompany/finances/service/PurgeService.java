@@ -0,0 +1,126 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.PurgeProperties;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.AttachmentRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntSupplier;
+
+/**
+ * Removes for good the accounts and transactions that were deleted longer ago than the retention.
+ * <p>
+ * Deleting only marks the rows, so the requests stay short; this job catches up off-peak, on the schedule set
+ * by finances.purge.cron. Rows are removed tenant by tenant in small batches, each in its own transaction and
+ * followed by a pause, so locks are short and replicas keep up. Transactions go first, since an account can
+ * only be removed once no transaction references it, and the attachments of the purged transactions follow them.
+ */
+@Service
+public class PurgeService {
+
+    Logger log = LoggerFactory.getLogger(PurgeService.class);
+
+    private final AccountRepository accountRepository;
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final AttachmentRepository attachmentRepository;
+
+    private final PurgeProperties purgeProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public PurgeService(AccountRepository accountRepository, CashFlowRepository cashFlowRepository,
+                        TransferRepository transferRepository, AttachmentRepository attachmentRepository,
+                        PurgeProperties purgeProperties, PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.transferRepository = transferRepository;
+        this.attachmentRepository = attachmentRepository;
+        this.purgeProperties = purgeProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Purges the deleted rows of every tenant, stopping once finances.purge.max-duration has elapsed.
+     */
+    @Scheduled(cron = "${finances.purge.cron:-}")
+    public void purgeDeleted() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping purge: the previous run is still going");
+            return;
+        }
+
+        long deadline = System.nanoTime() + purgeProperties.getMaxDuration().toNanos();
+        try {
+            for (String tenantId : accountRepository.findAllTenantIds()) {
+                if (isOver(deadline)) {
+                    log.info("Purge stopped after " + purgeProperties.getMaxDuration() + ", the rest is left to the next run");
+                    return;
+                }
+                try {
+                    TenantContext.runAs(tenantId, () -> purgeTenant(tenantId, deadline));
+                } catch (Exception e) {
+                    log.error("Error purging deleted rows of tenant " + tenantId + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void purgeTenant(String tenantId, long deadline) {
+        long retentionSeconds = purgeProperties.getRetention().toSeconds();
+        int batchSize = purgeProperties.getBatchSize();
+
+        int cashFlows = purgeInBatches(() -> cashFlowRepository.purgeDeleted(tenantId, retentionSeconds, batchSize), deadline);
+        int transfers = purgeInBatches(() -> transferRepository.purgeDeleted(tenantId, retentionSeconds, batchSize), deadline);
+        int attachments = purgeInBatches(() -> attachmentRepository.purgeOrphaned(tenantId, batchSize), deadline);
+        int accounts = purgeInBatches(() -> accountRepository.purgeDeleted(tenantId, retentionSeconds, batchSize), deadline);
+
+        if (cashFlows + transfers + attachments + accounts > 0) {
+            log.info("Purged " + cashFlows + " cash flows, " + transfers + " transfers, " + attachments + " attachments and "
+                    + accounts + " accounts of tenant " + tenantId);
+        }
+    }
+
+    /**
+     * Runs the batch in its own transaction until it removes less than a full batch or the deadline passes.
+     *
+     * @return The number of rows removed.
+     */
+    private int purgeInBatches(IntSupplier batch, long deadline) {
+        int total = 0;
+        while (!isOver(deadline)) {
+            Integer rows = transactionTemplate.execute(status -> batch.getAsInt());
+            total += rows != null ? rows : 0;
+            if (rows == null || rows < purgeProperties.getBatchSize()) {
+                break;
+            }
+
+            try {
+                Thread.sleep(purgeProperties.getPause().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return total;
+    }
+
+    private boolean isOver(long deadline) {
+        return System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted();
+    }
+}
@@ -0,0 +1,207 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.ReconciliationProperties;
+import com.unforeseencompany.finances.dto.reconciliation.BalanceDiscrepancyDTO;
+import com.unforeseencompany.finances.dto.reconciliation.ReconciliationReportDTO;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.archive.AccountBalanceSnapshot;
+import com.unforeseencompany.finances.repository.AccountBalanceSnapshotRepository;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Verifies that every account's balance equals its initial balance plus its cash flows and transfers,
+ * including the net effect of its archived transactions.
+ * <p>
+ * Accounts are split into chunks of consecutive IDs; each chunk is verified with a few grouped aggregate queries
+ * in a single read-only transaction, and chunks run in parallel on a bounded pool. Repairs apply the
+ * difference only if the balance has not changed since it was verified, so concurrent writes are never lost.
+ * A reconciliation covers the current tenant; the worker threads run as that tenant.
+ */
+@Service
+public class ReconciliationService {
+
+    Logger log = LoggerFactory.getLogger(ReconciliationService.class);
+
+    private final AccountRepository accountRepository;
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final TransferRepository transferRepository;
+
+    private final AccountBalanceSnapshotRepository accountBalanceSnapshotRepository;
+
+    private final LedgerVersionService ledgerVersionService;
+
+    private final AccountGroupService accountGroupService;
+
+    private final ReconciliationProperties reconciliationProperties;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate writeTransaction;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public ReconciliationService(AccountRepository accountRepository, CashFlowRepository cashFlowRepository,
+                                 TransferRepository transferRepository, AccountBalanceSnapshotRepository accountBalanceSnapshotRepository,
+                                 LedgerVersionService ledgerVersionService, AccountGroupService accountGroupService,
+                                 ReconciliationProperties reconciliationProperties, PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.cashFlowRepository = cashFlowRepository;
+        this.transferRepository = transferRepository;
+        this.accountBalanceSnapshotRepository = accountBalanceSnapshotRepository;
+        this.ledgerVersionService = ledgerVersionService;
+        this.accountGroupService = accountGroupService;
+        this.reconciliationProperties = reconciliationProperties;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Verifies the balance of every account of the current tenant.
+     *
+     * @param repair Whether accounts whose balance differs from the recomputed one are corrected.
+     * @return The report listing every discrepancy found.
+     * @throws IllegalStateException If a reconciliation is already running.
+     */
+    public ReconciliationReportDTO reconcile(boolean repair) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already running");
+        }
+
+        String tenantId = TenantContext.getTenantId();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(reconciliationProperties.getParallelism());
+        try {
+            List<Integer> accountIds = accountRepository.findAllIds();
+
+            List<Future<List<BalanceDiscrepancyDTO>>> chunks = new ArrayList<>();
+            for (int i = 0; i < accountIds.size(); i += reconciliationProperties.getChunkSize()) {
+                Integer fromId = accountIds.get(i);
+                Integer toId = accountIds.get(Math.min(i + reconciliationProperties.getChunkSize(), accountIds.size()) - 1);
+                chunks.add(executor.submit(() -> TenantContext.callAs(tenantId, () -> reconcileChunk(tenantId, fromId, toId, repair))));
+            }
+
+            List<BalanceDiscrepancyDTO> discrepancies = new ArrayList<>();
+            for (Future<List<BalanceDiscrepancyDTO>> chunk : chunks) {
+                discrepancies.addAll(chunk.get());
+            }
+
+            int repaired = (int) discrepancies.stream().filter(BalanceDiscrepancyDTO::isRepaired).count();
+            if (repaired > 0 && accountGroupService.hasGroups()) {
+                accountGroupService.rebuildTotals();
+            }
+            long durationMillis = (System.nanoTime() - start) / 1_000_000;
+            log.info("Reconciled " + accountIds.size() + " accounts of tenant " + tenantId + " in " + durationMillis + " ms: "
+                    + discrepancies.size() + " discrepancies, " + repaired + " repaired");
+
+            return new ReconciliationReportDTO(startedAt, durationMillis, accountIds.size(), repaired, discrepancies);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error reconciling accounts: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    /**
+     * Verifies the balances of every tenant without repairing them, on the schedule set by finances.reconciliation.cron.
+     */
+    @Scheduled(cron = "${finances.reconciliation.cron:-}")
+    public void scheduledReconciliation() {
+        for (String tenantId : accountRepository.findAllTenantIds()) {
+            try {
+                TenantContext.runAs(tenantId, () -> reconcile(false));
+            } catch (Exception e) {
+                log.error("Error reconciling accounts of tenant " + tenantId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private List<BalanceDiscrepancyDTO> reconcileChunk(String tenantId, Integer fromId, Integer toId, boolean repair) {
+        List<BalanceDiscrepancyDTO> discrepancies = readTransaction.execute(status -> findDiscrepancies(fromId, toId));
+
+        if (repair && discrepancies != null) {
+            for (BalanceDiscrepancyDTO discrepancy : discrepancies) {
+                Integer updated = writeTransaction.execute(status -> {
+                    // the update bumps the account's version
+                    int adjusted = accountRepository.adjustBalanceIfUnchanged(tenantId,
+                            discrepancy.getAccountId(), discrepancy.getRecordedBalance(), discrepancy.getDifference());
+                    if (adjusted > 0) {
+                        ledgerVersionService.ledgerChanged();
+                    }
+                    return adjusted;
+                });
+
+                if (updated != null && updated > 0) {
+                    discrepancy.setRepaired(true);
+                } else {
+                    log.warn("Balance of account " + discrepancy.getAccountId() + " changed during reconciliation, not repaired");
+                }
+            }
+        }
+        return discrepancies;
+    }
+
+    private List<BalanceDiscrepancyDTO> findDiscrepancies(Integer fromId, Integer toId) {
+        Map<Integer, BigDecimal> netCashFlows = toMap(cashFlowRepository.sumNetAmountByAccountIdBetween(fromId, toId));
+        Map<Integer, BigDecimal> outgoingTransfers = toMap(transferRepository.sumOutgoingAmountByAccountIdBetween(fromId, toId));
+        Map<Integer, BigDecimal> incomingTransfers = toMap(transferRepository.sumIncomingAmountByAccountIdBetween(fromId, toId));
+        Map<Integer, BigDecimal> archivedNets = new HashMap<>();
+        for (AccountBalanceSnapshot snapshot : accountBalanceSnapshotRepository.findByAccountIdBetween(fromId, toId)) {
+            archivedNets.put(snapshot.getAccountId(), snapshot.getArchivedNet());
+        }
+
+        List<BalanceDiscrepancyDTO> discrepancies = new ArrayList<>();
+        for (Account account : accountRepository.findByIdBetweenOrderById(fromId, toId)) {
+            BigDecimal expectedBalance = account.getInitialBalance()
+                    .add(netCashFlows.getOrDefault(account.getId(), BigDecimal.ZERO))
+                    .subtract(outgoingTransfers.getOrDefault(account.getId(), BigDecimal.ZERO))
+                    .add(incomingTransfers.getOrDefault(account.getId(), BigDecimal.ZERO))
+                    .add(archivedNets.getOrDefault(account.getId(), BigDecimal.ZERO));
+
+            if (expectedBalance.compareTo(account.getBalance()) != 0) {
+                discrepancies.add(new BalanceDiscrepancyDTO(account.getId(), account.getName(), account.getBalance(),
+                        expectedBalance, expectedBalance.subtract(account.getBalance()), false));
+            }
+        }
+        return discrepancies;
+    }
+
+    private Map<Integer, BigDecimal> toMap(List<Object[]> sums) {
+        Map<Integer, BigDecimal> map = new HashMap<>(sums.size() * 2);
+        for (Object[] row : sums) {
+            map.put((Integer) row[0], (BigDecimal) row[1]);
+        }
+        return map;
+    }
+}
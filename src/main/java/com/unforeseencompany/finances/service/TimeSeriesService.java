@@ -0,0 +1,230 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.TimeSeriesProperties;
+import com.unforeseencompany.finances.dto.timeseries.TimeSeriesDTO;
+import com.unforeseencompany.finances.dto.timeseries.TimeSeriesPointDTO;
+import com.unforeseencompany.finances.enums.TimeSeriesResolutionEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.service.forecast.AccountHistory;
+import com.unforeseencompany.finances.service.timeseries.BalanceSeries;
+import com.unforeseencompany.finances.service.timeseries.BalanceSeriesCache;
+import com.unforeseencompany.finances.service.timeseries.Downsampler;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serves the balance history of the accounts and the net worth as daily series, optionally downsampled.
+ * <p>
+ * The closing balances are computed by the database in a single window-function query over the live and
+ * archived transactions, and cached per account. A write only invalidates the days from its transaction
+ * date onwards, so the next request recomputes just that suffix, starting from the last valid balance.
+ * The cached series are checked against the persisted account versions, which writes through any instance bump.
+ */
+@Service
+public class TimeSeriesService {
+
+    private static final int EARLIEST_DAY = (int) ArchiveService.EARLIEST_DATE.toEpochDay();
+
+    Logger log = LoggerFactory.getLogger(TimeSeriesService.class);
+
+    private final AccountRepository accountRepository;
+
+    private final BalanceSeriesCache balanceSeriesCache;
+
+    private final LedgerVersionService ledgerVersionService;
+
+    private final TimeSeriesProperties timeSeriesProperties;
+
+    private final TransactionTemplate readTransaction;
+
+    public TimeSeriesService(AccountRepository accountRepository, BalanceSeriesCache balanceSeriesCache,
+                             LedgerVersionService ledgerVersionService, TimeSeriesProperties timeSeriesProperties,
+                             PlatformTransactionManager transactionManager) {
+        this.accountRepository = accountRepository;
+        this.balanceSeriesCache = balanceSeriesCache;
+        this.ledgerVersionService = ledgerVersionService;
+        this.timeSeriesProperties = timeSeriesProperties;
+
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Builds the balance series of a single account.
+     *
+     * @param accountId  The ID of the account.
+     * @param from       The first day of the series.
+     * @param to         The last day of the series.
+     * @param resolution How the daily balances are reduced.
+     * @param points     The number of points kept by the LTTB resolution.
+     * @return The series.
+     * @throws IllegalArgumentException If the account does not exist or the range or resolution is invalid.
+     */
+    public TimeSeriesDTO getAccountSeries(Integer accountId, LocalDate from, LocalDate to,
+                                          TimeSeriesResolutionEnum resolution, int points) {
+        validate(from, to, resolution, points);
+
+        String tenantId = TenantContext.getTenantId();
+        long generation = balanceSeriesCache.getGeneration(tenantId);
+        Optional<Account> account = readTransaction.execute(status -> accountRepository.findById(accountId));
+        if (account == null || account.isEmpty()) {
+            throw new IllegalArgumentException("Account not found with id: " + accountId);
+        }
+
+        long[] daily = dailyBalances(tenantId, generation, List.of(account.get()), from, to);
+        return new TimeSeriesDTO(accountId, account.get().getName(), from, to, resolution, toPoints(daily, from, resolution, points));
+    }
+
+    /**
+     * Builds the series of the sum of every account's balance.
+     *
+     * @param from       The first day of the series.
+     * @param to         The last day of the series.
+     * @param resolution How the daily balances are reduced.
+     * @param points     The number of points kept by the LTTB resolution.
+     * @return The series.
+     * @throws IllegalArgumentException If the range or resolution is invalid.
+     */
+    public TimeSeriesDTO getNetWorthSeries(LocalDate from, LocalDate to, TimeSeriesResolutionEnum resolution, int points) {
+        validate(from, to, resolution, points);
+
+        String tenantId = TenantContext.getTenantId();
+        long generation = balanceSeriesCache.getGeneration(tenantId);
+        List<Account> accounts = readTransaction.execute(status -> accountRepository.findAll());
+
+        long[] daily = dailyBalances(tenantId, generation, accounts != null ? accounts : List.of(), from, to);
+        return new TimeSeriesDTO(null, "Net worth", from, to, resolution, toPoints(daily, from, resolution, points));
+    }
+
+    private void validate(LocalDate from, LocalDate to, TimeSeriesResolutionEnum resolution, int points) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("The start date " + from + " is after the end date " + to);
+        }
+        if (to.toEpochDay() - from.toEpochDay() + 1 > timeSeriesProperties.getMaxDays()) {
+            throw new IllegalArgumentException("A series may span at most " + timeSeriesProperties.getMaxDays() + " days");
+        }
+        if (resolution == TimeSeriesResolutionEnum.LTTB && points < 3) {
+            throw new IllegalArgumentException("LTTB needs at least 3 points");
+        }
+    }
+
+    /**
+     * Sums the closing balances of the given accounts on every day of the range.
+     */
+    private long[] dailyBalances(String tenantId, long generation, List<Account> accounts, LocalDate from, LocalDate to) {
+        long[] daily = new long[(int) (to.toEpochDay() - from.toEpochDay() + 1)];
+        for (BalanceSeries series : loadSeries(tenantId, generation, accounts)) {
+            series.addDailyBalances((int) from.toEpochDay(), daily);
+        }
+        return daily;
+    }
+
+    /**
+     * Returns the series of the given accounts, recomputing the invalid part of those not fully cached
+     * in one query that starts from the earliest invalid day among them. The initial balances are read
+     * in the same transaction as the daily balances, so a computed series is always consistent. The versions
+     * are read before, so a write committed in between leaves the computed series behind.
+     */
+    private List<BalanceSeries> loadSeries(String tenantId, long generation, List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Integer, Long> versions = new HashMap<>();
+        long accountGeneration = readTransaction.execute(status -> {
+            for (Object[] row : accountRepository.findVersions(accounts.stream().map(Account::getId).toList())) {
+                versions.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+            }
+            return ledgerVersionService.getAccountGeneration();
+        });
+
+        List<BalanceSeries> result = new ArrayList<>(accounts.size());
+        Map<Integer, BalanceSeries> stale = new HashMap<>();
+        int openingDay = Integer.MAX_VALUE;
+
+        for (Account account : accounts) {
+            Long version = versions.get(account.getId());
+            if (version == null) {
+                // deleted since it was read
+                continue;
+            }
+            BalanceSeries cached = balanceSeriesCache.get(tenantId, account.getId(), accountGeneration, version);
+            if (cached != null && cached.isValid()) {
+                result.add(cached);
+            } else {
+                stale.put(account.getId(), cached);
+                openingDay = Math.min(openingDay, cached == null || cached.isInvalid() ? EARLIEST_DAY : cached.getValidUntil() - 1);
+            }
+        }
+
+        if (stale.isEmpty()) {
+            return result;
+        }
+
+        LocalDate openingDate = LocalDate.ofEpochDay(openingDay);
+        Map<Integer, BigDecimal> initialBalances = new HashMap<>();
+        Map<Integer, List<Object[]>> rowsByAccount = new HashMap<>();
+        readTransaction.executeWithoutResult(status -> {
+            accountRepository.findAllById(stale.keySet())
+                    .forEach(account -> initialBalances.put(account.getId(), account.getInitialBalance()));
+            for (Object[] row : accountRepository.findDailyBalances(tenantId, stale.keySet(), openingDate)) {
+                rowsByAccount.computeIfAbsent(((Number) row[0]).intValue(), id -> new ArrayList<>()).add(row);
+            }
+        });
+
+        for (Map.Entry<Integer, BigDecimal> entry : initialBalances.entrySet()) {
+            List<Object[]> accountRows = rowsByAccount.getOrDefault(entry.getKey(), List.of());
+            int[] days = new int[accountRows.size()];
+            long[] balances = new long[accountRows.size()];
+            for (int i = 0; i < accountRows.size(); i++) {
+                days[i] = (int) toLocalDate(accountRows.get(i)[1]).toEpochDay();
+                balances[i] = AccountHistory.toMinorUnits((BigDecimal) accountRows.get(i)[2]);
+            }
+
+            long initialBalance = AccountHistory.toMinorUnits(entry.getValue());
+            BalanceSeries cached = stale.get(entry.getKey());
+            BalanceSeries computed = cached != null && !cached.isInvalid()
+                    ? cached.mergedWith(initialBalance, days, balances)
+                    : new BalanceSeries(initialBalance, days, balances);
+
+            balanceSeriesCache.put(tenantId, entry.getKey(), generation, accountGeneration, versions.get(entry.getKey()), cached, computed);
+            result.add(computed);
+        }
+
+        log.debug("Computed the balance series of " + stale.size() + " accounts of tenant " + tenantId + " from " + openingDate);
+        return result;
+    }
+
+    private List<TimeSeriesPointDTO> toPoints(long[] daily, LocalDate from, TimeSeriesResolutionEnum resolution, int points) {
+        int[] indexes = switch (resolution) {
+            case DAY -> Downsampler.daily(daily.length);
+            case WEEK -> Downsampler.weekly(from, daily.length);
+            case MONTH -> Downsampler.monthly(from, daily.length);
+            case LTTB -> Downsampler.lttb(daily, points);
+        };
+
+        List<TimeSeriesPointDTO> result = new ArrayList<>(indexes.length);
+        for (int index : indexes) {
+            result.add(new TimeSeriesPointDTO(from.plusDays(index), AccountHistory.fromMinorUnits(daily[index])));
+        }
+        return result;
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+}
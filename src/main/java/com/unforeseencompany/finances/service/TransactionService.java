@@ -8,7 +8,9 @@ import com.unforeseencompany.finances.repository.TransferRepository;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -27,6 +29,7 @@ public class TransactionService {
 
     private final TransferService transferService;
 
+    @Transactional(readOnly = true)
     public List<Transaction> getAllTransactions() {
         List<CashFlow> cashFlows = cashFlowService.getAllCashFlowTransactions();
         List<Transfer> transfers = transferService.getAllTransferTransactions();
@@ -35,6 +38,26 @@ public class TransactionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Lists every transaction dated in the given range. Without a range only the live transactions are listed.
+     */
+    @Transactional(readOnly = true)
+    public List<Transaction> getAllTransactions(LocalDate from, LocalDate to) {
+        if (from == null && to == null) {
+            return getAllTransactions();
+        }
+
+        LocalDate start = from != null ? from : ArchiveService.EARLIEST_DATE;
+        LocalDate end = to != null ? to : ArchiveService.LATEST_DATE;
+
+        List<CashFlow> cashFlows = cashFlowService.getCashFlowTransactionsDatedBetween(start, end);
+        List<Transfer> transfers = transferService.getTransferTransactionsDatedBetween(start, end);
+
+        return Stream.concat(cashFlows.stream(), transfers.stream())
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
     public void deleteAllTransactions() {
         cashFlowService.deleteAllCashFlowTransactions();
         transferService.deleteAllTransferTransactions();
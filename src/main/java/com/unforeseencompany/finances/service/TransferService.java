@@ -1,16 +1,30 @@
 package com.unforeseencompany.finances.service;
 
+import com.unforeseencompany.finances.dto.transaction.TransferBatchDTO;
 import com.unforeseencompany.finances.dto.transaction.TransferDTO;
+import com.unforeseencompany.finances.dto.transaction.TransferLegDTO;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
 import com.unforeseencompany.finances.model.Account;
 import com.unforeseencompany.finances.model.transaction.Transfer;
 import com.unforeseencompany.finances.repository.AccountRepository;
 import com.unforeseencompany.finances.repository.TransferRepository;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -25,27 +39,73 @@ public class TransferService {
 
     private final AccountRepository accountRepository;
 
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ArchiveService archiveService;
+
+    private final AccountGroupService accountGroupService;
+
+    @Transactional(readOnly = true)
     public List<Transfer> getAllTransferTransactions() {
         return transferRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Transfer> findTransferById(Integer id) {
         return transferRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Transfer> listTransferTransactionsByAccountName(String accountName) {
-        if (accountRepository.findAccountByName(accountName).isEmpty()) {
+        return listTransferTransactionsByAccountName(accountName, null, null);
+    }
+
+    /**
+     * Lists an account's transfers dated in the given range. Without a range only the live transactions are listed;
+     * archived ones are read only when the range starts before the archive cutoff.
+     */
+    @Transactional(readOnly = true)
+    public List<Transfer> listTransferTransactionsByAccountName(String accountName, LocalDate from, LocalDate to) {
+        Optional<Account> account = accountRepository.findAccountByName(accountName);
+        if (account.isEmpty()) {
             throw new IllegalArgumentException("Account not found with name: " + accountName);
         }
 
-        List<Transfer> sourceAccountList = transferRepository.findBySourceAccountName(accountName);
-        List<Transfer> targetTransferList = transferRepository.findByTargetAccountName(accountName);
+        if (from == null && to == null) {
+            List<Transfer> sourceAccountList = transferRepository.findBySourceAccountName(accountName);
+            List<Transfer> targetTransferList = transferRepository.findByTargetAccountName(accountName);
+
+            return Stream.concat(sourceAccountList.stream(), targetTransferList.stream())
+                    .collect(Collectors.toList());
+        }
+
+        LocalDate start = from != null ? from : ArchiveService.EARLIEST_DATE;
+        LocalDate end = to != null ? to : ArchiveService.LATEST_DATE;
 
-        return Stream.concat(sourceAccountList.stream(), targetTransferList.stream())
-                .collect(Collectors.toList());
+        List<Transfer> transfers = new ArrayList<>(archiveService.listArchivedTransfers(account.get(), start, end));
+        if (archiveService.isLiveNeeded(end)) {
+            transfers.addAll(transferRepository.findBySourceAccountNameAndTransactionDateBetween(accountName, start, end));
+            transfers.addAll(transferRepository.findByTargetAccountNameAndTransactionDateBetween(accountName, start, end));
+        }
+        return transfers;
     }
 
+    /**
+     * Lists every transfer dated in the given range, reading the archive only if the range needs it.
+     */
+    @Transactional(readOnly = true)
+    public List<Transfer> getTransferTransactionsDatedBetween(LocalDate from, LocalDate to) {
+        List<Transfer> transfers = new ArrayList<>(archiveService.listArchivedTransfers(from, to));
+        if (archiveService.isLiveNeeded(to)) {
+            transfers.addAll(transferRepository.findByTransactionDateBetween(from, to));
+        }
+        return transfers;
+    }
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public Transfer saveTransferTransaction(TransferDTO transferDTO) {
+        archiveService.ensureNotArchived(transferDTO.getTransactionDate());
+
         Optional<Account> sourceAccount = accountService.findAccountById(transferDTO.getSourceAccountId());
         Optional<Account> targetAccount = accountService.findAccountById(transferDTO.getTargetAccountId());
 
@@ -55,85 +115,238 @@ public class TransferService {
             transfer.setSourceAccount(sourceAccount.get());
             transfer.setTargetAccount(targetAccount.get());
 
-            accountService.decreaseBalance(sourceAccount.get(), transferDTO.getAmount());
-            accountService.increaseBalance(targetAccount.get(), transferDTO.getAmount());
+            accountService.lockForUpdate(List.of(sourceAccount.get(), targetAccount.get()));
+            accountService.decreaseBalance(sourceAccount.get(), transferDTO.getAmount(), transferDTO.getTransactionDate());
+            accountService.increaseBalance(targetAccount.get(), transferDTO.getAmount(), transferDTO.getTransactionDate());
         } else if (sourceAccount.isEmpty()) {
             throw new IllegalArgumentException("Source account not found with id: " + transferDTO.getSourceAccountId());
         } else {
             throw new IllegalArgumentException("Target account not found with id: " + transferDTO.getTargetAccountId());
         }
 
-        return transferRepository.save(transfer);
+        Transfer savedTransfer = transferRepository.save(transfer);
+        eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_CREATED, savedTransfer,
+                savedTransfer.getTransactionDate(), savedTransfer.getSourceAccount().getId(), savedTransfer.getTargetAccount().getId()));
+        return savedTransfer;
     }
 
-    public Transfer updateTransferTransaction(Integer id, TransferDTO transferDTO) {
-        Optional<Transfer> transferOptional = transferRepository.findById(id);
+    @Transactional(readOnly = true)
+    public List<Transfer> findTransferBatch(Integer batchId) {
+        return transferRepository.findByBatchId(batchId);
+    }
 
-        if (transferOptional.isPresent()) {
-            Transfer transfer = transferOptional.get();
+    /**
+     * Transfers from one account to many in a single transaction. Each leg is stored as a transfer of its own,
+     * all sharing the ID of the first as their batch ID, while the balances change once per account: the source
+     * by the total, and each target by the sum of its legs.
+     *
+     * @return The transfers created, one per leg.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<Transfer> saveTransferBatch(TransferBatchDTO transferBatchDTO) {
+        archiveService.ensureNotArchived(transferBatchDTO.getTransactionDate());
+
+        Optional<Account> sourceAccount = accountService.findAccountById(transferBatchDTO.getSourceAccountId());
+        if (sourceAccount.isEmpty()) {
+            throw new IllegalArgumentException("Source account not found with id: " + transferBatchDTO.getSourceAccountId());
+        }
+
+        Map<Integer, BigDecimal> amountsByTarget = new LinkedHashMap<>();
+        for (TransferLegDTO leg : transferBatchDTO.getLegs()) {
+            if (leg.getAmount() == null || leg.getAmount().signum() <= 0) {
+                throw new IllegalArgumentException("Every leg must have a positive amount");
+            }
+            if (leg.getTargetAccountId().equals(transferBatchDTO.getSourceAccountId())) {
+                throw new IllegalArgumentException("A leg cannot transfer to the source account");
+            }
+            amountsByTarget.merge(leg.getTargetAccountId(), leg.getAmount(), BigDecimal::add);
+        }
+
+        Map<Integer, Account> targetAccounts = accountRepository.findAllById(amountsByTarget.keySet()).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        for (Integer targetId : amountsByTarget.keySet()) {
+            if (!targetAccounts.containsKey(targetId)) {
+                throw new IllegalArgumentException("Target account not found with id: " + targetId);
+            }
+        }
+
+        List<Account> accounts = new ArrayList<>(targetAccounts.values());
+        accounts.add(sourceAccount.get());
+        accountService.lockForUpdate(accounts);
 
-            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount());
-            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount());
+        BigDecimal total = amountsByTarget.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        accountService.decreaseBalance(sourceAccount.get(), total, transferBatchDTO.getTransactionDate());
+        amountsByTarget.forEach((targetId, amount) ->
+                accountService.increaseBalance(targetAccounts.get(targetId), amount, transferBatchDTO.getTransactionDate()));
+
+        List<Transfer> transfers = new ArrayList<>();
+        for (TransferLegDTO leg : transferBatchDTO.getLegs()) {
+            Transfer transfer = new Transfer(transferBatchDTO, leg);
+            transfer.setSourceAccount(sourceAccount.get());
+            transfer.setTargetAccount(targetAccounts.get(leg.getTargetAccountId()));
+            if (!transfers.isEmpty()) {
+                transfer.setBatchId(transfers.get(0).getId());
+            }
+
+            // identity IDs are assigned on insert, so the first transfer's ID is known once it is saved
+            Transfer savedTransfer = transferRepository.save(transfer);
+            if (transfers.isEmpty()) {
+                savedTransfer.setBatchId(savedTransfer.getId());
+            }
+            transfers.add(savedTransfer);
+        }
+
+        for (Transfer transfer : transfers) {
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_CREATED, transfer,
+                    transfer.getTransactionDate(), transfer.getSourceAccount().getId(), transfer.getTargetAccount().getId()));
+        }
+        return transfers;
+    }
 
-            if (transferDTO != null) {
+    /**
+     * Deletes every transfer of a batch, reverting them with one balance change per account and transaction date.
+     *
+     * @return Whether the batch had any transfer left.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean deleteTransferBatch(Integer batchId) {
+        List<Transfer> transfers = transferRepository.findByBatchIdForUpdate(batchId);
+        if (transfers.isEmpty()) {
+            return false;
+        }
+        for (Transfer transfer : transfers) {
+            archiveService.ensureNotArchived(transfer.getTransactionDate());
+        }
 
-                Optional<Account> sourceAccount = accountService.findAccountById(transferDTO.getSourceAccountId());
-                if (sourceAccount.isPresent()) {
-                    transfer.setSourceAccount(sourceAccount.get());
-                } else {
-                    throw new IllegalArgumentException("Source account not found with id: " + transferDTO.getSourceAccountId());
-                }
+        Map<Integer, Account> accounts = new HashMap<>();
+        Map<Integer, Map<LocalDate, BigDecimal>> reversals = new HashMap<>();
+        for (Transfer transfer : transfers) {
+            accounts.put(transfer.getSourceAccount().getId(), transfer.getSourceAccount());
+            accounts.put(transfer.getTargetAccount().getId(), transfer.getTargetAccount());
+            reversals.computeIfAbsent(transfer.getSourceAccount().getId(), id -> new HashMap<>())
+                    .merge(transfer.getTransactionDate(), transfer.getAmount(), BigDecimal::add);
+            reversals.computeIfAbsent(transfer.getTargetAccount().getId(), id -> new HashMap<>())
+                    .merge(transfer.getTransactionDate(), transfer.getAmount().negate(), BigDecimal::add);
+        }
 
-                Optional<Account> targetAccount = accountService.findAccountById(transferDTO.getTargetAccountId());
-                if (targetAccount.isPresent()) {
-                    transfer.setTargetAccount(targetAccount.get());
-                } else {
-                    throw new IllegalArgumentException("Target account not found with id: " + transferDTO.getTargetAccountId());
-                }
+        accountService.lockForUpdate(accounts.values());
+        reversals.forEach((accountId, amounts) -> amounts.forEach((date, amount) -> {
+            if (amount.signum() != 0) {
+                accountService.increaseBalance(accounts.get(accountId), amount, date);
+            }
+        }));
 
-                transfer.setAmount(transferDTO.getAmount());
+        transferRepository.deleteAll(transfers);
 
-                if (transferDTO.getDescription() != null && !transferDTO.getDescription().isEmpty()) {
-                    transfer.setDescription(transferDTO.getDescription());
-                }
+        for (Transfer transfer : transfers) {
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_DELETED,
+                    Map.of("id", transfer.getId()), transfer.getTransactionDate(), transfer.getSourceAccount().getId(), transfer.getTargetAccount().getId()));
+        }
+        return true;
+    }
 
-                transfer.setTransactionDate(transferDTO.getTransactionDate());
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public Transfer updateTransferTransaction(Integer id, TransferDTO transferDTO) {
+        if (transferDTO != null) {
+            archiveService.ensureNotArchived(transferDTO.getTransactionDate());
+        }
 
-                //correct the balance
-                accountService.decreaseBalance(transfer.getSourceAccount(), transfer.getAmount());
-                accountService.increaseBalance(transfer.getTargetAccount(), transfer.getAmount());
+        Optional<Transfer> transferOptional = transferRepository.findByIdForUpdate(id);
 
-                return transferRepository.save(transfer);
-            } else {
+        if (transferOptional.isPresent()) {
+            if (transferDTO == null) {
                 throw new IllegalArgumentException("TransferDTO cannot be null");
             }
+
+            Transfer transfer = transferOptional.get();
+            // moving a transfer out of a closed month changes that month as much as moving one in
+            archiveService.ensureNotArchived(transfer.getTransactionDate());
+            Integer previousSourceAccountId = transfer.getSourceAccount().getId();
+            Integer previousTargetAccountId = transfer.getTargetAccount().getId();
+            LocalDate previousDate = transfer.getTransactionDate();
+
+            Optional<Account> sourceAccount = accountService.findAccountById(transferDTO.getSourceAccountId());
+            if (sourceAccount.isEmpty()) {
+                throw new IllegalArgumentException("Source account not found with id: " + transferDTO.getSourceAccountId());
+            }
+
+            Optional<Account> targetAccount = accountService.findAccountById(transferDTO.getTargetAccountId());
+            if (targetAccount.isEmpty()) {
+                throw new IllegalArgumentException("Target account not found with id: " + transferDTO.getTargetAccountId());
+            }
+
+            accountService.lockForUpdate(List.of(transfer.getSourceAccount(), transfer.getTargetAccount(),
+                    sourceAccount.get(), targetAccount.get()));
+
+            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount(), transfer.getTransactionDate());
+            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount(), transfer.getTransactionDate());
+
+            transfer.setSourceAccount(sourceAccount.get());
+            transfer.setTargetAccount(targetAccount.get());
+            transfer.setAmount(transferDTO.getAmount());
+
+            if (transferDTO.getDescription() != null && !transferDTO.getDescription().isEmpty()) {
+                transfer.setDescription(transferDTO.getDescription());
+            }
+
+            transfer.setTransactionDate(transferDTO.getTransactionDate());
+
+            //correct the balance
+            accountService.decreaseBalance(transfer.getSourceAccount(), transfer.getAmount(), transfer.getTransactionDate());
+            accountService.increaseBalance(transfer.getTargetAccount(), transfer.getAmount(), transfer.getTransactionDate());
+
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_UPDATED, transfer,
+                    previousDate.isBefore(transfer.getTransactionDate()) ? previousDate : transfer.getTransactionDate(),
+                    previousSourceAccountId, previousTargetAccountId,
+                    transfer.getSourceAccount().getId(), transfer.getTargetAccount().getId()));
+            return transfer;
         } else {
             return null; // Transaction not found
         }
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public boolean deleteTransferById(Integer id) {
-        Optional<Transfer> transferOptional = transferRepository.findById(id);
+        Optional<Transfer> transferOptional = transferRepository.findByIdForUpdate(id);
         if (transferOptional.isPresent()) {
             Transfer transfer = transferOptional.get();
+            archiveService.ensureNotArchived(transfer.getTransactionDate());
+            accountService.lockForUpdate(List.of(transfer.getSourceAccount(), transfer.getTargetAccount()));
 
-            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount());
-            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount());
+            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount(), transfer.getTransactionDate());
+            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount(), transfer.getTransactionDate());
 
             transferRepository.delete(transfer);
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_DELETED,
+                    Map.of("id", transfer.getId()), transfer.getTransactionDate(), transfer.getSourceAccount().getId(), transfer.getTargetAccount().getId()));
             return true;
         }
         return false;
     }
 
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void deleteAllTransferTransactions() {
+        // every write to a transfer locks its accounts, so with all accounts locked the transfers read are current
+        accountService.lockForUpdate(accountRepository.findAll());
         List<Transfer> transfers = transferRepository.findAll();
 
         for (Transfer transfer : transfers) {
-            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount());
-            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount());
+            accountService.increaseBalance(transfer.getSourceAccount(), transfer.getAmount(), transfer.getTransactionDate());
+            accountService.decreaseBalance(transfer.getTargetAccount(), transfer.getAmount(), transfer.getTransactionDate());
         }
 
         transferRepository.deleteAll();
+
+        for (Transfer transfer : transfers) {
+            eventPublisher.publishEvent(new LedgerChangeEvent(LedgerEventTypeEnum.TRANSFER_DELETED,
+                    Map.of("id", transfer.getId()), transfer.getTransactionDate(), transfer.getSourceAccount().getId(), transfer.getTargetAccount().getId()));
+        }
+
+        archiveService.deleteAllArchivedTransfers();
+
+        // the archived transactions are reverted in bulk, so the group totals are recomputed rather than adjusted
+        if (accountGroupService.hasGroups()) {
+            accountGroupService.rebuildTotalsLocked();
+        }
     }
 }
@@ -0,0 +1,84 @@
+package com.unforeseencompany.finances.service.accrual;
+
+import com.unforeseencompany.finances.model.accrual.AccrualPosting;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts the cash flows and postings of an accrual run as JDBC batches, which the driver rewrites into
+ * multi-row inserts. Hibernate cannot batch them, as it reads back each generated ID one insert at a time.
+ * <p>
+ * The statements run on the connection of the current transaction, so they commit or roll back with the
+ * balance updates made through the entities.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccrualBatchWriter {
+
+    private static final String INSERT_CASH_FLOW = "insert into cash_flow_transaction "
+            + "(tenant_id, amount, description, transaction_date, transaction_type, account_id) values (?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_POSTING = "insert into accrual_posting "
+            + "(tenant_id, rule_id, account_id, period, amount, cash_flow_id, posted_at) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the cash flows and sets their generated IDs.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertCashFlows(String tenantId, List<CashFlow> cashFlows) {
+        if (cashFlows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CASH_FLOW, Statement.RETURN_GENERATED_KEYS)) {
+                for (CashFlow cashFlow : cashFlows) {
+                    statement.setString(1, tenantId);
+                    statement.setBigDecimal(2, cashFlow.getAmount());
+                    statement.setString(3, cashFlow.getDescription());
+                    statement.setDate(4, Date.valueOf(cashFlow.getTransactionDate()));
+                    statement.setInt(5, cashFlow.getTransactionType().ordinal());
+                    statement.setInt(6, cashFlow.getAccount().getId());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (CashFlow cashFlow : cashFlows) {
+                        if (!keys.next()) {
+                            throw new IllegalStateException("Missing the generated ID of an accrued cash flow");
+                        }
+                        cashFlow.setId(keys.getInt(1));
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void insertPostings(String tenantId, List<AccrualPosting> postings) {
+        List<Object[]> rows = new ArrayList<>(postings.size());
+        for (AccrualPosting posting : postings) {
+            rows.add(new Object[]{tenantId, posting.getRuleId(), posting.getAccountId(), Date.valueOf(posting.getPeriod()),
+                    posting.getAmount(), posting.getCashFlowId(), Timestamp.valueOf(posting.getPostedAt())});
+        }
+        int[] types = {Types.VARCHAR, Types.INTEGER, Types.INTEGER, Types.DATE, Types.DECIMAL, Types.INTEGER, Types.TIMESTAMP};
+        jdbcTemplate.batchUpdate(INSERT_POSTING, rows, types);
+    }
+}
@@ -0,0 +1,76 @@
+package com.unforeseencompany.finances.service.accrual;
+
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Computes what a rule accrues over a month from the account's daily closing balances.
+ * <p>
+ * A balance holds from the day it was reached until the next change, so the balance-days of the month are
+ * summed one stretch between changes at a time rather than day by day. The rate applies to the sum, and the
+ * result is rounded to the cent once, half to even.
+ */
+public final class AccrualCalculator {
+
+    private AccrualCalculator() {
+    }
+
+    /**
+     * @param openingBalance The balance before the first change listed, the initial balance of the account.
+     * @param changes        The closing balances on the days the balance changed, in order; the first one may
+     *                       collapse every change up to the first day of the month.
+     * @param from           The first day of the month.
+     * @param to             The last day of the month.
+     * @param daysInYear     The days the annual rate is spread over.
+     * @return The amount accrued, positive whether it is interest or a fee.
+     */
+    public static BigDecimal accrue(AccrualRule rule, BigDecimal openingBalance, List<DailyBalance> changes,
+                                    LocalDate from, LocalDate to, int daysInYear) {
+        LocalDate start = rule.getEffectiveFrom().isAfter(from) ? rule.getEffectiveFrom() : from;
+
+        BigDecimal balance = openingBalance;
+        int next = 0;
+        while (next < changes.size() && !changes.get(next).day().isAfter(start)) {
+            balance = changes.get(next++).balance();
+        }
+
+        BigDecimal balanceDays = BigDecimal.ZERO;
+        LocalDate day = start;
+        while (!day.isAfter(to)) {
+            LocalDate changeDay = next < changes.size() && !changes.get(next).day().isAfter(to)
+                    ? changes.get(next).day()
+                    : to.plusDays(1);
+            balanceDays = balanceDays.add(accruedBalance(rule.getAccrualType(), balance)
+                    .multiply(BigDecimal.valueOf(ChronoUnit.DAYS.between(day, changeDay))));
+            if (next < changes.size() && changeDay.equals(changes.get(next).day())) {
+                balance = changes.get(next++).balance();
+            }
+            day = changeDay;
+        }
+
+        BigDecimal amount = BigDecimal.ZERO;
+        if (rule.getAnnualRate() != null) {
+            amount = balanceDays.multiply(rule.getAnnualRate())
+                    .divide(BigDecimal.valueOf(daysInYear), MathContext.DECIMAL128);
+        }
+        if (rule.getAccrualType() == AccrualTypeEnum.FEE && rule.getMonthlyFee() != null) {
+            amount = amount.add(rule.getMonthlyFee());
+        }
+        return amount.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * @return The part of the balance the rule accrues on: what is held for interest, what is owed for a fee.
+     */
+    private static BigDecimal accruedBalance(AccrualTypeEnum accrualType, BigDecimal balance) {
+        BigDecimal accrued = accrualType == AccrualTypeEnum.INTEREST ? balance : balance.negate();
+        return accrued.signum() > 0 ? accrued : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,10 @@
+package com.unforeseencompany.finances.service.accrual;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * The closing balance of an account on a day it changed.
+ */
+public record DailyBalance(LocalDate day, BigDecimal balance) {
+}
@@ -0,0 +1,66 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+
+/**
+ * What the anomaly detection remembers of an account: hashes of its recent cash flows, in two generations of
+ * Bloom filters so the oldest are forgotten, and the running mean and variance of the logarithm of its amounts,
+ * income and expenses apart. A few kilobytes per account whatever its history.
+ */
+final class AccountSketch {
+
+    private final int capacity;
+
+    private final double falsePositiveRate;
+
+    private final RunningStats incomes = new RunningStats();
+
+    private final RunningStats expenses = new RunningStats();
+
+    private BloomFilter current;
+
+    private BloomFilter previous;
+
+    private int currentCount;
+
+    AccountSketch(int capacity, double falsePositiveRate) {
+        this.capacity = capacity;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(capacity, falsePositiveRate);
+    }
+
+    synchronized boolean mightContainAny(long[] hashes) {
+        for (long hash : hashes) {
+            if (current.mightContain(hash) || (previous != null && previous.mightContain(hash))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return How many standard deviations the value is from the mean of the type, or 0 with too few samples.
+     */
+    synchronized double deviation(TransactionTypeEnum type, double logAmount, int minSamples, double minStandardDeviation) {
+        RunningStats stats = stats(type);
+        if (stats.count() < minSamples) {
+            return 0;
+        }
+        return Math.abs(logAmount - stats.mean()) / Math.max(stats.standardDeviation(), minStandardDeviation);
+    }
+
+    synchronized void add(long hash, TransactionTypeEnum type, double logAmount) {
+        if (currentCount >= capacity) {
+            previous = current;
+            current = new BloomFilter(capacity, falsePositiveRate);
+            currentCount = 0;
+        }
+        current.add(hash);
+        currentCount++;
+        stats(type).add(logAmount);
+    }
+
+    private RunningStats stats(TransactionTypeEnum type) {
+        return type == TransactionTypeEnum.INCOME ? incomes : expenses;
+    }
+}
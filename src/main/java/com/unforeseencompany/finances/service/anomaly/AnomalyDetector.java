@@ -0,0 +1,240 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+import com.unforeseencompany.finances.config.AnomalyProperties;
+import com.unforeseencompany.finances.enums.AnomalyTypeEnum;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Flags new cash flows that are probably duplicates of a recent one, or whose amount is unusual for the account.
+ * <p>
+ * Each account has an {@link AccountSketch} in memory, so a check is a few hash probes and one comparison rather
+ * than a query. A cash flow is hashed from its type, amount, date and the words of its description, and is a
+ * probable duplicate when the hash of any date within finances.anomaly.duplicate-window-days is in the recent
+ * filters. An amount is an outlier when its logarithm is more than finances.anomaly.outlier-threshold standard
+ * deviations from the account's mean for the type.
+ * <p>
+ * A sketch is built from the account's latest cash flows the first time it is needed, then kept up to date as
+ * cash flows are committed. A changed or deleted cash flow drops the sketch instead, as its hash cannot be taken
+ * out of the filters, so the next check rebuilds it from the committed cash flows; sketches are per instance,
+ * so the detection is approximate.
+ */
+@Component
+public class AnomalyDetector {
+
+    /**
+     * Floor of the standard deviation, on the logarithmic scale: amounts within about 10% of an account that
+     * always spends the same are not outliers.
+     */
+    private static final double MIN_STANDARD_DEVIATION = 0.1;
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final CashFlowRepository cashFlowRepository;
+
+    private final AnomalyProperties anomalyProperties;
+
+    private final Map<Integer, AccountSketch> sketches = new ConcurrentHashMap<>();
+
+    private final Map<AnomalyTypeEnum, Counter> flaggedCounters = new EnumMap<>(AnomalyTypeEnum.class);
+
+    public AnomalyDetector(CashFlowRepository cashFlowRepository, AnomalyProperties anomalyProperties, MeterRegistry meterRegistry) {
+        this.cashFlowRepository = cashFlowRepository;
+        this.anomalyProperties = anomalyProperties;
+        for (AnomalyTypeEnum anomalyType : AnomalyTypeEnum.values()) {
+            flaggedCounters.put(anomalyType, Counter.builder("finances.anomaly.flagged")
+                    .description("New cash flows flagged as anomalies")
+                    .tag("type", anomalyType.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Checks a new cash flow against its account's recent history. Reads the account's latest cash flows if its
+     * sketch is not in memory, so it runs in the transaction creating the cash flow.
+     *
+     * @return The anomalies found, empty if none.
+     */
+    public List<AnomalyTypeEnum> check(CashFlow cashFlow) {
+        if (!anomalyProperties.isEnabled()) {
+            return List.of();
+        }
+        AccountSketch sketch = sketchFor(cashFlow.getAccount().getId());
+        List<AnomalyTypeEnum> anomalies = new ArrayList<>(2);
+
+        int window = anomalyProperties.getDuplicateWindowDays();
+        long[] hashes = new long[2 * window + 1];
+        long cents = cents(cashFlow.getAmount());
+        long signature = descriptionSignature(cashFlow.getDescription());
+        long day = cashFlow.getTransactionDate().toEpochDay();
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = hash(cashFlow.getTransactionType(), cents, day - window + i, signature);
+        }
+        if (sketch.mightContainAny(hashes)) {
+            anomalies.add(AnomalyTypeEnum.PROBABLE_DUPLICATE);
+        }
+
+        double deviation = sketch.deviation(cashFlow.getTransactionType(), logAmount(cashFlow.getAmount()),
+                anomalyProperties.getMinSamples(), MIN_STANDARD_DEVIATION);
+        if (deviation > anomalyProperties.getOutlierThreshold()) {
+            anomalies.add(AnomalyTypeEnum.OUTLIER);
+        }
+
+        anomalies.forEach(anomalyType -> flaggedCounters.get(anomalyType).increment());
+        return anomalies;
+    }
+
+    /**
+     * Adds a new cash flow to its account's sketch once the transaction commits.
+     */
+    public void recordCreated(CashFlow cashFlow) {
+        Integer accountId = cashFlow.getAccount().getId();
+        TransactionTypeEnum type = cashFlow.getTransactionType();
+        BigDecimal amount = cashFlow.getAmount();
+        LocalDate date = cashFlow.getTransactionDate();
+        String description = cashFlow.getDescription();
+        afterCommit(() -> add(accountId, type, amount, date, description));
+    }
+
+    /**
+     * Drops the sketches of a changed cash flow's previous and new account once the transaction commits, so the
+     * previous version stops counting as a recent cash flow.
+     */
+    public void recordUpdated(Integer previousAccountId, CashFlow cashFlow) {
+        forgetAccounts(List.of(previousAccountId, cashFlow.getAccount().getId()));
+    }
+
+    /**
+     * Drops the sketch of a deleted cash flow's account once the transaction commits, so the cash flow stops
+     * counting as a recent one.
+     */
+    public void recordDeleted(CashFlow cashFlow) {
+        forgetAccounts(List.of(cashFlow.getAccount().getId()));
+    }
+
+    /**
+     * Drops the sketches of the accounts once the transaction commits, for when their cash flows change in bulk.
+     */
+    public void forgetAccounts(Collection<Integer> accountIds) {
+        List<Integer> ids = List.copyOf(accountIds);
+        afterCommit(() -> ids.forEach(sketches::remove));
+    }
+
+    private void add(Integer accountId, TransactionTypeEnum type, BigDecimal amount, LocalDate date, String description) {
+        // an account without a sketch gets one from its committed cash flows when it is next checked
+        AccountSketch sketch = sketches.get(accountId);
+        if (sketch != null) {
+            sketch.add(hash(type, cents(amount), date.toEpochDay(), descriptionSignature(description)), type, logAmount(amount));
+        }
+    }
+
+    private AccountSketch sketchFor(Integer accountId) {
+        AccountSketch sketch = sketches.get(accountId);
+        if (sketch != null) {
+            return sketch;
+        }
+
+        // a check probes each date of the window in both generations, and any probe can be a false positive
+        int probes = 2 * (2 * anomalyProperties.getDuplicateWindowDays() + 1);
+        sketch = new AccountSketch(anomalyProperties.getRecentCapacity(), anomalyProperties.getFalsePositiveRate() / probes);
+        List<Object[]> recent = cashFlowRepository.findRecentSummariesByAccountId(accountId,
+                PageRequest.of(0, anomalyProperties.getSeedSize()));
+        // read newest first, added oldest first so the newest land in the current generation
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            Object[] row = recent.get(i);
+            TransactionTypeEnum type = (TransactionTypeEnum) row[0];
+            BigDecimal amount = (BigDecimal) row[1];
+            LocalDate date = row[2] instanceof Date sqlDate ? sqlDate.toLocalDate() : (LocalDate) row[2];
+            sketch.add(hash(type, cents(amount), date.toEpochDay(), descriptionSignature((String) row[3])), type, logAmount(amount));
+        }
+
+        if (sketches.size() >= anomalyProperties.getMaxAccounts()) {
+            Iterator<Integer> accountIds = sketches.keySet().iterator();
+            if (accountIds.hasNext()) {
+                sketches.remove(accountIds.next());
+            }
+        }
+        AccountSketch existing = sketches.putIfAbsent(accountId, sketch);
+        return existing != null ? existing : sketch;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!anomalyProperties.isEnabled()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValue();
+    }
+
+    private static double logAmount(BigDecimal amount) {
+        return Math.log1p(Math.abs(amount.doubleValue()));
+    }
+
+    /**
+     * @return A hash of the distinct words of the description, in any order and case, leaving out numbers and
+     * short words such as reference numbers and dates.
+     */
+    private static long descriptionSignature(String description) {
+        if (description == null) {
+            return 0;
+        }
+        TreeSet<String> words = new TreeSet<>();
+        for (String word : description.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (word.length() >= MIN_WORD_LENGTH) {
+                words.add(word);
+            }
+        }
+        long signature = 0;
+        for (String word : words) {
+            signature = mix(signature ^ word.hashCode());
+        }
+        return signature;
+    }
+
+    private static long hash(TransactionTypeEnum type, long cents, long epochDay, long descriptionSignature) {
+        return mix(mix(mix(cents * 4 + type.ordinal()) ^ epochDay) ^ descriptionSignature);
+    }
+
+    /**
+     * The SplitMix64 finalizer: spreads every input bit over the whole hash.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
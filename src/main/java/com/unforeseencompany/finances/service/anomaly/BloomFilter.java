@@ -0,0 +1,42 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+/**
+ * A fixed-size Bloom filter of 64-bit hashes: it tells whether a hash was added, with false positives at the
+ * rate it was sized for and no false negatives. Not thread-safe.
+ */
+final class BloomFilter {
+
+    private final long[] bits;
+
+    private final int bitCount;
+
+    private final int hashCount;
+
+    BloomFilter(int capacity, double falsePositiveRate) {
+        double log2 = Math.log(2);
+        this.bitCount = Math.max(64, (int) Math.ceil(-capacity * Math.log(falsePositiveRate) / (log2 * log2)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * log2));
+        this.bits = new long[(bitCount + 63) >>> 6];
+    }
+
+    void add(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,32 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+/**
+ * Mean and variance of a stream of values, updated in constant time with Welford's algorithm. Not thread-safe.
+ */
+final class RunningStats {
+
+    private long count;
+
+    private double mean;
+
+    private double squaredDeviations;
+
+    void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return mean;
+    }
+
+    double standardDeviation() {
+        return count > 1 ? Math.sqrt(squaredDeviations / (count - 1)) : 0;
+    }
+}
@@ -0,0 +1,145 @@
+package com.unforeseencompany.finances.service.attachment;
+
+import com.unforeseencompany.finances.config.AttachmentProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.BiPredicate;
+import java.util.stream.Stream;
+
+/**
+ * Stores files on local disk under the SHA-256 of their content, one directory per tenant, so a file
+ * uploaded twice is kept once.
+ * <p>
+ * Uploads are copied to a temporary file through a fixed buffer while they are hashed, then renamed to their
+ * final name, so a file is never held in memory and is never visible half-written. Files are never changed
+ * once stored; a file no attachment refers to anymore is only removed by {@link #deleteUnreferenced}.
+ */
+@Component
+@RequiredArgsConstructor
+public class ContentStore {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final AttachmentProperties attachmentProperties;
+
+    /**
+     * Writes the content of the stream to the tenant's store.
+     *
+     * @throws MaxUploadSizeExceededException If the content is larger than finances.attachments.max-size.
+     */
+    public StoredContent store(String tenantId, InputStream input) throws IOException {
+        Path tenantDirectory = tenantDirectory(tenantId);
+        Files.createDirectories(tenantDirectory);
+        Path temporary = Files.createTempFile(tenantDirectory, "upload-", TEMPORARY_SUFFIX);
+
+        MessageDigest digest = sha256();
+        long maxSize = attachmentProperties.getMaxSize().toBytes();
+        long size = 0;
+        try (FileChannel output = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                size += read;
+                if (size > maxSize) {
+                    throw new MaxUploadSizeExceededException(maxSize);
+                }
+                digest.update(buffer, 0, read);
+                byteBuffer.clear().limit(read);
+                while (byteBuffer.hasRemaining()) {
+                    output.write(byteBuffer);
+                }
+            }
+            output.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        Path target = path(tenantId, sha256);
+        Files.createDirectories(target.getParent());
+        try {
+            // the same content may already be stored; renewing it keeps it from being swept before its attachment is saved
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+            Files.delete(temporary);
+        } catch (NoSuchFileException e) {
+            // a concurrent upload of the same content may rename over it, with the same bytes
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return new StoredContent(sha256, size);
+    }
+
+    /**
+     * @return The file holding the given content of the tenant, as /tenant/ab/abcdef....
+     */
+    public Path path(String tenantId, String sha256) {
+        return tenantDirectory(tenantId).resolve(sha256.substring(0, 2)).resolve(sha256);
+    }
+
+    /**
+     * Deletes the files, and the leftovers of interrupted uploads, that have not been written for longer than
+     * finances.attachments.orphan-grace-period and that no attachment refers to.
+     *
+     * @param isReferenced Tells whether an attachment of the tenant refers to the content.
+     * @return The number of files deleted.
+     */
+    public int deleteUnreferenced(BiPredicate<String, String> isReferenced) throws IOException {
+        Path directory = attachmentProperties.getDirectory();
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+
+        Instant threshold = Instant.now().minus(attachmentProperties.getOrphanGracePeriod());
+        int deleted = 0;
+        try (DirectoryStream<Path> tenantDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path tenantDirectory : tenantDirectories) {
+                String tenantId = tenantDirectory.getFileName().toString();
+                try (Stream<Path> files = Files.walk(tenantDirectory, 2)) {
+                    for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                        if (Files.getLastModifiedTime(file).toInstant().isAfter(threshold)) {
+                            continue;
+                        }
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(TEMPORARY_SUFFIX) || !isReferenced.test(tenantId, name)) {
+                            Files.deleteIfExists(file);
+                            deleted++;
+                        }
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Path tenantDirectory(String tenantId) {
+        return attachmentProperties.getDirectory().resolve(tenantId);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
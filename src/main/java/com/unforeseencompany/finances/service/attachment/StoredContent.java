@@ -0,0 +1,10 @@
+package com.unforeseencompany.finances.service.attachment;
+
+/**
+ * A file written to the content store.
+ *
+ * @param sha256 The hex SHA-256 of the content, which names the file.
+ * @param size   The size of the content in bytes.
+ */
+public record StoredContent(String sha256, long size) {
+}
@@ -0,0 +1,16 @@
+package com.unforeseencompany.finances.service.audit;
+
+import com.unforeseencompany.finances.enums.AuditActionEnum;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A change waiting to be written to the audit trail.
+ *
+ * @param changes The changed fields and their [before, after] values, or null if they are not known.
+ */
+record AuditRecord(String tenantId, AuditEntityTypeEnum entityType, Integer entityId, AuditActionEnum action,
+                   String actor, LocalDateTime changedAt, Map<String, Object[]> changes) {
+}
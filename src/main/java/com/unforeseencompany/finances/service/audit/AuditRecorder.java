@@ -0,0 +1,240 @@
+package com.unforeseencompany.finances.service.audit;
+
+import com.unforeseencompany.finances.config.AuditProperties;
+import com.unforeseencompany.finances.config.RateLimitProperties;
+import com.unforeseencompany.finances.enums.AuditActionEnum;
+import com.unforeseencompany.finances.enums.AuditEntityTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import com.unforeseencompany.finances.ratelimit.RateLimitFilter;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Records every change to accounts, cash flows and transfers for the audit trail.
+ * <p>
+ * Hibernate reports each insert, update and delete as it flushes, with the state before and after, so
+ * changes are captured whichever service makes them; only the fields that changed are kept. The entries
+ * are held until the transaction commits, then handed to the {@link AuditWriter}, so a rolled-back change
+ * leaves no trace. Bulk inserts and deletes bypass Hibernate's events and are recorded by the services through
+ * {@link #recordCreated}, {@link #recordDeleted} and {@link #recordLedgerCleared}.
+ */
+@Component
+public class AuditRecorder implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    /**
+     * Fields that are not part of the recorded state: the tenant never changes and deletion is the action itself.
+     */
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("tenantId", "deletedAt");
+
+    private static final String SYSTEM_ACTOR = "system";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final AuditWriter auditWriter;
+
+    private final AuditProperties auditProperties;
+
+    private final RateLimitProperties rateLimitProperties;
+
+    public AuditRecorder(EntityManagerFactory entityManagerFactory, AuditWriter auditWriter, AuditProperties auditProperties,
+                         RateLimitProperties rateLimitProperties) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.auditWriter = auditWriter;
+        this.auditProperties = auditProperties;
+        this.rateLimitProperties = rateLimitProperties;
+    }
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        AuditEntityTypeEnum entityType = entityType(event.getEntity());
+        if (entityType != null) {
+            record(entityType, (Integer) event.getId(), AuditActionEnum.CREATED,
+                    diff(event.getPersister(), null, event.getState(), null));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        AuditEntityTypeEnum entityType = entityType(event.getEntity());
+        if (entityType != null) {
+            Map<String, Object[]> changes = diff(event.getPersister(), event.getOldState(), event.getState(), event.getDirtyProperties());
+            if (!changes.isEmpty()) {
+                record(entityType, (Integer) event.getId(), AuditActionEnum.UPDATED, changes);
+            }
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        AuditEntityTypeEnum entityType = entityType(event.getEntity());
+        if (entityType != null) {
+            record(entityType, (Integer) event.getId(), AuditActionEnum.DELETED,
+                    diff(event.getPersister(), event.getDeletedState(), null, null));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * Records the creation of a record inserted by a bulk statement, with its fields as they were inserted.
+     */
+    public void recordCreated(AuditEntityTypeEnum entityType, Integer entityId, Map<String, Object> fields) {
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+        fields.forEach((name, value) -> addChange(changes, name, null, value));
+        record(entityType, entityId, AuditActionEnum.CREATED, changes);
+    }
+
+    /**
+     * Records the deletion of a record removed by a bulk statement, whose state was not loaded.
+     */
+    public void recordDeleted(AuditEntityTypeEnum entityType, Integer entityId) {
+        record(entityType, entityId, AuditActionEnum.DELETED, null);
+    }
+
+    /**
+     * Records that every account and transaction of the current tenant was deleted.
+     */
+    public void recordLedgerCleared() {
+        record(AuditEntityTypeEnum.LEDGER, null, AuditActionEnum.DELETED, null);
+    }
+
+    private void record(AuditEntityTypeEnum entityType, Integer entityId, AuditActionEnum action, Map<String, Object[]> changes) {
+        if (!auditProperties.isEnabled()) {
+            return;
+        }
+        AuditRecord record = new AuditRecord(TenantContext.getTenantId(), entityType, entityId, action, currentActor(),
+                LocalDateTime.now(), changes);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditWriter.enqueue(List.of(record));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditRecord> pending = (List<AuditRecord>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<AuditRecord> records = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, records);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditWriter.enqueue(records);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditRecorder.this);
+                }
+            });
+            pending = records;
+        }
+        pending.add(record);
+    }
+
+    /**
+     * @return The fields whose values differ between the two states, as [before, after] pairs. A missing
+     * state stands for the side of a creation or deletion, where every field is kept.
+     */
+    private Map<String, Object[]> diff(EntityPersister persister, Object[] before, Object[] after, int[] dirtyProperties) {
+        String[] names = persister.getPropertyNames();
+        Map<String, Object[]> changes = new LinkedHashMap<>();
+
+        if (dirtyProperties != null) {
+            for (int i : dirtyProperties) {
+                addChange(changes, names[i], before != null ? before[i] : null, after[i]);
+            }
+            return changes;
+        }
+
+        for (int i = 0; i < names.length; i++) {
+            Object oldValue = before != null ? before[i] : null;
+            Object newValue = after != null ? after[i] : null;
+            if (before == null || after == null ? oldValue != null || newValue != null : differs(oldValue, newValue)) {
+                addChange(changes, names[i], oldValue, newValue);
+            }
+        }
+        return changes;
+    }
+
+    private void addChange(Map<String, Object[]> changes, String name, Object oldValue, Object newValue) {
+        // collections such as a cash flow's splits are not part of the row, and are not recorded
+        if (!IGNORED_PROPERTIES.contains(name) && !(oldValue instanceof Collection) && !(newValue instanceof Collection)) {
+            changes.put(name, new Object[]{value(oldValue), value(newValue)});
+        }
+    }
+
+    private boolean differs(Object oldValue, Object newValue) {
+        if (oldValue instanceof BigDecimal oldDecimal && newValue instanceof BigDecimal newDecimal) {
+            return oldDecimal.compareTo(newDecimal) != 0;
+        }
+        return !Objects.equals(oldValue, newValue);
+    }
+
+    /**
+     * @return The value as recorded: referenced accounts by their ID, anything else as is.
+     */
+    private Object value(Object value) {
+        return value instanceof Account account ? account.getId() : value;
+    }
+
+    private AuditEntityTypeEnum entityType(Object entity) {
+        if (entity instanceof Account) {
+            return AuditEntityTypeEnum.ACCOUNT;
+        } else if (entity instanceof CashFlow) {
+            return AuditEntityTypeEnum.CASH_FLOW;
+        } else if (entity instanceof Transfer) {
+            return AuditEntityTypeEnum.TRANSFER;
+        }
+        return null;
+    }
+
+    /**
+     * @return The client making the current request, identified as by the rate limiter, or "system" for background jobs.
+     */
+    private String currentActor() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return RateLimitFilter.clientId(attributes.getRequest(), rateLimitProperties);
+        }
+        return SYSTEM_ACTOR;
+    }
+}
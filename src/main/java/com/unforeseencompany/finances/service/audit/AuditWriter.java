@@ -0,0 +1,208 @@
+package com.unforeseencompany.finances.service.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unforeseencompany.finances.config.AuditProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the audit trail in the background, so recording a change costs a request no more than a queue offer.
+ * <p>
+ * Committed changes are queued and written in batches of multi-row inserts, each batch in one transaction.
+ * A batch that fails is kept and retried on the next flush, up to finances.audit.max-retries times; then it is
+ * written entry by entry, so an entry that can never be written is set aside instead of blocking every one
+ * after it. Such entries, and those whose changes cannot be encoded, are logged in full to the
+ * finances.audit.dead-letter logger. Entries still queued when the application stops abruptly are lost;
+ * a full queue delays the committing requests before anything is dropped.
+ */
+@Service
+public class AuditWriter {
+
+    Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    Logger deadLetterLog = LoggerFactory.getLogger("finances.audit.dead-letter");
+
+    private static final String INSERT = "insert into audit_entry "
+            + "(tenant_id, entity_type, entity_id, action, actor, changed_at, changes) values (?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final AuditProperties auditProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BlockingQueue<AuditRecord> queue;
+
+    private final Counter writtenCounter;
+
+    private final Counter droppedCounter;
+
+    private final Counter deadLetteredCounter;
+
+    /**
+     * The batch being written, kept until it is written successfully. Only touched by the flushing thread.
+     */
+    private final List<AuditRecord> batch = new ArrayList<>();
+
+    /**
+     * How many times in a row writing the batch has failed.
+     */
+    private int failedAttempts;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, AuditProperties auditProperties,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.auditProperties = auditProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(auditProperties.getQueueCapacity());
+
+        this.writtenCounter = Counter.builder("finances.audit.written")
+                .description("Audit entries written")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("finances.audit.dropped")
+                .description("Audit entries dropped because the queue stayed full")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("finances.audit.dead-lettered")
+                .description("Audit entries that could not be written and were logged instead")
+                .register(meterRegistry);
+        Gauge.builder("finances.audit.pending", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the entries of a committed transaction.
+     */
+    public void enqueue(Collection<AuditRecord> records) {
+        for (AuditRecord record : records) {
+            try {
+                if (!queue.offer(record, auditProperties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                    droppedCounter.increment();
+                    log.error("Audit queue full, dropped " + record.action() + " of " + record.entityType() + " " + record.entityId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                droppedCounter.increment();
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${finances.audit.flush-interval:PT0.2S}")
+    public synchronized void flush() {
+        try {
+            while (true) {
+                queue.drainTo(batch, auditProperties.getBatchSize() - batch.size());
+                List<Object[]> rows = encodeBatch();
+                if (batch.isEmpty()) {
+                    return;
+                }
+                if (failedAttempts < auditProperties.getMaxRetries()) {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, rows));
+                    writtenCounter.increment(rows.size());
+                } else {
+                    writeOneByOne(rows);
+                }
+                batch.clear();
+                failedAttempts = 0;
+            }
+        } catch (Exception e) {
+            failedAttempts++;
+            log.error("Error writing " + batch.size() + " audit entries, attempt " + failedAttempts + ", retrying: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushRemaining() {
+        flush();
+    }
+
+    /**
+     * @return The rows of the batch's entries, in order. Entries whose changes cannot be encoded never will be,
+     * so they are dead-lettered and removed from the batch.
+     */
+    private List<Object[]> encodeBatch() {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Iterator<AuditRecord> records = batch.iterator(); records.hasNext(); ) {
+            AuditRecord record = records.next();
+            try {
+                rows.add(new Object[]{record.tenantId(), record.entityType().ordinal(), record.entityId(), record.action().ordinal(),
+                        record.actor(), Timestamp.valueOf(record.changedAt()), encode(record)});
+            } catch (IllegalStateException e) {
+                deadLetter(record, e);
+                records.remove();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the batch one entry per transaction, dead-lettering the entries the database refuses. Stops at the
+     * first failure that is the database's rather than the entry's, keeping the entries not written yet.
+     */
+    private void writeOneByOne(List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT, row));
+                writtenCounter.increment();
+            } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                batch.subList(0, i).clear();
+                throw e;
+            } catch (RuntimeException e) {
+                deadLetter(batch.get(i), e);
+            }
+        }
+    }
+
+    private void deadLetter(AuditRecord record, Exception e) {
+        deadLetteredCounter.increment();
+        String changes = record.changes() == null ? "none" : record.changes().entrySet().stream()
+                .map(change -> change.getKey() + "=" + Arrays.toString(change.getValue()))
+                .collect(Collectors.joining(", ", "{", "}"));
+        deadLetterLog.error("Could not write audit entry " + record.action() + " of " + record.entityType() + " " + record.entityId()
+                + " of tenant " + record.tenantId() + " by " + record.actor() + " at " + record.changedAt()
+                + ", changes " + changes + ": " + e.getMessage());
+    }
+
+    /**
+     * @return The changed fields as a JSON object of [before, after] pairs.
+     */
+    private String encode(AuditRecord record) {
+        if (record.changes() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(record.changes());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode the changes of " + record.entityType() + " " + record.entityId(), e);
+        }
+    }
+}
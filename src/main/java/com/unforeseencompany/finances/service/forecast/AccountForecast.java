@@ -0,0 +1,28 @@
+package com.unforeseencompany.finances.service.forecast;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Projected balances of an account at the end of each forecast month, in minor units.
+ */
+@Getter
+@AllArgsConstructor
+public class AccountForecast {
+
+    private final int accountId;
+
+    /**
+     * The balance as of today, without the future-dated transactions already applied to the recorded balance.
+     */
+    private final long currentBalance;
+
+    private final LocalDate[] pointDates;
+
+    private final long[] pointBalances;
+
+    private final List<RecurringPattern> patterns;
+}
@@ -0,0 +1,124 @@
+package com.unforeseencompany.finances.service.forecast;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Columnar view of an account's transactions for forecasting: parallel primitive arrays of epoch days,
+ * signed amounts in minor units and pattern keys, instead of a list of entities.
+ * <p>
+ * The key groups cash flows that may belong to the same recurring series: the description without digits
+ * and case, or the amount for cash flows without a description. Entries that never recur, such as
+ * transfers, have key -1. Entries of the same key are in date order.
+ */
+@Getter
+public class AccountHistory {
+
+    /**
+     * Amounts are stored in hundredths, the scale of the amount columns.
+     */
+    public static final int MINOR_UNIT_SCALE = 2;
+
+    private final int accountId;
+
+    private final int size;
+
+    private final int[] epochDays;
+
+    private final long[] amounts;
+
+    private final int[] keys;
+
+    /**
+     * Readable label of each key, indexed by key.
+     */
+    private final String[] keyLabels;
+
+    private AccountHistory(int accountId, int size, int[] epochDays, long[] amounts, int[] keys, String[] keyLabels) {
+        this.accountId = accountId;
+        this.size = size;
+        this.epochDays = epochDays;
+        this.amounts = amounts;
+        this.keys = keys;
+        this.keyLabels = keyLabels;
+    }
+
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long amount) {
+        return BigDecimal.valueOf(amount, MINOR_UNIT_SCALE);
+    }
+
+    public static class Builder {
+
+        private final int accountId;
+
+        private int size;
+
+        private int[] epochDays = new int[16];
+
+        private long[] amounts = new long[16];
+
+        private int[] keys = new int[16];
+
+        private final Map<String, Integer> keyIds = new HashMap<>();
+
+        private String[] keyLabels = new String[8];
+
+        public Builder(int accountId) {
+            this.accountId = accountId;
+        }
+
+        /**
+         * Adds a cash flow, which may belong to a recurring series.
+         */
+        public Builder addCashFlow(int epochDay, long amount, String description) {
+            String normalized = description != null ? description.replaceAll("[0-9]", "").trim().toLowerCase(Locale.ROOT) : "";
+            String key = normalized.isEmpty() ? "#" + amount : normalized;
+
+            Integer keyId = keyIds.get(key);
+            if (keyId == null) {
+                keyId = keyIds.size();
+                keyIds.put(key, keyId);
+                if (keyId == keyLabels.length) {
+                    keyLabels = Arrays.copyOf(keyLabels, keyLabels.length * 2);
+                }
+                keyLabels[keyId] = description != null && !description.isBlank() ? description : fromMinorUnits(amount).toPlainString();
+            }
+            return add(epochDay, amount, keyId);
+        }
+
+        /**
+         * Adds a transaction that is replayed on its date but never treated as recurring.
+         */
+        public Builder addOneOff(int epochDay, long amount) {
+            return add(epochDay, amount, -1);
+        }
+
+        public AccountHistory build() {
+            return new AccountHistory(accountId, size, Arrays.copyOf(epochDays, size), Arrays.copyOf(amounts, size),
+                    Arrays.copyOf(keys, size), Arrays.copyOf(keyLabels, keyIds.size()));
+        }
+
+        private Builder add(int epochDay, long amount, int key) {
+            if (size == epochDays.length) {
+                epochDays = Arrays.copyOf(epochDays, size * 2);
+                amounts = Arrays.copyOf(amounts, size * 2);
+                keys = Arrays.copyOf(keys, size * 2);
+            }
+            epochDays[size] = epochDay;
+            amounts[size] = amount;
+            keys[size] = key;
+            size++;
+            return this;
+        }
+    }
+}
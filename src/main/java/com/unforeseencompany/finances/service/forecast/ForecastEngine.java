@@ -0,0 +1,188 @@
+package com.unforeseencompany.finances.service.forecast;
+
+import com.unforeseencompany.finances.enums.RecurrencePeriodEnum;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Projects an account's balance from its history: known future-dated transactions are replayed on their
+ * dates, and cash flow series that recur with a regular period and amount are extended to the horizon.
+ * Works on primitive arrays only and keeps no state, so one engine can forecast many accounts in parallel.
+ */
+public class ForecastEngine {
+
+    /**
+     * Share of the intervals, and of the amounts, that must fit the detected period and median amount.
+     */
+    private static final double REGULARITY = 0.75;
+
+    /**
+     * How far an amount may be from the series' median, relative to the median.
+     */
+    private static final double AMOUNT_TOLERANCE = 0.2;
+
+    private final int minOccurrences;
+
+    public ForecastEngine(int minOccurrences) {
+        this.minOccurrences = minOccurrences;
+    }
+
+    /**
+     * @param history        The account's cash flows in the lookback window and its future-dated transactions.
+     * @param recordedBalance The account's balance in minor units, which already includes future-dated transactions.
+     * @param today          The day the forecast starts from.
+     * @param months         Number of month ends to project, starting with the current month.
+     */
+    public AccountForecast forecast(AccountHistory history, long recordedBalance, LocalDate today, int months) {
+        int todayDay = (int) today.toEpochDay();
+        YearMonth firstMonth = YearMonth.from(today);
+        LocalDate[] pointDates = new LocalDate[months];
+        for (int i = 0; i < months; i++) {
+            pointDates[i] = firstMonth.plusMonths(i).atEndOfMonth();
+        }
+        int horizonDay = (int) pointDates[months - 1].toEpochDay();
+        long[] deltas = new long[months];
+
+        // future-dated transactions are already in the recorded balance: take them out and replay them on their dates
+        long currentBalance = recordedBalance;
+        int[] days = history.getEpochDays();
+        long[] amounts = history.getAmounts();
+        for (int i = 0; i < history.getSize(); i++) {
+            if (days[i] > todayDay) {
+                currentBalance -= amounts[i];
+                if (days[i] <= horizonDay) {
+                    deltas[monthIndex(firstMonth, days[i])] += amounts[i];
+                }
+            }
+        }
+
+        List<RecurringPattern> patterns = detectPatterns(history, todayDay);
+        for (RecurringPattern pattern : patterns) {
+            for (int k = 1; ; k++) {
+                int day = (int) pattern.getPeriod().occurrence(pattern.getLastDate(), k).toEpochDay();
+                if (day > horizonDay) {
+                    break;
+                }
+                if (day > todayDay && day > pattern.getLastKnownEpochDay()) {
+                    deltas[monthIndex(firstMonth, day)] += pattern.getAmount();
+                }
+            }
+        }
+
+        long[] pointBalances = new long[months];
+        long balance = currentBalance;
+        for (int i = 0; i < months; i++) {
+            balance += deltas[i];
+            pointBalances[i] = balance;
+        }
+        return new AccountForecast(history.getAccountId(), currentBalance, pointDates, pointBalances, patterns);
+    }
+
+    /**
+     * Finds the keys whose past cash flows recur with a regular period and amount and are still active.
+     */
+    List<RecurringPattern> detectPatterns(AccountHistory history, int todayDay) {
+        int keyCount = history.getKeyLabels().length;
+        int[] days = history.getEpochDays();
+        long[] amounts = history.getAmounts();
+        int[] keys = history.getKeys();
+
+        // bucket the past entries by key, keeping their date order
+        int[] offsets = new int[keyCount + 1];
+        int[] lastKnownDays = new int[keyCount];
+        Arrays.fill(lastKnownDays, Integer.MIN_VALUE);
+        for (int i = 0; i < history.getSize(); i++) {
+            if (keys[i] >= 0) {
+                if (days[i] <= todayDay) {
+                    offsets[keys[i] + 1]++;
+                } else {
+                    lastKnownDays[keys[i]] = Math.max(lastKnownDays[keys[i]], days[i]);
+                }
+            }
+        }
+        for (int key = 0; key < keyCount; key++) {
+            offsets[key + 1] += offsets[key];
+        }
+        int[] order = new int[offsets[keyCount]];
+        int[] next = Arrays.copyOf(offsets, keyCount);
+        for (int i = 0; i < history.getSize(); i++) {
+            if (keys[i] >= 0 && days[i] <= todayDay) {
+                order[next[keys[i]]++] = i;
+            }
+        }
+
+        List<RecurringPattern> patterns = new ArrayList<>();
+        for (int key = 0; key < keyCount; key++) {
+            int from = offsets[key];
+            int count = offsets[key + 1] - from;
+            if (count < minOccurrences) {
+                continue;
+            }
+
+            int[] intervals = new int[count - 1];
+            long[] seriesAmounts = new long[count];
+            for (int j = 0; j < count; j++) {
+                seriesAmounts[j] = amounts[order[from + j]];
+                if (j > 0) {
+                    intervals[j - 1] = days[order[from + j]] - days[order[from + j - 1]];
+                }
+            }
+
+            RecurrencePeriodEnum period = RecurrencePeriodEnum.ofInterval(median(intervals));
+            if (period == null) {
+                continue;
+            }
+            int regularIntervals = 0;
+            for (int interval : intervals) {
+                if (period.matches(interval)) {
+                    regularIntervals++;
+                }
+            }
+            if (regularIntervals < REGULARITY * intervals.length) {
+                continue;
+            }
+
+            long medianAmount = median(seriesAmounts);
+            int regularAmounts = 0;
+            for (long amount : seriesAmounts) {
+                if (Math.abs(amount - medianAmount) <= Math.abs(medianAmount) * AMOUNT_TOLERANCE) {
+                    regularAmounts++;
+                }
+            }
+            if (regularAmounts < REGULARITY * count) {
+                continue;
+            }
+
+            // a series whose next occurrence is overdue by more than half a period has ended
+            int lastDay = days[order[from + count - 1]];
+            if (todayDay - lastDay > period.getNominalDays() * 3 / 2 + period.getToleranceDays()) {
+                continue;
+            }
+
+            patterns.add(new RecurringPattern(history.getKeyLabels()[key], period, medianAmount,
+                    LocalDate.ofEpochDay(lastDay), count, lastKnownDays[key]));
+        }
+        return patterns;
+    }
+
+    private static int monthIndex(YearMonth firstMonth, int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return (date.getYear() - firstMonth.getYear()) * 12 + date.getMonthValue() - firstMonth.getMonthValue();
+    }
+
+    private static int median(int[] values) {
+        int[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,37 @@
+package com.unforeseencompany.finances.service.forecast;
+
+import com.unforeseencompany.finances.enums.RecurrencePeriodEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * A series of cash flows detected as recurring in an account's history.
+ */
+@Getter
+@AllArgsConstructor
+public class RecurringPattern {
+
+    private final String label;
+
+    private final RecurrencePeriodEnum period;
+
+    /**
+     * Median amount of the series in minor units, negative for expenses.
+     */
+    private final long amount;
+
+    /**
+     * Date of the last occurrence up to today, from which the series is projected.
+     */
+    private final LocalDate lastDate;
+
+    private final int occurrences;
+
+    /**
+     * Epoch day of the latest future-dated cash flow of the series, or Integer.MIN_VALUE if there is none.
+     * Projected occurrences up to it are already known transactions.
+     */
+    private final int lastKnownEpochDay;
+}
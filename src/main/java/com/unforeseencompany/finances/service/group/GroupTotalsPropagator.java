@@ -0,0 +1,245 @@
+package com.unforeseencompany.finances.service.group;
+
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.group.AccountGroup;
+import com.unforeseencompany.finances.repository.AccountGroupRepository;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Carries the balance changes of grouped accounts up to their groups and every group above them.
+ * <p>
+ * Changes are summed per group and month over the whole transaction and applied just before it commits,
+ * with one update per affected group and month. The group rows are locked first, in group ID order so
+ * concurrent commits and moves of groups lock them in the same order, and their paths are read under the locks,
+ * so a change is added to the groups above its group as they are once a concurrent move commits. The group rows
+ * are thus only locked for the end of the transaction, while its account locks already serialize the writes that
+ * touch the same accounts. Accounts outside any group cost nothing.
+ */
+@Component
+@RequiredArgsConstructor
+public class GroupTotalsPropagator {
+
+    private final AccountGroupRepository accountGroupRepository;
+
+    /**
+     * Records a change of an account's balance, to be applied to its groups when the transaction commits.
+     *
+     * @param date The date of the transaction that changed the balance, counted in the net change of its month,
+     *             or null for a change that is not a transaction, such as a new initial balance.
+     */
+    public void balanceChanged(Account account, BigDecimal delta, LocalDate date) {
+        if (account.getGroupId() == null || delta.signum() == 0) {
+            return;
+        }
+        PendingTotals pending = pendingTotals();
+        pending.balances.merge(account.getGroupId(), delta, BigDecimal::add);
+        if (date != null) {
+            pending.periodNets.computeIfAbsent(account.getGroupId(), id -> new HashMap<>())
+                    .merge(date.withDayOfMonth(1), delta, BigDecimal::add);
+        }
+    }
+
+    /**
+     * Records an account moving from one group to another, to be applied when the transaction commits: its balance
+     * and its net change per month are taken off the groups of the old group's path and added to those of the new
+     * one's. Either group may be null, for an account put in its first group, taken out of any, or deleted.
+     * <p>
+     * The account's net change per month is read now, from its live and archived transactions, so the account
+     * must be locked, and this called before any of its transactions is changed or deleted.
+     */
+    public void accountMoved(Account account, Integer fromGroupId, Integer toGroupId) {
+        if (fromGroupId == null ? toGroupId == null : fromGroupId.equals(toGroupId)) {
+            return;
+        }
+
+        Map<LocalDate, BigDecimal> periodNets = toPeriodNets(
+                accountGroupRepository.findAccountPeriodNets(TenantContext.getTenantId(), account.getId()));
+        PendingTotals pending = pendingTotals();
+        if (fromGroupId != null) {
+            pending.add(fromGroupId, account.getBalance().negate(), periodNets, true);
+        }
+        if (toGroupId != null) {
+            pending.add(toGroupId, account.getBalance(), periodNets, false);
+        }
+    }
+
+    /**
+     * Moves the totals of a group, which hold those of everything below it, from the groups above it on its old
+     * path to those on its new one. The groups of both paths, and the group with everything below it, must be
+     * locked with {@link #lockGroups}, and the group's paths not yet replaced.
+     *
+     * @param oldAncestorIds The IDs of the groups above the group before the move.
+     * @param newAncestorIds The IDs of the groups above the group after the move.
+     */
+    public void groupMoved(Integer groupId, List<Integer> oldAncestorIds, List<Integer> newAncestorIds) {
+        String tenantId = TenantContext.getTenantId();
+        BigDecimal balance = accountGroupRepository.findBalance(tenantId, groupId);
+        Map<LocalDate, BigDecimal> periodNets = toPeriodNets(accountGroupRepository.findAllPeriodNets(tenantId, groupId));
+
+        // the groups above both the old and the new position keep their totals
+        Map<Integer, Integer> signs = new TreeMap<>();
+        oldAncestorIds.forEach(id -> signs.merge(id, -1, Integer::sum));
+        newAncestorIds.forEach(id -> signs.merge(id, 1, Integer::sum));
+        signs.forEach((id, sign) -> {
+            if (sign == 0) {
+                return;
+            }
+            if (balance.signum() != 0) {
+                accountGroupRepository.addToBalance(tenantId, id, sign < 0 ? balance.negate() : balance);
+            }
+            periodNets.forEach((period, net) -> {
+                if (net.signum() != 0) {
+                    accountGroupRepository.addToPeriodNet(tenantId, id, period, sign < 0 ? net.negate() : net);
+                }
+            });
+        });
+    }
+
+    /**
+     * Locks the given groups in ID order, the order every change of the totals locks them in.
+     *
+     * @return The paths of the groups that exist, by ID, as they are under the locks.
+     */
+    public Map<Integer, String> lockGroups(String tenantId, Collection<Integer> ids) {
+        Map<Integer, String> paths = new HashMap<>();
+        for (Object[] row : accountGroupRepository.lockPaths(tenantId, ids)) {
+            paths.put((Integer) row[0], (String) row[1]);
+        }
+        return paths;
+    }
+
+    /**
+     * Drops the changes recorded so far in the current transaction, for when the totals are rebuilt from scratch.
+     */
+    public void discardPending() {
+        PendingTotals pending = (PendingTotals) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            pending.balances.clear();
+            pending.periodNets.clear();
+        }
+    }
+
+    private PendingTotals pendingTotals() {
+        PendingTotals pending = (PendingTotals) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            PendingTotals totals = new PendingTotals(TenantContext.getTenantId());
+            TransactionSynchronizationManager.bindResource(this, totals);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    apply(totals);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(GroupTotalsPropagator.this);
+                }
+            });
+            pending = totals;
+        }
+        return pending;
+    }
+
+    private void apply(PendingTotals pending) {
+        if (pending.balances.isEmpty()) {
+            return;
+        }
+
+        // the paths read without locks name the groups to lock; read again under the locks they are current,
+        // and a group moved meanwhile adds the groups of its new path, locked in a second round
+        Map<Integer, String> paths = new HashMap<>();
+        for (Object[] row : accountGroupRepository.findPaths(pending.tenantId, pending.balances.keySet())) {
+            paths.put((Integer) row[0], (String) row[1]);
+        }
+        Set<Integer> locked = new HashSet<>();
+        while (true) {
+            Set<Integer> ids = new TreeSet<>();
+            paths.values().forEach(path -> ids.addAll(AccountGroup.idsOnPath(path)));
+            ids.removeAll(locked);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Map<Integer, String> lockedPaths = lockGroups(pending.tenantId, ids);
+            locked.addAll(ids);
+            for (Integer id : ids) {
+                if (paths.containsKey(id)) {
+                    if (lockedPaths.containsKey(id)) {
+                        paths.put(id, lockedPaths.get(id));
+                    } else {
+                        paths.remove(id);
+                    }
+                }
+            }
+        }
+
+        // each group's change is added to every group on its path
+        Map<Integer, BigDecimal> balances = new TreeMap<>();
+        Map<Integer, Map<LocalDate, BigDecimal>> periodNets = new TreeMap<>();
+        for (Map.Entry<Integer, String> group : paths.entrySet()) {
+            BigDecimal delta = pending.balances.get(group.getKey());
+            Map<LocalDate, BigDecimal> nets = pending.periodNets.getOrDefault(group.getKey(), Map.of());
+            for (Integer ancestorId : AccountGroup.idsOnPath(group.getValue())) {
+                balances.merge(ancestorId, delta, BigDecimal::add);
+                Map<LocalDate, BigDecimal> ancestorNets = periodNets.computeIfAbsent(ancestorId, id -> new TreeMap<>());
+                nets.forEach((period, net) -> ancestorNets.merge(period, net, BigDecimal::add));
+            }
+        }
+
+        balances.forEach((id, delta) -> {
+            if (delta.signum() != 0) {
+                accountGroupRepository.addToBalance(pending.tenantId, id, delta);
+            }
+        });
+        periodNets.forEach((id, nets) -> nets.forEach((period, net) -> {
+            if (net.signum() != 0) {
+                accountGroupRepository.addToPeriodNet(pending.tenantId, id, period, net);
+            }
+        }));
+    }
+
+    private static Map<LocalDate, BigDecimal> toPeriodNets(List<Object[]> rows) {
+        Map<LocalDate, BigDecimal> periodNets = new HashMap<>();
+        for (Object[] row : rows) {
+            periodNets.put(((Date) row[0]).toLocalDate(), (BigDecimal) row[1]);
+        }
+        return periodNets;
+    }
+
+    /**
+     * The changes of the current transaction, per group the accounts are directly in.
+     */
+    private static class PendingTotals {
+
+        private final String tenantId;
+
+        private final Map<Integer, BigDecimal> balances = new HashMap<>();
+
+        private final Map<Integer, Map<LocalDate, BigDecimal>> periodNets = new HashMap<>();
+
+        private PendingTotals(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        private void add(Integer groupId, BigDecimal delta, Map<LocalDate, BigDecimal> nets, boolean negate) {
+            balances.merge(groupId, delta, BigDecimal::add);
+            Map<LocalDate, BigDecimal> groupNets = periodNets.computeIfAbsent(groupId, id -> new HashMap<>());
+            nets.forEach((period, net) -> groupNets.merge(period, negate ? net.negate() : net, BigDecimal::add));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.unforeseencompany.finances.service.outbox;
+
+import com.unforeseencompany.finances.model.outbox.OutboxEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink that writes outbox events to the application log, for local development.
+ */
+@Component
+@ConditionalOnProperty(name = "finances.outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LogOutboxSink implements OutboxSink {
+
+    Logger log = LoggerFactory.getLogger(LogOutboxSink.class);
+
+    @Override
+    public String getName() {
+        return "log";
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        for (OutboxEvent event : events) {
+            log.info("Outbox event " + event.getId() + " " + event.getTenantId() + " " + event.getEventType() + " " + event.getPayload());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.unforeseencompany.finances.service.outbox;
+
+import com.unforeseencompany.finances.config.OutboxProperties;
+import com.unforeseencompany.finances.model.outbox.OutboxCheckpoint;
+import com.unforeseencompany.finances.model.outbox.OutboxEvent;
+import com.unforeseencompany.finances.repository.OutboxCheckpointRepository;
+import com.unforeseencompany.finances.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the outbox table and publishes its events, in ID order, to the configured sink.
+ * <p>
+ * Each batch is published while holding a lock on the sink's checkpoint row, and the checkpoint is
+ * advanced in the same transaction, so concurrent instances never publish interleaved batches.
+ * A gap in the IDs may belong to a transaction that has not committed yet; the poller stops before it
+ * until the gap is older than the configured timeout, so late commits are not skipped.
+ */
+@Service
+public class OutboxPublisher {
+
+    Logger log = LoggerFactory.getLogger(OutboxPublisher.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxCheckpointRepository outboxCheckpointRepository;
+
+    private final OutboxSink outboxSink;
+
+    private final OutboxProperties outboxProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter publishedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer batchTimer;
+
+    private final AtomicLong pendingEvents = new AtomicLong();
+
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository, OutboxCheckpointRepository outboxCheckpointRepository,
+                           OutboxSink outboxSink, OutboxProperties outboxProperties,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCheckpointRepository = outboxCheckpointRepository;
+        this.outboxSink = outboxSink;
+        this.outboxProperties = outboxProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        this.publishedCounter = Counter.builder("finances.outbox.published")
+                .description("Outbox events published to the sink")
+                .tag("sink", outboxSink.getName())
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("finances.outbox.failed.batches")
+                .description("Outbox batches that failed and will be retried")
+                .tag("sink", outboxSink.getName())
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("finances.outbox.batch")
+                .description("Time to publish one outbox batch and advance the checkpoint")
+                .tag("sink", outboxSink.getName())
+                .register(meterRegistry);
+        Gauge.builder("finances.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet published")
+                .tag("sink", outboxSink.getName())
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${finances.outbox.poll-interval:PT1S}")
+    public void poll() {
+        if (!outboxProperties.isEnabled()) {
+            return;
+        }
+
+        try {
+            for (int i = 0; i < outboxProperties.getMaxBatchesPerPoll(); i++) {
+                Integer published = batchTimer.record(() -> transactionTemplate.execute(status -> publishBatch()));
+                if (published == null || published < outboxProperties.getBatchSize()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Error publishing outbox events: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Publishes the next batch after the checkpoint and advances it. Runs inside a transaction.
+     *
+     * @return The number of events published.
+     */
+    private int publishBatch() {
+        OutboxCheckpoint checkpoint = lockCheckpoint();
+
+        List<OutboxEvent> events = outboxEventRepository.findByIdGreaterThanOrderByIdAsc(
+                checkpoint.getLastEventId(), PageRequest.of(0, outboxProperties.getBatchSize()));
+        List<OutboxEvent> batch = contiguousPrefix(checkpoint.getLastEventId(), events);
+
+        if (!batch.isEmpty()) {
+            try {
+                outboxSink.publish(batch);
+            } catch (Exception e) {
+                throw new IllegalStateException("Sink " + outboxSink.getName() + " rejected batch: " + e.getMessage(), e);
+            }
+
+            Long lastEventId = batch.get(batch.size() - 1).getId();
+            checkpoint.setLastEventId(lastEventId);
+            checkpoint.setUpdatedAt(LocalDateTime.now());
+            outboxCheckpointRepository.save(checkpoint);
+
+            if (outboxProperties.isDeletePublished()) {
+                outboxEventRepository.deletePublishedUpTo(lastEventId);
+            }
+            publishedCounter.increment(batch.size());
+        }
+
+        pendingEvents.set(outboxEventRepository.countPendingAfter(checkpoint.getLastEventId()));
+        return batch.size();
+    }
+
+    private OutboxCheckpoint lockCheckpoint() {
+        // if another instance creates the row concurrently, this poll fails on the duplicate key and the next one succeeds
+        return outboxCheckpointRepository.findByConsumer(outboxSink.getName()).orElseGet(() -> {
+            outboxCheckpointRepository.saveAndFlush(new OutboxCheckpoint(outboxSink.getName()));
+            return outboxCheckpointRepository.findByConsumer(outboxSink.getName()).orElseThrow();
+        });
+    }
+
+    /**
+     * Keeps the events up to the first recent gap in the IDs, since the missing event may still be committed.
+     */
+    private List<OutboxEvent> contiguousPrefix(Long lastEventId, List<OutboxEvent> events) {
+        LocalDateTime gapDeadline = LocalDateTime.now().minus(outboxProperties.getGapTimeout());
+        List<OutboxEvent> batch = new ArrayList<>(events.size());
+        long expectedId = lastEventId + 1;
+
+        for (OutboxEvent event : events) {
+            if (event.getId() != expectedId && event.getCreatedAt().isAfter(gapDeadline)) {
+                break;
+            }
+            batch.add(event);
+            expectedId = event.getId() + 1;
+        }
+        return batch;
+    }
+}
@@ -0,0 +1,27 @@
+package com.unforeseencompany.finances.service.outbox;
+
+import com.unforeseencompany.finances.model.outbox.OutboxEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the events published from the outbox.
+ * <p>
+ * Delivery is at-least-once: a batch is published again if the checkpoint could not be saved
+ * after it, so implementations must tolerate duplicates, which consumers can detect by event ID.
+ */
+public interface OutboxSink {
+
+    /**
+     * @return The name identifying this sink's checkpoint.
+     */
+    String getName();
+
+    /**
+     * Publishes a batch of events in ID order. The batch is considered delivered only if this method returns normally.
+     *
+     * @param events The events to publish.
+     * @throws Exception If the batch could not be delivered; it will be retried on the next poll.
+     */
+    void publish(List<OutboxEvent> events) throws Exception;
+}
@@ -0,0 +1,52 @@
+package com.unforeseencompany.finances.service.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import com.unforeseencompany.finances.model.outbox.OutboxEvent;
+import com.unforeseencompany.finances.model.transaction.Transaction;
+import com.unforeseencompany.finances.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Writes cash flow and transfer changes to the outbox table. The listener runs synchronously,
+ * so the outbox row is part of the same database transaction as the change itself.
+ * <p>
+ * Bulk operations write a single event for the tenant, without an aggregate ID: ledger-cleared when every
+ * transaction was deleted, transactions-archived when the transactions dated in a range left the live
+ * tables, and archive-cleared when the archived ones were deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onLedgerChange(LedgerChangeEvent event) throws JsonProcessingException {
+        String aggregateType = event.getType().getAggregateType();
+        if (!aggregateType.equals("cash_flow") && !aggregateType.equals("transfer") && !aggregateType.equals("ledger")) {
+            return;
+        }
+        if (event.getType() == LedgerEventTypeEnum.RESET) {
+            return;
+        }
+
+        Integer aggregateId = null;
+        if (event.getPayload() instanceof Transaction transaction) {
+            aggregateId = transaction.getId();
+        } else if (event.getPayload() instanceof Map<?, ?> payload && payload.get("id") instanceof Integer id) {
+            aggregateId = id;
+        }
+
+        outboxEventRepository.save(new OutboxEvent(event.getTenantId(), aggregateType, aggregateId, event.getType().getEventName(),
+                objectMapper.writeValueAsString(event.getPayload())));
+    }
+}
@@ -0,0 +1,123 @@
+package com.unforeseencompany.finances.service.timeseries;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * The closing balance of one account on every day its balance changed, in minor units, keyed by epoch day.
+ * <p>
+ * A series may be valid only up to a given day, after a write dated on that day invalidated the rest of it;
+ * the valid prefix is kept so only the invalid suffix has to be recomputed. Series are immutable.
+ */
+@Getter
+public class BalanceSeries {
+
+    /**
+     * Value of {@link #validUntil} for a series that must be recomputed entirely.
+     */
+    private static final int INVALID = Integer.MIN_VALUE;
+
+    private final long initialBalance;
+
+    private final int[] days;
+
+    private final long[] balances;
+
+    /**
+     * The first day whose balance may be out of date, or {@link Integer#MAX_VALUE} when the whole series is valid.
+     */
+    private final int validUntil;
+
+    public BalanceSeries(long initialBalance, int[] days, long[] balances) {
+        this(initialBalance, days, balances, Integer.MAX_VALUE);
+    }
+
+    private BalanceSeries(long initialBalance, int[] days, long[] balances, int validUntil) {
+        this.initialBalance = initialBalance;
+        this.days = days;
+        this.balances = balances;
+        this.validUntil = validUntil;
+    }
+
+    /**
+     * @return A placeholder for an account whose series is not cached and must be computed from scratch.
+     */
+    public static BalanceSeries invalid() {
+        return new BalanceSeries(0, new int[0], new long[0], INVALID);
+    }
+
+    public boolean isValid() {
+        return validUntil == Integer.MAX_VALUE;
+    }
+
+    public boolean isInvalid() {
+        return validUntil == INVALID;
+    }
+
+    /**
+     * @param day The first day whose balance changed.
+     * @return This series, valid only before the given day.
+     */
+    public BalanceSeries truncatedAt(int day) {
+        if (day >= validUntil) {
+            return this;
+        }
+        return new BalanceSeries(initialBalance, days, balances, isInvalid() ? INVALID : day);
+    }
+
+    /**
+     * Replaces the invalid suffix of this series with freshly computed balances.
+     *
+     * @param freshInitialBalance The current initial balance of the account.
+     * @param freshDays           Days of the recomputed balances, in ascending order; days before {@link #validUntil} are ignored.
+     * @param freshBalances       The recomputed balances.
+     * @return The merged, fully valid series.
+     */
+    public BalanceSeries mergedWith(long freshInitialBalance, int[] freshDays, long[] freshBalances) {
+        int prefix = firstIndexFrom(days, validUntil);
+        int suffixStart = firstIndexFrom(freshDays, validUntil);
+        int suffix = freshDays.length - suffixStart;
+
+        int[] mergedDays = Arrays.copyOf(days, prefix + suffix);
+        long[] mergedBalances = Arrays.copyOf(balances, prefix + suffix);
+        System.arraycopy(freshDays, suffixStart, mergedDays, prefix, suffix);
+        System.arraycopy(freshBalances, suffixStart, mergedBalances, prefix, suffix);
+        return new BalanceSeries(freshInitialBalance, mergedDays, mergedBalances);
+    }
+
+    /**
+     * Fills the closing balance of every day from the given one, carrying each balance forward
+     * until the next change. Only meaningful on a valid series.
+     *
+     * @param fromDay The first day, as an epoch day.
+     * @param target  The array to add the balances to, one element per day.
+     */
+    public void addDailyBalances(int fromDay, long[] target) {
+        int index = firstIndexFrom(days, fromDay + 1) - 1;
+        long balance = index >= 0 ? balances[index] : initialBalance;
+        index++;
+
+        for (int i = 0; i < target.length; i++) {
+            int day = fromDay + i;
+            while (index < days.length && days[index] <= day) {
+                balance = balances[index++];
+            }
+            target[i] += balance;
+        }
+    }
+
+    /**
+     * @return The index of the first element not before the given day.
+     */
+    private static int firstIndexFrom(int[] sortedDays, int day) {
+        int index = Arrays.binarySearch(sortedDays, day);
+        if (index < 0) {
+            return -index - 1;
+        }
+        while (index > 0 && sortedDays[index - 1] == day) {
+            index--;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,156 @@
+package com.unforeseencompany.finances.service.timeseries;
+
+import com.unforeseencompany.finances.config.TimeSeriesProperties;
+import com.unforeseencompany.finances.enums.LedgerEventTypeEnum;
+import com.unforeseencompany.finances.event.AccountVersionChangeEvent;
+import com.unforeseencompany.finances.event.LedgerChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the computed balance series of each account, truncating them when a committed write changes their history.
+ * <p>
+ * Every series is stamped with the persisted versions of its account and of its tenant's accounts as a whole,
+ * read before the series was computed, and is only served while they are still current. A write through another
+ * instance bumps them, so it is never missed; a write through this one moves the stamp along with the truncation
+ * of the days it changed, so only those have to be recomputed.
+ * <p>
+ * A series is only stored if the entry it was computed from is still in place, so a series computed from data
+ * read before a concurrent write never replaces the invalidation that write left behind, and changes to a whole
+ * ledger bump its tenant's generation.
+ */
+@Component
+public class BalanceSeriesCache {
+
+    private final TimeSeriesProperties timeSeriesProperties;
+
+    private final ConcurrentHashMap<SeriesKey, Entry> series = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public BalanceSeriesCache(TimeSeriesProperties timeSeriesProperties) {
+        this.timeSeriesProperties = timeSeriesProperties;
+    }
+
+    /**
+     * @param accountGeneration The persisted account generation of the tenant.
+     * @param version           The persisted version of the account.
+     * @return The cached series of the account, possibly only partially valid, or null if none is cached for
+     * these versions.
+     */
+    public BalanceSeries get(String tenantId, Integer accountId, long accountGeneration, long version) {
+        Entry entry = series.get(new SeriesKey(tenantId, accountId));
+        return entry != null && entry.isAt(accountGeneration, version) ? entry.series() : null;
+    }
+
+    /**
+     * @return The generation of the tenant's ledger, to be read before its series are.
+     */
+    public long getGeneration(String tenantId) {
+        return generation(tenantId).get();
+    }
+
+    /**
+     * Stores a computed series unless the entry it was computed from changed in the meantime.
+     *
+     * @param generation        The generation of the tenant read before the entry.
+     * @param accountGeneration The persisted account generation of the tenant read before the series was computed.
+     * @param version           The persisted version of the account read before the series was computed.
+     * @param expected          The entry read before the series was computed, or null if there was none.
+     * @param computed          The computed series.
+     */
+    public void put(String tenantId, Integer accountId, long generation, long accountGeneration, long version,
+                    BalanceSeries expected, BalanceSeries computed) {
+        SeriesKey key = new SeriesKey(tenantId, accountId);
+        if (generation != getGeneration(tenantId)) {
+            return;
+        }
+        if (expected == null && !series.containsKey(key) && series.size() >= timeSeriesProperties.getCacheSize()) {
+            evictOne();
+        }
+
+        Entry stored = new Entry(computed, accountGeneration, version);
+        series.compute(key, (seriesKey, current) -> {
+            if (expected == null) {
+                // nothing was cached for these versions, so anything in place is for others
+                return current == null || !current.isAt(accountGeneration, version) ? stored : current;
+            }
+            return current != null && current.series() == expected && current.isAt(accountGeneration, version) ? stored : current;
+        });
+
+        // a ledger-wide change may have swept the entries between the check and the store
+        if (generation != getGeneration(tenantId)) {
+            series.remove(key, stored);
+        }
+    }
+
+    /**
+     * Moves the series of an account past a write of this instance once its transaction has committed, invalidating
+     * the days it changed. A series that missed an earlier write can never be served again, so it is dropped.
+     *
+     * @param event The versions the account went through in the committed transaction.
+     */
+    @EventListener
+    public void onAccountVersionChange(AccountVersionChangeEvent event) {
+        series.computeIfPresent(new SeriesKey(event.getTenantId(), event.getAccountId()), (key, entry) -> {
+            if (entry.version() != event.getFromVersion()) {
+                return entry.version() < event.getFromVersion() ? null : entry;
+            }
+            BalanceSeries advanced = event.getAffectedFrom() != null
+                    ? entry.series().truncatedAt((int) event.getAffectedFrom().toEpochDay())
+                    : entry.series();
+            return new Entry(advanced, entry.accountGeneration(), event.getToVersion());
+        });
+    }
+
+    /**
+     * Invalidates the series touched by a ledger-wide change once its transaction has committed.
+     *
+     * @param event The change published by one of the services.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLedgerChange(LedgerChangeEvent event) {
+        if (event.getType() == LedgerEventTypeEnum.LEDGER_CLEARED) {
+            generation(event.getTenantId()).incrementAndGet();
+            series.keySet().removeIf(key -> key.tenantId().equals(event.getTenantId()));
+        } else if (event.getType() == LedgerEventTypeEnum.ACCOUNT_DELETED) {
+            event.getAccountIds().forEach(accountId -> series.remove(new SeriesKey(event.getTenantId(), accountId)));
+        } else if (event.getAffectedFrom() != null && event.getAccountIds().isEmpty()) {
+            int day = (int) event.getAffectedFrom().toEpochDay();
+            generation(event.getTenantId()).incrementAndGet();
+            series.replaceAll((key, entry) -> key.tenantId().equals(event.getTenantId())
+                    ? new Entry(entry.series().truncatedAt(day), entry.accountGeneration(), entry.version())
+                    : entry);
+        }
+    }
+
+    private AtomicLong generation(String tenantId) {
+        return generations.computeIfAbsent(tenantId, id -> new AtomicLong());
+    }
+
+    private void evictOne() {
+        Iterator<SeriesKey> keys = series.keySet().iterator();
+        if (keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record SeriesKey(String tenantId, Integer accountId) {
+    }
+
+    /**
+     * A series with the persisted versions it reflects.
+     */
+    private record Entry(BalanceSeries series, long accountGeneration, long version) {
+
+        boolean isAt(long accountGeneration, long version) {
+            return this.accountGeneration == accountGeneration && this.version == version;
+        }
+    }
+}
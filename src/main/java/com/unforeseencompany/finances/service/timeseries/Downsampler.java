@@ -0,0 +1,114 @@
+package com.unforeseencompany.finances.service.timeseries;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reduces a daily balance series to fewer points. Each method returns the indexes of the days to keep.
+ */
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    /**
+     * Keeps every day.
+     */
+    public static int[] daily(int length) {
+        int[] all = new int[length];
+        for (int i = 0; i < length; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+
+    /**
+     * Keeps the closing balance of every week, on Sunday or on the last day of the range.
+     */
+    public static int[] weekly(LocalDate from, int length) {
+        List<Integer> indexes = new ArrayList<>();
+        LocalDate end = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+        while ((int) (end.toEpochDay() - from.toEpochDay()) < length) {
+            indexes.add((int) (end.toEpochDay() - from.toEpochDay()));
+            end = end.plusWeeks(1);
+        }
+        return closingIndexes(indexes, length);
+    }
+
+    /**
+     * Keeps the closing balance of every month, on its last day or on the last day of the range.
+     */
+    public static int[] monthly(LocalDate from, int length) {
+        List<Integer> indexes = new ArrayList<>();
+        LocalDate end = from.with(TemporalAdjusters.lastDayOfMonth());
+        while ((int) (end.toEpochDay() - from.toEpochDay()) < length) {
+            indexes.add((int) (end.toEpochDay() - from.toEpochDay()));
+            end = end.plusDays(1).with(TemporalAdjusters.lastDayOfMonth());
+        }
+        return closingIndexes(indexes, length);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets: keeps the first and last day and, from each of the buckets in between,
+     * the day forming the largest triangle with the previously kept day and the average of the next bucket.
+     * The shape of the series, peaks and drops included, survives with far fewer points.
+     *
+     * @param balances  The daily balances.
+     * @param threshold The number of points to keep.
+     */
+    public static int[] lttb(long[] balances, int threshold) {
+        int length = balances.length;
+        if (threshold >= length || threshold < 3) {
+            return daily(length);
+        }
+
+        int[] sampled = new int[threshold];
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int previous = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += i;
+                averageY += balances[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double maxArea = -1;
+            int selected = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previous - averageX) * (balances[i] - balances[previous])
+                        - (previous - i) * (averageY - balances[previous]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = i;
+                }
+            }
+
+            sampled[bucket + 1] = selected;
+            previous = selected;
+        }
+
+        sampled[threshold - 1] = length - 1;
+        return sampled;
+    }
+
+    /**
+     * Closes the last, incomplete period on the last day of the range.
+     */
+    private static int[] closingIndexes(List<Integer> indexes, int length) {
+        if (length > 0 && (indexes.isEmpty() || indexes.get(indexes.size() - 1) != length - 1)) {
+            indexes.add(length - 1);
+        }
+        return indexes.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
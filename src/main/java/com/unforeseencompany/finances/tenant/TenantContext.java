@@ -0,0 +1,70 @@
+package com.unforeseencompany.finances.tenant;
+
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the tenant of the current thread. Requests get it from the X-Tenant-Id header set by a trusted proxy;
+ * background jobs set it explicitly for each tenant they process.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "default";
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final Pattern TENANT_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return The current tenant, or the default tenant if none was set.
+     */
+    public static String getTenantId() {
+        String tenantId = CURRENT_TENANT.get();
+        return tenantId != null ? tenantId : DEFAULT_TENANT;
+    }
+
+    /**
+     * @return Whether the given value can be used as a tenant ID.
+     */
+    public static boolean isValidTenantId(String tenantId) {
+        return tenantId != null && TENANT_ID_PATTERN.matcher(tenantId).matches();
+    }
+
+    public static void setTenantId(String tenantId) {
+        CURRENT_TENANT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT_TENANT.remove();
+    }
+
+    /**
+     * Runs an action as the given tenant, restoring the previous tenant afterwards.
+     * The action must open its own transaction, since the tenant is bound when the session opens.
+     */
+    public static <T> T callAs(String tenantId, Supplier<T> action) {
+        String previousTenantId = CURRENT_TENANT.get();
+        CURRENT_TENANT.set(tenantId);
+        try {
+            return action.get();
+        } finally {
+            if (previousTenantId != null) {
+                CURRENT_TENANT.set(previousTenantId);
+            } else {
+                CURRENT_TENANT.remove();
+            }
+        }
+    }
+
+    public static void runAs(String tenantId, Runnable action) {
+        callAs(tenantId, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.unforeseencompany.finances.tenant;
+
+import com.unforeseencompany.finances.config.TenantProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Binds the tenant of the X-Tenant-Id header to the request thread. It runs before anything opens
+ * a Hibernate session, since the session's tenant is resolved when it opens.
+ * <p>
+ * The header is only taken from the trusted proxies, which set it from the client's credentials; a client reaching
+ * the application directly could otherwise read and write any tenant's ledger by naming it. A request naming no
+ * tenant is rejected rather than run as the default tenant.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TenantFilter extends OncePerRequestFilter {
+
+    /**
+     * Paths that read no tenant's data, served without a tenant.
+     */
+    private static final List<String> UNTENANTED_PATHS = List.of("/actuator", "/api-docs", "/swagger-ui");
+
+    Logger log = LoggerFactory.getLogger(TenantFilter.class);
+
+    private final TenantProperties tenantProperties;
+
+    public TenantFilter(TenantProperties tenantProperties) {
+        this.tenantProperties = tenantProperties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isTrustedProxy(request.getRemoteAddr(), tenantProperties)) {
+            log.warn("Rejected request " + request.getMethod() + " " + request.getRequestURI() + " from untrusted address "
+                    + request.getRemoteAddr());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "The " + TenantContext.TENANT_HEADER
+                    + " header is only accepted from a trusted proxy");
+            return;
+        }
+
+        String tenantId = request.getHeader(TenantContext.TENANT_HEADER);
+        if (tenantId == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing " + TenantContext.TENANT_HEADER + " header");
+            return;
+        }
+        if (!TenantContext.isValidTenantId(tenantId)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid " + TenantContext.TENANT_HEADER + " header");
+            return;
+        }
+
+        TenantContext.setTenantId(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return UNTENANTED_PATHS.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    /**
+     * @return Whether requests from the given address may name their tenant.
+     */
+    public static boolean isTrustedProxy(String remoteAddress, TenantProperties tenantProperties) {
+        return remoteAddress != null && tenantProperties.getTrustedProxies().contains(remoteAddress);
+    }
+}
@@ -0,0 +1,56 @@
+package com.unforeseencompany.finances.tracing;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Observes every call to a controller or a service, so a request's trace shows the time spent in each layer
+ * between the HTTP span and the JDBC spans. Each observation is also timed, as finances.controller and
+ * finances.service tagged with the class and method.
+ * <p>
+ * Only the services of the service package itself are observed; the helpers below it are called many times
+ * per request, and LedgerVersionService once per changed account.
+ */
+@Aspect
+@Component
+public class LayerObservationAspect {
+
+    private final ObservationRegistry observationRegistry;
+
+    public LayerObservationAspect(ObservationRegistry observationRegistry) {
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Around("within(com.unforeseencompany.finances.controller.*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object observeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("finances.controller", joinPoint);
+    }
+
+    @Around("within(com.unforeseencompany.finances.service.*) && @within(org.springframework.stereotype.Service) "
+            + "&& !within(com.unforeseencompany.finances.service.LedgerVersionService)")
+    public Object observeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe("finances.service", joinPoint);
+    }
+
+    private Object observe(String name, ProceedingJoinPoint joinPoint) throws Throwable {
+        String className = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String methodName = joinPoint.getSignature().getName();
+        Observation observation = Observation.createNotStarted(name, observationRegistry)
+                .contextualName(className + "#" + methodName)
+                .lowCardinalityKeyValue("class", className)
+                .lowCardinalityKeyValue("method", methodName)
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.stop();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+-- Tables of the ledger, the archive and the outbox, with their keys.
+-- Money is decimal(19,2): exact, and wide enough for any balance.
+-- The secondary indexes are created in V2.
+
+create table account (
+    id              int            not null auto_increment,
+    tenant_id       varchar(64)    not null,
+    name            varchar(255),
+    initial_balance decimal(19, 2),
+    balance         decimal(19, 2),
+    created_at      date,
+    deleted_at      datetime(6),
+    primary key (id)
+) engine = InnoDB;
+
+create table cash_flow_transaction (
+    id               int            not null auto_increment,
+    tenant_id        varchar(64)    not null,
+    amount           decimal(19, 2) not null,
+    description      varchar(255),
+    transaction_date date           not null,
+    transaction_type tinyint        not null,
+    account_id       int            not null,
+    deleted_at       datetime(6),
+    primary key (id),
+    constraint fk_cash_flow_account foreign key (account_id) references account (id)
+) engine = InnoDB;
+
+create table transfer_transaction (
+    id                int            not null auto_increment,
+    tenant_id         varchar(64)    not null,
+    amount            decimal(19, 2) not null,
+    description       varchar(255),
+    transaction_date  date           not null,
+    transaction_type  tinyint        not null,
+    source_account_id int            not null,
+    target_account_id int            not null,
+    deleted_at        datetime(6),
+    primary key (id),
+    constraint fk_transfer_source_account foreign key (source_account_id) references account (id),
+    constraint fk_transfer_target_account foreign key (target_account_id) references account (id)
+) engine = InnoDB;
+
+-- archived rows keep the ids they had in the live tables, and the accounts they referenced may be purged
+create table cash_flow_transaction_archive (
+    id               int            not null,
+    tenant_id        varchar(64)    not null,
+    amount           decimal(19, 2) not null,
+    description      varchar(255),
+    transaction_date date           not null,
+    transaction_type tinyint        not null,
+    account_id       int            not null,
+    archived_at      datetime(6)    not null,
+    primary key (id)
+) engine = InnoDB;
+
+create table transfer_transaction_archive (
+    id                int            not null,
+    tenant_id         varchar(64)    not null,
+    amount            decimal(19, 2) not null,
+    description       varchar(255),
+    transaction_date  date           not null,
+    transaction_type  tinyint        not null,
+    source_account_id int            not null,
+    target_account_id int            not null,
+    archived_at       datetime(6)    not null,
+    primary key (id)
+) engine = InnoDB;
+
+create table account_balance_snapshot (
+    account_id             int            not null,
+    tenant_id              varchar(64)    not null,
+    archived_through       date           not null,
+    archived_cash_flow_net decimal(19, 2) not null,
+    archived_transfer_net  decimal(19, 2) not null,
+    primary key (account_id)
+) engine = InnoDB;
+
+create table archived_year (
+    id             int         not null auto_increment,
+    tenant_id      varchar(64) not null,
+    archived_year  int         not null,
+    cash_flow_rows bigint      not null,
+    transfer_rows  bigint      not null,
+    archived_at    datetime(6) not null,
+    primary key (id),
+    constraint uk_archived_year_tenant_year unique (tenant_id, archived_year)
+) engine = InnoDB;
+
+create table outbox_event (
+    id             bigint      not null auto_increment,
+    tenant_id      varchar(64) not null,
+    aggregate_type varchar(32) not null,
+    aggregate_id   int,
+    event_type     varchar(32) not null,
+    payload        longtext    not null,
+    created_at     datetime(6) not null,
+    primary key (id)
+) engine = InnoDB;
+
+create table outbox_checkpoint (
+    consumer      varchar(64) not null,
+    last_event_id bigint      not null,
+    updated_at    datetime(6) not null,
+    primary key (consumer)
+) engine = InnoDB;
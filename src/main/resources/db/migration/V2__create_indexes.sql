@@ -0,0 +1,30 @@
+-- Secondary indexes, every one led by the tenant and, on the live tables, by deleted_at, the predicates
+-- every query starts with.
+-- They are built in place without locking, as every later index must be: the tables stay readable and
+-- writable while the index is built, and the statement fails instead of blocking writes if that is not possible.
+
+alter table account
+    add index idx_account_tenant_live_name (tenant_id, deleted_at, name),
+    algorithm = inplace, lock = none;
+
+alter table cash_flow_transaction
+    add index idx_cash_flow_tenant_live_account_date (tenant_id, deleted_at, account_id, transaction_date),
+    add index idx_cash_flow_tenant_live_date (tenant_id, deleted_at, transaction_date),
+    algorithm = inplace, lock = none;
+
+alter table transfer_transaction
+    add index idx_transfer_tenant_live_source_date (tenant_id, deleted_at, source_account_id, transaction_date),
+    add index idx_transfer_tenant_live_target_date (tenant_id, deleted_at, target_account_id, transaction_date),
+    add index idx_transfer_tenant_live_date (tenant_id, deleted_at, transaction_date),
+    algorithm = inplace, lock = none;
+
+alter table cash_flow_transaction_archive
+    add index idx_cash_flow_archive_tenant_account_date (tenant_id, account_id, transaction_date),
+    add index idx_cash_flow_archive_tenant_date (tenant_id, transaction_date),
+    algorithm = inplace, lock = none;
+
+alter table transfer_transaction_archive
+    add index idx_transfer_archive_tenant_source_date (tenant_id, source_account_id, transaction_date),
+    add index idx_transfer_archive_tenant_target_date (tenant_id, target_account_id, transaction_date),
+    add index idx_transfer_archive_tenant_date (tenant_id, transaction_date),
+    algorithm = inplace, lock = none;
@@ -0,0 +1,20 @@
+-- Audit trail of accounts and transactions, written in batches by AuditWriter.
+-- entity_type and action are stored by ordinal, and changes only holds the fields that changed.
+-- History is read newest first by id, so both indexes end in the id, the keyset of the pages.
+
+create table audit_entry (
+    id          bigint       not null auto_increment,
+    tenant_id   varchar(64)  not null,
+    entity_type tinyint      not null,
+    entity_id   int,
+    action      tinyint      not null,
+    actor       varchar(160) not null,
+    changed_at  datetime(6)  not null,
+    changes     text,
+    primary key (id)
+) engine = InnoDB;
+
+alter table audit_entry
+    add index idx_audit_entry_tenant (tenant_id, id),
+    add index idx_audit_entry_tenant_entity (tenant_id, entity_type, entity_id, id),
+    algorithm = inplace, lock = none;
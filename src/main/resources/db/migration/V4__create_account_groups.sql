@@ -0,0 +1,41 @@
+-- Account groups: a tree stored as materialized paths, with the rolled-up totals of each group kept on its row.
+-- path lists the IDs from the root down to the group itself, as /1/4/9/, so a group's subtree is every path it prefixes.
+-- account_group_period_net holds the net change of each group's accounts per month, keyed by the month's first day.
+
+create table account_group (
+    id        int            not null auto_increment,
+    tenant_id varchar(64)    not null,
+    name      varchar(255)   not null,
+    parent_id int,
+    path      varchar(512)   not null,
+    balance   decimal(19, 2) not null,
+    primary key (id),
+    constraint fk_account_group_parent foreign key (parent_id) references account_group (id)
+) engine = InnoDB;
+
+create table account_group_period_net (
+    group_id   int            not null,
+    period     date           not null,
+    tenant_id  varchar(64)    not null,
+    net_change decimal(19, 2) not null,
+    primary key (group_id, period),
+    constraint fk_account_group_period_net_group foreign key (group_id) references account_group (id)
+) engine = InnoDB;
+
+-- a nullable column at the end is added without rebuilding the table; a foreign key would copy it,
+-- so the service checks the group exists instead
+alter table account
+    add column group_id int,
+    algorithm = instant;
+
+alter table account
+    add index idx_account_tenant_live_group (tenant_id, deleted_at, group_id),
+    algorithm = inplace, lock = none;
+
+alter table account_group
+    add index idx_account_group_tenant_path (tenant_id, path),
+    algorithm = inplace, lock = none;
+
+alter table account_group_period_net
+    add index idx_account_group_period_net_tenant (tenant_id),
+    algorithm = inplace, lock = none;
@@ -0,0 +1,23 @@
+-- Splits of a cash flow across categories, and batches of transfers from one source to many targets.
+-- A split goes with its cash flow: the rows are removed with it when it is purged or archived,
+-- so archived cash flows keep their amount but not their breakdown.
+-- A transfer batch is identified by the ID of its first transfer.
+
+create table cash_flow_split (
+    id           int            not null auto_increment,
+    tenant_id    varchar(64)    not null,
+    cash_flow_id int            not null,
+    amount       decimal(19, 2) not null,
+    category     varchar(64),
+    description  varchar(255),
+    primary key (id),
+    constraint fk_cash_flow_split_cash_flow foreign key (cash_flow_id) references cash_flow_transaction (id) on delete cascade
+) engine = InnoDB;
+
+alter table transfer_transaction
+    add column batch_id int,
+    algorithm = instant;
+
+alter table transfer_transaction
+    add index idx_transfer_tenant_live_batch (tenant_id, deleted_at, batch_id),
+    algorithm = inplace, lock = none;
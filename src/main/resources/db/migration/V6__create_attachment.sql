@@ -0,0 +1,21 @@
+-- Receipts and invoices attached to cash flows and transfers. The files are kept on disk, named by the SHA-256
+-- of their content, so the same file attached twice is stored once; this table only holds their metadata.
+-- owner_type is stored by ordinal: 0 for a cash flow, 1 for a transfer.
+
+create table attachment (
+    id           bigint       not null auto_increment,
+    tenant_id    varchar(64)  not null,
+    owner_type   tinyint      not null,
+    owner_id     int          not null,
+    file_name    varchar(255) not null,
+    content_type varchar(127) not null,
+    size         bigint       not null,
+    sha256       char(64)     not null,
+    created_at   datetime(6)  not null,
+    primary key (id)
+) engine = InnoDB;
+
+alter table attachment
+    add index idx_attachment_tenant_owner (tenant_id, owner_type, owner_id),
+    add index idx_attachment_tenant_sha256 (tenant_id, sha256),
+    algorithm = inplace, lock = none;
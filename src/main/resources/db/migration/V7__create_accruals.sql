@@ -0,0 +1,39 @@
+-- Accrual rules: interest credited to, or fees charged on, an account once a month from its daily closing balances.
+-- accrual_type is stored by ordinal: 0 for interest, 1 for a fee. A rule goes with its account when it is purged.
+-- accrual_posting records each rule's accrual of each month, keyed by the month's first day; the unique key
+-- makes posting a month twice impossible, so an interrupted run is resumed by running it again.
+-- Postings are kept when their rule is deleted, as the history of what was charged.
+
+create table accrual_rule (
+    id             int            not null auto_increment,
+    tenant_id      varchar(64)    not null,
+    account_id     int            not null,
+    accrual_type   tinyint        not null,
+    annual_rate    decimal(9, 6),
+    monthly_fee    decimal(19, 2),
+    effective_from date           not null,
+    description    varchar(255),
+    primary key (id),
+    constraint fk_accrual_rule_account foreign key (account_id) references account (id) on delete cascade
+) engine = InnoDB;
+
+create table accrual_posting (
+    id           bigint         not null auto_increment,
+    tenant_id    varchar(64)    not null,
+    rule_id      int            not null,
+    account_id   int            not null,
+    period       date           not null,
+    amount       decimal(19, 2) not null,
+    cash_flow_id int,
+    posted_at    datetime(6)    not null,
+    primary key (id),
+    constraint uk_accrual_posting_rule_period unique (rule_id, period)
+) engine = InnoDB;
+
+alter table accrual_rule
+    add index idx_accrual_rule_tenant_account (tenant_id, account_id),
+    algorithm = inplace, lock = none;
+
+alter table accrual_posting
+    add index idx_accrual_posting_tenant_period (tenant_id, period),
+    algorithm = inplace, lock = none;
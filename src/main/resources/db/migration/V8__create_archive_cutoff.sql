@@ -0,0 +1,14 @@
+-- Archive cutoff of each tenant, read by every write so that all instances reject the months an archival closes.
+-- Tenants that archived before get the cutoff their latest archived year implies.
+
+create table archive_cutoff (
+    tenant_id       varchar(64) not null,
+    closed_before   date        not null,
+    archived_before date        not null,
+    primary key (tenant_id)
+) engine = InnoDB;
+
+insert into archive_cutoff (tenant_id, closed_before, archived_before)
+select tenant_id, makedate(max(archived_year) + 1, 1), makedate(max(archived_year) + 1, 1)
+from archived_year
+group by tenant_id;
@@ -0,0 +1,17 @@
+-- Versions behind the ETags of the read endpoints, bumped by the write transactions so every instance answers
+-- with the same ETags. A column with a default at the end is added without rebuilding the table.
+
+alter table account
+    add column version bigint not null default 0,
+    algorithm = instant;
+
+create table ledger_version (
+    tenant_id          varchar(64) not null,
+    ledger_version     bigint      not null,
+    account_generation bigint      not null,
+    primary key (tenant_id)
+) engine = InnoDB;
+
+insert into ledger_version (tenant_id, ledger_version, account_generation)
+select distinct tenant_id, 0, 0
+from account;
@@ -0,0 +1,19 @@
+package com.unforeseencompany.finances.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the reactive server that serves the listing endpoints, built with the "reactive" Maven profile.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "finances.reactive")
+public class ReactiveProperties {
+
+    /**
+     * Port of the reactive server. The servlet endpoints keep server.port.
+     */
+    private int port = 8081;
+}
@@ -0,0 +1,158 @@
+package com.unforeseencompany.finances.reactive;
+
+import com.unforeseencompany.finances.config.TenantProperties;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transaction;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import com.unforeseencompany.finances.service.ArchiveService;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import com.unforeseencompany.finances.tenant.TenantFilter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Reactive versions of the listing endpoints of the transaction, cash flow and transfer controllers.
+ * <p>
+ * Rows are streamed from the database to the client as the client reads them: a slow client holds a
+ * connection and a little buffered data, but no thread, and the database cursor only advances as fast as
+ * the response is written. Clients asking for application/x-ndjson receive one transaction per line;
+ * everyone else receives the same JSON array as from the servlet endpoints.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveLedgerHandler {
+
+    Logger log = LoggerFactory.getLogger(ReactiveLedgerHandler.class);
+
+    private final ReactiveLedgerRepository reactiveLedgerRepository;
+
+    private final TenantProperties tenantProperties;
+
+    /**
+     * Endpoint to retrieve all transactions, optionally dated in a range.
+     *
+     * @param request The request, with the optional from and to query parameters.
+     * @return The response streaming the cash flows followed by the transfers.
+     */
+    public Mono<ServerResponse> listTransactions(ServerRequest request) {
+        return withDateRange(request, (from, to) -> {
+            String tenantId = tenantId(request);
+            Flux<Transaction> transactions = Flux.concat(
+                    reactiveLedgerRepository.findCashFlows(tenantId, null, from, to),
+                    reactiveLedgerRepository.findTransfers(tenantId, null, from, to));
+            return stream(request, transactions, Transaction.class);
+        });
+    }
+
+    /**
+     * Endpoint to list all cash flow transactions based on the account name.
+     *
+     * @param request The request, with the accountName path variable and the optional from and to query parameters.
+     * @return The response streaming the cash flows, or a bad request status if the account does not exist.
+     */
+    public Mono<ServerResponse> listCashFlowTransactionsByAccountName(ServerRequest request) {
+        return withDateRange(request, (from, to) -> {
+            String tenantId = tenantId(request);
+            String accountName = request.pathVariable("accountName");
+            return reactiveLedgerRepository.findAccountByName(tenantId, accountName)
+                    .flatMap(account -> stream(request,
+                            reactiveLedgerRepository.findCashFlows(tenantId, account.getId(), from, to), CashFlow.class))
+                    .switchIfEmpty(Mono.defer(() -> {
+                        log.error("Account not found with name: " + accountName);
+                        return ServerResponse.badRequest().build();
+                    }));
+        });
+    }
+
+    /**
+     * Endpoint to list all transfer transactions based on the account name.
+     *
+     * @param request The request, with the accountName path variable and the optional from and to query parameters.
+     * @return The response streaming the transfers, or a bad request status if the account does not exist.
+     */
+    public Mono<ServerResponse> listTransferTransactionsByAccountName(ServerRequest request) {
+        return withDateRange(request, (from, to) -> {
+            String tenantId = tenantId(request);
+            String accountName = request.pathVariable("accountName");
+            return reactiveLedgerRepository.findAccountByName(tenantId, accountName)
+                    .flatMap(account -> stream(request,
+                            reactiveLedgerRepository.findTransfers(tenantId, account.getId(), from, to), Transfer.class))
+                    .switchIfEmpty(Mono.defer(() -> {
+                        log.error("Account not found with name: " + accountName);
+                        return ServerResponse.badRequest().build();
+                    }));
+        });
+    }
+
+    /**
+     * Rejects requests from anywhere but a trusted proxy, and those whose X-Tenant-Id header is missing or not a
+     * valid tenant ID, as the servlet tenant filter does.
+     */
+    public Mono<ServerResponse> requireValidTenant(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String remoteAddress = request.remoteAddress()
+                .map(InetSocketAddress::getAddress)
+                .map(InetAddress::getHostAddress)
+                .orElse(null);
+        if (!TenantFilter.isTrustedProxy(remoteAddress, tenantProperties)) {
+            log.warn("Rejected request " + request.method() + " " + request.path() + " from untrusted address " + remoteAddress);
+            return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (!TenantContext.isValidTenantId(tenantId(request))) {
+            return ServerResponse.badRequest().build();
+        }
+        return next.handle(request);
+    }
+
+    private String tenantId(ServerRequest request) {
+        return request.headers().firstHeader(TenantContext.TENANT_HEADER);
+    }
+
+    private <T> Mono<ServerResponse> stream(ServerRequest request, Flux<T> body, Class<T> type) {
+        MediaType mediaType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                ? MediaType.APPLICATION_NDJSON
+                : MediaType.APPLICATION_JSON;
+
+        return ServerResponse.ok().contentType(mediaType).body(body.doOnError(e ->
+                log.error("Error streaming transactions: " + e.getMessage())), type);
+    }
+
+    /**
+     * Parses the optional from and to query parameters. As on the servlet endpoints, a range with only one
+     * bound is open on the other side, and no range at all only reads the live transactions.
+     */
+    private Mono<ServerResponse> withDateRange(ServerRequest request, DateRangeHandler handler) {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = request.queryParam("from").map(LocalDate::parse).orElse(null);
+            to = request.queryParam("to").map(LocalDate::parse).orElse(null);
+        } catch (DateTimeParseException e) {
+            return ServerResponse.badRequest().build();
+        }
+
+        if (from == null && to == null) {
+            return handler.handle(null, null);
+        }
+        return handler.handle(from != null ? from : ArchiveService.EARLIEST_DATE, to != null ? to : ArchiveService.LATEST_DATE);
+    }
+
+    @FunctionalInterface
+    private interface DateRangeHandler {
+
+        Mono<ServerResponse> handle(LocalDate from, LocalDate to);
+    }
+}
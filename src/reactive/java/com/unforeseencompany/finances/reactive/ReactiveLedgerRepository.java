@@ -0,0 +1,163 @@
+package com.unforeseencompany.finances.reactive;
+
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Reads the ledger through R2DBC for the reactive listing endpoints. Rows are mapped to the JPA model
+ * classes, so both stacks serialize them identically. Hibernate's tenant restriction does not apply
+ * here, so every query takes the tenant as an explicit predicate.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveLedgerRepository {
+
+    private static final String CASH_FLOW_COLUMNS = "c.id, c.amount, c.description, c.transaction_date, c.transaction_type, "
+            + "a.id as account_id, a.name as account_name, a.initial_balance as account_initial_balance, a.balance as account_balance";
+
+    private static final String TRANSFER_COLUMNS = "t.id, t.amount, t.description, t.transaction_date, t.transaction_type, "
+            + "s.id as source_id, s.name as source_name, s.initial_balance as source_initial_balance, s.balance as source_balance, "
+            + "g.id as target_id, g.name as target_name, g.initial_balance as target_initial_balance, g.balance as target_balance";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Account> findAccountByName(String tenantId, String name) {
+        return databaseClient.sql("select id as account_id, name as account_name, initial_balance as account_initial_balance, "
+                        + "balance as account_balance from account where tenant_id = :tenantId and deleted_at is null and name = :name")
+                .bind("tenantId", tenantId)
+                .bind("name", name)
+                .map((row, metadata) -> toAccount(row, "account_"))
+                .first();
+    }
+
+    /**
+     * Streams the cash flows of the tenant, optionally of a single account. With a date range the archived
+     * cash flows dated in it come first; without one only the live cash flows are read.
+     */
+    public Flux<CashFlow> findCashFlows(String tenantId, Integer accountId, LocalDate from, LocalDate to) {
+        if (from == null) {
+            return queryCashFlows("cash_flow_transaction", tenantId, accountId, null, null);
+        }
+        return Flux.concat(
+                queryCashFlows("cash_flow_transaction_archive", tenantId, accountId, from, to),
+                queryCashFlows("cash_flow_transaction", tenantId, accountId, from, to));
+    }
+
+    /**
+     * Streams the transfers of the tenant, optionally from and then to a single account, in the same order as
+     * the servlet endpoints. The date range is handled as in {@link #findCashFlows}.
+     */
+    public Flux<Transfer> findTransfers(String tenantId, Integer accountId, LocalDate from, LocalDate to) {
+        if (from == null) {
+            return queryTransfers("transfer_transaction", tenantId, accountId, null, null);
+        }
+        return Flux.concat(
+                queryTransfers("transfer_transaction_archive", tenantId, accountId, from, to),
+                queryTransfers("transfer_transaction", tenantId, accountId, from, to));
+    }
+
+    private Flux<CashFlow> queryCashFlows(String table, String tenantId, Integer accountId, LocalDate from, LocalDate to) {
+        String sql = "select " + CASH_FLOW_COLUMNS + " from " + table + " c join account a on a.id = c.account_id "
+                + "where c.tenant_id = :tenantId"
+                + (isLive(table) ? " and c.deleted_at is null" : "")
+                + (accountId != null ? " and c.account_id = :accountId" : "")
+                + (from != null ? " and c.transaction_date between :from and :to" : "");
+
+        return bind(databaseClient.sql(sql), tenantId, accountId, from, to)
+                .map((row, metadata) -> toCashFlow(row))
+                .all();
+    }
+
+    private Flux<Transfer> queryTransfers(String table, String tenantId, Integer accountId, LocalDate from, LocalDate to) {
+        if (accountId == null) {
+            return queryTransfers(table, null, tenantId, null, from, to);
+        }
+        return Flux.concat(
+                queryTransfers(table, "source_account_id", tenantId, accountId, from, to),
+                queryTransfers(table, "target_account_id", tenantId, accountId, from, to));
+    }
+
+    private Flux<Transfer> queryTransfers(String table, String accountColumn, String tenantId, Integer accountId,
+                                          LocalDate from, LocalDate to) {
+        String sql = "select " + TRANSFER_COLUMNS + " from " + table + " t "
+                + "join account s on s.id = t.source_account_id join account g on g.id = t.target_account_id "
+                + "where t.tenant_id = :tenantId"
+                + (isLive(table) ? " and t.deleted_at is null" : "")
+                + (accountColumn != null ? " and t." + accountColumn + " = :accountId" : "")
+                + (from != null ? " and t.transaction_date between :from and :to" : "");
+
+        return bind(databaseClient.sql(sql), tenantId, accountId, from, to)
+                .map((row, metadata) -> toTransfer(row))
+                .all();
+    }
+
+    /**
+     * @return Whether the table is a live one, whose deleted rows wait there for the purge job.
+     */
+    private static boolean isLive(String table) {
+        return !table.endsWith("_archive");
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String tenantId, Integer accountId,
+                                                   LocalDate from, LocalDate to) {
+        spec = spec.bind("tenantId", tenantId);
+        if (accountId != null) {
+            spec = spec.bind("accountId", accountId);
+        }
+        if (from != null) {
+            spec = spec.bind("from", from).bind("to", to);
+        }
+        return spec;
+    }
+
+    private CashFlow toCashFlow(Row row) {
+        CashFlow cashFlow = new CashFlow();
+        cashFlow.setId(row.get("id", Integer.class));
+        cashFlow.setAmount(row.get("amount", BigDecimal.class));
+        cashFlow.setDescription(row.get("description", String.class));
+        cashFlow.setTransactionDate(row.get("transaction_date", LocalDate.class));
+        cashFlow.setTransactionType(toTransactionType(row));
+        cashFlow.setAccount(toAccount(row, "account_"));
+        return cashFlow;
+    }
+
+    private Transfer toTransfer(Row row) {
+        Transfer transfer = new Transfer();
+        transfer.setId(row.get("id", Integer.class));
+        transfer.setAmount(row.get("amount", BigDecimal.class));
+        transfer.setDescription(row.get("description", String.class));
+        transfer.setTransactionDate(row.get("transaction_date", LocalDate.class));
+        transfer.setTransactionType(toTransactionType(row));
+        transfer.setSourceAccount(toAccount(row, "source_"));
+        transfer.setTargetAccount(toAccount(row, "target_"));
+        return transfer;
+    }
+
+    private Account toAccount(Row row, String prefix) {
+        Account account = new Account();
+        account.setId(row.get(prefix + "id", Integer.class));
+        account.setName(row.get(prefix + "name", String.class));
+        account.setInitialBalance(row.get(prefix + "initial_balance", BigDecimal.class));
+        account.setBalance(row.get(prefix + "balance", BigDecimal.class));
+        return account;
+    }
+
+    /**
+     * The transaction type is stored as the enum's ordinal, as mapped by JPA.
+     */
+    private TransactionTypeEnum toTransactionType(Row row) {
+        Integer ordinal = row.get("transaction_type", Integer.class);
+        return ordinal != null ? TransactionTypeEnum.values()[ordinal] : null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.unforeseencompany.finances.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.unforeseencompany.finances.config.ReactiveProperties;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Runs the reactive listing endpoints on their own Reactor Netty server, next to the servlet container
+ * that keeps serving every endpoint, including all the writes through JPA.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReactiveServer implements SmartLifecycle {
+
+    Logger log = LoggerFactory.getLogger(ReactiveServer.class);
+
+    private final ReactiveLedgerHandler handler;
+
+    private final ReactiveProperties reactiveProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private volatile DisposableServer server;
+
+    @Override
+    public void start() {
+        RouterFunction<ServerResponse> routes = RouterFunctions.route()
+                .GET("/transactions", handler::listTransactions)
+                .GET("/cashflow/accountName/{accountName}", handler::listCashFlowTransactionsByAccountName)
+                .GET("/transfer/accountname/{accountName}", handler::listTransferTransactionsByAccountName)
+                .filter(handler::requireValidTenant)
+                .build();
+
+        // the application's object mapper, so dates and ignored fields are written as by the servlet endpoints
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(routes, strategies);
+
+        server = HttpServer.create()
+                .port(reactiveProperties.getPort())
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        log.info("Reactive listing endpoints started on port " + server.port());
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.disposeNow();
+            server = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
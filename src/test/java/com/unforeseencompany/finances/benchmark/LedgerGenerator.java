@@ -0,0 +1,328 @@
+package com.unforeseencompany.finances.benchmark;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Populates a tenant with a production-sized ledger: accounts and years of cash flows and transfers, loaded
+ * straight into MySQL with batched multi-row inserts.
+ * <p>
+ * Activity is skewed as in real ledgers: accounts are ranked by a Zipf distribution, so a few of them carry
+ * most of the transactions, and amounts are log-normal. Most accounts also get a monthly salary and a few
+ * recurring bills, which gives the forecast something to detect. Balances are computed while generating and
+ * written at the end, so the ledger reconciles.
+ * <p>
+ * The rows bypass the application, so generate into a tenant the running application has not served yet, or
+ * restart it afterwards; its caches would not know about them. For example:
+ * <pre>
+ * java ... LedgerGenerator --jdbc-url=jdbc:mysql://localhost:3306/finances --tenant=load --accounts=2000 --years=5
+ * </pre>
+ * Options: --jdbc-url (jdbc:mysql://localhost:3306/finances), --user and --password (DB_USERNAME and DB_PASSWORD),
+ * --tenant (load), --accounts (1000), --years (3), --monthly (20, random transactions per month of an average
+ * account), --skew (1.1, Zipf exponent), --transfer-ratio (0.2), --batch-size (5000), --seed (42).
+ */
+public class LedgerGenerator {
+
+    private static final int INCOME = 0;
+
+    private static final int EXPENSE = 1;
+
+    private static final int TRANSFER = 2;
+
+    private static final String[] EXPENSES = {"Groceries", "Restaurant", "Fuel", "Pharmacy", "Clothing", "Taxi",
+            "Coffee", "Books", "Hardware store", "Cinema", "Parking", "Gift"};
+
+    private static final String[] BILLS = {"Rent", "Electricity", "Internet", "Phone", "Gym", "Streaming", "Insurance"};
+
+    public static void main(String[] args) throws SQLException {
+        Map<String, String> options = parseOptions(args);
+        String jdbcUrl = options.getOrDefault("jdbc-url", "jdbc:mysql://localhost:3306/finances");
+        String user = options.getOrDefault("user", System.getenv("DB_USERNAME"));
+        String password = options.getOrDefault("password", System.getenv("DB_PASSWORD"));
+        String tenant = options.getOrDefault("tenant", "load");
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "1000"));
+        int years = Integer.parseInt(options.getOrDefault("years", "3"));
+        double monthly = Double.parseDouble(options.getOrDefault("monthly", "20"));
+        double skew = Double.parseDouble(options.getOrDefault("skew", "1.1"));
+        double transferRatio = Double.parseDouble(options.getOrDefault("transfer-ratio", "0.2"));
+        int batchSize = Integer.parseInt(options.getOrDefault("batch-size", "5000"));
+        Random random = new Random(Long.parseLong(options.getOrDefault("seed", "42")));
+
+        // the driver only turns a batch into multi-row inserts with this flag
+        String url = jdbcUrl + (jdbcUrl.contains("?") ? "&" : "?") + "rewriteBatchedStatements=true";
+        YearMonth firstMonth = YearMonth.now().minusYears(years);
+        long start = System.nanoTime();
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                // every reference is generated from accounts inserted first, so the checks can be skipped
+                statement.execute("set foreign_key_checks = 0, unique_checks = 0");
+            }
+
+            Ledger ledger = new Ledger(accountCount, skew, random);
+            insertAccounts(connection, tenant, ledger, firstMonth.atDay(1), batchSize);
+
+            long rows = 0;
+            try (Batch cashFlows = new Batch(connection, "insert into cash_flow_transaction "
+                    + "(tenant_id, amount, description, transaction_date, transaction_type, account_id) values (?, ?, ?, ?, ?, ?)", batchSize);
+                 Batch transfers = new Batch(connection, "insert into transfer_transaction "
+                         + "(tenant_id, amount, description, transaction_date, transaction_type, source_account_id, target_account_id) "
+                         + "values (?, ?, ?, ?, ?, ?, ?)", batchSize)) {
+
+                for (YearMonth month = firstMonth; !month.isAfter(YearMonth.now()); month = month.plusMonths(1)) {
+                    rows += generateMonth(month, tenant, ledger, monthly, transferRatio, random, cashFlows, transfers);
+                    System.out.println(month + ": " + rows + " transactions, "
+                            + (long) (rows / ((System.nanoTime() - start) / 1_000_000_000.0)) + " rows/s");
+                }
+            }
+
+            updateBalances(connection, ledger, batchSize);
+            connection.commit();
+            System.out.println("Generated " + accountCount + " accounts and " + rows + " transactions for tenant " + tenant
+                    + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * Generates the recurring and the random transactions of one month, in date order within each account.
+     *
+     * @return The number of transactions generated.
+     */
+    private static long generateMonth(YearMonth month, String tenant, Ledger ledger, double monthly, double transferRatio,
+                                      Random random, Batch cashFlows, Batch transfers) throws SQLException {
+        long rows = 0;
+        LocalDate today = LocalDate.now();
+
+        for (int i = 0; i < ledger.ids.length; i++) {
+            if (ledger.salaries[i] > 0) {
+                LocalDate date = month.atDay(5);
+                if (!date.isAfter(today)) {
+                    addCashFlow(cashFlows, tenant, ledger, i, ledger.salaries[i], "Salary", date, INCOME);
+                    rows++;
+                }
+            }
+            for (int b = 0; b < ledger.billAmounts[i].length; b++) {
+                LocalDate date = month.atDay(Math.min(ledger.billDays[i][b], month.lengthOfMonth()));
+                if (!date.isAfter(today)) {
+                    addCashFlow(cashFlows, tenant, ledger, i, ledger.billAmounts[i][b], BILLS[ledger.billNames[i][b]], date, EXPENSE);
+                    rows++;
+                }
+            }
+        }
+
+        int days = month.equals(YearMonth.from(today)) ? today.getDayOfMonth() : month.lengthOfMonth();
+        long count = Math.round(monthly * ledger.ids.length * days / month.lengthOfMonth());
+        for (long n = 0; n < count; n++) {
+            LocalDate date = month.atDay(1 + random.nextInt(days));
+            int account = ledger.pickAccount(random);
+
+            if (random.nextDouble() < transferRatio && ledger.ids.length > 1) {
+                int target = ledger.pickAccount(random);
+                while (target == account) {
+                    target = ledger.pickAccount(random);
+                }
+                long cents = logNormalCents(random, 200, 1.0);
+                transfers.add(tenant, BigDecimal.valueOf(cents, 2), "Transfer", Date.valueOf(date), TRANSFER,
+                        ledger.ids[account], ledger.ids[target]);
+                ledger.balances[account] -= cents;
+                ledger.balances[target] += cents;
+            } else if (random.nextDouble() < 0.1) {
+                addCashFlow(cashFlows, tenant, ledger, account, logNormalCents(random, 300, 1.2), "Refund", date, INCOME);
+            } else {
+                addCashFlow(cashFlows, tenant, ledger, account, logNormalCents(random, 35, 1.1),
+                        EXPENSES[random.nextInt(EXPENSES.length)], date, EXPENSE);
+            }
+            rows++;
+        }
+        return rows;
+    }
+
+    private static void addCashFlow(Batch cashFlows, String tenant, Ledger ledger, int account, long cents,
+                                    String description, LocalDate date, int type) throws SQLException {
+        cashFlows.add(tenant, BigDecimal.valueOf(cents, 2), description, Date.valueOf(date), type, ledger.ids[account]);
+        ledger.balances[account] += type == INCOME ? cents : -cents;
+    }
+
+    private static void insertAccounts(Connection connection, String tenant, Ledger ledger, LocalDate createdAt,
+                                       int batchSize) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("insert into account "
+                + "(tenant_id, name, initial_balance, balance, created_at) values (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+            for (int start = 0; start < ledger.ids.length; start += batchSize) {
+                int end = Math.min(start + batchSize, ledger.ids.length);
+                for (int i = start; i < end; i++) {
+                    BigDecimal initialBalance = BigDecimal.valueOf(ledger.initialBalances[i], 2);
+                    insert.setString(1, tenant);
+                    insert.setString(2, tenant + "-account-" + (i + 1));
+                    insert.setBigDecimal(3, initialBalance);
+                    insert.setBigDecimal(4, initialBalance);
+                    insert.setDate(5, Date.valueOf(createdAt));
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    for (int i = start; i < end && keys.next(); i++) {
+                        ledger.ids[i] = keys.getInt(1);
+                    }
+                }
+                connection.commit();
+            }
+        }
+    }
+
+    private static void updateBalances(Connection connection, Ledger ledger, int batchSize) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement("update account set balance = ? where id = ?")) {
+            for (int i = 0; i < ledger.ids.length; i++) {
+                update.setBigDecimal(1, BigDecimal.valueOf(ledger.balances[i], 2));
+                update.setInt(2, ledger.ids[i]);
+                update.addBatch();
+                if ((i + 1) % batchSize == 0) {
+                    update.executeBatch();
+                }
+            }
+            update.executeBatch();
+        }
+    }
+
+    /**
+     * @return A log-normal amount in cents with the given median in currency units.
+     */
+    private static long logNormalCents(Random random, double median, double sigma) {
+        return Math.max(1, Math.round(median * Math.exp(sigma * random.nextGaussian()) * 100));
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    /**
+     * The generated accounts, their recurring transactions, running balances in cents, and the cumulative
+     * Zipf weights the random transactions pick their account from.
+     */
+    private static class Ledger {
+
+        private final int[] ids;
+
+        private final long[] initialBalances;
+
+        private final long[] balances;
+
+        private final long[] salaries;
+
+        private final long[][] billAmounts;
+
+        private final int[][] billDays;
+
+        private final int[][] billNames;
+
+        private final double[] cumulativeWeights;
+
+        private Ledger(int accountCount, double skew, Random random) {
+            ids = new int[accountCount];
+            initialBalances = new long[accountCount];
+            balances = new long[accountCount];
+            salaries = new long[accountCount];
+            billAmounts = new long[accountCount][];
+            billDays = new int[accountCount][];
+            billNames = new int[accountCount][];
+            cumulativeWeights = new double[accountCount];
+
+            double total = 0;
+            for (int i = 0; i < accountCount; i++) {
+                initialBalances[i] = logNormalCents(random, 2_000, 1.0);
+                balances[i] = initialBalances[i];
+                salaries[i] = random.nextDouble() < 0.7 ? logNormalCents(random, 3_000, 0.5) : 0;
+
+                int bills = random.nextInt(4);
+                billAmounts[i] = new long[bills];
+                billDays[i] = new int[bills];
+                billNames[i] = new int[bills];
+                for (int b = 0; b < bills; b++) {
+                    billAmounts[i][b] = logNormalCents(random, 80, 0.8);
+                    billDays[i][b] = 1 + random.nextInt(28);
+                    billNames[i][b] = random.nextInt(BILLS.length);
+                }
+
+                total += 1 / Math.pow(i + 1, skew);
+                cumulativeWeights[i] = total;
+            }
+            for (int i = 0; i < accountCount; i++) {
+                cumulativeWeights[i] /= total;
+            }
+        }
+
+        /**
+         * @return The index of an account, the lower ones far more likely.
+         */
+        private int pickAccount(Random random) {
+            int index = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, ids.length - 1);
+        }
+    }
+
+    /**
+     * A prepared insert executed and committed every batch-size rows.
+     */
+    private static class Batch implements AutoCloseable {
+
+        private final Connection connection;
+
+        private final PreparedStatement statement;
+
+        private final int batchSize;
+
+        private int pending;
+
+        private Batch(Connection connection, String sql, int batchSize) throws SQLException {
+            this.connection = connection;
+            this.statement = connection.prepareStatement(sql);
+            this.batchSize = batchSize;
+        }
+
+        private void add(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++pending == batchSize) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                pending = 0;
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.unforeseencompany.finances.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives the REST endpoints of the accounts, cash flows, transfers and transactions with a mixed workload and
+ * reports the throughput and the latency percentiles of each operation, to compare builds.
+ * <p>
+ * Several clients pick operations at random by the weights of the mix, against the accounts the tenant already
+ * has, e.g. the ones {@link LedgerGenerator} created. By default each client sends its next request as soon as
+ * the previous one answers. With --rate the clients instead follow a fixed schedule and latencies are measured
+ * from the time each request was due, so a stalled server shows in the percentiles instead of merely slowing
+ * down the clients. Latencies are recorded in HDR histograms, in microseconds; the warm-up is not recorded.
+ * <p>
+ * The report is written as JSON, with the summary of each operation and its compressed histogram, so runs of
+ * different builds can be compared or merged later. Start the application with
+ * {@code finances.rate-limit.enabled=false}, then run e.g.:
+ * <pre>
+ * java ... LedgerLoadTest --url=http://localhost:8080 --tenant=load --clients=32 --duration=120 --label=baseline
+ * </pre>
+ * Options: --url (http://localhost:8080), --tenant (load), --clients (16), --warmup (30s), --duration (60s),
+ * --rate (0, requests per second over all clients, 0 for as fast as possible), --mix (e.g.
+ * "account-get:20,cashflow-create:25", the unlisted operations are left out), --label (run),
+ * --report (target/load-test-&lt;label&gt;.json). Created rows are left in place.
+ */
+public class LedgerLoadTest {
+
+    private static final Pattern ACCOUNT = Pattern.compile("\"id\":([0-9]+),\"name\":\"([^\"]*)\"");
+
+    /**
+     * Default weight of each operation.
+     */
+    private static final Map<String, Integer> DEFAULT_MIX = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_MIX.put("account-get", 20);
+        DEFAULT_MIX.put("account-list", 3);
+        DEFAULT_MIX.put("account-create", 2);
+        DEFAULT_MIX.put("cashflow-list", 15);
+        DEFAULT_MIX.put("transfer-list", 10);
+        DEFAULT_MIX.put("transactions-lean", 5);
+        DEFAULT_MIX.put("cashflow-create", 30);
+        DEFAULT_MIX.put("transfer-create", 15);
+    }
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        String tenant = options.getOrDefault("tenant", "load");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "30"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "60"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "0"));
+        String label = options.getOrDefault("label", "run");
+        String report = options.getOrDefault("report", "target/load-test-" + label + ".json");
+        Map<String, Integer> mix = options.containsKey("mix") ? parseMix(options.get("mix")) : DEFAULT_MIX;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        List<Account> accounts = listAccounts(httpClient, url, tenant);
+        if (accounts.size() < 2) {
+            throw new IllegalStateException("Tenant " + tenant + " needs at least two accounts, run LedgerGenerator first");
+        }
+
+        Workload workload = new Workload(httpClient, url, tenant, accounts, mix);
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+        // each client is due every clients / rate seconds, so together they send rate requests per second
+        long intervalNanos = rate > 0 ? (long) (1_000_000_000L * clients / rate) : 0;
+
+        System.out.println("Warming up for " + warmupSeconds + "s, then measuring for " + durationSeconds + "s with "
+                + clients + " clients against " + accounts.size() + " accounts");
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<Client>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> new Client(mix.keySet()).run(workload, warmupEnd, end, intervalNanos)));
+        }
+
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        Map<String, Long> errors = new HashMap<>();
+        for (Future<Client> future : futures) {
+            Client client = future.get();
+            client.histograms.forEach((operation, histogram) ->
+                    histograms.computeIfAbsent(operation, o -> newHistogram()).add(histogram));
+            client.errors.forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+        }
+        executor.shutdown();
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        Histogram total = newHistogram();
+        long totalErrors = 0;
+        System.out.println(String.format("%-18s %10s %8s %10s %10s %10s %10s %10s %10s", "operation", "requests",
+                "errors", "req/s", "p50 (us)", "p90 (us)", "p99 (us)", "p99.9 (us)", "max (us)"));
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long operationErrors = errors.getOrDefault(entry.getKey(), 0L);
+            operations.put(entry.getKey(), summarize(histogram, operationErrors, durationSeconds));
+            printRow(entry.getKey(), histogram, operationErrors, durationSeconds);
+            total.add(histogram);
+            totalErrors += operationErrors;
+        }
+        printRow("total", total, totalErrors, durationSeconds);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", label);
+        result.put("timestamp", Instant.now().toString());
+        result.put("url", url);
+        result.put("tenant", tenant);
+        result.put("clients", clients);
+        result.put("rate", rate);
+        result.put("warmupSeconds", warmupSeconds);
+        result.put("durationSeconds", durationSeconds);
+        result.put("accounts", accounts.size());
+        result.put("mix", mix);
+        result.put("total", summarize(total, totalErrors, durationSeconds));
+        result.put("operations", operations);
+
+        File reportFile = new File(report);
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, result);
+        System.out.println("Report written to " + reportFile.getPath());
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    }
+
+    private static Map<String, Object> summarize(Histogram histogram, long errors, long durationSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("errors", errors);
+        summary.put("throughput", histogram.getTotalCount() / (double) durationSeconds);
+        summary.put("meanMicros", histogram.getMean());
+        summary.put("p50Micros", histogram.getValueAtPercentile(50));
+        summary.put("p90Micros", histogram.getValueAtPercentile(90));
+        summary.put("p99Micros", histogram.getValueAtPercentile(99));
+        summary.put("p999Micros", histogram.getValueAtPercentile(99.9));
+        summary.put("maxMicros", histogram.getMaxValue());
+
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        summary.put("histogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        return summary;
+    }
+
+    private static void printRow(String operation, Histogram histogram, long errors, long durationSeconds) {
+        System.out.println(String.format("%-18s %10d %8d %10.1f %10d %10d %10d %10d %10d", operation,
+                histogram.getTotalCount(), errors, histogram.getTotalCount() / (double) durationSeconds,
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+    }
+
+    private static List<Account> listAccounts(HttpClient httpClient, String url, String tenant) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/accounts"))
+                .header("X-Tenant-Id", tenant)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IllegalStateException("Could not list the accounts: " + response.statusCode() + " " + response.body());
+        }
+        List<Account> accounts = new ArrayList<>();
+        Matcher matcher = ACCOUNT.matcher(response.body());
+        while (matcher.find()) {
+            accounts.add(new Account(Integer.parseInt(matcher.group(1)), matcher.group(2)));
+        }
+        return accounts;
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (!DEFAULT_MIX.containsKey(parts[0])) {
+                throw new IllegalArgumentException("Unknown operation " + parts[0] + ", expected one of " + DEFAULT_MIX.keySet());
+            }
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private record Account(int id, String name) {
+    }
+
+    /**
+     * Builds and sends the requests of each operation.
+     */
+    private static class Workload {
+
+        private final HttpClient httpClient;
+
+        private final String url;
+
+        private final String tenant;
+
+        private final List<Account> accounts;
+
+        private final String[] operations;
+
+        private final int[] cumulativeWeights;
+
+        private Workload(HttpClient httpClient, String url, String tenant, List<Account> accounts, Map<String, Integer> mix) {
+            this.httpClient = httpClient;
+            this.url = url;
+            this.tenant = tenant;
+            this.accounts = accounts;
+            this.operations = mix.keySet().toArray(new String[0]);
+            this.cumulativeWeights = new int[operations.length];
+            int total = 0;
+            for (int i = 0; i < operations.length; i++) {
+                total += mix.get(operations[i]);
+                cumulativeWeights[i] = total;
+            }
+        }
+
+        private String pickOperation(ThreadLocalRandom random) {
+            int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < operations.length; i++) {
+                if (value < cumulativeWeights[i]) {
+                    return operations[i];
+                }
+            }
+            return operations[operations.length - 1];
+        }
+
+        private HttpRequest buildRequest(String operation, ThreadLocalRandom random) {
+            Account account = accounts.get(random.nextInt(accounts.size()));
+            LocalDate today = LocalDate.now();
+            String amount = BigDecimal.valueOf(random.nextInt(1, 20_000), 2).toPlainString();
+
+            return switch (operation) {
+                case "account-get" -> get("/accounts/" + account.id());
+                case "account-list" -> get("/accounts");
+                case "account-create" -> post("/accounts", "{\"name\":\"load-" + System.nanoTime() + "-" + random.nextInt(1_000_000)
+                        + "\",\"initialBalance\":1000}");
+                case "cashflow-list" -> get("/cashflow/accountName/" + encode(account.name())
+                        + "?from=" + today.minusDays(90) + "&to=" + today);
+                case "transfer-list" -> get("/transfer/accountname/" + encode(account.name())
+                        + "?from=" + today.minusDays(90) + "&to=" + today);
+                case "transactions-lean" -> get("/transactions?view=LEAN&from=" + today.minusDays(7) + "&to=" + today);
+                case "cashflow-create" -> post("/cashflow", "{\"amount\":" + amount + ",\"description\":\"load\","
+                        + "\"transactionDate\":\"" + today + "\",\"transactionType\":\"" + (random.nextInt(5) == 0 ? "INCOME" : "EXPENSE")
+                        + "\",\"accountId\":" + account.id() + "}");
+                case "transfer-create" -> {
+                    Account target = accounts.get(random.nextInt(accounts.size()));
+                    while (target.id() == account.id()) {
+                        target = accounts.get(random.nextInt(accounts.size()));
+                    }
+                    yield post("/transfer", "{\"amount\":" + amount + ",\"description\":\"load\",\"transactionDate\":\"" + today
+                            + "\",\"sourceAccountId\":" + account.id() + ",\"targetAccountId\":" + target.id() + "}");
+                }
+                default -> throw new IllegalArgumentException("Unknown operation " + operation);
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(url + path))
+                    .header("X-Tenant-Id", tenant)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+
+        private HttpRequest post(String path, String body) {
+            return HttpRequest.newBuilder(URI.create(url + path))
+                    .header("Content-Type", "application/json")
+                    .header("X-Tenant-Id", tenant)
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        private static String encode(String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+        }
+    }
+
+    /**
+     * One client's loop and its own histograms, merged once it is done so recording needs no synchronization.
+     */
+    private static class Client {
+
+        private final Map<String, Histogram> histograms = new HashMap<>();
+
+        private final Map<String, Long> errors = new HashMap<>();
+
+        private Client(Iterable<String> operations) {
+            for (String operation : operations) {
+                histograms.put(operation, newHistogram());
+            }
+        }
+
+        private Client run(Workload workload, long warmupEnd, long end, long intervalNanos) throws InterruptedException {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // spread the clients' schedules over one interval so they do not fire together
+            long due = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+
+            while (true) {
+                if (intervalNanos > 0) {
+                    long wait = due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                }
+                long start = intervalNanos > 0 ? due : System.nanoTime();
+                if (start - end >= 0) {
+                    return this;
+                }
+
+                String operation = workload.pickOperation(random);
+                boolean success = send(workload, workload.buildRequest(operation, random));
+                long latencyMicros = (System.nanoTime() - start) / 1_000;
+
+                if (start - warmupEnd >= 0) {
+                    if (success) {
+                        histograms.get(operation).recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+                    } else {
+                        errors.merge(operation, 1L, Long::sum);
+                    }
+                }
+                due += intervalNanos;
+            }
+        }
+
+        private boolean send(Workload workload, HttpRequest request) throws InterruptedException {
+            try {
+                HttpResponse<Void> response = workload.httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() < 400;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.unforeseencompany.finances.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the JDBC statements the cash flow and transfer write paths cost, to compare runs with and
+ * without the Hibernate second-level cache.
+ * <p>
+ * Creates two accounts, then posts the given number of cash flows and transfers between them one by one,
+ * and reads the application's Hibernate metrics from the actuator before and after each phase: prepared
+ * statements, and second-level cache hits and misses of the account region.
+ * <p>
+ * Start the application with {@code spring.jpa.properties.hibernate.generate_statistics=true}, once with
+ * {@code finances.second-level-cache.enabled=false} and once with it set to true, and run against each, e.g.:
+ * <pre>
+ * java ... SecondLevelCacheBenchmark --url=http://localhost:8080 --writes=2000
+ * </pre>
+ * Options: --url (http://localhost:8080), --writes (2000), --tenant (benchmark). The tenant's accounts are
+ * left in place.
+ */
+public class SecondLevelCacheBenchmark {
+
+    private static final Pattern METRIC_COUNT = Pattern.compile("\"statistic\":\"COUNT\",\"value\":([0-9.E-]+)");
+
+    private static final Pattern ID = Pattern.compile("\"id\":([0-9]+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int writes = Integer.parseInt(options.getOrDefault("writes", "2000"));
+        String tenant = options.getOrDefault("tenant", "benchmark");
+
+        HttpClient httpClient = HttpClient.newHttpClient();
+        long suffix = System.currentTimeMillis();
+        int sourceId = createAccount(httpClient, url, tenant, "benchmark-source-" + suffix);
+        int targetId = createAccount(httpClient, url, tenant, "benchmark-target-" + suffix);
+        String date = LocalDate.now().toString();
+
+        System.out.println(String.format("%10s %8s %14s %12s %12s %12s %12s", "path", "writes", "statements", "per write",
+                "cache hits", "cache misses", "ms per write"));
+
+        run(httpClient, url, "/cashflow", writes, i -> "{\"amount\":" + (i % 100 + 1) + ",\"description\":\"benchmark\","
+                + "\"transactionDate\":\"" + date + "\",\"transactionType\":\"" + (i % 2 == 0 ? "INCOME" : "EXPENSE") + "\","
+                + "\"accountId\":" + (i % 2 == 0 ? sourceId : targetId) + "}", tenant);
+        run(httpClient, url, "/transfer", writes, i -> "{\"amount\":" + (i % 100 + 1) + ",\"description\":\"benchmark\","
+                + "\"transactionDate\":\"" + date + "\",\"sourceAccountId\":" + (i % 2 == 0 ? sourceId : targetId)
+                + ",\"targetAccountId\":" + (i % 2 == 0 ? targetId : sourceId) + "}", tenant);
+    }
+
+    private static void run(HttpClient httpClient, String url, String path, int writes,
+                            IntFunction<String> body, String tenant) throws IOException, InterruptedException {
+        Map<String, Double> before = sampleMetrics(httpClient, url);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < writes; i++) {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + path))
+                    .header("Content-Type", "application/json")
+                    .header("X-Tenant-Id", tenant)
+                    .POST(HttpRequest.BodyPublishers.ofString(body.apply(i)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() >= 300) {
+                throw new IllegalStateException("POST " + path + " returned " + response.statusCode() + ": " + response.body());
+            }
+        }
+
+        double elapsedMillis = (System.nanoTime() - start) / 1_000_000.0;
+        Map<String, Double> after = sampleMetrics(httpClient, url);
+        double statements = after.get("statements") - before.get("statements");
+        System.out.println(String.format("%10s %8d %14.0f %12.2f %12.0f %12.0f %12.2f", path, writes, statements, statements / writes,
+                after.get("hits") - before.get("hits"), after.get("misses") - before.get("misses"), elapsedMillis / writes));
+    }
+
+    private static int createAccount(HttpClient httpClient, String url, String tenant, String name) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/accounts"))
+                .header("Content-Type", "application/json")
+                .header("X-Tenant-Id", tenant)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"" + name + "\",\"initialBalance\":1000000}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ID.matcher(response.body());
+        if (response.statusCode() >= 300 || !matcher.find()) {
+            throw new IllegalStateException("Could not create account " + name + ": " + response.statusCode() + " " + response.body());
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    /**
+     * Reads the Hibernate counters from the actuator. Counters that do not exist, such as the cache requests of
+     * an application running without the second-level cache, are reported as zero.
+     */
+    private static Map<String, Double> sampleMetrics(HttpClient httpClient, String url) throws IOException, InterruptedException {
+        Map<String, Double> values = new HashMap<>();
+        values.put("statements", sampleCount(httpClient, url + "/actuator/metrics/hibernate.statements?tag=status:prepared"));
+        values.put("hits", sampleCount(httpClient, url + "/actuator/metrics/hibernate.second.level.cache.requests?tag=result:hit&tag=region:account"));
+        values.put("misses", sampleCount(httpClient, url + "/actuator/metrics/hibernate.second.level.cache.requests?tag=result:miss&tag=region:account"));
+        return values;
+    }
+
+    private static double sampleCount(HttpClient httpClient, String metricUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(metricUrl))
+                .timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = METRIC_COUNT.matcher(response.body());
+        return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : 0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,137 @@
+package com.unforeseencompany.finances.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.unforeseencompany.finances.dto.transaction.TransactionRowDTO;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.model.transaction.Transaction;
+import com.unforeseencompany.finances.model.transaction.Transfer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the cost and size of the /transactions response in its current form and in the lean formats.
+ * <p>
+ * Builds a listing of synthetic cash flows and transfers in memory and serializes it repeatedly with each
+ * combination: the full entities as today, the flat rows, the flat rows with Blackbird, and the flat rows as
+ * Smile and CBOR. Reports the mean serialization time after warm-up, the size and the gzip-compressed size.
+ * No server or database is needed:
+ * <pre>
+ * java ... SerializationBenchmark --rows=100000 --iterations=20
+ * </pre>
+ * Options: --rows (100000), --accounts (50), --warmup (5), --iterations (20).
+ */
+public class SerializationBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        int rows = Integer.parseInt(options.getOrDefault("rows", "100000"));
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "50"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "20"));
+
+        List<Transaction> transactions = buildTransactions(rows, accountCount);
+        List<TransactionRowDTO> leanRows = transactions.stream().map(TransactionRowDTO::of).toList();
+
+        ObjectMapper json = baseMapper(new ObjectMapper());
+        ObjectMapper blackbird = baseMapper(new ObjectMapper()).registerModule(new BlackbirdModule());
+        ObjectMapper smile = baseMapper(new ObjectMapper(new SmileFactory())).registerModule(new BlackbirdModule());
+        ObjectMapper cbor = baseMapper(new ObjectMapper(new CBORFactory())).registerModule(new BlackbirdModule());
+
+        System.out.println("Serializing " + rows + " transactions, " + iterations + " iterations after " + warmup + " of warm-up");
+        System.out.println(String.format("%-28s %12s %14s %14s", "format", "ms", "bytes", "gzip bytes"));
+        run("full entities, JSON", json, transactions, warmup, iterations);
+        run("lean rows, JSON", json, leanRows, warmup, iterations);
+        run("lean rows, JSON, Blackbird", blackbird, leanRows, warmup, iterations);
+        run("lean rows, Smile, Blackbird", smile, leanRows, warmup, iterations);
+        run("lean rows, CBOR, Blackbird", cbor, leanRows, warmup, iterations);
+    }
+
+    private static void run(String name, ObjectMapper mapper, Object body, int warmup, int iterations) throws IOException {
+        for (int i = 0; i < warmup; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), body);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), body);
+        }
+        double meanMillis = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        }
+        System.out.println(String.format("%-28s %12.1f %14d %14d", name, meanMillis, bytes.length, compressed.size()));
+    }
+
+    /**
+     * Configures a mapper like the application's: Java time support and dates written as strings.
+     */
+    private static ObjectMapper baseMapper(ObjectMapper mapper) {
+        return mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static List<Transaction> buildTransactions(int rows, int accountCount) {
+        List<Account> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setId(i + 1);
+            account.setName("Account " + (i + 1));
+            account.setInitialBalance(BigDecimal.valueOf(100_000, 2));
+            account.setBalance(BigDecimal.valueOf(123_456, 2));
+            account.setCreatedAt(LocalDate.of(2020, 1, 1));
+            accounts.add(account);
+        }
+
+        List<Transaction> transactions = new ArrayList<>(rows);
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction;
+            if (i % 4 == 3) {
+                Transfer transfer = new Transfer();
+                transfer.setSourceAccount(accounts.get(i % accountCount));
+                transfer.setTargetAccount(accounts.get((i + 1) % accountCount));
+                transfer.setTransactionType(TransactionTypeEnum.TRANSFER);
+                transaction = transfer;
+            } else {
+                CashFlow cashFlow = new CashFlow();
+                cashFlow.setAccount(accounts.get(i % accountCount));
+                cashFlow.setTransactionType(i % 2 == 0 ? TransactionTypeEnum.INCOME : TransactionTypeEnum.EXPENSE);
+                transaction = cashFlow;
+            }
+            transaction.setId(i + 1);
+            transaction.setAmount(BigDecimal.valueOf(1_000 + (i * 37L) % 100_000, 2));
+            transaction.setDescription("Transaction " + (i + 1));
+            transaction.setTransactionDate(start.plusDays(i % 2_000));
+            transactions.add(transaction);
+        }
+        return transactions;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
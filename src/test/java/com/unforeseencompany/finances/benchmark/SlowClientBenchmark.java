@@ -0,0 +1,218 @@
+package com.unforeseencompany.finances.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the servlet and the reactive listing endpoints under many slow clients.
+ * <p>
+ * Opens the given number of connections to a listing endpoint from a single selector thread. Each client
+ * sends its request and then reads the response at a fixed, slow rate, so the server has to keep the
+ * response open for a long time. While the clients read, the benchmark samples the application's own
+ * metrics from the actuator: live JVM threads, busy JDBC connections and acquired R2DBC connections.
+ * <p>
+ * Start the application built with {@code mvn -Preactive}, load a tenant with enough transactions that a
+ * response is much larger than the socket buffers, then run for each stack, e.g.:
+ * <pre>
+ * java ... SlowClientBenchmark --url=http://localhost:8080/transactions --clients=5000
+ * java ... SlowClientBenchmark --url=http://localhost:8081/transactions --clients=5000
+ * </pre>
+ * Options: --url, --clients (5000), --bytes-per-second per client (2048), --duration (PT60S),
+ * --tenant (default), --metrics (http://localhost:8080/actuator/metrics). The client side needs a file
+ * descriptor limit above the number of clients.
+ */
+public class SlowClientBenchmark {
+
+    private static final Pattern METRIC_VALUE = Pattern.compile("\"statistic\":\"VALUE\",\"value\":([0-9.E-]+)");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8080/transactions"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "5000"));
+        int bytesPerSecond = Integer.parseInt(options.getOrDefault("bytes-per-second", "2048"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        String tenant = options.getOrDefault("tenant", "default");
+        String metrics = options.getOrDefault("metrics", "http://localhost:8080/actuator/metrics");
+
+        System.out.println("Benchmarking " + url + " with " + clients + " clients reading " + bytesPerSecond + " B/s each for " + duration);
+        System.out.println(String.format("%8s %10s %10s %12s %12s %12s %12s", "second", "connected", "completed",
+                "received MB", "jvm threads", "jdbc active", "r2dbc active"));
+
+        HttpClient metricsClient = HttpClient.newHttpClient();
+        Map<String, Double> baseline = sampleMetrics(metricsClient, metrics);
+        System.out.println(String.format("%8s %10s %10s %12s %12.0f %12.0f %12.0f", "idle", "-", "-", "-",
+                baseline.get("jvm.threads.live"), baseline.get("hikaricp.connections.active"), baseline.get("r2dbc.pool.acquired")));
+
+        try (Selector selector = Selector.open()) {
+            List<Client> all = new ArrayList<>(clients);
+            byte[] request = ("GET " + url.getRawPath() + (url.getRawQuery() != null ? "?" + url.getRawQuery() : "") + " HTTP/1.1\r\n"
+                    + "Host: " + url.getHost() + ":" + url.getPort() + "\r\n"
+                    + "Accept: application/json\r\n"
+                    + "X-Tenant-Id: " + tenant + "\r\n"
+                    + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+            for (int i = 0; i < clients; i++) {
+                SocketChannel channel = SocketChannel.open();
+                // a small receive window makes the server block on the slow reader instead of buffering the whole response
+                channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+                channel.configureBlocking(false);
+                channel.connect(new InetSocketAddress(url.getHost(), url.getPort()));
+                Client client = new Client(channel, ByteBuffer.wrap(request));
+                channel.register(selector, SelectionKey.OP_CONNECT, client);
+                all.add(client);
+            }
+
+            long tickMillis = 100;
+            int bytesPerTick = Math.max(1, (int) (bytesPerSecond * tickMillis / 1000));
+            ByteBuffer readBuffer = ByteBuffer.allocate(bytesPerTick);
+            long start = System.nanoTime();
+            long nextReport = start + 1_000_000_000L;
+            long nextTick = start;
+
+            while (System.nanoTime() - start < duration.toNanos()) {
+                selector.select(key -> handleSetup(key), 10);
+
+                long now = System.nanoTime();
+                if (now >= nextTick) {
+                    nextTick = now + tickMillis * 1_000_000L;
+                    for (Client client : all) {
+                        client.readSlowly(readBuffer);
+                    }
+                }
+                if (now >= nextReport) {
+                    nextReport = now + 1_000_000_000L;
+                    report(all, sampleMetrics(metricsClient, metrics), (now - start) / 1_000_000_000L);
+                }
+            }
+
+            for (Client client : all) {
+                client.close();
+            }
+        }
+    }
+
+    private static void handleSetup(SelectionKey key) {
+        Client client = (Client) key.attachment();
+        try {
+            if (key.isConnectable() && client.channel.finishConnect()) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            }
+            if (key.isValid() && key.isWritable()) {
+                client.channel.write(client.request);
+                if (!client.request.hasRemaining()) {
+                    client.connected = true;
+                    key.interestOps(0);
+                }
+            }
+        } catch (IOException e) {
+            client.close();
+        }
+    }
+
+    private static void report(List<Client> clients, Map<String, Double> metrics, long second) {
+        long connected = clients.stream().filter(client -> client.connected).count();
+        long completed = clients.stream().filter(client -> client.completed).count();
+        long received = clients.stream().mapToLong(client -> client.received).sum();
+        System.out.println(String.format("%8d %10d %10d %12.1f %12.0f %12.0f %12.0f", second, connected, completed,
+                received / 1_048_576.0, metrics.get("jvm.threads.live"), metrics.get("hikaricp.connections.active"),
+                metrics.get("r2dbc.pool.acquired")));
+    }
+
+    /**
+     * Reads the metrics from the actuator. Metrics that do not exist, such as the R2DBC pool of an application
+     * built without the reactive profile, are reported as NaN.
+     */
+    private static Map<String, Double> sampleMetrics(HttpClient httpClient, String metricsUrl) {
+        Map<String, Double> values = new HashMap<>();
+        for (String metric : List.of("jvm.threads.live", "hikaricp.connections.active", "r2dbc.pool.acquired")) {
+            double value = Double.NaN;
+            try {
+                HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(metricsUrl + "/" + metric))
+                        .timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+                Matcher matcher = METRIC_VALUE.matcher(response.body());
+                if (response.statusCode() == 200 && matcher.find()) {
+                    value = Double.parseDouble(matcher.group(1));
+                }
+            } catch (IOException e) {
+                // the server may be too busy to answer; report the sample as missing
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            values.put(metric, value);
+        }
+        return values;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static class Client {
+
+        private final SocketChannel channel;
+
+        private final ByteBuffer request;
+
+        private boolean connected;
+
+        private boolean completed;
+
+        private long received;
+
+        Client(SocketChannel channel, ByteBuffer request) {
+            this.channel = channel;
+            this.request = request;
+        }
+
+        void readSlowly(ByteBuffer buffer) {
+            if (!connected || completed) {
+                return;
+            }
+            buffer.clear();
+            try {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    completed = true;
+                    close();
+                } else {
+                    received += read;
+                }
+            } catch (IOException e) {
+                completed = true;
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // already closed
+            }
+        }
+    }
+}
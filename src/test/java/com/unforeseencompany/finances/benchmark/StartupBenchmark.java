@@ -0,0 +1,138 @@
+package com.unforeseencompany.finances.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures how long a build of the application takes to start and how much memory it holds once started,
+ * to compare the plain jar with the AOT-processed jar, the CDS run and the native image.
+ * <p>
+ * Starts the given command several times. For each run it reports the startup time Spring logs, the time
+ * until /actuator/health answers, and the resident set size of the process at that point, read from /proc
+ * (Linux only). The process is then stopped with SIGTERM, which is also when a JVM started with
+ * -XX:ArchiveClassesAtExit writes its CDS archive, so the same harness performs the training run, e.g.:
+ * <pre>
+ * java ... StartupBenchmark --command="java -jar target/finances-0.0.1-SNAPSHOT.jar" --runs=5
+ * java ... StartupBenchmark --command="target/finances" --runs=5
+ * </pre>
+ * Options: --command (required, split on spaces), --runs (5), --url (http://localhost:8080), --timeout (120s).
+ * The database must be reachable, as for a normal start.
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started FinancesApplication in ([0-9.]+) seconds");
+
+    private static final Pattern RSS = Pattern.compile("VmRSS:\\s+([0-9]+) kB");
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String command = options.get("command");
+        if (command == null) {
+            throw new IllegalArgumentException("--command is required");
+        }
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "120")));
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        List<double[]> results = new ArrayList<>();
+
+        System.out.println(String.format("%5s %14s %14s %10s", "run", "started (ms)", "healthy (ms)", "RSS (MB)"));
+        for (int run = 1; run <= runs; run++) {
+            double[] result = run(command, httpClient, url, timeout);
+            results.add(result);
+            System.out.println(String.format("%5d %14.0f %14.0f %10.1f", run, result[0], result[1], result[2]));
+        }
+
+        System.out.println(String.format("%5s %14.0f %14.0f %10.1f", "mean",
+                results.stream().mapToDouble(r -> r[0]).average().orElse(0),
+                results.stream().mapToDouble(r -> r[1]).average().orElse(0),
+                results.stream().mapToDouble(r -> r[2]).average().orElse(0)));
+    }
+
+    /**
+     * @return The startup time Spring logged in milliseconds, the time until healthy in milliseconds, and the RSS in megabytes.
+     */
+    private static double[] run(String command, HttpClient httpClient, String url, Duration timeout) throws Exception {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(Arrays.asList(command.split(" +"))).redirectErrorStream(true).start();
+        AtomicReference<Double> startedMillis = new AtomicReference<>(Double.NaN);
+
+        Thread reader = new Thread(() -> {
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    Matcher matcher = STARTED.matcher(line);
+                    if (matcher.find()) {
+                        startedMillis.set(Double.parseDouble(matcher.group(1)) * 1000);
+                    }
+                }
+            } catch (IOException e) {
+                // the process was stopped
+            }
+        });
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            long deadline = start + timeout.toNanos();
+            while (!isHealthy(httpClient, url)) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The application exited with status " + process.exitValue());
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new IllegalStateException("The application was not healthy after " + timeout);
+                }
+                Thread.sleep(10);
+            }
+            double healthyMillis = (System.nanoTime() - start) / 1_000_000.0;
+            double rssMegabytes = readRssKilobytes(process.pid()) / 1024.0;
+            return new double[]{startedMillis.get(), healthyMillis, rssMegabytes};
+        } finally {
+            process.destroy();
+            process.waitFor();
+            reader.join(1000);
+        }
+    }
+
+    private static boolean isHealthy(HttpClient httpClient, String url) throws InterruptedException {
+        try {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(1)).build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long readRssKilobytes(long pid) throws IOException {
+        Matcher matcher = RSS.matcher(Files.readString(Path.of("/proc/" + pid + "/status")));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,204 @@
+package com.unforeseencompany.finances.benchmark;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the commits and statements each write request costs, the write throughput under concurrency, and
+ * whether concurrent writes to the same accounts lose balance updates, to compare builds before and after a
+ * change to the write path.
+ * <p>
+ * Creates a few accounts, then has several clients post cash flows and transfers between them at random,
+ * all contending for the same rows. The expected balances are tracked from the successful responses and
+ * compared with the balances the application reports at the end. Commits and statements are read from the
+ * application's Hibernate metrics.
+ * <p>
+ * Start the application with {@code spring.jpa.properties.hibernate.generate_statistics=true} and
+ * {@code finances.rate-limit.enabled=false}, then run e.g.:
+ * <pre>
+ * java ... UnitOfWorkBenchmark --url=http://localhost:8080 --clients=16 --writes=5000
+ * </pre>
+ * Options: --url (http://localhost:8080), --clients (16), --writes (5000, in total), --accounts (4),
+ * --tenant (benchmark). The tenant's accounts are left in place.
+ */
+public class UnitOfWorkBenchmark {
+
+    private static final Pattern METRIC_COUNT = Pattern.compile("\"statistic\":\"COUNT\",\"value\":([0-9.E-]+)");
+
+    private static final Pattern ID = Pattern.compile("\"id\":([0-9]+)");
+
+    private static final Pattern BALANCE = Pattern.compile("\"balance\":([0-9.E+-]+)");
+
+    private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String url = options.getOrDefault("url", "http://localhost:8080");
+        int clients = Integer.parseInt(options.getOrDefault("clients", "16"));
+        int writes = Integer.parseInt(options.getOrDefault("writes", "5000"));
+        int accountCount = Integer.parseInt(options.getOrDefault("accounts", "4"));
+        String tenant = options.getOrDefault("tenant", "benchmark");
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long suffix = System.currentTimeMillis();
+        int[] accountIds = new int[accountCount];
+        for (int i = 0; i < accountCount; i++) {
+            accountIds[i] = createAccount(httpClient, url, tenant, "uow-" + suffix + "-" + i);
+        }
+
+        // expected change of each account's balance, in cents, from the writes that succeeded
+        Map<Integer, AtomicInteger> expectedCents = new HashMap<>();
+        for (int accountId : accountIds) {
+            expectedCents.put(accountId, new AtomicInteger());
+        }
+        AtomicInteger remaining = new AtomicInteger(writes);
+        AtomicInteger failures = new AtomicInteger();
+        String date = LocalDate.now().toString();
+
+        Map<String, Double> before = sampleMetrics(httpClient, url);
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (remaining.getAndDecrement() > 0) {
+                    int source = accountIds[random.nextInt(accountIds.length)];
+                    int target = accountIds[random.nextInt(accountIds.length)];
+                    int cents = random.nextInt(1, 10_000);
+                    String amount = BigDecimal.valueOf(cents, 2).toPlainString();
+
+                    boolean transfer = random.nextBoolean();
+                    boolean income = random.nextBoolean();
+                    String path = transfer ? "/transfer" : "/cashflow";
+                    String body = transfer
+                            ? "{\"amount\":" + amount + ",\"description\":\"uow\",\"transactionDate\":\"" + date + "\","
+                                    + "\"sourceAccountId\":" + source + ",\"targetAccountId\":" + target + "}"
+                            : "{\"amount\":" + amount + ",\"description\":\"uow\",\"transactionDate\":\"" + date + "\","
+                                    + "\"transactionType\":\"" + (income ? "INCOME" : "EXPENSE") + "\",\"accountId\":" + source + "}";
+
+                    if (post(httpClient, url + path, tenant, body)) {
+                        if (transfer) {
+                            expectedCents.get(source).addAndGet(-cents);
+                            expectedCents.get(target).addAndGet(cents);
+                        } else {
+                            expectedCents.get(source).addAndGet(income ? cents : -cents);
+                        }
+                    } else {
+                        failures.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        Map<String, Double> after = sampleMetrics(httpClient, url);
+        double commits = after.get("commits") - before.get("commits");
+        double statements = after.get("statements") - before.get("statements");
+
+        int mismatches = 0;
+        for (int accountId : accountIds) {
+            BigDecimal expected = INITIAL_BALANCE.add(BigDecimal.valueOf(expectedCents.get(accountId).get(), 2));
+            BigDecimal actual = readBalance(httpClient, url, tenant, accountId);
+            if (expected.compareTo(actual) != 0) {
+                mismatches++;
+                System.out.println("Account " + accountId + ": expected balance " + expected + ", actual " + actual);
+            }
+        }
+
+        System.out.println(String.format("%8s %8s %10s %12s %14s %12s %12s", "clients", "writes", "failed",
+                "commits/req", "statements/req", "writes/s", "mismatches"));
+        System.out.println(String.format("%8d %8d %10d %12.2f %14.2f %12.1f %12d", clients, writes, failures.get(),
+                commits / writes, statements / writes, writes / elapsedSeconds, mismatches));
+    }
+
+    private static boolean post(HttpClient httpClient, String url, String tenant, String body) {
+        try {
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .header("X-Tenant-Id", tenant)
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() < 300;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static int createAccount(HttpClient httpClient, String url, String tenant, String name) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/accounts"))
+                .header("Content-Type", "application/json")
+                .header("X-Tenant-Id", tenant)
+                .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"" + name + "\",\"initialBalance\":" + INITIAL_BALANCE + "}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = ID.matcher(response.body());
+        if (response.statusCode() >= 300 || !matcher.find()) {
+            throw new IllegalStateException("Could not create account " + name + ": " + response.statusCode() + " " + response.body());
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static BigDecimal readBalance(HttpClient httpClient, String url, String tenant, int accountId) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url + "/accounts/" + accountId))
+                .header("X-Tenant-Id", tenant)
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = BALANCE.matcher(response.body());
+        if (response.statusCode() >= 300 || !matcher.find()) {
+            throw new IllegalStateException("Could not read account " + accountId + ": " + response.statusCode() + " " + response.body());
+        }
+        return new BigDecimal(matcher.group(1));
+    }
+
+    /**
+     * Reads the committed transactions and the prepared statements from the actuator.
+     */
+    private static Map<String, Double> sampleMetrics(HttpClient httpClient, String url) throws IOException, InterruptedException {
+        Map<String, Double> values = new HashMap<>();
+        values.put("commits", sampleCount(httpClient, url + "/actuator/metrics/hibernate.transactions?tag=result:success"));
+        values.put("statements", sampleCount(httpClient, url + "/actuator/metrics/hibernate.statements?tag=status:prepared"));
+        return values;
+    }
+
+    private static double sampleCount(HttpClient httpClient, String metricUrl) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(metricUrl))
+                .timeout(Duration.ofSeconds(5)).build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = METRIC_COUNT.matcher(response.body());
+        return response.statusCode() == 200 && matcher.find() ? Double.parseDouble(matcher.group(1)) : 0;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
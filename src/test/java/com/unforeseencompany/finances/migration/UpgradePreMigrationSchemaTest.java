@@ -0,0 +1,139 @@
+package com.unforeseencompany.finances.migration;
+
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.service.AccountService;
+import com.unforeseencompany.finances.service.CashFlowService;
+import com.unforeseencompany.finances.service.TransferService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application on a database with the schema the first version created through ddl-auto=update, so
+ * Flyway baselines it at V2, V2_1 upgrades it and Hibernate validates the result.
+ * <p>
+ * Needs a disposable MySQL database, named by FINANCES_UPGRADE_TEST_DB_URL, whose tables it drops; the
+ * credentials are those of the application, DB_USERNAME and DB_PASSWORD.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "FINANCES_UPGRADE_TEST_DB_URL", matches = ".+")
+class UpgradePreMigrationSchemaTest {
+
+    private static final String URL = System.getenv("FINANCES_UPGRADE_TEST_DB_URL");
+
+    /**
+     * The tables of the first version as Hibernate created them, with its own names for the foreign keys.
+     */
+    private static final List<String> PRE_MIGRATION_SCHEMA = List.of(
+            "create table account (id integer not null auto_increment, balance decimal(38,2), created_at date, " +
+                    "initial_balance decimal(38,2), name varchar(255), primary key (id)) engine=InnoDB",
+            "create table cash_flow_transaction (id integer not null auto_increment, amount decimal(38,2) not null, " +
+                    "description varchar(255), transaction_date date not null, " +
+                    "transaction_type tinyint not null check (transaction_type between 0 and 2), account_id integer not null, " +
+                    "primary key (id)) engine=InnoDB",
+            "create table transfer_transaction (id integer not null auto_increment, amount decimal(38,2) not null, " +
+                    "description varchar(255), transaction_date date not null, " +
+                    "transaction_type tinyint not null check (transaction_type between 0 and 2), source_account_id integer not null, " +
+                    "target_account_id integer not null, primary key (id)) engine=InnoDB",
+            "alter table cash_flow_transaction add constraint FKkq3d1b6vg8qsl7rh6ys7mhj4r foreign key (account_id) references account (id)",
+            "alter table transfer_transaction add constraint FK8wdf5ks1bc2xbc9h0qmn2gcx4 foreign key (source_account_id) references account (id)",
+            "alter table transfer_transaction add constraint FKm1yy0i9n5cq9qdkt8d8lph1l0 foreign key (target_account_id) references account (id)",
+            "insert into account (id, balance, created_at, initial_balance, name) values " +
+                    "(1, 1150.00, '2023-01-02', 1000.00, 'Checking'), (2, 250.00, '2023-01-02', 200.00, 'Savings')",
+            "insert into cash_flow_transaction (amount, description, transaction_date, transaction_type, account_id) values " +
+                    "(250.00, 'Salary', '2023-01-31', 0, 1), (50.00, 'Groceries', '2023-02-03', 1, 1)",
+            "insert into transfer_transaction (amount, description, transaction_date, transaction_type, source_account_id, target_account_id) " +
+                    "values (50.00, 'Savings', '2023-02-05', 2, 1, 2)");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CashFlowService cashFlowService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @DynamicPropertySource
+    static void dataSource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @BeforeAll
+    static void createPreMigrationSchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, System.getenv("DB_USERNAME"), System.getenv("DB_PASSWORD"));
+             Statement statement = connection.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery("select table_name from information_schema.tables where table_schema = database()")) {
+                while (resultSet.next()) {
+                    tables.add(resultSet.getString(1));
+                }
+            }
+            statement.execute("set foreign_key_checks = 0");
+            for (String table : tables) {
+                statement.execute("drop table `" + table + "`");
+            }
+            statement.execute("set foreign_key_checks = 1");
+
+            for (String sql : PRE_MIGRATION_SCHEMA) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    void givesExistingRowsToTheDefaultTenant() {
+        for (String table : List.of("account", "cash_flow_transaction", "transfer_transaction")) {
+            assertEquals(List.of("default"), jdbcTemplate.queryForList("select distinct tenant_id from " + table, String.class), table);
+        }
+    }
+
+    @Test
+    void keepsTheLedgerVisibleWithoutATenantHeader() {
+        List<Account> accounts = accountService.getAllAccounts();
+        assertEquals(2, accounts.size());
+        assertEquals(0, new BigDecimal("1150.00").compareTo(accounts.stream()
+                .filter(account -> account.getName().equals("Checking")).findFirst().orElseThrow().getBalance()));
+        assertEquals(2, cashFlowService.getAllCashFlowTransactions().size());
+        assertEquals(1, transferService.getAllTransferTransactions().size());
+    }
+
+    @Test
+    void alignsMoneyColumnsWithTheMigrations() {
+        List<Integer> precisions = jdbcTemplate.queryForList("select numeric_precision from information_schema.columns " +
+                "where table_schema = database() and table_name in ('account', 'cash_flow_transaction', 'transfer_transaction') " +
+                "and data_type = 'decimal'", Integer.class);
+        assertEquals(4, precisions.size());
+        assertTrue(precisions.stream().allMatch(precision -> precision == 19), precisions.toString());
+    }
+
+    @Test
+    void createsTheTablesAndIndexesOfLaterVersions() {
+        for (String table : List.of("cash_flow_transaction_archive", "outbox_event", "audit_entry", "account_group", "archive_cutoff")) {
+            assertEquals(1, jdbcTemplate.queryForObject("select count(*) from information_schema.tables " +
+                    "where table_schema = database() and table_name = ?", Integer.class, table), table);
+        }
+        assertEquals(1, jdbcTemplate.queryForObject("select count(distinct index_name) from information_schema.statistics " +
+                "where table_schema = database() and index_name = 'idx_cash_flow_tenant_live_account_date'", Integer.class));
+    }
+}
@@ -0,0 +1,96 @@
+package com.unforeseencompany.finances.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenBucketTest {
+
+    private static final long REFILL = 100;
+
+    @Test
+    void admitsABurstOfTheCapacityThenAsksToWaitForTheNextToken() {
+        TokenBucket bucket = new TokenBucket(3, REFILL, 0);
+
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(0, bucket.tryConsume(0));
+        assertEquals(REFILL, bucket.tryConsume(0));
+        assertEquals(REFILL - 40, bucket.tryConsume(40));
+    }
+
+    @Test
+    void refillsOneTokenPerPeriod() {
+        TokenBucket bucket = new TokenBucket(3, REFILL, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(0);
+        }
+
+        assertEquals(0, bucket.tryConsume(REFILL));
+        assertEquals(REFILL, bucket.tryConsume(REFILL));
+        assertEquals(0, bucket.tryConsume(2 * REFILL));
+    }
+
+    @Test
+    void countsTheTokensLeft() {
+        TokenBucket bucket = new TokenBucket(3, REFILL, 0);
+        assertEquals(3, bucket.availableTokens(0));
+
+        bucket.tryConsume(0);
+        bucket.tryConsume(0);
+        assertEquals(1, bucket.availableTokens(0));
+        assertEquals(1, bucket.availableTokens(REFILL - 1));
+        assertEquals(2, bucket.availableTokens(REFILL));
+    }
+
+    @Test
+    void neverHoldsMoreThanItsCapacityAfterBeingIdle() {
+        TokenBucket bucket = new TokenBucket(3, REFILL, 0);
+        long later = 1_000 * REFILL;
+
+        assertEquals(3, bucket.availableTokens(later));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryConsume(later));
+        }
+        assertEquals(REFILL, bucket.tryConsume(later));
+        assertEquals(later, bucket.getLastUsed());
+    }
+
+    @Test
+    void admitsExactlyTheCapacityUnderContention() throws InterruptedException {
+        int capacity = 50;
+        TokenBucket bucket = new TokenBucket(capacity, REFILL, 0);
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < 100; j++) {
+                    if (bucket.tryConsume(0) == 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(capacity, admitted.get());
+    }
+}
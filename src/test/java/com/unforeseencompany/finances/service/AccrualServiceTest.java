@@ -0,0 +1,171 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.AccrualProperties;
+import com.unforeseencompany.finances.dto.accrual.AccrualRunReportDTO;
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.AccrualPostingRepository;
+import com.unforeseencompany.finances.repository.AccrualRuleRepository;
+import com.unforeseencompany.finances.service.accrual.AccrualBatchWriter;
+import com.unforeseencompany.finances.service.audit.AuditRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccrualServiceTest {
+
+    private static final YearMonth PERIOD = YearMonth.of(2024, 3);
+
+    private static final LocalDate PERIOD_END = PERIOD.atEndOfMonth();
+
+    private final AccrualRuleRepository accrualRuleRepository = mock(AccrualRuleRepository.class);
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    private final AccountService accountService = mock(AccountService.class);
+
+    private final ArchiveService archiveService = mock(ArchiveService.class);
+
+    private final AccrualBatchWriter accrualBatchWriter = mock(AccrualBatchWriter.class);
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+    /**
+     * For each archive check, whether it ran inside a transaction.
+     */
+    private final List<Boolean> archiveChecks = Collections.synchronizedList(new ArrayList<>());
+
+    private AccrualService accrualService;
+
+    @BeforeEach
+    void setUp() {
+        AccrualProperties accrualProperties = new AccrualProperties();
+        accrualProperties.setChunkSize(2);
+        accrualProperties.setParallelism(2);
+        accrualService = new AccrualService(accrualRuleRepository, mock(AccrualPostingRepository.class), accountRepository,
+                accountService, archiveService, accrualBatchWriter, mock(AuditRecorder.class),
+                mock(ApplicationEventPublisher.class), accrualProperties, transactionManager);
+
+        doAnswer(invocation -> archiveChecks.add(transactionManager.isActive()))
+                .when(archiveService).ensureNotArchived(PERIOD_END);
+        when(accountRepository.findAllIds()).thenReturn(List.of(1, 2, 3));
+        when(accrualRuleRepository.findUnposted(anyInt(), anyInt(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void checksTheArchiveCutoffInsideEveryChunkTransaction() {
+        AccrualRunReportDTO report = accrualService.accrue(PERIOD);
+
+        assertEquals(0, report.getRulesPosted());
+        // once up front, then once for each of the chunks [1, 2] and [3]
+        assertEquals(List.of(true, true, true), archiveChecks);
+        assertEquals(3, transactionManager.commits);
+        verify(accrualRuleRepository).findUnposted(1, 2, PERIOD.atDay(1), PERIOD_END);
+        verify(accrualRuleRepository).findUnposted(3, 3, PERIOD.atDay(1), PERIOD_END);
+    }
+
+    @Test
+    void rejectsAnArchivedMonthBeforeReadingAnyRule() {
+        doThrow(new IllegalArgumentException("archived")).when(archiveService).ensureNotArchived(PERIOD_END);
+
+        assertThrows(IllegalArgumentException.class, () -> accrualService.accrue(PERIOD));
+
+        verify(accountRepository, never()).findAllIds();
+        verify(accrualRuleRepository, never()).findUnposted(any(), any(), any(), any());
+    }
+
+    @Test
+    void reportsAMonthClosedDuringTheRunAsRejected() {
+        // the up front check passes, the first chunk finds the month closed
+        doAnswer(invocation -> archiveChecks.add(transactionManager.isActive()))
+                .doThrow(new IllegalArgumentException("archived"))
+                .when(archiveService).ensureNotArchived(PERIOD_END);
+
+        assertThrows(IllegalArgumentException.class, () -> accrualService.accrue(PERIOD));
+    }
+
+    @Test
+    void postsTheAccruedInterestAndCreditsTheAccount() {
+        Account account = new Account();
+        account.setId(3);
+        account.setInitialBalance(new BigDecimal("1000"));
+        AccrualRule rule = new AccrualRule();
+        rule.setId(7);
+        rule.setAccountId(3);
+        rule.setAccrualType(AccrualTypeEnum.INTEREST);
+        rule.setAnnualRate(new BigDecimal("0.0365"));
+        rule.setEffectiveFrom(PERIOD.atDay(1));
+        when(accrualRuleRepository.findUnposted(3, 3, PERIOD.atDay(1), PERIOD_END)).thenReturn(List.of(rule));
+        when(accountRepository.findAllById(anyCollection())).thenReturn(List.of(account));
+        when(accountRepository.findDailyBalances(anyString(), anyCollection(), any())).thenReturn(List.of());
+
+        AccrualRunReportDTO report = accrualService.accrue(PERIOD);
+
+        assertEquals(1, report.getRulesPosted());
+        assertEquals(1, report.getCashFlowsCreated());
+        assertEquals(new BigDecimal("3.10"), report.getTotalInterest());
+        verify(accrualBatchWriter).insertCashFlows(anyString(), argThat(
+                (List<CashFlow> cashFlows) -> cashFlows.size() == 1 && cashFlows.get(0).getTransactionDate().equals(PERIOD_END)));
+        verify(accountService).increaseBalance(eq(account), eq(new BigDecimal("3.10")), eq(PERIOD_END));
+    }
+
+    /**
+     * Tracks whether the calling thread is inside a transaction, as a real manager would bind one.
+     */
+    private static class RecordingTransactionManager implements PlatformTransactionManager {
+
+        private final ThreadLocal<Boolean> active = ThreadLocal.withInitial(() -> false);
+
+        private volatile int commits;
+
+        boolean isActive() {
+            return active.get();
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            active.set(true);
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public synchronized void commit(TransactionStatus status) {
+            active.set(false);
+            commits++;
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            active.set(false);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.config.AnomalyProperties;
+import com.unforeseencompany.finances.config.ArchiveProperties;
+import com.unforeseencompany.finances.dto.transaction.CashFlowDTO;
+import com.unforeseencompany.finances.enums.TransactionTypeEnum;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.archive.ArchiveCutoff;
+import com.unforeseencompany.finances.model.transaction.CashFlow;
+import com.unforeseencompany.finances.repository.AccountBalanceSnapshotRepository;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.ArchiveCutoffRepository;
+import com.unforeseencompany.finances.repository.ArchivedCashFlowRepository;
+import com.unforeseencompany.finances.repository.ArchivedTransferRepository;
+import com.unforeseencompany.finances.repository.ArchivedYearRepository;
+import com.unforeseencompany.finances.repository.CashFlowRepository;
+import com.unforeseencompany.finances.repository.TransferRepository;
+import com.unforeseencompany.finances.service.anomaly.AnomalyDetector;
+import com.unforeseencompany.finances.service.group.GroupTotalsPropagator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Writes against a closed year, with the archive cutoff kept by a stand-in for its table.
+ */
+class CashFlowServiceTest {
+
+    private static final int CLOSED_YEAR = 2020;
+
+    private final CashFlowRepository cashFlowRepository = mock(CashFlowRepository.class);
+
+    private final AccountService accountService = mock(AccountService.class);
+
+    private final ArchiveCutoffRepository archiveCutoffRepository = mock(ArchiveCutoffRepository.class);
+
+    private final AtomicReference<LocalDate> closedBefore = new AtomicReference<>(ArchiveService.EARLIEST_DATE);
+
+    private ArchiveService archiveService;
+
+    private CashFlowService cashFlowService;
+
+    private Account account;
+
+    @BeforeEach
+    void setUp() {
+        when(archiveCutoffRepository.findForShare(anyString())).thenAnswer(invocation -> {
+            ArchiveCutoff cutoff = new ArchiveCutoff();
+            cutoff.setTenantId(invocation.getArgument(0));
+            cutoff.setClosedBefore(closedBefore.get());
+            cutoff.setArchivedBefore(ArchiveService.EARLIEST_DATE);
+            return Optional.of(cutoff);
+        });
+        doAnswer(invocation -> {
+            closedBefore.set(invocation.getArgument(1));
+            return 1;
+        }).when(archiveCutoffRepository).close(anyString(), any());
+
+        archiveService = new ArchiveService(cashFlowRepository, mock(TransferRepository.class), mock(ArchivedCashFlowRepository.class),
+                mock(ArchivedTransferRepository.class), mock(AccountBalanceSnapshotRepository.class), mock(ArchivedYearRepository.class),
+                archiveCutoffRepository, mock(AccountRepository.class), mock(LedgerVersionService.class),
+                mock(GroupTotalsPropagator.class), new ArchiveProperties(), mock(ApplicationEventPublisher.class),
+                new NoOpTransactionManager());
+        cashFlowService = new CashFlowService(cashFlowRepository, accountService, mock(AccountRepository.class),
+                mock(ApplicationEventPublisher.class), archiveService, mock(AccountGroupService.class),
+                mock(AnomalyDetector.class), new AnomalyProperties());
+
+        account = new Account();
+        account.setId(1);
+        account.setBalance(new BigDecimal("100.00"));
+        when(accountService.findAccountById(1)).thenReturn(Optional.of(account));
+    }
+
+    @Test
+    void rejectsDeletingACashFlowOfAYearClosedAfterItWasRecorded() {
+        when(cashFlowRepository.findByIdForUpdate(5)).thenReturn(Optional.of(cashFlow(LocalDate.of(CLOSED_YEAR, 6, 15))));
+
+        archiveService.archiveThroughYear(CLOSED_YEAR);
+
+        assertThrows(IllegalArgumentException.class, () -> cashFlowService.deleteCashFlowById(5));
+        verify(cashFlowRepository, never()).delete(any());
+        verify(accountService, never()).decreaseBalance(any(), any(), any());
+    }
+
+    @Test
+    void rejectsMovingACashFlowOutOfAClosedYear() {
+        when(cashFlowRepository.findByIdForUpdate(5)).thenReturn(Optional.of(cashFlow(LocalDate.of(CLOSED_YEAR, 6, 15))));
+        archiveService.archiveThroughYear(CLOSED_YEAR);
+
+        CashFlowDTO moved = new CashFlowDTO(new BigDecimal("25.00"), null, LocalDate.of(CLOSED_YEAR + 2, 1, 10),
+                TransactionTypeEnum.INCOME, 1, null);
+
+        assertThrows(IllegalArgumentException.class, () -> cashFlowService.updateCashFlowTransaction(5, moved));
+        verify(accountService, never()).decreaseBalance(any(), any(), any());
+        verify(accountService, never()).increaseBalance(any(), any(), any());
+    }
+
+    @Test
+    void deletesACashFlowDatedOnTheCutoff() {
+        CashFlow cashFlow = cashFlow(LocalDate.of(CLOSED_YEAR + 1, 1, 1));
+        when(cashFlowRepository.findByIdForUpdate(5)).thenReturn(Optional.of(cashFlow));
+        archiveService.archiveThroughYear(CLOSED_YEAR);
+
+        assertTrue(cashFlowService.deleteCashFlowById(5));
+        verify(accountService).decreaseBalance(account, cashFlow.getAmount(), cashFlow.getTransactionDate());
+        verify(cashFlowRepository).delete(cashFlow);
+    }
+
+    private CashFlow cashFlow(LocalDate transactionDate) {
+        CashFlow cashFlow = new CashFlow();
+        cashFlow.setId(5);
+        cashFlow.setAccount(account);
+        cashFlow.setAmount(new BigDecimal("25.00"));
+        cashFlow.setTransactionDate(transactionDate);
+        cashFlow.setTransactionType(TransactionTypeEnum.INCOME);
+        return cashFlow;
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
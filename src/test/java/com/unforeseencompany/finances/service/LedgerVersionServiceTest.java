@@ -0,0 +1,119 @@
+package com.unforeseencompany.finances.service;
+
+import com.unforeseencompany.finances.event.AccountVersionChangeEvent;
+import com.unforeseencompany.finances.model.Account;
+import com.unforeseencompany.finances.model.LedgerVersion;
+import com.unforeseencompany.finances.repository.AccountRepository;
+import com.unforeseencompany.finances.repository.LedgerVersionRepository;
+import com.unforeseencompany.finances.tenant.TenantContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LedgerVersionServiceTest {
+
+    private final LedgerVersionRepository ledgerVersionRepository = mock(LedgerVersionRepository.class);
+
+    private final AccountRepository accountRepository = mock(AccountRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final LedgerVersionService ledgerVersionService = new LedgerVersionService(ledgerVersionRepository, accountRepository,
+            eventPublisher, mock(PlatformTransactionManager.class));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void bumpsTheAccountAtOnceAndTheLedgerOncePerTransactionBeforeItCommits() {
+        Account account = new Account();
+        account.setVersion(4);
+        when(ledgerVersionRepository.bump(TenantContext.DEFAULT_TENANT, 1)).thenReturn(1);
+        beginTransaction();
+
+        ledgerVersionService.accountChanged(account);
+        ledgerVersionService.accountChanged(account);
+        ledgerVersionService.accountsChanged();
+
+        assertEquals(6, account.getVersion());
+        verify(ledgerVersionRepository, never()).bump(TenantContext.DEFAULT_TENANT, 1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+        verify(ledgerVersionRepository).bump(TenantContext.DEFAULT_TENANT, 1);
+        verify(ledgerVersionRepository, never()).insertIfAbsent(TenantContext.DEFAULT_TENANT);
+    }
+
+    @Test
+    void createsTheVersionRowOfATenantsFirstWrite() {
+        beginTransaction();
+
+        ledgerVersionService.ledgerChanged();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.beforeCommit(false);
+        }
+
+        verify(ledgerVersionRepository).insertIfAbsent(TenantContext.DEFAULT_TENANT);
+    }
+
+    @Test
+    void publishesTheVersionsEachAccountWentThroughOnceCommitted() {
+        Account account = new Account();
+        account.setId(7);
+        account.setVersion(4);
+        beginTransaction();
+
+        ledgerVersionService.accountChanged(account, LocalDate.of(2024, 5, 20));
+        ledgerVersionService.accountChanged(account, LocalDate.of(2024, 3, 1));
+        ledgerVersionService.accountChanged(account);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<AccountVersionChangeEvent> event = ArgumentCaptor.forClass(AccountVersionChangeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(7, event.getValue().getAccountId());
+        assertEquals(4, event.getValue().getFromVersion());
+        assertEquals(7, event.getValue().getToVersion());
+        assertEquals(LocalDate.of(2024, 3, 1), event.getValue().getAffectedFrom());
+    }
+
+    @Test
+    void buildsTheETagsFromThePersistedVersions() {
+        LedgerVersion version = new LedgerVersion();
+        version.setLedgerVersion(12);
+        version.setAccountGeneration(2);
+        when(ledgerVersionRepository.findById(TenantContext.DEFAULT_TENANT)).thenReturn(Optional.of(version));
+        when(accountRepository.findVersion(7)).thenReturn(Optional.of(3L));
+
+        assertEquals("\"default-12\"", ledgerVersionService.ledgerETag());
+        assertEquals("\"default-12-full\"", ledgerVersionService.ledgerETag("full"));
+        assertEquals("\"default-a7-2.3\"", ledgerVersionService.accountETag(7));
+        assertNotEquals(ledgerVersionService.accountETag(7), ledgerVersionService.accountETag(8));
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+}
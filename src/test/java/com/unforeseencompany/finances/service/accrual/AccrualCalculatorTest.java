@@ -0,0 +1,97 @@
+package com.unforeseencompany.finances.service.accrual;
+
+import com.unforeseencompany.finances.enums.AccrualTypeEnum;
+import com.unforeseencompany.finances.model.accrual.AccrualRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccrualCalculatorTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 3, 1);
+
+    private static final LocalDate TO = LocalDate.of(2024, 3, 31);
+
+    /**
+     * 3.65% over 365 days: 0.0001 per balance-day, so the expected amounts read off the balance-days.
+     */
+    private static final BigDecimal RATE = new BigDecimal("0.0365");
+
+    @Test
+    void accruesAConstantBalanceOverEveryDayOfTheMonth() {
+        AccrualRule rule = rule(AccrualTypeEnum.INTEREST, null, FROM);
+
+        // 1000 for 31 days
+        assertEquals(new BigDecimal("3.10"), accrue(rule, "1000", List.of()));
+    }
+
+    @Test
+    void holdsEachBalanceFromTheDayItWasReachedUntilTheNextChange() {
+        AccrualRule rule = rule(AccrualTypeEnum.INTEREST, null, FROM);
+
+        // 1000 for the 1st to the 10th, 2000 for the 11th to the 31st
+        assertEquals(new BigDecimal("5.20"), accrue(rule, "1000",
+                List.of(new DailyBalance(LocalDate.of(2024, 3, 11), new BigDecimal("2000")))));
+    }
+
+    @Test
+    void startsFromTheLastChangeUpToTheFirstDay() {
+        AccrualRule rule = rule(AccrualTypeEnum.INTEREST, null, FROM);
+
+        // the balance of the 1st holds for the whole month
+        assertEquals(new BigDecimal("2.17"), accrue(rule, "1000", List.of(
+                new DailyBalance(LocalDate.of(2024, 2, 20), new BigDecimal("500")),
+                new DailyBalance(FROM, new BigDecimal("700")))));
+    }
+
+    @Test
+    void accruesFromTheRuleEffectiveDateInTheMiddleOfTheMonth() {
+        AccrualRule rule = rule(AccrualTypeEnum.INTEREST, null, LocalDate.of(2024, 3, 16));
+
+        // 2000, reached on the 11th, for the 16th to the 31st
+        assertEquals(new BigDecimal("3.20"), accrue(rule, "1000",
+                List.of(new DailyBalance(LocalDate.of(2024, 3, 11), new BigDecimal("2000")))));
+    }
+
+    @Test
+    void chargesFeesOnWhatIsOwedPlusTheMonthlyFee() {
+        AccrualRule rule = rule(AccrualTypeEnum.FEE, new BigDecimal("5.00"), FROM);
+
+        // 1000 owed for the 1st to the 10th, nothing once paid off
+        assertEquals(new BigDecimal("6.00"), accrue(rule, "-1000",
+                List.of(new DailyBalance(LocalDate.of(2024, 3, 11), new BigDecimal("500")))));
+    }
+
+    @Test
+    void paysNoInterestOnNegativeBalances() {
+        AccrualRule rule = rule(AccrualTypeEnum.INTEREST, null, FROM);
+
+        assertEquals(new BigDecimal("0.00"), accrue(rule, "-1000", List.of()));
+    }
+
+    @Test
+    void roundsOnceToTheCentHalfToEven() {
+        AccrualRule lastDay = rule(AccrualTypeEnum.INTEREST, null, TO);
+
+        // 0.005 and 0.015 exactly
+        assertEquals(new BigDecimal("0.00"), accrue(lastDay, "50", List.of()));
+        assertEquals(new BigDecimal("0.02"), accrue(lastDay, "150", List.of()));
+    }
+
+    private static BigDecimal accrue(AccrualRule rule, String openingBalance, List<DailyBalance> changes) {
+        return AccrualCalculator.accrue(rule, new BigDecimal(openingBalance), changes, FROM, TO, 365);
+    }
+
+    private static AccrualRule rule(AccrualTypeEnum accrualType, BigDecimal monthlyFee, LocalDate effectiveFrom) {
+        AccrualRule rule = new AccrualRule();
+        rule.setAccrualType(accrualType);
+        rule.setAnnualRate(RATE);
+        rule.setMonthlyFee(monthlyFee);
+        rule.setEffectiveFrom(effectiveFrom);
+        return rule;
+    }
+}
@@ -0,0 +1,58 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int CAPACITY = 1_000;
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    void containsNothingWhenEmpty() {
+        BloomFilter filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        SplittableRandom random = new SplittableRandom(1);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertFalse(filter.mightContain(random.nextLong()));
+        }
+    }
+
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        long[] hashes = new SplittableRandom(2).longs(CAPACITY).toArray();
+
+        for (long hash : hashes) {
+            filter.add(hash);
+        }
+        for (long hash : hashes) {
+            assertTrue(filter.mightContain(hash));
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheRateItWasSizedFor() {
+        BloomFilter filter = new BloomFilter(CAPACITY, FALSE_POSITIVE_RATE);
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.add(random.nextLong());
+        }
+
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(random.nextLong())) {
+                falsePositives++;
+            }
+        }
+
+        double rate = (double) falsePositives / probes;
+        assertTrue(rate < 2 * FALSE_POSITIVE_RATE, "false positive rate " + rate);
+    }
+}
@@ -0,0 +1,54 @@
+package com.unforeseencompany.finances.service.anomaly;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RunningStatsTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    void startsEmpty() {
+        RunningStats stats = new RunningStats();
+
+        assertEquals(0, stats.count());
+        assertEquals(0, stats.mean(), DELTA);
+        assertEquals(0, stats.standardDeviation(), DELTA);
+    }
+
+    @Test
+    void hasNoDeviationForASingleValue() {
+        RunningStats stats = new RunningStats();
+        stats.add(42);
+
+        assertEquals(1, stats.count());
+        assertEquals(42, stats.mean(), DELTA);
+        assertEquals(0, stats.standardDeviation(), DELTA);
+    }
+
+    @Test
+    void computesTheMeanAndSampleStandardDeviation() {
+        RunningStats stats = new RunningStats();
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            stats.add(value);
+        }
+
+        // squared deviations from the mean of 5 add up to 32
+        assertEquals(8, stats.count());
+        assertEquals(5, stats.mean(), DELTA);
+        assertEquals(Math.sqrt(32.0 / 7), stats.standardDeviation(), DELTA);
+    }
+
+    @Test
+    void staysAccurateFarFromZero() {
+        RunningStats stats = new RunningStats();
+        double offset = 1e9;
+        for (double value : new double[]{4, 7, 13, 16}) {
+            stats.add(offset + value);
+        }
+
+        assertEquals(offset + 10, stats.mean(), 1e-6);
+        assertEquals(Math.sqrt(30), stats.standardDeviation(), 1e-6);
+    }
+}
@@ -0,0 +1,116 @@
+package com.unforeseencompany.finances.service.forecast;
+
+import com.unforeseencompany.finances.enums.RecurrencePeriodEnum;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ForecastEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 20);
+
+    private static final long SALARY = 300_000;
+
+    private final ForecastEngine engine = new ForecastEngine(3);
+
+    @Test
+    void extendsAMonthlySeriesToTheHorizon() {
+        AccountHistory history = salaries(new AccountHistory.Builder(1)).build();
+
+        AccountForecast forecast = engine.forecast(history, 1_000_000, TODAY, 3);
+
+        assertEquals(1_000_000, forecast.getCurrentBalance());
+        assertArrayEquals(new LocalDate[]{LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 30), LocalDate.of(2024, 5, 31)},
+                forecast.getPointDates());
+        assertArrayEquals(new long[]{1_300_000, 1_600_000, 1_900_000}, forecast.getPointBalances());
+
+        RecurringPattern pattern = forecast.getPatterns().get(0);
+        assertEquals(RecurrencePeriodEnum.MONTHLY, pattern.getPeriod());
+        assertEquals(SALARY, pattern.getAmount());
+        assertEquals(LocalDate.of(2024, 2, 25), pattern.getLastDate());
+        assertEquals(5, pattern.getOccurrences());
+    }
+
+    @Test
+    void replaysFutureDatedTransactionsOnTheirDates() {
+        AccountHistory history = new AccountHistory.Builder(1)
+                .addOneOff(day(2024, 4, 10), -50_000)
+                .addOneOff(day(2024, 7, 1), -10_000)
+                .build();
+
+        // the recorded balance already includes both
+        AccountForecast forecast = engine.forecast(history, 940_000, TODAY, 3);
+
+        assertEquals(1_000_000, forecast.getCurrentBalance());
+        assertArrayEquals(new long[]{1_000_000, 950_000, 950_000}, forecast.getPointBalances());
+    }
+
+    @Test
+    void doesNotProjectAnOccurrenceThatIsAlreadyAFutureDatedTransaction() {
+        AccountHistory history = salaries(new AccountHistory.Builder(1))
+                .addCashFlow(day(2024, 3, 25), SALARY, "Salary")
+                .build();
+
+        AccountForecast forecast = engine.forecast(history, 1_300_000, TODAY, 3);
+
+        assertEquals(1_000_000, forecast.getCurrentBalance());
+        assertArrayEquals(new long[]{1_300_000, 1_600_000, 1_900_000}, forecast.getPointBalances());
+        assertEquals(day(2024, 3, 25), forecast.getPatterns().get(0).getLastKnownEpochDay());
+    }
+
+    @Test
+    void ignoresSeriesThatEnded() {
+        AccountHistory.Builder builder = new AccountHistory.Builder(1);
+        for (int month = 6; month <= 10; month++) {
+            builder.addCashFlow(day(2023, month, 5), -5_000, "Gym");
+        }
+
+        assertTrue(engine.detectPatterns(builder.build(), day(TODAY)).isEmpty());
+    }
+
+    @Test
+    void ignoresSeriesWithIrregularAmounts() {
+        AccountHistory.Builder builder = new AccountHistory.Builder(1);
+        long[] amounts = {-1_000, -5_000, -20_000, -300, -9_000};
+        for (int i = 0; i < amounts.length; i++) {
+            builder.addCashFlow(day(LocalDate.of(2023, 10, 12).plusMonths(i)), amounts[i], "Groceries");
+        }
+
+        assertTrue(engine.detectPatterns(builder.build(), day(TODAY)).isEmpty());
+    }
+
+    @Test
+    void needsTheMinimumNumberOfOccurrences() {
+        AccountHistory history = new AccountHistory.Builder(1)
+                .addCashFlow(day(2024, 1, 25), SALARY, "Salary")
+                .addCashFlow(day(2024, 2, 25), SALARY, "Salary")
+                .build();
+
+        List<RecurringPattern> patterns = engine.detectPatterns(history, day(TODAY));
+
+        assertTrue(patterns.isEmpty());
+    }
+
+    /**
+     * Adds a salary on the 25th of October to February.
+     */
+    private static AccountHistory.Builder salaries(AccountHistory.Builder builder) {
+        for (int i = 0; i < 5; i++) {
+            builder.addCashFlow(day(LocalDate.of(2023, 10, 25).plusMonths(i)), SALARY, "Salary");
+        }
+        return builder;
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return day(LocalDate.of(year, month, dayOfMonth));
+    }
+
+    private static int day(LocalDate date) {
+        return (int) date.toEpochDay();
+    }
+}
@@ -0,0 +1,71 @@
+package com.unforeseencompany.finances.service.timeseries;
+
+import com.unforeseencompany.finances.config.TimeSeriesProperties;
+import com.unforeseencompany.finances.event.AccountVersionChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceSeriesCacheTest {
+
+    private static final String TENANT = "acme";
+
+    private static final LocalDate WRITE_DATE = LocalDate.of(2024, 3, 1);
+
+    private final BalanceSeriesCache cache = new BalanceSeriesCache(new TimeSeriesProperties());
+
+    private final BalanceSeries series = new BalanceSeries(0, new int[]{(int) WRITE_DATE.toEpochDay() - 10}, new long[]{500});
+
+    @Test
+    void servesASeriesOnlyAtTheVersionsItWasComputedAt() {
+        cache.put(TENANT, 1, 0, 2, 5, null, series);
+
+        assertSame(series, cache.get(TENANT, 1, 2, 5));
+        // written through another instance
+        assertNull(cache.get(TENANT, 1, 2, 6));
+        assertNull(cache.get(TENANT, 1, 3, 5));
+    }
+
+    @Test
+    void followsAWriteOfThisInstanceByTruncatingTheDaysItChanged() {
+        cache.put(TENANT, 1, 0, 2, 5, null, series);
+
+        cache.onAccountVersionChange(new AccountVersionChangeEvent(TENANT, 1, 5, 7, WRITE_DATE));
+
+        assertNull(cache.get(TENANT, 1, 2, 5));
+        BalanceSeries truncated = cache.get(TENANT, 1, 2, 7);
+        assertFalse(truncated.isValid());
+        assertEquals(WRITE_DATE.toEpochDay(), truncated.getValidUntil());
+    }
+
+    @Test
+    void dropsASeriesThatMissedAWriteOfAnotherInstance() {
+        cache.put(TENANT, 1, 0, 2, 5, null, series);
+
+        cache.onAccountVersionChange(new AccountVersionChangeEvent(TENANT, 1, 6, 7, WRITE_DATE));
+
+        assertNull(cache.get(TENANT, 1, 2, 7));
+        assertNull(cache.get(TENANT, 1, 2, 5));
+    }
+
+    @Test
+    void replacesASeriesOfOlderVersionsButNotOneThatMovedOn() {
+        cache.put(TENANT, 1, 0, 2, 5, null, series);
+        BalanceSeries recomputed = new BalanceSeries(0, new int[0], new long[0]);
+
+        cache.put(TENANT, 1, 0, 2, 6, null, recomputed);
+        assertSame(recomputed, cache.get(TENANT, 1, 2, 6));
+
+        // computed from the series at version 6, which a write of this instance has since moved to 7
+        cache.onAccountVersionChange(new AccountVersionChangeEvent(TENANT, 1, 6, 7, null));
+        cache.put(TENANT, 1, 0, 2, 6, recomputed, series);
+        assertSame(recomputed, cache.get(TENANT, 1, 2, 7));
+        assertTrue(cache.get(TENANT, 1, 2, 7).isValid());
+    }
+}
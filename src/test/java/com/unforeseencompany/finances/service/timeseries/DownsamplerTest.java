@@ -0,0 +1,69 @@
+package com.unforeseencompany.finances.service.timeseries;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DownsamplerTest {
+
+    /**
+     * A Wednesday.
+     */
+    private static final LocalDate WEDNESDAY = LocalDate.of(2024, 1, 3);
+
+    @Test
+    void keepsEveryDay() {
+        assertArrayEquals(new int[]{0, 1, 2, 3}, Downsampler.daily(4));
+        assertArrayEquals(new int[0], Downsampler.daily(0));
+    }
+
+    @Test
+    void keepsEverySundayAndClosesTheLastWeekOnTheLastDay() {
+        // Sundays the 7th and the 14th, then Tuesday the 16th
+        assertArrayEquals(new int[]{4, 11, 13}, Downsampler.weekly(WEDNESDAY, 14));
+    }
+
+    @Test
+    void doesNotRepeatALastDayThatIsASunday() {
+        assertArrayEquals(new int[]{4, 11}, Downsampler.weekly(WEDNESDAY, 12));
+        assertArrayEquals(new int[0], Downsampler.weekly(WEDNESDAY, 0));
+    }
+
+    @Test
+    void keepsTheLastDayOfEveryMonthAndClosesTheLastMonthOnTheLastDay() {
+        // January 31st, February 29th of a leap year, then March 14th
+        assertArrayEquals(new int[]{16, 45, 59}, Downsampler.monthly(LocalDate.of(2024, 1, 15), 60));
+        assertArrayEquals(new int[]{0}, Downsampler.monthly(LocalDate.of(2024, 1, 31), 1));
+    }
+
+    @Test
+    void keepsEveryDayWhenThereAreNoMoreThanTheThreshold() {
+        long[] balances = {5, 3, 8};
+        assertArrayEquals(new int[]{0, 1, 2}, Downsampler.lttb(balances, 3));
+        assertArrayEquals(new int[]{0, 1, 2}, Downsampler.lttb(balances, 10));
+        assertArrayEquals(new int[]{0, 1, 2}, Downsampler.lttb(balances, 2));
+    }
+
+    @Test
+    void keepsTheEndsAndThePeaksWithinTheThreshold() {
+        long[] balances = new long[100];
+        balances[37] = 1000;
+        balances[73] = -1000;
+
+        int[] sampled = Downsampler.lttb(balances, 10);
+
+        assertEquals(10, sampled.length);
+        assertEquals(0, sampled[0]);
+        assertEquals(99, sampled[9]);
+        for (int i = 1; i < sampled.length; i++) {
+            assertTrue(sampled[i] > sampled[i - 1], Arrays.toString(sampled));
+        }
+        assertTrue(Arrays.stream(sampled).anyMatch(index -> index == 37), Arrays.toString(sampled));
+        assertTrue(Arrays.stream(sampled).anyMatch(index -> index == 73), Arrays.toString(sampled));
+    }
+}
@@ -0,0 +1,96 @@
+package com.unforeseencompany.finances.tenant;
+
+import com.unforeseencompany.finances.config.TenantProperties;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TenantFilterTest {
+
+    private static final String PROXY = "10.0.0.10";
+
+    private final TenantFilter filter;
+
+    TenantFilterTest() {
+        TenantProperties tenantProperties = new TenantProperties();
+        tenantProperties.setTrustedProxies(List.of(PROXY));
+        filter = new TenantFilter(tenantProperties);
+    }
+
+    @Test
+    void runsTheRequestAsTheTenantNamedByATrustedProxy() throws Exception {
+        AtomicReference<String> tenantId = new AtomicReference<>();
+
+        MockHttpServletResponse response = filter(request(PROXY, "acme"),
+                (request, servletResponse) -> tenantId.set(TenantContext.getTenantId()));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("acme", tenantId.get());
+        assertEquals(TenantContext.DEFAULT_TENANT, TenantContext.getTenantId());
+    }
+
+    @Test
+    void rejectsATenantNamedByAnyoneElse() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(request("192.168.1.7", "acme"), chain);
+
+        assertEquals(403, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void rejectsARequestNamingNoTenantInsteadOfRunningItAsTheDefault() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(request(PROXY, null), chain);
+
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void rejectsAnInvalidTenant() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(request(PROXY, "acme;drop"), chain);
+
+        assertEquals(400, response.getStatus());
+        assertNull(chain.getRequest());
+    }
+
+    @Test
+    void servesTheActuatorWithoutATenant() throws Exception {
+        MockHttpServletRequest request = request("192.168.1.7", null);
+        request.setRequestURI("/actuator/health");
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(request, chain);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(request, chain.getRequest());
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress, String tenantId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/accounts");
+        request.setRemoteAddr(remoteAddress);
+        if (tenantId != null) {
+            request.addHeader(TenantContext.TENANT_HEADER, tenantId);
+        }
+        return request;
+    }
+}